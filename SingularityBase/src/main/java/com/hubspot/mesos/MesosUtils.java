@@ -120,64 +120,13 @@ public final class MesosUtils {
   }
 
   public static Resource getPortsResource(int numPorts, List<Resource> resources, List<Long> otherRequestedPorts) {
-    List<Long> requestedPorts = new ArrayList<>(otherRequestedPorts);
-    Ranges ranges = getRanges(resources, PORTS);
-
-    Preconditions.checkState(ranges.getRangeCount() > 0, "Ports %s should have existed in resources %s", PORTS, resources);
-
-    Ranges.Builder rangesBldr = Ranges.newBuilder();
-
-    int portsSoFar = 0;
-
-    List<Range> offerRangeList = Lists.newArrayList(ranges.getRangeList());
-
-    Random random = new Random();
-    Collections.shuffle(offerRangeList, random);
-
-    if (numPorts > 0) {
-      for (Range range : offerRangeList) {
-        long rangeStartSelection = Math.max(range.getBegin(), range.getEnd() - (numPorts - portsSoFar + 1));
-
-        if (rangeStartSelection != range.getBegin()) {
-          int rangeDelta = (int) (rangeStartSelection - range.getBegin()) + 1;
-          rangeStartSelection = random.nextInt(rangeDelta) + range.getBegin();
-        }
-
-        long rangeEndSelection = Math.min(range.getEnd(), rangeStartSelection + (numPorts - portsSoFar - 1));
-
-        rangesBldr.addRange(Range.newBuilder()
-          .setBegin(rangeStartSelection)
-          .setEnd(rangeEndSelection));
-
-        portsSoFar += (rangeEndSelection - rangeStartSelection) + 1;
-
-        List<Long> toRemove = new ArrayList<>();
-        for (long port : requestedPorts) {
-          if (rangeStartSelection >= port && rangeEndSelection <= port) {
-            toRemove.add(port);
-            portsSoFar--;
-          }
-        }
-        requestedPorts.removeAll(toRemove);
-
-        if (portsSoFar == numPorts) {
-          break;
-        }
-      }
-    }
+    return getPortsResource(numPorts, PortRanges.fromResources(resources), otherRequestedPorts);
+  }
 
-    for (long port : requestedPorts) {
-      rangesBldr.addRange(Range.newBuilder()
-          .setBegin(port)
-          .setEnd(port)
-          .build());
-    }
+  public static Resource getPortsResource(int numPorts, PortRanges availablePorts, List<Long> otherRequestedPorts) {
+    Preconditions.checkState(!availablePorts.isEmpty(), "Ports %s should have existed in %s", PORTS, availablePorts);
 
-    return Resource.newBuilder()
-        .setType(Type.RANGES)
-        .setName(PORTS)
-        .setRanges(rangesBldr)
-        .build();
+    return availablePorts.select(numPorts, otherRequestedPorts, new Random());
   }
 
   private static Resource newScalar(String name, double value) {
@@ -213,6 +162,10 @@ public final class MesosUtils {
   }
 
   public static boolean doesOfferMatchResources(Resources resources, List<Resource> offerResources, List<Long> otherRequestedPorts) {
+    return doesOfferMatchResources(resources, offerResources, PortRanges.fromResources(offerResources), otherRequestedPorts);
+  }
+
+  public static boolean doesOfferMatchResources(Resources resources, List<Resource> offerResources, PortRanges offerPorts, List<Long> otherRequestedPorts) {
     double numCpus = getNumCpus(offerResources);
 
     if (numCpus < resources.getCpus()) {
@@ -225,13 +178,7 @@ public final class MesosUtils {
       return false;
     }
 
-    int numPorts = getNumPorts(offerResources);
-
-    if (numPorts < resources.getNumPorts()) {
-      return false;
-    }
-
-    if (!getAllPorts(offerResources).containsAll(otherRequestedPorts)) {
+    if (!offerPorts.canSelect(resources.getNumPorts(), otherRequestedPorts)) {
       return false;
     }
 
@@ -0,0 +1,319 @@
+package com.hubspot.mesos;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.mesos.Protos.Resource;
+import org.apache.mesos.Protos.Value.Range;
+import org.apache.mesos.Protos.Value.Ranges;
+import org.apache.mesos.Protos.Value.Type;
+
+/**
+ * Mutable set of port intervals, stored as sorted, non-overlapping and non-adjacent [begin, end] pairs in primitive arrays.
+ *
+ * Lets offer matching check port availability and consume ports without expanding ranges into individual port numbers.
+ */
+public class PortRanges {
+
+  private static final int DEFAULT_CAPACITY = 4;
+
+  private long[] begins;
+  private long[] ends;
+  private int size;
+  private long numPorts;
+
+  public PortRanges() {
+    this.begins = new long[DEFAULT_CAPACITY];
+    this.ends = new long[DEFAULT_CAPACITY];
+    this.size = 0;
+    this.numPorts = 0;
+  }
+
+  public static PortRanges fromResources(List<Resource> resources) {
+    final PortRanges portRanges = new PortRanges();
+
+    for (Resource resource : resources) {
+      if (resource.hasName() && resource.getName().equals(MesosUtils.PORTS) && resource.hasRanges()) {
+        portRanges.addAll(resource.getRanges());
+      }
+    }
+
+    return portRanges;
+  }
+
+  public PortRanges copy() {
+    final PortRanges copy = new PortRanges();
+    copy.begins = Arrays.copyOf(begins, Math.max(size, DEFAULT_CAPACITY));
+    copy.ends = Arrays.copyOf(ends, Math.max(size, DEFAULT_CAPACITY));
+    copy.size = size;
+    copy.numPorts = numPorts;
+    return copy;
+  }
+
+  public long getNumPorts() {
+    return numPorts;
+  }
+
+  public int getNumRanges() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean contains(long port) {
+    final int idx = indexOfFirstEndAtLeast(port);
+    return idx < size && begins[idx] <= port;
+  }
+
+  public boolean containsAll(List<Long> ports) {
+    for (int i = 0; i < ports.size(); i++) {
+      if (!contains(ports.get(i))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @return true if numPorts ports can be selected in addition to (and distinct from) every one of the literal ports
+   */
+  public boolean canSelect(int numPorts, List<Long> literalPorts) {
+    if (!containsAll(literalPorts)) {
+      return false;
+    }
+
+    return this.numPorts - countDistinct(literalPorts) >= numPorts;
+  }
+
+  public void addAll(Ranges ranges) {
+    for (Range range : ranges.getRangeList()) {
+      add(range.getBegin(), range.getEnd());
+    }
+  }
+
+  public void add(long begin, long end) {
+    if (end < begin) {
+      return;
+    }
+
+    int idx = indexOfFirstEndAtLeast(begin - 1);
+    long newBegin = begin;
+    long newEnd = end;
+    int last = idx;
+
+    while (last < size && begins[last] <= end + 1) {
+      newBegin = Math.min(newBegin, begins[last]);
+      newEnd = Math.max(newEnd, ends[last]);
+      numPorts -= ends[last] - begins[last] + 1;
+      last++;
+    }
+
+    replace(idx, last, newBegin, newEnd);
+    numPorts += newEnd - newBegin + 1;
+  }
+
+  public void removeAll(Ranges ranges) {
+    for (Range range : ranges.getRangeList()) {
+      remove(range.getBegin(), range.getEnd());
+    }
+  }
+
+  public void remove(long begin, long end) {
+    if (end < begin) {
+      return;
+    }
+
+    int idx = indexOfFirstEndAtLeast(begin);
+
+    while (idx < size && begins[idx] <= end) {
+      final long currentBegin = begins[idx];
+      final long currentEnd = ends[idx];
+
+      numPorts -= Math.min(end, currentEnd) - Math.max(begin, currentBegin) + 1;
+
+      if (currentBegin < begin && currentEnd > end) {
+        ends[idx] = begin - 1;
+        insert(idx + 1, end + 1, currentEnd);
+        return;
+      } else if (currentBegin < begin) {
+        ends[idx] = begin - 1;
+        idx++;
+      } else if (currentEnd > end) {
+        begins[idx] = end + 1;
+        return;
+      } else {
+        delete(idx);
+      }
+    }
+  }
+
+  /**
+   * Picks numPorts ports (randomly placed within the available ranges, avoiding the literal ports) and returns them followed by the literal
+   * ports as a single ports resource. The dynamically selected ports always come first so that {@link MesosUtils#getPorts(Resource, int)}
+   * returns only those. Does not modify this set.
+   */
+  public Resource select(int numPorts, List<Long> literalPorts, Random random) {
+    final long[] sortedLiteralPorts = toSortedArray(literalPorts);
+    final Ranges.Builder rangesBldr = Ranges.newBuilder();
+
+    int remaining = numPorts;
+
+    if (remaining > 0 && size > 0) {
+      final int offset = random.nextInt(size);
+
+      for (int i = 0; i < size && remaining > 0; i++) {
+        final int idx = (offset + i) % size;
+
+        long segmentBegin = begins[idx];
+
+        for (long literalPort : sortedLiteralPorts) {
+          if (literalPort < segmentBegin || literalPort > ends[idx]) {
+            continue;
+          }
+
+          remaining = select(rangesBldr, segmentBegin, literalPort - 1, remaining, random);
+          segmentBegin = literalPort + 1;
+        }
+
+        remaining = select(rangesBldr, segmentBegin, ends[idx], remaining, random);
+      }
+    }
+
+    for (long literalPort : sortedLiteralPorts) {
+      rangesBldr.addRange(Range.newBuilder().setBegin(literalPort).setEnd(literalPort));
+    }
+
+    return Resource.newBuilder()
+        .setType(Type.RANGES)
+        .setName(MesosUtils.PORTS)
+        .setRanges(rangesBldr)
+        .build();
+  }
+
+  public Resource toResource() {
+    final Ranges.Builder rangesBldr = Ranges.newBuilder();
+
+    for (int i = 0; i < size; i++) {
+      rangesBldr.addRange(Range.newBuilder().setBegin(begins[i]).setEnd(ends[i]));
+    }
+
+    return Resource.newBuilder()
+        .setType(Type.RANGES)
+        .setName(MesosUtils.PORTS)
+        .setRanges(rangesBldr)
+        .build();
+  }
+
+  private static int select(Ranges.Builder rangesBldr, long begin, long end, int remaining, Random random) {
+    if (remaining <= 0 || end < begin) {
+      return remaining;
+    }
+
+    final long available = end - begin + 1;
+    final int toTake = (int) Math.min(available, remaining);
+    final long start = begin + (long) random.nextInt((int) Math.min(available - toTake + 1, Integer.MAX_VALUE));
+
+    rangesBldr.addRange(Range.newBuilder().setBegin(start).setEnd(start + toTake - 1));
+
+    return remaining - toTake;
+  }
+
+  private static int countDistinct(List<Long> ports) {
+    return toSortedArray(ports).length;
+  }
+
+  private static long[] toSortedArray(List<Long> ports) {
+    if (ports.isEmpty()) {
+      return new long[0];
+    }
+
+    final long[] sorted = new long[ports.size()];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = ports.get(i);
+    }
+    Arrays.sort(sorted);
+
+    int distinct = 1;
+    for (int i = 1; i < sorted.length; i++) {
+      if (sorted[i] != sorted[distinct - 1]) {
+        sorted[distinct++] = sorted[i];
+      }
+    }
+
+    return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+  }
+
+  private int indexOfFirstEndAtLeast(long port) {
+    int low = 0;
+    int high = size;
+
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+
+      if (ends[mid] < port) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    return low;
+  }
+
+  private void replace(int from, int to, long begin, long end) {
+    if (from == to) {
+      insert(from, begin, end);
+      return;
+    }
+
+    begins[from] = begin;
+    ends[from] = end;
+
+    final int removed = to - from - 1;
+
+    if (removed > 0) {
+      System.arraycopy(begins, to, begins, from + 1, size - to);
+      System.arraycopy(ends, to, ends, from + 1, size - to);
+      size -= removed;
+    }
+  }
+
+  private void insert(int idx, long begin, long end) {
+    if (size == begins.length) {
+      begins = Arrays.copyOf(begins, size * 2);
+      ends = Arrays.copyOf(ends, size * 2);
+    }
+
+    System.arraycopy(begins, idx, begins, idx + 1, size - idx);
+    System.arraycopy(ends, idx, ends, idx + 1, size - idx);
+
+    begins[idx] = begin;
+    ends[idx] = end;
+    size++;
+  }
+
+  private void delete(int idx) {
+    System.arraycopy(begins, idx + 1, begins, idx, size - idx - 1);
+    System.arraycopy(ends, idx + 1, ends, idx, size - idx - 1);
+    size--;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder bldr = new StringBuilder("PortRanges [");
+
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        bldr.append(", ");
+      }
+      bldr.append(begins[i]).append('-').append(ends[i]);
+    }
+
+    return bldr.append(']').toString();
+  }
+
+}
@@ -0,0 +1,53 @@
+package com.hubspot.singularity;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class SingularityTaskOfferRejections {
+
+  private final SingularityPendingTaskId pendingTaskId;
+  private final long offerCycleTimestamp;
+  private final int offersEvaluated;
+  private final Map<SlaveMatchState, Long> rejectionsByReason;
+  private final Map<String, SlaveMatchState> rejectionsByHost;
+
+  @JsonCreator
+  public SingularityTaskOfferRejections(@JsonProperty("pendingTaskId") SingularityPendingTaskId pendingTaskId, @JsonProperty("offerCycleTimestamp") long offerCycleTimestamp,
+      @JsonProperty("offersEvaluated") int offersEvaluated, @JsonProperty("rejectionsByReason") Map<SlaveMatchState, Long> rejectionsByReason,
+      @JsonProperty("rejectionsByHost") Map<String, SlaveMatchState> rejectionsByHost) {
+    this.pendingTaskId = pendingTaskId;
+    this.offerCycleTimestamp = offerCycleTimestamp;
+    this.offersEvaluated = offersEvaluated;
+    this.rejectionsByReason = rejectionsByReason;
+    this.rejectionsByHost = rejectionsByHost;
+  }
+
+  public SingularityPendingTaskId getPendingTaskId() {
+    return pendingTaskId;
+  }
+
+  public long getOfferCycleTimestamp() {
+    return offerCycleTimestamp;
+  }
+
+  public int getOffersEvaluated() {
+    return offersEvaluated;
+  }
+
+  public Map<SlaveMatchState, Long> getRejectionsByReason() {
+    return rejectionsByReason;
+  }
+
+  public Map<String, SlaveMatchState> getRejectionsByHost() {
+    return rejectionsByHost;
+  }
+
+  @Override
+  public String toString() {
+    return "SingularityTaskOfferRejections [pendingTaskId=" + pendingTaskId + ", offerCycleTimestamp=" + offerCycleTimestamp + ", offersEvaluated=" + offersEvaluated
+        + ", rejectionsByReason=" + rejectionsByReason + ", rejectionsByHost=" + rejectionsByHost + "]";
+  }
+
+}
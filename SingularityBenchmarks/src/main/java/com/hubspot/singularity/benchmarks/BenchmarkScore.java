@@ -0,0 +1,36 @@
+package com.hubspot.singularity.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BenchmarkScore {
+
+  private final double score;
+  private final String unit;
+  private final double allocatedBytesPerOp;
+
+  @JsonCreator
+  public BenchmarkScore(@JsonProperty("score") double score, @JsonProperty("unit") String unit, @JsonProperty("allocatedBytesPerOp") double allocatedBytesPerOp) {
+    this.score = score;
+    this.unit = unit;
+    this.allocatedBytesPerOp = allocatedBytesPerOp;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  public String getUnit() {
+    return unit;
+  }
+
+  public double getAllocatedBytesPerOp() {
+    return allocatedBytesPerOp;
+  }
+
+  @Override
+  public String toString() {
+    return "BenchmarkScore [score=" + score + ", unit=" + unit + ", allocatedBytesPerOp=" + allocatedBytesPerOp + "]";
+  }
+
+}
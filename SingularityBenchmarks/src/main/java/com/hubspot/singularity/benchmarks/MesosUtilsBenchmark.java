@@ -0,0 +1,67 @@
+package com.hubspot.singularity.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mesos.Protos.Resource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Lists;
+import com.hubspot.mesos.MesosUtils;
+import com.hubspot.mesos.Resources;
+
+/**
+ * The resource check runs for every pending task against every offer in each offer cycle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MesosUtilsBenchmark {
+
+  private Resources resources;
+  private Resources tooManyPorts;
+  private List<Resource> offerResources;
+  private List<Long> otherRequestedPorts;
+
+  @Setup
+  public void setup() {
+    resources = new Resources(2, 2048, 2);
+    tooManyPorts = new Resources(2, 2048, 1000);
+    offerResources = SingularityBenchmarkFixtures.offer(1, 4, 32, 122880).getResourcesList();
+
+    // ports already taken by tasks accepted earlier in the same offer cycle
+    otherRequestedPorts = Lists.newArrayList();
+    for (long port = 31000; port < 31020; port++) {
+      otherRequestedPorts.add(port);
+    }
+  }
+
+  @Benchmark
+  public boolean doesOfferMatchResources() {
+    return MesosUtils.doesOfferMatchResources(resources, offerResources, Collections.<Long> emptyList());
+  }
+
+  @Benchmark
+  public boolean doesOfferMatchResourcesWithRequestedPorts() {
+    return MesosUtils.doesOfferMatchResources(resources, offerResources, otherRequestedPorts);
+  }
+
+  @Benchmark
+  public boolean doesOfferMatchResourcesNotEnoughPorts() {
+    return MesosUtils.doesOfferMatchResources(tooManyPorts, offerResources, otherRequestedPorts);
+  }
+
+}
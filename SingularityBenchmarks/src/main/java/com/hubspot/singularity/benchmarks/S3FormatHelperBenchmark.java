@@ -0,0 +1,64 @@
+package com.hubspot.singularity.benchmarks;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Optional;
+import com.hubspot.singularity.SingularityS3FormatHelper;
+import com.hubspot.singularity.SingularityTaskId;
+
+/**
+ * Key prefixes are computed for every S3 log listing, once per day (or month) in the requested range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class S3FormatHelperBenchmark {
+
+  private static final String S3_KEY_FORMAT = "%requestId/%Y/%m/%d/%taskId_%index-%s-%filename";
+
+  @Param({ "1", "30", "365" })
+  public int days;
+
+  private SingularityTaskId taskId;
+  private long start;
+  private long end;
+
+  @Setup
+  public void setup() {
+    taskId = SingularityBenchmarkFixtures.taskId(3, 17, 4);
+    start = taskId.getStartedAt();
+    end = start + TimeUnit.DAYS.toMillis(days);
+  }
+
+  @Benchmark
+  public Collection<String> getS3KeyPrefixesForTask() {
+    return SingularityS3FormatHelper.getS3KeyPrefixes(S3_KEY_FORMAT, taskId, Optional.<String> absent(), start, end);
+  }
+
+  @Benchmark
+  public Collection<String> getS3KeyPrefixesForRequest() {
+    return SingularityS3FormatHelper.getS3KeyPrefixes(S3_KEY_FORMAT, taskId.getRequestId(), start, end);
+  }
+
+  @Benchmark
+  public Collection<String> getS3KeyPrefixesForDeploy() {
+    return SingularityS3FormatHelper.getS3KeyPrefixes(S3_KEY_FORMAT, taskId.getRequestId(), taskId.getDeployId(), Optional.<String> absent(), start, end);
+  }
+
+}
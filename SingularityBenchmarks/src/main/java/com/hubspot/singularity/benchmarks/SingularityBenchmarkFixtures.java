@@ -0,0 +1,178 @@
+package com.hubspot.singularity.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.mesos.Protos.Attribute;
+import org.apache.mesos.Protos.CommandInfo;
+import org.apache.mesos.Protos.Environment;
+import org.apache.mesos.Protos.Environment.Variable;
+import org.apache.mesos.Protos.FrameworkID;
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.OfferID;
+import org.apache.mesos.Protos.Resource;
+import org.apache.mesos.Protos.SlaveID;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskInfo;
+import org.apache.mesos.Protos.Value.Text;
+import org.apache.mesos.Protos.Value.Type;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.hubspot.mesos.JavaUtils;
+import com.hubspot.mesos.MesosUtils;
+import com.hubspot.mesos.Resources;
+import com.hubspot.singularity.RequestType;
+import com.hubspot.singularity.SingularityDeploy;
+import com.hubspot.singularity.SingularityDeployBuilder;
+import com.hubspot.singularity.SingularityPendingRequest.PendingType;
+import com.hubspot.singularity.SingularityPendingTask;
+import com.hubspot.singularity.SingularityPendingTaskId;
+import com.hubspot.singularity.SingularityRequest;
+import com.hubspot.singularity.SingularityRequestBuilder;
+import com.hubspot.singularity.SingularityTask;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.SlavePlacement;
+
+/**
+ * Objects shaped like the ones a production scheduler handles: a load balanced service with a handful of environment variables, artifacts
+ * and metadata, offers with ports and attributes, and task ids with realistic host and rack names.
+ */
+public final class SingularityBenchmarkFixtures {
+
+  public static final String RACK_ID_ATTRIBUTE = "rackid";
+
+  public static final String REQUEST_ID = "hubspot-web-contacts-api";
+  public static final String DEPLOY_ID = "Contacts_2016_04_12_1523_ab34f9c";
+
+  private static final long STARTED_AT = 1460474580000L;
+
+  private SingularityBenchmarkFixtures() {}
+
+  public static SingularityRequest request(int instances, SlavePlacement slavePlacement) {
+    return new SingularityRequestBuilder(REQUEST_ID, RequestType.SERVICE)
+        .setInstances(Optional.of(instances))
+        .setRackSensitive(Optional.of(Boolean.TRUE))
+        .setSlavePlacement(Optional.of(slavePlacement))
+        .setLoadBalanced(Optional.of(Boolean.TRUE))
+        .setOwners(Optional.<List<String>> of(ImmutableList.of("contacts-team@example.com", "platform-infrastructure@example.com")))
+        .setGroup(Optional.of("contacts"))
+        .build();
+  }
+
+  public static SingularityDeploy deploy() {
+    final Map<String, String> env = ImmutableMap.<String, String> builder()
+        .put("JAVA_OPTS", "-Xmx1536m -XX:+UseG1GC -XX:MaxGCPauseMillis=100 -Dcom.sun.management.jmxremote.port=8081")
+        .put("DEPLOY_ENV", "production")
+        .put("SERVICE_NAME", "ContactsApi")
+        .put("LOG_LEVEL", "INFO")
+        .put("ZK_QUORUM", "zk1.example.com:2181,zk2.example.com:2181,zk3.example.com:2181")
+        .put("STATSD_HOST", "localhost")
+        .build();
+
+    return new SingularityDeployBuilder(REQUEST_ID, DEPLOY_ID)
+        .setCommand(Optional.of("/usr/local/bin/run-java-service"))
+        .setArguments(Optional.<List<String>> of(ImmutableList.of("--config", "/etc/contacts-api/production.yaml", "server")))
+        .setEnv(Optional.of(env))
+        .setUris(Optional.<List<String>> of(ImmutableList.of("https://artifacts.example.com/ContactsApi/ab34f9c/ContactsApi.tar.gz",
+            "https://artifacts.example.com/configs/contacts-api-production.tar.gz")))
+        .setResources(Optional.of(new Resources(2, 2048, 2)))
+        .setHealthcheckUri(Optional.of("/contacts/v1/healthcheck"))
+        .setHealthcheckIntervalSeconds(Optional.of(5L))
+        .setHealthcheckTimeoutSeconds(Optional.of(5L))
+        .setServiceBasePath(Optional.of("/contacts/v1"))
+        .setLoadBalancerGroups(Optional.<Set<String>> of(ImmutableSet.of("api", "api-internal")))
+        .setMetadata(Optional.<Map<String, String>> of(ImmutableMap.of("buildNumber", "1523", "gitSha", "ab34f9c1d2e3f4a5b6c7d8e9f0a1b2c3d4e5f6a7",
+            "deployedBy", "jenkins")))
+        .setVersion(Optional.of("ab34f9c"))
+        .setTimestamp(Optional.of(STARTED_AT))
+        .build();
+  }
+
+  public static SingularityPendingTask pendingTask(int instanceNo) {
+    return new SingularityPendingTask(new SingularityPendingTaskId(REQUEST_ID, DEPLOY_ID, STARTED_AT, instanceNo, PendingType.NEW_DEPLOY, STARTED_AT),
+        Optional.<List<String>> absent(), Optional.of("jenkins"), Optional.<String> absent(), Optional.<Boolean> absent(), Optional.<String> absent());
+  }
+
+  public static SingularityTaskRequest taskRequest(SingularityRequest request, int instanceNo) {
+    return new SingularityTaskRequest(request, deploy(), pendingTask(instanceNo));
+  }
+
+  public static String host(int slave) {
+    return String.format("mesos-slave-%04d.iad02.example.com", slave);
+  }
+
+  public static String rack(int slave, int numRacks) {
+    return String.format("us_east_1%c", (char) ('a' + slave % numRacks));
+  }
+
+  public static String slaveId(int slave) {
+    return String.format("20160412-152302-1694608650-5050-4312-S%d", slave);
+  }
+
+  public static SingularityTaskId taskId(int instanceNo, int slave, int numRacks) {
+    return new SingularityTaskId(REQUEST_ID, DEPLOY_ID, STARTED_AT + instanceNo, instanceNo, JavaUtils.getReplaceHyphensWithUnderscores(host(slave)),
+        rack(slave, numRacks));
+  }
+
+  public static Offer offer(int slave, int numRacks, double cpus, double memoryMb) {
+    return Offer.newBuilder()
+        .setId(OfferID.newBuilder().setValue(String.format("20160412-152302-1694608650-5050-4312-O%d", slave)))
+        .setFrameworkId(FrameworkID.newBuilder().setValue("Singularity"))
+        .setSlaveId(SlaveID.newBuilder().setValue(slaveId(slave)))
+        .setHostname(host(slave))
+        .addAttributes(textAttribute(RACK_ID_ATTRIBUTE, rack(slave, numRacks)))
+        .addAttributes(textAttribute("instance_type", "r3.4xlarge"))
+        .addAttributes(textAttribute("host", host(slave)))
+        .addResources(MesosUtils.getCpuResource(cpus))
+        .addResources(MesosUtils.getMemoryResource(memoryMb))
+        .addResources(MesosUtils.getPortRangeResource(31000, 31499))
+        .addResources(MesosUtils.getPortRangeResource(31600, 32000))
+        .build();
+  }
+
+  public static SingularityTask task(SingularityRequest request, int instanceNo, int slave, int numRacks) {
+    final SingularityTaskId taskId = taskId(instanceNo, slave, numRacks);
+    final Offer offer = offer(slave, numRacks, 32, 122880);
+    final SingularityDeploy deploy = deploy();
+
+    final List<Resource> resources = Lists.newArrayList(MesosUtils.getCpuResource(deploy.getResources().get().getCpus()),
+        MesosUtils.getMemoryResource(deploy.getResources().get().getMemoryMb()), MesosUtils.getPortRangeResource(31005, 31006));
+
+    final Environment.Builder environment = Environment.newBuilder();
+
+    for (Map.Entry<String, String> entry : deploy.getEnv().get().entrySet()) {
+      environment.addVariables(Variable.newBuilder().setName(entry.getKey()).setValue(entry.getValue()));
+    }
+
+    final CommandInfo.Builder command = CommandInfo.newBuilder()
+        .setValue(deploy.getCommand().get())
+        .addAllArguments(deploy.getArguments().get())
+        .setShell(false)
+        .setEnvironment(environment);
+
+    for (String uri : deploy.getUris().get()) {
+      command.addUris(CommandInfo.URI.newBuilder().setValue(uri));
+    }
+
+    final TaskInfo taskInfo = TaskInfo.newBuilder()
+        .setName(REQUEST_ID)
+        .setTaskId(TaskID.newBuilder().setValue(taskId.getId()))
+        .setSlaveId(offer.getSlaveId())
+        .addAllResources(resources)
+        .setCommand(command)
+        .build();
+
+    return new SingularityTask(taskRequest(request, instanceNo), taskId, offer, taskInfo, Optional.of(rack(slave, numRacks)));
+  }
+
+  private static Attribute textAttribute(String name, String value) {
+    return Attribute.newBuilder().setType(Type.TEXT).setName(name).setText(Text.newBuilder().setValue(value)).build();
+  }
+
+}
@@ -0,0 +1,149 @@
+package com.hubspot.singularity.benchmarks;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hubspot.mesos.JavaUtils;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that each result carries the bytes allocated per operation, and optionally acts as a
+ * regression gate.
+ *
+ * Arguments are passed through to JMH (e.g. a benchmark regex, -f, -wi). The gate is configured with system properties:
+ * <ul>
+ *   <li>singularity.benchmarks.save: write the time and allocation per operation of each benchmark to this file</li>
+ *   <li>singularity.benchmarks.baseline: compare against a file written by a previous run, exiting with 1 if any benchmark regressed</li>
+ *   <li>singularity.benchmarks.maxRegression: the fraction by which a benchmark may be slower, or allocate more, than the baseline
+ *   (default 0.25)</li>
+ * </ul>
+ */
+public class SingularityBenchmarkRunner {
+
+  private static final String SAVE_PROPERTY = "singularity.benchmarks.save";
+  private static final String BASELINE_PROPERTY = "singularity.benchmarks.baseline";
+  private static final String MAX_REGRESSION_PROPERTY = "singularity.benchmarks.maxRegression";
+
+  private static final double DEFAULT_MAX_REGRESSION = 0.25;
+
+  // allocations this small are noise from escape analysis and TLAB sizing rather than a regression
+  private static final double ALLOCATION_SLACK_BYTES = 32;
+
+  private static final String ALLOCATION_RESULT_SUFFIX = "gc.alloc.rate.norm";
+
+  public static void main(String[] args) throws Exception {
+    final Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    final Collection<RunResult> results = new Runner(options).run();
+
+    final Map<String, BenchmarkScore> scores = new TreeMap<>();
+
+    for (RunResult result : results) {
+      scores.put(getName(result), getScore(result));
+    }
+
+    final ObjectMapper objectMapper = JavaUtils.newObjectMapper();
+
+    final Optional<String> save = Optional.fromNullable(System.getProperty(SAVE_PROPERTY));
+
+    if (save.isPresent()) {
+      objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(save.get()), scores);
+      System.out.printf("Saved %s benchmark scores to %s%n", scores.size(), save.get());
+    }
+
+    final Optional<String> baseline = Optional.fromNullable(System.getProperty(BASELINE_PROPERTY));
+
+    if (!baseline.isPresent()) {
+      return;
+    }
+
+    final Map<String, BenchmarkScore> baselineScores = objectMapper.readValue(new File(baseline.get()), new TypeReference<Map<String, BenchmarkScore>>() {});
+    final double maxRegression = Double.parseDouble(System.getProperty(MAX_REGRESSION_PROPERTY, Double.toString(DEFAULT_MAX_REGRESSION)));
+
+    final List<String> regressions = getRegressions(baselineScores, scores, maxRegression);
+
+    if (regressions.isEmpty()) {
+      System.out.printf("No benchmark regressed by more than %.0f%% against %s%n", maxRegression * 100, baseline.get());
+      return;
+    }
+
+    System.out.printf("%s benchmark(s) regressed by more than %.0f%% against %s:%n", regressions.size(), maxRegression * 100, baseline.get());
+
+    for (String regression : regressions) {
+      System.out.println("  " + regression);
+    }
+
+    System.exit(1);
+  }
+
+  private static List<String> getRegressions(Map<String, BenchmarkScore> baselineScores, Map<String, BenchmarkScore> scores, double maxRegression) {
+    final List<String> regressions = Lists.newArrayList();
+
+    for (Map.Entry<String, BenchmarkScore> entry : scores.entrySet()) {
+      final BenchmarkScore baselineScore = baselineScores.get(entry.getKey());
+
+      if (baselineScore == null) {
+        continue;
+      }
+
+      final BenchmarkScore score = entry.getValue();
+
+      if (score.getScore() > baselineScore.getScore() * (1 + maxRegression)) {
+        regressions.add(String.format("%s: %.3f %s (baseline %.3f %s)", entry.getKey(), score.getScore(), score.getUnit(), baselineScore.getScore(), baselineScore.getUnit()));
+      }
+
+      if (score.getAllocatedBytesPerOp() > baselineScore.getAllocatedBytesPerOp() * (1 + maxRegression) + ALLOCATION_SLACK_BYTES) {
+        regressions.add(String.format("%s: %.0f B/op allocated (baseline %.0f B/op)", entry.getKey(), score.getAllocatedBytesPerOp(), baselineScore.getAllocatedBytesPerOp()));
+      }
+    }
+
+    return regressions;
+  }
+
+  private static String getName(RunResult result) {
+    final StringBuilder name = new StringBuilder(result.getParams().getBenchmark());
+
+    final Map<String, String> params = Maps.newTreeMap();
+
+    for (String key : result.getParams().getParamsKeys()) {
+      params.put(key, result.getParams().getParam(key));
+    }
+
+    if (!params.isEmpty()) {
+      name.append(params);
+    }
+
+    return name.toString();
+  }
+
+  private static BenchmarkScore getScore(RunResult result) {
+    double allocatedBytesPerOp = 0;
+
+    for (Map.Entry<String, Result> secondaryResult : result.getSecondaryResults().entrySet()) {
+      if (secondaryResult.getKey().endsWith(ALLOCATION_RESULT_SUFFIX)) {
+        allocatedBytesPerOp = secondaryResult.getValue().getScore();
+      }
+    }
+
+    return new BenchmarkScore(result.getPrimaryResult().getScore(), result.getPrimaryResult().getScoreUnit(), allocatedBytesPerOp);
+  }
+
+}
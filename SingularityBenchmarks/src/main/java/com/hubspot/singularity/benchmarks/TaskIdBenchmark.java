@@ -0,0 +1,48 @@
+package com.hubspot.singularity.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hubspot.singularity.SingularityTaskId;
+
+/**
+ * Task ids are parsed for every child of the active and history task paths, so large clusters parse hundreds of thousands of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TaskIdBenchmark {
+
+  private SingularityTaskId taskId;
+  private String taskIdString;
+
+  @Setup
+  public void setup() {
+    taskId = SingularityBenchmarkFixtures.taskId(7, 42, 4);
+    taskIdString = taskId.getId();
+  }
+
+  @Benchmark
+  public SingularityTaskId valueOf() {
+    return SingularityTaskId.valueOf(taskIdString);
+  }
+
+  @Benchmark
+  public String getId() {
+    return taskId.getId();
+  }
+
+}
@@ -0,0 +1,174 @@
+package com.hubspot.singularity.data.transcoders;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Optional;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.hubspot.mesos.JavaUtils;
+import com.hubspot.singularity.SingularityDeploy;
+import com.hubspot.singularity.SingularityTask;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.SlavePlacement;
+import com.hubspot.singularity.benchmarks.SingularityBenchmarkFixtures;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.CompactTaskTranscoder;
+import com.hubspot.singularity.data.DeployManager;
+import com.hubspot.singularity.data.history.HistoryManager;
+
+/**
+ * Round trips through the transcoders every ZooKeeper read and write goes through, as bound by SingularityTranscoderModule: tasks and
+ * deploys with their format header and compression codec, and tasks stored compactly by CompactTaskTranscoder (whose deploy comes from
+ * the cache, as it does on the leader). The plain json transcoder is measured alongside to separate the cost of serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TranscoderBenchmark {
+
+  @Param({ "false", "true" })
+  public boolean compressLargeDataObjects;
+
+  @Param({ "false", "true" })
+  public boolean storeDataWithFormatHeader;
+
+  @Param({ "SNAPPY", "DEFLATE" })
+  public SingularityCompressionCodec compressionCodec;
+
+  private IdTranscoder<SingularityTaskId> taskIdTranscoder;
+  private JsonTranscoder<SingularityTask> taskJsonTranscoder;
+  private JsonTranscoder<SingularityDeploy> deployJsonTranscoder;
+  private Transcoder<SingularityTask> taskTranscoder;
+  private Transcoder<SingularityDeploy> deployTranscoder;
+  private CompactTaskTranscoder compactTaskTranscoder;
+
+  private String taskIdString;
+  private SingularityTask task;
+  private SingularityDeploy deploy;
+  private byte[] taskJsonBytes;
+  private byte[] deployJsonBytes;
+  private byte[] taskStoredBytes;
+  private byte[] deployStoredBytes;
+  private byte[] compactTaskStoredBytes;
+
+  @Setup
+  public void setup() {
+    final ObjectMapper objectMapper = JavaUtils.newObjectMapper();
+    final SingularityConfiguration configuration = new SingularityConfiguration();
+    configuration.setCompressLargeDataObjects(compressLargeDataObjects);
+    configuration.setStoreDataWithFormatHeader(storeDataWithFormatHeader);
+    configuration.setCompressionCodec(compressionCodec);
+    configuration.setStoreTasksCompactly(true);
+
+    task = SingularityBenchmarkFixtures.task(SingularityBenchmarkFixtures.request(10, SlavePlacement.SEPARATE_BY_REQUEST), 3, 17, 4);
+    deploy = SingularityBenchmarkFixtures.deploy();
+    taskIdString = task.getTaskId().getId();
+
+    final DeployManager deployManager = mock(DeployManager.class);
+    when(deployManager.getCachedDeploy(SingularityBenchmarkFixtures.REQUEST_ID, SingularityBenchmarkFixtures.DEPLOY_ID)).thenReturn(Optional.of(deploy));
+
+    final Injector injector = Guice.createInjector(new SingularityTranscoderModule(), new AbstractModule() {
+
+      @Override
+      protected void configure() {
+        bind(ObjectMapper.class).toInstance(objectMapper);
+        bind(SingularityConfiguration.class).toInstance(configuration);
+        bind(MetricRegistry.class).toInstance(new MetricRegistry());
+        bind(DeployManager.class).toInstance(deployManager);
+        bind(HistoryManager.class).toInstance(mock(HistoryManager.class));
+      }
+    });
+
+    taskIdTranscoder = new IdTranscoder<>(SingularityTaskId.class);
+    taskJsonTranscoder = new JsonTranscoder<>(objectMapper, SingularityTask.class);
+    deployJsonTranscoder = new JsonTranscoder<>(objectMapper, SingularityDeploy.class);
+    taskTranscoder = injector.getInstance(Key.get(new TypeLiteral<Transcoder<SingularityTask>>() {}));
+    deployTranscoder = injector.getInstance(Key.get(new TypeLiteral<Transcoder<SingularityDeploy>>() {}));
+    compactTaskTranscoder = injector.getInstance(CompactTaskTranscoder.class);
+
+    taskJsonBytes = taskJsonTranscoder.toBytes(task);
+    deployJsonBytes = deployJsonTranscoder.toBytes(deploy);
+    taskStoredBytes = taskTranscoder.toBytes(task);
+    deployStoredBytes = deployTranscoder.toBytes(deploy);
+    compactTaskStoredBytes = compactTaskTranscoder.toBytes(task);
+  }
+
+  @Benchmark
+  public SingularityTaskId taskIdFromString() {
+    return taskIdTranscoder.fromString(taskIdString);
+  }
+
+  @Benchmark
+  public byte[] taskToJson() {
+    return taskJsonTranscoder.toBytes(task);
+  }
+
+  @Benchmark
+  public SingularityTask taskFromJson() {
+    return taskJsonTranscoder.fromBytes(taskJsonBytes);
+  }
+
+  @Benchmark
+  public byte[] deployToJson() {
+    return deployJsonTranscoder.toBytes(deploy);
+  }
+
+  @Benchmark
+  public SingularityDeploy deployFromJson() {
+    return deployJsonTranscoder.fromBytes(deployJsonBytes);
+  }
+
+  @Benchmark
+  public SingularityTask taskRoundTrip() {
+    return taskTranscoder.fromBytes(taskTranscoder.toBytes(task));
+  }
+
+  @Benchmark
+  public SingularityTask taskFromStoredBytes() {
+    return taskTranscoder.fromBytes(taskStoredBytes);
+  }
+
+  @Benchmark
+  public SingularityTask compactTaskRoundTrip() {
+    return compactTaskTranscoder.fromBytes(compactTaskTranscoder.toBytes(task));
+  }
+
+  @Benchmark
+  public SingularityTask compactTaskFromStoredBytes() {
+    return compactTaskTranscoder.fromBytes(compactTaskStoredBytes);
+  }
+
+  @Benchmark
+  public SingularityDeploy deployRoundTrip() {
+    return deployTranscoder.fromBytes(deployTranscoder.toBytes(deploy));
+  }
+
+  @Benchmark
+  public SingularityDeploy deployFromStoredBytes() {
+    return deployTranscoder.fromBytes(deployStoredBytes);
+  }
+
+}
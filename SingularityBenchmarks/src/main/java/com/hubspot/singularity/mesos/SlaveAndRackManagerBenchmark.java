@@ -0,0 +1,155 @@
+package com.hubspot.singularity.mesos;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mesos.Protos.Offer;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.hubspot.mesos.JavaUtils;
+import com.hubspot.singularity.MachineState;
+import com.hubspot.singularity.SingularityKilledTaskIdRecord;
+import com.hubspot.singularity.SingularityPendingTask;
+import com.hubspot.singularity.SingularityRack;
+import com.hubspot.singularity.SingularitySlave;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.SlaveMatchState;
+import com.hubspot.singularity.SlavePlacement;
+import com.hubspot.singularity.benchmarks.SingularityBenchmarkFixtures;
+import com.hubspot.singularity.config.MesosConfiguration;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.RackManager;
+import com.hubspot.singularity.data.SlaveManager;
+import com.hubspot.singularity.data.TaskManager;
+import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
+import com.hubspot.singularity.sentry.SingularityExceptionNotifier;
+
+/**
+ * The placement check for a pending task against an offer, with the scheduler state cache already warm as it is after the first offer in
+ * a cycle. The managers behind the state cache are stubbed; the cache loads from them once in setup. Any call which isn't stubbed fails
+ * setup rather than answering with an empty listing, so that the benchmark can't quietly measure an empty cluster when the state cache
+ * starts reading something else.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SlaveAndRackManagerBenchmark {
+
+  private static final int NUM_RACKS = 4;
+
+  private static final int OCCUPIED_SLAVE = 2;
+
+  private static final Answer<Object> UNSTUBBED = new Answer<Object>() {
+
+    @Override
+    public Object answer(InvocationOnMock invocation) {
+      throw new UnsupportedOperationException(String.format("%s isn't stubbed by %s", invocation.getMethod(), SlaveAndRackManagerBenchmark.class.getSimpleName()));
+    }
+  };
+
+  @Param({ "100", "1000" })
+  public int numSlaves;
+
+  @Param({ "SEPARATE", "OPTIMISTIC", "GREEDY" })
+  public SlavePlacement slavePlacement;
+
+  private SingularitySlaveAndRackManager slaveAndRackManager;
+  private SingularitySchedulerStateCache stateCache;
+  private SingularityTaskRequest taskRequest;
+  private Offer emptySlaveOffer;
+  private Offer occupiedSlaveOffer;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final SingularityConfiguration configuration = new SingularityConfiguration();
+    final MesosConfiguration mesosConfiguration = new MesosConfiguration();
+    mesosConfiguration.setRackIdAttributeKey(SingularityBenchmarkFixtures.RACK_ID_ATTRIBUTE);
+    configuration.setMesosConfiguration(mesosConfiguration);
+
+    // a request with one instance per slave, half way through being scaled up: the first half of the slaves (spread evenly over the racks)
+    // already run an instance, the rest do not
+    final int instances = numSlaves;
+    final int activeInstances = numSlaves / 2;
+
+    final Set<SingularityTaskId> activeTaskIds = Sets.newHashSetWithExpectedSize(activeInstances);
+    for (int i = 0; i < activeInstances; i++) {
+      activeTaskIds.add(SingularityBenchmarkFixtures.taskId(i + 1, i, NUM_RACKS));
+    }
+
+    final TaskManager taskManager = mock(TaskManager.class, UNSTUBBED);
+    doReturn(Collections.unmodifiableSet(activeTaskIds)).when(taskManager).getActiveTaskIdsView();
+    doReturn(Collections.<SingularityTaskId> emptySet()).when(taskManager).getCleanupTaskIdsView();
+    doReturn(Collections.<SingularityPendingTask> emptySet()).when(taskManager).getPendingTasksView();
+    doReturn(Collections.<SingularityKilledTaskIdRecord> emptyList()).when(taskManager).getKilledTaskIdRecords();
+
+    final SlaveManager slaveManager = mock(SlaveManager.class, UNSTUBBED);
+    doReturn(numSlaves).when(slaveManager).getNumObjectsAtState(MachineState.ACTIVE);
+
+    final RackManager rackManager = mock(RackManager.class, UNSTUBBED);
+    doReturn(NUM_RACKS).when(rackManager).getNumObjectsAtState(MachineState.ACTIVE);
+
+    for (int slave = 0; slave < numSlaves; slave++) {
+      final String slaveId = SingularityBenchmarkFixtures.slaveId(slave);
+      doReturn(Optional.of(new SingularitySlave(slaveId, SingularityBenchmarkFixtures.host(slave), SingularityBenchmarkFixtures.rack(slave, NUM_RACKS),
+          ImmutableMap.<String, String> of()))).when(slaveManager).getObject(slaveId);
+    }
+
+    for (int rack = 0; rack < NUM_RACKS; rack++) {
+      final String rackId = SingularityBenchmarkFixtures.rack(rack, NUM_RACKS);
+      doReturn(Optional.of(new SingularityRack(rackId))).when(rackManager).getObject(rackId);
+    }
+
+    slaveAndRackManager = new SingularitySlaveAndRackManager(new SingularitySlaveAndRackHelper(configuration), configuration,
+        mock(SingularityExceptionNotifier.class), rackManager, slaveManager, taskManager);
+    stateCache = new SingularitySchedulerStateCache(taskManager, slaveManager, rackManager);
+
+    taskRequest = SingularityBenchmarkFixtures.taskRequest(SingularityBenchmarkFixtures.request(instances, slavePlacement), activeInstances + 1);
+    emptySlaveOffer = SingularityBenchmarkFixtures.offer(numSlaves - 1, NUM_RACKS, 32, 122880);
+    occupiedSlaveOffer = SingularityBenchmarkFixtures.offer(OCCUPIED_SLAVE, NUM_RACKS, 32, 122880);
+
+    // load the state cache, as the first offer of a cycle would
+    slaveAndRackManager.doesOfferMatch(emptySlaveOffer, taskRequest, stateCache);
+    slaveAndRackManager.doesOfferMatch(occupiedSlaveOffer, taskRequest, stateCache);
+
+    final String occupiedHost = JavaUtils.getReplaceHyphensWithUnderscores(SingularityBenchmarkFixtures.host(OCCUPIED_SLAVE));
+
+    if (stateCache.getPlacementIndex(SingularityBenchmarkFixtures.REQUEST_ID).getNumOnHost(SingularityBenchmarkFixtures.DEPLOY_ID, occupiedHost) != 1) {
+      throw new IllegalStateException(String.format("The state cache doesn't place an active task on %s", occupiedHost));
+    }
+  }
+
+  @Benchmark
+  public SlaveMatchState doesOfferMatchEmptySlave() {
+    return slaveAndRackManager.doesOfferMatch(emptySlaveOffer, taskRequest, stateCache);
+  }
+
+  @Benchmark
+  public SlaveMatchState doesOfferMatchOccupiedSlave() {
+    return slaveAndRackManager.doesOfferMatch(occupiedSlaveOffer, taskRequest, stateCache);
+  }
+
+}
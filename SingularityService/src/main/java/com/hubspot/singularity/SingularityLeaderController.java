@@ -22,6 +22,7 @@ import com.google.inject.name.Named;
 import com.hubspot.mesos.MesosUtils;
 import com.hubspot.singularity.SingularityAbort.AbortReason;
 import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.SingularityLeaderCacheCoordinator;
 import com.hubspot.singularity.data.StateManager;
 import com.hubspot.singularity.mesos.SingularityMesosScheduler;
 import com.hubspot.singularity.sentry.SingularityExceptionNotifier;
@@ -41,13 +42,14 @@ public class SingularityLeaderController implements Managed, LeaderLatchListener
   private final long saveStateEveryMs;
   private final StatePoller statePoller;
   private final SingularityMesosScheduler scheduler;
+  private final SingularityLeaderCacheCoordinator leaderCacheCoordinator;
 
   private volatile boolean master;
 
 
   @Inject
   public SingularityLeaderController(StateManager stateManager, SingularityConfiguration configuration, SingularityDriverManager driverManager, SingularityAbort abort, SingularityExceptionNotifier exceptionNotifier,
-      @Named(SingularityMainModule.HTTP_HOST_AND_PORT) HostAndPort hostAndPort, SingularityMesosScheduler scheduler) {
+      @Named(SingularityMainModule.HTTP_HOST_AND_PORT) HostAndPort hostAndPort, SingularityMesosScheduler scheduler, SingularityLeaderCacheCoordinator leaderCacheCoordinator) {
     this.driverManager = driverManager;
     this.stateManager = stateManager;
     this.abort = abort;
@@ -57,6 +59,7 @@ public class SingularityLeaderController implements Managed, LeaderLatchListener
     this.saveStateEveryMs = TimeUnit.SECONDS.toMillis(configuration.getSaveStateEverySeconds());
     this.statePoller = new StatePoller();
     this.scheduler = scheduler;
+    this.leaderCacheCoordinator = leaderCacheCoordinator;
 
     this.master = false;
 
@@ -116,6 +119,8 @@ public class SingularityLeaderController implements Managed, LeaderLatchListener
 
     master = false;
 
+    leaderCacheCoordinator.stopLeaderCache();
+
     if (driverManager.getCurrentStatus() == Protos.Status.DRIVER_RUNNING) {
       try {
         driverManager.stop();
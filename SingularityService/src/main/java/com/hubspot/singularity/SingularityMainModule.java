@@ -14,6 +14,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.recipes.leader.LeaderLatch;
@@ -97,6 +98,7 @@ public class SingularityMainModule implements Module {
   public static final Named NEW_TASK_THREADPOOL_NAMED = Names.named(NEW_TASK_THREADPOOL_NAME);
 
   public static final String CURRENT_HTTP_REQUEST = "_singularity_current_http_request";
+  public static final String CURRENT_HTTP_RESPONSE = "_singularity_current_http_response";
 
   private final SingularityConfiguration configuration;
 
@@ -337,4 +339,14 @@ public class SingularityMainModule implements Module {
       return Optional.absent();
     }
   }
+
+  @Provides
+  @Named(CURRENT_HTTP_RESPONSE)
+  public Optional<HttpServletResponse> providesResponse(Provider<HttpServletResponse> responseProvider) {
+    try {
+      return Optional.of(responseProvider.get());
+    } catch (ProvisionException pe) {  // this will happen if we're not in the REQUEST scope
+      return Optional.absent();
+    }
+  }
 }
@@ -16,6 +16,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import com.hubspot.singularity.SlavePlacement;
+import com.hubspot.singularity.data.transcoders.SingularityCompressionCodec;
+import com.hubspot.singularity.mesos.SingularityOfferMatchStrategyClass;
 
 import io.dropwizard.Configuration;
 import io.dropwizard.db.DataSourceFactory;
@@ -31,10 +33,22 @@ public class SingularityConfiguration extends Configuration {
 
   private int cacheTasksMaxSize = 5000;
 
+  private long cacheTasksMaxBytes = 0;
+
   private int cacheTasksInitialSize = 100;
 
   private long cacheTasksForMillis = TimeUnit.DAYS.toMillis(1);
 
+  private int cacheDeploysMaxSize = 2000;
+
+  private long cacheDeploysMaxBytes = 0;
+
+  private int cacheDeploysInitialSize = 100;
+
+  private long cacheDeploysForMillis = TimeUnit.DAYS.toMillis(1);
+
+  private int cacheSchedulesMaxSize = 10000;
+
   private long cacheStateForMillis = TimeUnit.SECONDS.toMillis(30);
 
   private long checkDeploysEverySeconds = 5;
@@ -47,10 +61,20 @@ public class SingularityConfiguration extends Configuration {
 
   private long checkReconcileWhenRunningEveryMillis = TimeUnit.SECONDS.toMillis(30);
 
+  private long maxReconcileRequestBackoffMillis = TimeUnit.MINUTES.toMillis(5);
+
+  private int reconcileTasksChunkSize = 1000;
+
+  private long reconcileTasksChunkDelayMillis = 250;
+
   private long checkScheduledJobsEveryMillis = TimeUnit.MINUTES.toMillis(10);
 
   private long checkSchedulerEverySeconds = 5;
 
+  private boolean useLeaderCache = true;
+
+  private long reconcileLeaderCacheEverySeconds = 300;
+
   private long checkWebhooksEveryMillis = TimeUnit.SECONDS.toMillis(10);
 
   private long cleanupEverySeconds = 5;
@@ -63,6 +87,12 @@ public class SingularityConfiguration extends Configuration {
 
   private boolean compressLargeDataObjects = true;
 
+  private int compressionThresholdBytes = 0;
+
+  private SingularityCompressionCodec compressionCodec = SingularityCompressionCodec.SNAPPY;
+
+  private Map<String, SingularityCompressionCodec> compressionCodecs = Collections.emptyMap();
+
   private long considerTaskHealthyAfterRunningForSeconds = 5;
 
   private int cooldownAfterFailures = 3;
@@ -157,10 +187,43 @@ public class SingularityConfiguration extends Configuration {
 
   private int maxTasksPerOffer = 0;
 
+  private int taskLaunchTransactionBatchSize = 25;
+
+  private long taskLaunchTransactionMaxBytes = 512 * 1024;
+
+  private long offerHoldMillis = 0;
+
+  private double offerDeclineRefuseSeconds = 0;
+
+  private int schedulerLockStripes = 64;
+
+  private int statusUpdateThreads = 0;
+
+  private int statusUpdateQueueCapacity = 10000;
+
+  @NotNull
+  private SingularityOfferMatchStrategyClass offerMatchStrategy = SingularityOfferMatchStrategyClass.FIRST_FIT;
+
+  private double offerScoringSpreadWeight = 0.5;
+
+  private boolean parallelOfferMatching = false;
+
+  private int offerMatchParallelism = Runtime.getRuntime().availableProcessors();
+
+  private boolean parallelPendingQueueDrain = false;
+
+  private int pendingQueueDrainParallelism = Runtime.getRuntime().availableProcessors();
+
+  private int pendingQueueDrainBatchSize = 100;
+
   private int maxRequestIdSize = 100;
 
   private boolean storeAllMesosTaskInfoForDebugging = false;
 
+  private boolean storeTasksCompactly = false;
+
+  private boolean storeDataWithFormatHeader = false;
+
   @JsonProperty("historyPurging")
   @Valid
   private HistoryPurgingConfiguration historyPurgingConfiguration = new HistoryPurgingConfiguration();
@@ -215,6 +278,14 @@ public class SingularityConfiguration extends Configuration {
 
   private long zookeeperAsyncTimeout = 5000;
 
+  private int zookeeperAsyncMaxInFlight = 1000;
+
+  private long zookeeperAsyncDeadline = TimeUnit.SECONDS.toMillis(30);
+
+  private List<String> zkMirrorPaths = Collections.emptyList();
+
+  private long zkMirrorMaxWriteLagMillis = TimeUnit.SECONDS.toMillis(10);
+
   private int coreThreadpoolSize = 8;
 
   private long threadpoolShutdownDelayInSeconds = 1;
@@ -283,6 +354,18 @@ public class SingularityConfiguration extends Configuration {
     return checkReconcileWhenRunningEveryMillis;
   }
 
+  public long getMaxReconcileRequestBackoffMillis() {
+    return maxReconcileRequestBackoffMillis;
+  }
+
+  public int getReconcileTasksChunkSize() {
+    return reconcileTasksChunkSize;
+  }
+
+  public long getReconcileTasksChunkDelayMillis() {
+    return reconcileTasksChunkDelayMillis;
+  }
+
   public long getCheckScheduledJobsEveryMillis() {
     return checkScheduledJobsEveryMillis;
   }
@@ -291,6 +374,14 @@ public class SingularityConfiguration extends Configuration {
     return checkSchedulerEverySeconds;
   }
 
+  public boolean isUseLeaderCache() {
+    return useLeaderCache;
+  }
+
+  public long getReconcileLeaderCacheEverySeconds() {
+    return reconcileLeaderCacheEverySeconds;
+  }
+
   public long getCheckWebhooksEveryMillis() {
     return checkWebhooksEveryMillis;
   }
@@ -355,10 +446,18 @@ public class SingularityConfiguration extends Configuration {
     return cacheTasksMaxSize;
   }
 
+  public long getCacheTasksMaxBytes() {
+    return cacheTasksMaxBytes;
+  }
+
   public void setCacheTasksMaxSize(int cacheTasksMaxSize) {
     this.cacheTasksMaxSize = cacheTasksMaxSize;
   }
 
+  public void setCacheTasksMaxBytes(long cacheTasksMaxBytes) {
+    this.cacheTasksMaxBytes = cacheTasksMaxBytes;
+  }
+
   public int getCacheTasksInitialSize() {
     return cacheTasksInitialSize;
   }
@@ -523,6 +622,62 @@ public class SingularityConfiguration extends Configuration {
     return maxTasksPerOffer;
   }
 
+  public int getTaskLaunchTransactionBatchSize() {
+    return taskLaunchTransactionBatchSize;
+  }
+
+  public long getTaskLaunchTransactionMaxBytes() {
+    return taskLaunchTransactionMaxBytes;
+  }
+
+  public long getOfferHoldMillis() {
+    return offerHoldMillis;
+  }
+
+  public double getOfferDeclineRefuseSeconds() {
+    return offerDeclineRefuseSeconds;
+  }
+
+  public int getSchedulerLockStripes() {
+    return schedulerLockStripes;
+  }
+
+  public int getStatusUpdateThreads() {
+    return statusUpdateThreads;
+  }
+
+  public int getStatusUpdateQueueCapacity() {
+    return statusUpdateQueueCapacity;
+  }
+
+  public SingularityOfferMatchStrategyClass getOfferMatchStrategy() {
+    return offerMatchStrategy;
+  }
+
+  public double getOfferScoringSpreadWeight() {
+    return offerScoringSpreadWeight;
+  }
+
+  public boolean isParallelOfferMatching() {
+    return parallelOfferMatching;
+  }
+
+  public int getOfferMatchParallelism() {
+    return offerMatchParallelism;
+  }
+
+  public boolean isParallelPendingQueueDrain() {
+    return parallelPendingQueueDrain;
+  }
+
+  public int getPendingQueueDrainParallelism() {
+    return pendingQueueDrainParallelism;
+  }
+
+  public int getPendingQueueDrainBatchSize() {
+    return pendingQueueDrainBatchSize;
+  }
+
   public MesosConfiguration getMesosConfiguration() {
     return mesosConfiguration;
   }
@@ -595,6 +750,22 @@ public class SingularityConfiguration extends Configuration {
     return zookeeperAsyncTimeout;
   }
 
+  public int getZookeeperAsyncMaxInFlight() {
+    return zookeeperAsyncMaxInFlight;
+  }
+
+  public long getZookeeperAsyncDeadline() {
+    return zookeeperAsyncDeadline;
+  }
+
+  public List<String> getZkMirrorPaths() {
+    return zkMirrorPaths;
+  }
+
+  public long getZkMirrorMaxWriteLagMillis() {
+    return zkMirrorMaxWriteLagMillis;
+  }
+
   public ZooKeeperConfiguration getZooKeeperConfiguration() {
     return zooKeeperConfiguration;
   }
@@ -611,14 +782,42 @@ public class SingularityConfiguration extends Configuration {
     return storeAllMesosTaskInfoForDebugging;
   }
 
+  public boolean isStoreTasksCompactly() {
+    return storeTasksCompactly;
+  }
+
+  public boolean isStoreDataWithFormatHeader() {
+    return storeDataWithFormatHeader;
+  }
+
   public void setStoreAllMesosTaskInfoForDebugging(boolean storeAllMesosTaskInfoForDebugging) {
     this.storeAllMesosTaskInfoForDebugging = storeAllMesosTaskInfoForDebugging;
   }
 
+  public void setStoreTasksCompactly(boolean storeTasksCompactly) {
+    this.storeTasksCompactly = storeTasksCompactly;
+  }
+
+  public void setStoreDataWithFormatHeader(boolean storeDataWithFormatHeader) {
+    this.storeDataWithFormatHeader = storeDataWithFormatHeader;
+  }
+
   public boolean isCompressLargeDataObjects() {
     return compressLargeDataObjects;
   }
 
+  public int getCompressionThresholdBytes() {
+    return compressionThresholdBytes;
+  }
+
+  public SingularityCompressionCodec getCompressionCodec() {
+    return compressionCodec;
+  }
+
+  public Map<String, SingularityCompressionCodec> getCompressionCodecs() {
+    return compressionCodecs;
+  }
+
   public boolean isCreateDeployIds() {
     return createDeployIds;
   }
@@ -671,6 +870,18 @@ public class SingularityConfiguration extends Configuration {
     this.checkReconcileWhenRunningEveryMillis = checkReconcileWhenRunningEveryMillis;
   }
 
+  public void setMaxReconcileRequestBackoffMillis(long maxReconcileRequestBackoffMillis) {
+    this.maxReconcileRequestBackoffMillis = maxReconcileRequestBackoffMillis;
+  }
+
+  public void setReconcileTasksChunkSize(int reconcileTasksChunkSize) {
+    this.reconcileTasksChunkSize = reconcileTasksChunkSize;
+  }
+
+  public void setReconcileTasksChunkDelayMillis(long reconcileTasksChunkDelayMillis) {
+    this.reconcileTasksChunkDelayMillis = reconcileTasksChunkDelayMillis;
+  }
+
   public void setCheckScheduledJobsEveryMillis(long checkScheduledJobsEveryMillis) {
     this.checkScheduledJobsEveryMillis = checkScheduledJobsEveryMillis;
   }
@@ -679,6 +890,14 @@ public class SingularityConfiguration extends Configuration {
     this.checkSchedulerEverySeconds = checkSchedulerEverySeconds;
   }
 
+  public void setUseLeaderCache(boolean useLeaderCache) {
+    this.useLeaderCache = useLeaderCache;
+  }
+
+  public void setReconcileLeaderCacheEverySeconds(long reconcileLeaderCacheEverySeconds) {
+    this.reconcileLeaderCacheEverySeconds = reconcileLeaderCacheEverySeconds;
+  }
+
   public void setCheckWebhooksEveryMillis(long checkWebhooksEveryMillis) {
     this.checkWebhooksEveryMillis = checkWebhooksEveryMillis;
   }
@@ -699,6 +918,18 @@ public class SingularityConfiguration extends Configuration {
     this.compressLargeDataObjects = compressLargeDataObjects;
   }
 
+  public void setCompressionThresholdBytes(int compressionThresholdBytes) {
+    this.compressionThresholdBytes = compressionThresholdBytes;
+  }
+
+  public void setCompressionCodec(SingularityCompressionCodec compressionCodec) {
+    this.compressionCodec = compressionCodec;
+  }
+
+  public void setCompressionCodecs(Map<String, SingularityCompressionCodec> compressionCodecs) {
+    this.compressionCodecs = compressionCodecs;
+  }
+
   public void setConsiderTaskHealthyAfterRunningForSeconds(long considerTaskHealthyAfterRunningForSeconds) {
     this.considerTaskHealthyAfterRunningForSeconds = considerTaskHealthyAfterRunningForSeconds;
   }
@@ -847,6 +1078,62 @@ public class SingularityConfiguration extends Configuration {
     this.maxTasksPerOffer = maxTasksPerOffer;
   }
 
+  public void setTaskLaunchTransactionBatchSize(int taskLaunchTransactionBatchSize) {
+    this.taskLaunchTransactionBatchSize = taskLaunchTransactionBatchSize;
+  }
+
+  public void setTaskLaunchTransactionMaxBytes(long taskLaunchTransactionMaxBytes) {
+    this.taskLaunchTransactionMaxBytes = taskLaunchTransactionMaxBytes;
+  }
+
+  public void setOfferHoldMillis(long offerHoldMillis) {
+    this.offerHoldMillis = offerHoldMillis;
+  }
+
+  public void setOfferDeclineRefuseSeconds(double offerDeclineRefuseSeconds) {
+    this.offerDeclineRefuseSeconds = offerDeclineRefuseSeconds;
+  }
+
+  public void setSchedulerLockStripes(int schedulerLockStripes) {
+    this.schedulerLockStripes = schedulerLockStripes;
+  }
+
+  public void setStatusUpdateThreads(int statusUpdateThreads) {
+    this.statusUpdateThreads = statusUpdateThreads;
+  }
+
+  public void setStatusUpdateQueueCapacity(int statusUpdateQueueCapacity) {
+    this.statusUpdateQueueCapacity = statusUpdateQueueCapacity;
+  }
+
+  public void setOfferMatchStrategy(SingularityOfferMatchStrategyClass offerMatchStrategy) {
+    this.offerMatchStrategy = offerMatchStrategy;
+  }
+
+  public void setOfferScoringSpreadWeight(double offerScoringSpreadWeight) {
+    this.offerScoringSpreadWeight = offerScoringSpreadWeight;
+  }
+
+  public void setParallelOfferMatching(boolean parallelOfferMatching) {
+    this.parallelOfferMatching = parallelOfferMatching;
+  }
+
+  public void setOfferMatchParallelism(int offerMatchParallelism) {
+    this.offerMatchParallelism = offerMatchParallelism;
+  }
+
+  public void setParallelPendingQueueDrain(boolean parallelPendingQueueDrain) {
+    this.parallelPendingQueueDrain = parallelPendingQueueDrain;
+  }
+
+  public void setPendingQueueDrainParallelism(int pendingQueueDrainParallelism) {
+    this.pendingQueueDrainParallelism = pendingQueueDrainParallelism;
+  }
+
+  public void setPendingQueueDrainBatchSize(int pendingQueueDrainBatchSize) {
+    this.pendingQueueDrainBatchSize = pendingQueueDrainBatchSize;
+  }
+
   public void setMesosConfiguration(MesosConfiguration mesosConfiguration) {
     this.mesosConfiguration = mesosConfiguration;
   }
@@ -915,6 +1202,22 @@ public class SingularityConfiguration extends Configuration {
     this.zookeeperAsyncTimeout = zookeeperAsyncTimeout;
   }
 
+  public void setZookeeperAsyncMaxInFlight(int zookeeperAsyncMaxInFlight) {
+    this.zookeeperAsyncMaxInFlight = zookeeperAsyncMaxInFlight;
+  }
+
+  public void setZookeeperAsyncDeadline(long zookeeperAsyncDeadline) {
+    this.zookeeperAsyncDeadline = zookeeperAsyncDeadline;
+  }
+
+  public void setZkMirrorPaths(List<String> zkMirrorPaths) {
+    this.zkMirrorPaths = zkMirrorPaths;
+  }
+
+  public void setZkMirrorMaxWriteLagMillis(long zkMirrorMaxWriteLagMillis) {
+    this.zkMirrorMaxWriteLagMillis = zkMirrorMaxWriteLagMillis;
+  }
+
   public void setZooKeeperConfiguration(ZooKeeperConfiguration zooKeeperConfiguration) {
     this.zooKeeperConfiguration = zooKeeperConfiguration;
   }
@@ -923,10 +1226,50 @@ public class SingularityConfiguration extends Configuration {
     return cacheTasksForMillis;
   }
 
+  public int getCacheDeploysMaxSize() {
+    return cacheDeploysMaxSize;
+  }
+
+  public long getCacheDeploysMaxBytes() {
+    return cacheDeploysMaxBytes;
+  }
+
+  public int getCacheDeploysInitialSize() {
+    return cacheDeploysInitialSize;
+  }
+
+  public long getCacheDeploysForMillis() {
+    return cacheDeploysForMillis;
+  }
+
+  public int getCacheSchedulesMaxSize() {
+    return cacheSchedulesMaxSize;
+  }
+
   public void setCacheTasksForMillis(long cacheTasksForMillis) {
     this.cacheTasksForMillis = cacheTasksForMillis;
   }
 
+  public void setCacheDeploysMaxSize(int cacheDeploysMaxSize) {
+    this.cacheDeploysMaxSize = cacheDeploysMaxSize;
+  }
+
+  public void setCacheDeploysMaxBytes(long cacheDeploysMaxBytes) {
+    this.cacheDeploysMaxBytes = cacheDeploysMaxBytes;
+  }
+
+  public void setCacheDeploysInitialSize(int cacheDeploysInitialSize) {
+    this.cacheDeploysInitialSize = cacheDeploysInitialSize;
+  }
+
+  public void setCacheDeploysForMillis(long cacheDeploysForMillis) {
+    this.cacheDeploysForMillis = cacheDeploysForMillis;
+  }
+
+  public void setCacheSchedulesMaxSize(int cacheSchedulesMaxSize) {
+    this.cacheSchedulesMaxSize = cacheSchedulesMaxSize;
+  }
+
   public long getTaskPersistAfterStartupBufferMillis() {
     return taskPersistAfterStartupBufferMillis;
   }
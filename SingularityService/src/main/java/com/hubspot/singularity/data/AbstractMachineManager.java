@@ -2,6 +2,9 @@ package com.hubspot.singularity.data;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.utils.ZKPaths;
@@ -12,6 +15,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.hubspot.singularity.MachineState;
 import com.hubspot.singularity.SingularityCreateResult;
 import com.hubspot.singularity.SingularityDeleteResult;
@@ -28,13 +32,15 @@ public abstract class AbstractMachineManager<T extends SingularityMachineAbstrac
 
   private final Transcoder<T> transcoder;
   private final Transcoder<SingularityMachineStateHistoryUpdate> historyTranscoder;
+  private final SingularityMachineCache<T> leaderCachedMachines;
 
-  public AbstractMachineManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, Transcoder<T> transcoder,
-      Transcoder<SingularityMachineStateHistoryUpdate> historyTranscoder) {
-    super(curator, configuration, metricRegistry);
+  public AbstractMachineManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityZkMirror zkMirror, Transcoder<T> transcoder,
+      Transcoder<SingularityMachineStateHistoryUpdate> historyTranscoder, SingularityMachineCache<T> leaderCachedMachines) {
+    super(curator, configuration, metricRegistry, zkMirror);
 
     this.transcoder = transcoder;
     this.historyTranscoder = historyTranscoder;
+    this.leaderCachedMachines = leaderCachedMachines;
   }
 
   protected abstract String getRoot();
@@ -48,10 +54,18 @@ public abstract class AbstractMachineManager<T extends SingularityMachineAbstrac
   }
 
   public List<T> getObjects() {
+    if (leaderCachedMachines.active()) {
+      return leaderCachedMachines.getAll();
+    }
+
     return getObjects(getRoot());
   }
 
   public int getNumObjectsAtState(MachineState state) {
+    if (leaderCachedMachines.active()) {
+      return leaderCachedMachines.getNumAtState(state);
+    }
+
     return getObjectsFiltered(state).size();
   }
 
@@ -72,6 +86,10 @@ public abstract class AbstractMachineManager<T extends SingularityMachineAbstrac
   }
 
   public List<T> getObjectsFiltered(Optional<MachineState> state) {
+    if (state.isPresent() && leaderCachedMachines.active()) {
+      return leaderCachedMachines.getAtState(state.get());
+    }
+
     List<T> objects = getObjects();
 
     if (!state.isPresent()) {
@@ -93,11 +111,15 @@ public abstract class AbstractMachineManager<T extends SingularityMachineAbstrac
     return filtered;
   }
 
-  private String getObjectPath(String objectId) {
+  String getObjectPath(String objectId) {
     return ZKPaths.makePath(getRoot(), objectId);
   }
 
   public Optional<T> getObject(String objectId) {
+    if (leaderCachedMachines.active()) {
+      return leaderCachedMachines.get(objectId);
+    }
+
     return getData(getObjectPath(objectId), transcoder);
   }
 
@@ -106,7 +128,7 @@ public abstract class AbstractMachineManager<T extends SingularityMachineAbstrac
   }
 
   public SingularityDeleteResult removed(String objectId) {
-    return delete(getObjectPath(objectId));
+    return deleteObject(objectId);
   }
 
   public enum StateChangeResult {
@@ -164,13 +186,80 @@ public abstract class AbstractMachineManager<T extends SingularityMachineAbstrac
   }
 
   public SingularityDeleteResult deleteObject(String objectId) {
-    return delete(getObjectPath(objectId));
+    final SingularityDeleteResult result = delete(getObjectPath(objectId));
+
+    if (leaderCachedMachines.active()) {
+      leaderCachedMachines.remove(objectId);
+    }
+
+    return result;
   }
 
   public SingularityCreateResult saveObject(T object) {
     saveHistoryUpdate(object.getCurrentState());
 
-    return save(getObjectPath(object.getId()), object, transcoder);
+    final SingularityCreateResult result = save(getObjectPath(object.getId()), object, transcoder);
+
+    if (leaderCachedMachines.active()) {
+      leaderCachedMachines.put(object);
+    }
+
+    return result;
+  }
+
+  int loadLeaderCache() {
+    create(getRoot());
+
+    return leaderCachedMachines.load(getObjects(getRoot()));
+  }
+
+  /**
+   * Applies the children of the root, as reported by a watch, to the leader cache. Machines which changed state without being added or
+   * removed are applied by {@link #refreshLeaderCachedObject(String, byte[])} instead.
+   */
+  void refreshLeaderCache(List<String> children) {
+    if (!leaderCachedMachines.active()) {
+      return;
+    }
+
+    final Set<String> childSet = Sets.newHashSet(children);
+
+    for (T machine : leaderCachedMachines.getAll()) {
+      if (!childSet.remove(machine.getId()) && !exists(getObjectPath(machine.getId()))) {
+        leaderCachedMachines.remove(machine.getId());
+      }
+    }
+
+    for (String child : childSet) {
+      final Optional<T> maybeMachine = getData(getObjectPath(child), transcoder);
+
+      if (maybeMachine.isPresent()) {
+        leaderCachedMachines.putIfNotOlder(maybeMachine.get());
+      }
+    }
+  }
+
+  /**
+   * Applies the data of a single machine, as reported by a watch, to the leader cache.
+   *
+   * @param data the data of the machine node, or null if it no longer exists
+   */
+  void refreshLeaderCachedObject(String objectId, @Nullable byte[] data) {
+    if (!leaderCachedMachines.active()) {
+      return;
+    }
+
+    if (data == null) {
+      leaderCachedMachines.remove(objectId);
+      return;
+    }
+
+    final T machine = transcoder.fromBytes(data);
+
+    // saving the first history update creates the machine's node without data; the save right after it fires the watch again
+    if (machine != null) {
+      leaderCachedMachines.putIfNotOlder(machine);
+    }
   }
 
 }
@@ -0,0 +1,197 @@
+package com.hubspot.singularity.data;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.TaskInfo;
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hubspot.singularity.SingularityDeploy;
+import com.hubspot.singularity.SingularityDeployHistory;
+import com.hubspot.singularity.SingularityPendingTask;
+import com.hubspot.singularity.SingularityRequest;
+import com.hubspot.singularity.SingularityTask;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.history.HistoryManager;
+import com.hubspot.singularity.data.transcoders.IdTranscoder;
+import com.hubspot.singularity.data.transcoders.SingularityCompressionCodec;
+import com.hubspot.singularity.data.transcoders.SingularityTranscoderException;
+import com.hubspot.singularity.data.transcoders.Transcoder;
+import com.hubspot.singularity.data.transcoders.VersionedJsonTranscoder;
+
+/**
+ * Stores tasks without an embedded copy of their deploy, which is looked up by the deploy key in the task id (deploys are immutable, and
+ * are kept in ZooKeeper while any of their tasks are, falling back to the deploy history in the database should one have been removed
+ * anyway), and with the Mesos offer and TaskInfo as protobuf rather than json.
+ *
+ * Tasks are written this way with storeTasksCompactly; tasks written as (possibly compressed) json are always read. The compact form starts
+ * with a 0 byte, which neither json nor a Snappy block of json can, version 1 and the compression of the rest (0 for none, otherwise a
+ * SingularityCompressionCodec marker, chosen and applied as for other objects); a 0 byte and version 2 start a format header (see
+ * VersionedJsonTranscoder), which is left to the json transcoder.
+ */
+@Singleton
+public class CompactTaskTranscoder implements Transcoder<SingularityTask> {
+
+  private static final byte MAGIC = 0;
+  private static final byte VERSION = 1;
+
+  private static final byte COMPRESSION_NONE = 0;
+
+  private static final int HEADER_LENGTH = 3;
+
+  private final SingularityConfiguration configuration;
+  private final Transcoder<SingularityTask> jsonTaskTranscoder;
+  private final Transcoder<SingularityRequest> requestTranscoder;
+  private final Transcoder<SingularityPendingTask> pendingTaskTranscoder;
+  private final IdTranscoder<SingularityTaskId> taskIdTranscoder;
+  private final DeployManager deployManager;
+  private final HistoryManager historyManager;
+
+  @Inject
+  public CompactTaskTranscoder(SingularityConfiguration configuration, Transcoder<SingularityTask> jsonTaskTranscoder, Transcoder<SingularityRequest> requestTranscoder,
+      Transcoder<SingularityPendingTask> pendingTaskTranscoder, IdTranscoder<SingularityTaskId> taskIdTranscoder, DeployManager deployManager,
+      HistoryManager historyManager) {
+    this.configuration = configuration;
+    this.jsonTaskTranscoder = jsonTaskTranscoder;
+    this.requestTranscoder = requestTranscoder;
+    this.pendingTaskTranscoder = pendingTaskTranscoder;
+    this.taskIdTranscoder = taskIdTranscoder;
+    this.deployManager = deployManager;
+    this.historyManager = historyManager;
+  }
+
+  @Override
+  public SingularityTask fromBytes(@Nullable byte[] data) throws SingularityTranscoderException {
+    if (data == null || data.length == 0 || data[0] != MAGIC || VersionedJsonTranscoder.hasFormatHeader(data)) {
+      return jsonTaskTranscoder.fromBytes(data);
+    }
+
+    if (data.length < HEADER_LENGTH || data[1] != VERSION) {
+      throw new SingularityTranscoderException("Unsupported compact task encoding (%s bytes, version %s)", data.length, data.length > 1 ? data[1] : "missing");
+    }
+
+    try {
+      final byte[] body = uncompress(data);
+      final DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+
+      final SingularityTaskId taskId = taskIdTranscoder.fromBytes(readBytes(in));
+      final Optional<String> rackId = in.readBoolean() ? Optional.of(new String(readBytes(in), UTF_8)) : Optional.<String> absent();
+      final SingularityRequest request = requestTranscoder.fromBytes(readBytes(in));
+      final SingularityPendingTask pendingTask = pendingTaskTranscoder.fromBytes(readBytes(in));
+      final Offer offer = Offer.parseFrom(readBytes(in));
+      final TaskInfo mesosTask = TaskInfo.parseFrom(readBytes(in));
+
+      final Optional<SingularityDeploy> deploy = getDeploy(taskId);
+
+      if (!deploy.isPresent()) {
+        throw new SingularityTranscoderException("Deploy %s of %s is no longer stored in ZooKeeper or the database", taskId.getDeployId(), taskId);
+      }
+
+      return new SingularityTask(new SingularityTaskRequest(request, deploy.get(), pendingTask), taskId, offer, mesosTask, rackId);
+    } catch (IOException e) {
+      throw new SingularityTranscoderException(e);
+    }
+  }
+
+  @Override
+  public byte[] toBytes(@Nullable SingularityTask task) throws SingularityTranscoderException {
+    if (task == null || !configuration.isStoreTasksCompactly()) {
+      return jsonTaskTranscoder.toBytes(task);
+    }
+
+    try {
+      final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+      final DataOutputStream body = new DataOutputStream(bodyBytes);
+
+      writeBytes(body, taskIdTranscoder.toBytes(task.getTaskId()));
+      body.writeBoolean(task.getRackId().isPresent());
+      if (task.getRackId().isPresent()) {
+        writeBytes(body, task.getRackId().get().getBytes(UTF_8));
+      }
+      writeBytes(body, requestTranscoder.toBytes(task.getTaskRequest().getRequest()));
+      writeBytes(body, pendingTaskTranscoder.toBytes(task.getTaskRequest().getPendingTask()));
+      writeBytes(body, task.getOffer().toByteArray());
+      writeBytes(body, task.getMesosTask().toByteArray());
+      body.flush();
+
+      final byte[] uncompressed = bodyBytes.toByteArray();
+
+      byte compression = COMPRESSION_NONE;
+      byte[] stored = uncompressed;
+
+      if (configuration.isCompressLargeDataObjects() && uncompressed.length >= configuration.getCompressionThresholdBytes()) {
+        final SingularityCompressionCodec codec = SingularityCompressionCodec.forType(configuration, SingularityTask.class);
+        final byte[] compressed = codec.compress(uncompressed);
+
+        if (compressed.length < uncompressed.length) {
+          compression = codec.getMarker();
+          stored = compressed;
+        }
+      }
+
+      final ByteArrayOutputStream data = new ByteArrayOutputStream(HEADER_LENGTH + stored.length);
+      data.write(MAGIC);
+      data.write(VERSION);
+      data.write(compression);
+      data.write(stored);
+
+      return data.toByteArray();
+    } catch (IOException e) {
+      throw new SingularityTranscoderException(e);
+    }
+  }
+
+  private Optional<SingularityDeploy> getDeploy(SingularityTaskId taskId) {
+    final Optional<SingularityDeploy> deploy = deployManager.getCachedDeploy(taskId.getRequestId(), taskId.getDeployId());
+
+    if (deploy.isPresent()) {
+      return deploy;
+    }
+
+    final Optional<SingularityDeployHistory> deployHistory = historyManager.getDeployHistory(taskId.getRequestId(), taskId.getDeployId());
+
+    if (!deployHistory.isPresent()) {
+      return Optional.absent();
+    }
+
+    return deployHistory.get().getDeploy();
+  }
+
+  private static byte[] uncompress(byte[] data) throws SingularityTranscoderException {
+    if (data[2] == COMPRESSION_NONE) {
+      return Arrays.copyOfRange(data, HEADER_LENGTH, data.length);
+    }
+
+    final Optional<SingularityCompressionCodec> codec = SingularityCompressionCodec.fromMarker(data[2]);
+
+    if (!codec.isPresent()) {
+      throw new SingularityTranscoderException("Unsupported compact task compression %s", data[2]);
+    }
+
+    return codec.get().uncompress(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+}
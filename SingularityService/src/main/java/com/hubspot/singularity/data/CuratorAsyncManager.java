@@ -6,10 +6,10 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.BackgroundCallback;
@@ -18,7 +18,9 @@ import org.apache.curator.utils.ZKPaths;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
@@ -29,19 +31,34 @@ import com.hubspot.singularity.data.transcoders.IdTranscoder;
 import com.hubspot.singularity.data.transcoders.Transcoder;
 import com.hubspot.singularity.data.transcoders.Transcoders;
 
+/**
+ * Bulk reads, issued as background ZooKeeper calls. At most zookeeperAsyncMaxInFlight calls of a bulk read are outstanding at once, and
+ * the read times out if no response frees up a slot (or, at the end, the last responses don't arrive) within zookeeperAsyncTimeout, or
+ * if it runs past zookeeperAsyncDeadline altogether. A read which times out fails, except for the *AllowingPartial reads, which return
+ * what arrived and how much didn't. Each response is stored at its path's index in a pre-sized array.
+ *
+ * The duration of each bulk read is recorded in a zk.async.[path] histogram, where path is the first two levels of the path read from (or
+ * the name the caller gave the read).
+ */
 public abstract class CuratorAsyncManager extends CuratorManager {
 
   private static final Logger LOG = LoggerFactory.getLogger(CuratorAsyncManager.class);
 
-  public CuratorAsyncManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry) {
-    super(curator, configuration, metricRegistry);
+  private final MetricRegistry metricRegistry;
+  private final Meter timeoutMeter;
+
+  public CuratorAsyncManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityZkMirror zkMirror) {
+    super(curator, configuration, metricRegistry, zkMirror);
+
+    this.metricRegistry = metricRegistry;
+    this.timeoutMeter = metricRegistry.meter("zk.async.timeouts");
   }
 
   private enum CuratorQueryMethod {
     GET_DATA, CHECK_EXISTS, GET_CHILDREN
   }
 
-  private <T> List<T> getAsyncChildrenThrows(final String parent, final Transcoder<T> transcoder) throws Exception {
+  private <T> ZkBulkReadResult<T> getAsyncChildrenThrows(final String parent, final Transcoder<T> transcoder, boolean allowPartial) throws Exception {
     final List<String> children = getChildren(parent);
     final List<String> paths = Lists.newArrayListWithCapacity(children.size());
 
@@ -49,14 +66,24 @@ public abstract class CuratorAsyncManager extends CuratorManager {
       paths.add(ZKPaths.makePath(parent, child));
     }
 
-    return getAsyncThrows(parent, paths, transcoder, Optional.<ZkCache<T>> absent());
+    return getAsyncThrows(parent, paths, transcoder, Optional.<ZkCache<T>> absent(), allowPartial);
   }
 
-  private <T> List<T> getAsyncThrows(final String pathNameForLogs, final Collection<String> paths, final Transcoder<T> transcoder, final Optional<ZkCache<T>> cache) throws Exception {
+  private <T> ZkBulkReadResult<T> getAsyncThrows(final String pathNameForLogs, final Collection<String> paths, final Transcoder<T> transcoder, final Optional<ZkCache<T>> cache,
+      boolean allowPartial) throws Exception {
     final List<T> objects = new ArrayList<>(paths.size());
+    final List<String> unmirroredPaths = Lists.newArrayListWithCapacity(paths.size());
+
+    for (String path : paths) {
+      if (zkMirror.servesData(path)) {
+        objects.addAll(zkMirror.getData(path, transcoder).asSet());
+      } else {
+        unmirroredPaths.add(path);
+      }
+    }
 
     if (cache.isPresent()) {
-      for (Iterator<String> itr = paths.iterator(); itr.hasNext();) {
+      for (Iterator<String> itr = unmirroredPaths.iterator(); itr.hasNext();) {
         Optional<T> fromCache = cache.get().get(itr.next());
         if (fromCache.isPresent()) {
           objects.add(fromCache.get());
@@ -65,44 +92,46 @@ public abstract class CuratorAsyncManager extends CuratorManager {
       }
     }
 
-    if (paths.isEmpty()) {
-      return objects;
+    if (unmirroredPaths.isEmpty()) {
+      return new ZkBulkReadResult<>(objects, 0);
     }
 
-    final List<T> synchronizedObjects = Collections.synchronizedList(objects);
-
-    final CountDownLatch latch = new CountDownLatch(paths.size());
+    final AtomicReferenceArray<T> results = new AtomicReferenceArray<>(unmirroredPaths.size());
     final AtomicInteger bytes = new AtomicInteger();
 
     final BackgroundCallback callback = new BackgroundCallback() {
 
       @Override
       public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
-        try {
-          if (event.getData() == null || event.getData().length == 0) {
-            LOG.trace("Expected active node {} but it wasn't there", event.getPath());
-            return;
-          }
-
-          bytes.getAndAdd(event.getData().length);
-          final T object = transcoder.fromBytes(event.getData());
-          synchronizedObjects.add(object);
-
-          if (cache.isPresent()) {
-            cache.get().set(event.getPath(), object);
-          }
-        } finally {
-          latch.countDown();
+        if (event.getData() == null || event.getData().length == 0) {
+          LOG.trace("Expected active node {} but it wasn't there", event.getPath());
+          return;
+        }
+
+        bytes.getAndAdd(event.getData().length);
+        final T object = transcoder.fromBytes(event.getData());
+        results.set((Integer) event.getContext(), object);
+
+        if (cache.isPresent()) {
+          cache.get().set(event.getPath(), object, event.getData().length);
         }
       }
     };
 
-    return queryAndReturnResultsThrows(objects, paths, callback, latch, pathNameForLogs, bytes, CuratorQueryMethod.GET_DATA);
+    final int numMissing = queryThrows(unmirroredPaths, callback, pathNameForLogs, bytes, CuratorQueryMethod.GET_DATA, allowPartial);
+
+    addResults(objects, results);
+
+    return new ZkBulkReadResult<>(objects, numMissing);
   }
 
-  private void checkLatch(CountDownLatch latch, String path) throws InterruptedException {
-    if (!latch.await(configuration.getZookeeperAsyncTimeout(), TimeUnit.MILLISECONDS)) {
-      throw new IllegalStateException(String.format("Timed out waiting response for objects from %s, waited %s millis", path, configuration.getZookeeperAsyncTimeout()));
+  private static <T> void addResults(List<T> objects, AtomicReferenceArray<T> results) {
+    for (int i = 0; i < results.length(); i++) {
+      final T result = results.get(i);
+
+      if (result != null) {
+        objects.add(result);
+      }
     }
   }
 
@@ -112,27 +141,43 @@ public abstract class CuratorAsyncManager extends CuratorManager {
     }
 
     final List<T> objects = Lists.newArrayListWithExpectedSize(parents.size());
-    final List<T> synchronizedObjects = Collections.synchronizedList(objects);
+    final List<String> unmirroredParents = Lists.newArrayListWithCapacity(parents.size());
 
-    final CountDownLatch latch = new CountDownLatch(parents.size());
+    for (String parent : parents) {
+      if (zkMirror.servesChildren(parent)) {
+        objects.addAll(Lists.transform(zkMirror.getChildren(parent), Transcoders.getFromStringFunction(idTranscoder)));
+      } else {
+        unmirroredParents.add(parent);
+      }
+    }
+
+    if (unmirroredParents.isEmpty()) {
+      return objects;
+    }
+
+    final AtomicReferenceArray<List<String>> results = new AtomicReferenceArray<>(unmirroredParents.size());
 
     final BackgroundCallback callback = new BackgroundCallback() {
 
       @Override
       public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
-        try {
-          if (event.getChildren() == null || event.getChildren().size() == 0) {
-            LOG.trace("Expected children for node {} - but found none", event.getPath());
-            return;
-          }
-          synchronizedObjects.addAll(Lists.transform(event.getChildren(), Transcoders.getFromStringFunction(idTranscoder)));
-        } finally {
-          latch.countDown();
+        if (event.getChildren() == null || event.getChildren().size() == 0) {
+          LOG.trace("Expected children for node {} - but found none", event.getPath());
+          return;
         }
+        results.set((Integer) event.getContext(), event.getChildren());
       }
     };
 
-    return queryAndReturnResultsThrows(synchronizedObjects, parents, callback, latch, pathNameforLogs, new AtomicInteger(), CuratorQueryMethod.GET_CHILDREN);
+    queryThrows(unmirroredParents, callback, pathNameforLogs, new AtomicInteger(), CuratorQueryMethod.GET_CHILDREN, false);
+
+    for (int i = 0; i < results.length(); i++) {
+      if (results.get(i) != null) {
+        objects.addAll(Lists.transform(results.get(i), Transcoders.getFromStringFunction(idTranscoder)));
+      }
+    }
+
+    return objects;
   }
 
   protected <T extends SingularityId> List<T> getChildrenAsIdsForParents(final String pathNameforLogs, final Collection<String> parents, final IdTranscoder<T> idTranscoder) {
@@ -153,24 +198,37 @@ public abstract class CuratorAsyncManager extends CuratorManager {
     }
 
     final List<T> objects = Lists.newArrayListWithCapacity(paths.size());
+    final List<String> unmirroredPaths = Lists.newArrayListWithCapacity(paths.size());
 
-    final CountDownLatch latch = new CountDownLatch(paths.size());
+    for (String path : paths) {
+      if (!zkMirror.servesData(path)) {
+        unmirroredPaths.add(path);
+      } else if (zkMirror.getStat(path).isPresent()) {
+        objects.add(Transcoders.getFromStringFunction(idTranscoder).apply(ZKPaths.getNodeFromPath(path)));
+      }
+    }
+
+    if (unmirroredPaths.isEmpty()) {
+      return objects;
+    }
+
+    final AtomicReferenceArray<T> results = new AtomicReferenceArray<>(unmirroredPaths.size());
 
     final BackgroundCallback callback = new BackgroundCallback() {
 
       @Override
       public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
-        try {
-          if (event.getStat() != null) {
-            objects.add(Transcoders.getFromStringFunction(idTranscoder).apply(ZKPaths.getNodeFromPath(event.getPath())));
-          }
-        } finally {
-          latch.countDown();
+        if (event.getStat() != null) {
+          results.set((Integer) event.getContext(), Transcoders.getFromStringFunction(idTranscoder).apply(ZKPaths.getNodeFromPath(event.getPath())));
         }
       }
     };
 
-    return queryAndReturnResultsThrows(objects, paths, callback, latch, pathNameforLogs, new AtomicInteger(), CuratorQueryMethod.GET_DATA);
+    queryThrows(unmirroredPaths, callback, pathNameforLogs, new AtomicInteger(), CuratorQueryMethod.GET_DATA, false);
+
+    addResults(objects, results);
+
+    return objects;
   }
 
   protected <T extends SingularityId> List<T> exists(final String pathNameForLogs, final Collection<String> paths, final IdTranscoder<T> idTranscoder) {
@@ -187,24 +245,40 @@ public abstract class CuratorAsyncManager extends CuratorManager {
     }
 
     final List<T> objects = Lists.newArrayListWithCapacity(pathsMap.size());
+    final List<String> unmirroredPaths = Lists.newArrayListWithCapacity(pathsMap.size());
+    final List<T> unmirroredObjects = Lists.newArrayListWithCapacity(pathsMap.size());
+
+    for (Map.Entry<String, T> entry : pathsMap.entrySet()) {
+      if (!zkMirror.servesData(entry.getKey())) {
+        unmirroredPaths.add(entry.getKey());
+        unmirroredObjects.add(entry.getValue());
+      } else if (!zkMirror.getStat(entry.getKey()).isPresent()) {
+        objects.add(entry.getValue());
+      }
+    }
+
+    if (unmirroredPaths.isEmpty()) {
+      return objects;
+    }
 
-    final CountDownLatch latch = new CountDownLatch(pathsMap.size());
+    final AtomicReferenceArray<T> results = new AtomicReferenceArray<>(unmirroredPaths.size());
 
     final BackgroundCallback callback = new BackgroundCallback() {
 
       @Override
       public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
-        try {
-          if (event.getStat() == null) {
-            objects.add(pathsMap.get(event.getPath()));
-          }
-        } finally {
-          latch.countDown();
+        if (event.getStat() == null) {
+          final int index = (Integer) event.getContext();
+          results.set(index, unmirroredObjects.get(index));
         }
       }
     };
 
-    return queryAndReturnResultsThrows(objects, pathsMap.keySet(), callback, latch, pathNameforLogs, new AtomicInteger(), CuratorQueryMethod.CHECK_EXISTS);
+    queryThrows(unmirroredPaths, callback, pathNameforLogs, new AtomicInteger(), CuratorQueryMethod.CHECK_EXISTS, false);
+
+    addResults(objects, results);
+
+    return objects;
   }
 
   protected <T extends SingularityId> List<T> notExists(final String pathNameForLogs, final Map<String, T> pathsMap) {
@@ -217,7 +291,15 @@ public abstract class CuratorAsyncManager extends CuratorManager {
 
   protected <T> List<T> getAsync(final String pathNameForLogs, final Collection<String> paths, final Transcoder<T> transcoder, final ZkCache<T> cache) {
     try {
-      return getAsyncThrows(pathNameForLogs, paths, transcoder, Optional.of(cache));
+      return getAsyncThrows(pathNameForLogs, paths, transcoder, Optional.of(cache), false).getObjects();
+    } catch (Throwable t) {
+      throw Throwables.propagate(t);
+    }
+  }
+
+  protected <T> ZkBulkReadResult<T> getAsyncAllowingPartial(final String pathNameForLogs, final Collection<String> paths, final Transcoder<T> transcoder, final ZkCache<T> cache) {
+    try {
+      return getAsyncThrows(pathNameForLogs, paths, transcoder, Optional.of(cache), true);
     } catch (Throwable t) {
       throw Throwables.propagate(t);
     }
@@ -225,7 +307,7 @@ public abstract class CuratorAsyncManager extends CuratorManager {
 
   protected <T> List<T> getAsync(final String pathNameForLogs, final Collection<String> paths, final Transcoder<T> transcoder) {
     try {
-      return getAsyncThrows(pathNameForLogs, paths, transcoder, Optional.<ZkCache<T>> absent());
+      return getAsyncThrows(pathNameForLogs, paths, transcoder, Optional.<ZkCache<T>> absent(), false).getObjects();
     } catch (Throwable t) {
       throw Throwables.propagate(t);
     }
@@ -233,47 +315,67 @@ public abstract class CuratorAsyncManager extends CuratorManager {
 
   protected <T> List<T> getAsyncChildren(final String parent, final Transcoder<T> transcoder) {
     try {
-      return getAsyncChildrenThrows(parent, transcoder);
+      return getAsyncChildrenThrows(parent, transcoder, false).getObjects();
+    } catch (Throwable t) {
+      throw Throwables.propagate(t);
+    }
+  }
+
+  protected <T> ZkBulkReadResult<T> getAsyncChildrenAllowingPartial(final String parent, final Transcoder<T> transcoder) {
+    try {
+      return getAsyncChildrenThrows(parent, transcoder, true);
     } catch (Throwable t) {
       throw Throwables.propagate(t);
     }
   }
 
   protected <T, Q> Map<T, List<Q>> getAsyncNestedChildDataAsMapThrows(final String pathNameForLogs, final Map<String, T> parentPathsMap, final String subpath, final Transcoder<Q> transcoder) throws Exception {
-    final Map<String, T> allPathsMap = Maps.newHashMap();
+    final List<String> allPaths = Lists.newArrayList();
+    final List<T> allParents = Lists.newArrayList();
+
     for (Map.Entry<String, T> entry : parentPathsMap.entrySet()) {
       for (String child : getChildren(ZKPaths.makePath(entry.getKey(), subpath))) {
-        allPathsMap.put(ZKPaths.makePath(entry.getKey(), subpath, child), entry.getValue());
+        allPaths.add(ZKPaths.makePath(entry.getKey(), subpath, child));
+        allParents.add(entry.getValue());
       }
     }
 
-    final ConcurrentHashMap<T, List<Q>> resultsMap = new ConcurrentHashMap<>();
-    final CountDownLatch latch = new CountDownLatch(allPathsMap.size());
+    final AtomicReferenceArray<Q> results = new AtomicReferenceArray<>(allPaths.size());
     final AtomicInteger bytes = new AtomicInteger();
     final BackgroundCallback callback = new BackgroundCallback() {
 
       @Override
       public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
-        try {
-          if (event.getData() == null || event.getData().length == 0) {
-            LOG.trace("Expected active node {} but it wasn't there", event.getPath());
-            return;
-          }
-          bytes.getAndAdd(event.getData().length);
-
-          final Q object = transcoder.fromBytes(event.getData());
-
-          if (allPathsMap.get(event.getPath()) != null) {
-            resultsMap.putIfAbsent(allPathsMap.get(event.getPath()), new ArrayList<Q>());
-            resultsMap.get(allPathsMap.get(event.getPath())).add(object);
-          }
-        } finally {
-          latch.countDown();
+        if (event.getData() == null || event.getData().length == 0) {
+          LOG.trace("Expected active node {} but it wasn't there", event.getPath());
+          return;
         }
+        bytes.getAndAdd(event.getData().length);
+
+        results.set((Integer) event.getContext(), transcoder.fromBytes(event.getData()));
       }
     };
 
-    return queryAndReturnResultsThrows(resultsMap, allPathsMap.keySet(), callback, latch, pathNameForLogs, bytes, CuratorQueryMethod.GET_DATA);
+    queryThrows(allPaths, callback, pathNameForLogs, bytes, CuratorQueryMethod.GET_DATA, false);
+
+    final Map<T, List<Q>> resultsMap = Maps.newHashMap();
+
+    for (int i = 0; i < results.length(); i++) {
+      if (results.get(i) == null) {
+        continue;
+      }
+
+      List<Q> parentResults = resultsMap.get(allParents.get(i));
+
+      if (parentResults == null) {
+        parentResults = new ArrayList<>();
+        resultsMap.put(allParents.get(i), parentResults);
+      }
+
+      parentResults.add(results.get(i));
+    }
+
+    return resultsMap;
   }
 
   protected <T, Q> Map<T, List<Q>> getAsyncNestedChildDataAsMap(final String pathNameForLogs, final Map<String, T> parentPathsMap, final String subpath, final Transcoder<Q> transcoder) {
@@ -284,31 +386,107 @@ public abstract class CuratorAsyncManager extends CuratorManager {
     }
   }
 
-  private <T> T queryAndReturnResultsThrows(final T results, final Collection<String> paths, final BackgroundCallback callback, final CountDownLatch latch, final String pathNameForLogs, final AtomicInteger bytes, final CuratorQueryMethod method) throws Exception {
+  /**
+   * Calls method for each of paths in the background, passing the index of the path in paths to callback as the event's context, with at
+   * most zookeeperAsyncMaxInFlight calls outstanding, and returns once callback has handled every response.
+   *
+   * @return the number of responses not handled when the read timed out, which is only returned (rather than thrown) with allowPartial
+   */
+  private int queryThrows(final List<String> paths, final BackgroundCallback callback, final String pathNameForLogs, final AtomicInteger bytes, final CuratorQueryMethod method,
+      boolean allowPartial) throws Exception {
+    if (paths.isEmpty()) {
+      return 0;
+    }
+
     final long start = System.currentTimeMillis();
+    final long deadline = configuration.getZookeeperAsyncDeadline() > 0 ? start + configuration.getZookeeperAsyncDeadline() : Long.MAX_VALUE;
+
+    final int maxInFlight = configuration.getZookeeperAsyncMaxInFlight() > 0 ? Math.min(configuration.getZookeeperAsyncMaxInFlight(), paths.size()) : paths.size();
+    final Semaphore inFlight = new Semaphore(maxInFlight);
+    final AtomicInteger responses = new AtomicInteger();
+
+    final BackgroundCallback windowedCallback = new BackgroundCallback() {
+
+      @Override
+      public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
+        try {
+          callback.processResult(client, event);
+        } finally {
+          responses.incrementAndGet();
+          inFlight.release();
+        }
+      }
+    };
 
     try {
-      for (String path : paths) {
+      for (int i = 0; i < paths.size(); i++) {
+        if (!acquire(inFlight, 1, deadline)) {
+          return timedOut(responses, paths.size(), pathNameForLogs, start, allowPartial);
+        }
+
         switch (method) {
           case GET_DATA:
-            curator.getData().inBackground(callback).forPath(path);
+            curator.getData().inBackground(windowedCallback, i).forPath(paths.get(i));
             break;
           case GET_CHILDREN:
-            curator.getChildren().inBackground(callback).forPath(path);
+            curator.getChildren().inBackground(windowedCallback, i).forPath(paths.get(i));
             break;
           case CHECK_EXISTS:
           default:
-            curator.checkExists().inBackground(callback).forPath(path);
+            curator.checkExists().inBackground(windowedCallback, i).forPath(paths.get(i));
             break;
         }
       }
 
-      checkLatch(latch, pathNameForLogs);
+      if (!acquire(inFlight, maxInFlight, deadline)) {
+        return timedOut(responses, paths.size(), pathNameForLogs, start, allowPartial);
+      }
+
+      return 0;
     } finally {
+      metricRegistry.histogram(String.format("zk.async.%s", getMetricName(pathNameForLogs))).update(System.currentTimeMillis() - start);
+
       log(OperationType.READ, Optional.of(paths.size()), bytes.get() > 0 ? Optional.of(bytes.get()) : Optional.<Integer>absent(), start, pathNameForLogs);
     }
+  }
+
+  /**
+   * Waits for permits for at most zookeeperAsyncTimeout, and not past the deadline of the whole read.
+   */
+  private boolean acquire(Semaphore inFlight, int permits, long deadline) throws InterruptedException {
+    final long waitMillis = Math.min(configuration.getZookeeperAsyncTimeout(), deadline - System.currentTimeMillis());
+
+    return inFlight.tryAcquire(permits, Math.max(0, waitMillis), TimeUnit.MILLISECONDS);
+  }
+
+  private int timedOut(AtomicInteger responses, int numPaths, String pathNameForLogs, long start, boolean allowPartial) {
+    timeoutMeter.mark();
+
+    final int numResponses = responses.get();
+    final String message = String.format("Timed out waiting response for objects from %s, received %s of %s in %s millis", pathNameForLogs, numResponses, numPaths,
+        System.currentTimeMillis() - start);
+
+    if (!allowPartial) {
+      throw new IllegalStateException(message);
+    }
+
+    LOG.warn("{}, returning partial results", message);
+
+    return numPaths - numResponses;
+  }
+
+  /**
+   * Bulk reads of a path are named after its first two levels (e.g. /tasks/history/[request]/... as tasks.history), so that there is a
+   * bounded number of histograms.
+   */
+  private static String getMetricName(String pathNameForLogs) {
+    if (!pathNameForLogs.startsWith(ZKPaths.PATH_SEPARATOR)) {
+      return pathNameForLogs;
+    }
+
+    final List<String> levels = ZKPaths.split(pathNameForLogs);
 
-    return results;
+    return levels.isEmpty() ? "root" : Joiner.on('.').join(levels.subList(0, Math.min(2, levels.size())));
   }
 
 }
@@ -1,14 +1,18 @@
 package com.hubspot.singularity.data;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.ACLBackgroundPathAndBytesable;
 import org.apache.curator.framework.api.GetDataBuilder;
-import org.apache.curator.framework.api.ProtectACLCreateModePathAndBytesable;
 import org.apache.curator.framework.api.SetDataBuilder;
+import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
+import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
+import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException.NoNodeException;
 import org.apache.zookeeper.KeeperException.NodeExistsException;
 import org.apache.zookeeper.data.Stat;
@@ -35,12 +39,14 @@ public abstract class CuratorManager {
 
   protected final SingularityConfiguration configuration;
   protected final CuratorFramework curator;
+  protected final SingularityZkMirror zkMirror;
 
   private final Map<OperationType, Metrics> typeToMetrics;
 
-  public CuratorManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry) {
+  public CuratorManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityZkMirror zkMirror) {
     this.configuration = configuration;
     this.curator = curator;
+    this.zkMirror = zkMirror;
 
     this.typeToMetrics = ImmutableMap.of(OperationType.READ, new Metrics(metricRegistry, OperationType.READ),
         OperationType.WRITE, new Metrics(metricRegistry, OperationType.WRITE));
@@ -87,6 +93,10 @@ public abstract class CuratorManager {
   }
 
   protected int getNumChildren(String path) {
+    if (zkMirror.servesChildren(path)) {
+      return zkMirror.getChildren(path).size();
+    }
+
     try {
       Stat s = curator.checkExists().forPath(path);
       if (s != null) {
@@ -101,6 +111,10 @@ public abstract class CuratorManager {
   }
 
   protected Optional<Stat> checkExists(String path) {
+    if (zkMirror.servesData(path)) {
+      return zkMirror.getStat(path);
+    }
+
     try {
       Stat stat = curator.checkExists().forPath(path);
       return Optional.fromNullable(stat);
@@ -119,6 +133,10 @@ public abstract class CuratorManager {
   }
 
   protected List<String> getChildren(String root) {
+    if (zkMirror.servesChildren(root)) {
+      return zkMirror.getChildren(root);
+    }
+
     final long start = System.currentTimeMillis();
     int numChildren = 0;
 
@@ -140,9 +158,11 @@ public abstract class CuratorManager {
 
     try {
       curator.delete().deletingChildrenIfNeeded().forPath(path);
+      zkMirror.deleted(path);
       return SingularityDeleteResult.DELETED;
     } catch (NoNodeException nne) {
       LOG.trace("Tried to delete an item at path {} that didn't exist", path);
+      zkMirror.deleted(path);
       return SingularityDeleteResult.DIDNT_EXIST;
     } catch (Throwable t) {
       throw Throwables.propagate(t);
@@ -161,7 +181,7 @@ public abstract class CuratorManager {
 
   protected SingularityCreateResult create(String path, Optional<byte[]> data) {
     try {
-      privateCreate(path, data);
+      privateCreate(path, data, CreateMode.PERSISTENT);
 
       return SingularityCreateResult.CREATED;
     } catch (NodeExistsException nee) {
@@ -171,18 +191,19 @@ public abstract class CuratorManager {
     }
   }
 
-  private void privateCreate(String path, Optional<byte[]> data) throws Exception {
+  private void privateCreate(String path, Optional<byte[]> data, CreateMode createMode) throws Exception {
     final long start = System.currentTimeMillis();
 
     try {
-      ProtectACLCreateModePathAndBytesable<String> createBuilder = curator.create().creatingParentsIfNeeded();
-
+      ACLBackgroundPathAndBytesable<String> createBuilder = curator.create().creatingParentsIfNeeded().withMode(createMode);
 
       if (data.isPresent()) {
         createBuilder.forPath(path, data.get());
       } else {
         createBuilder.forPath(path);
       }
+
+      zkMirror.written(path, null);
     } finally {
       log(OperationType.WRITE, Optional.<Integer> absent(), Optional.<Integer> of(data.or(EMPTY_BYTES).length), start, path);
     }
@@ -193,8 +214,15 @@ public abstract class CuratorManager {
   }
 
   protected SingularityCreateResult save(String path, Optional<byte[]> data) {
+    return save(path, data, CreateMode.PERSISTENT);
+  }
+
+  /**
+   * @param createMode how to create the node if it doesn't exist yet
+   */
+  protected SingularityCreateResult save(String path, Optional<byte[]> data, CreateMode createMode) {
     try {
-      privateCreate(path, data);
+      privateCreate(path, data, createMode);
 
       return SingularityCreateResult.CREATED;
     } catch (NodeExistsException nee) {
@@ -210,11 +238,9 @@ public abstract class CuratorManager {
     try {
       SetDataBuilder setDataBuilder = curator.setData();
 
-      if (data.isPresent()) {
-        setDataBuilder.forPath(path, data.get());
-      } else {
-        setDataBuilder.forPath(path);
-      }
+      final Stat stat = data.isPresent() ? setDataBuilder.forPath(path, data.get()) : setDataBuilder.forPath(path);
+
+      zkMirror.written(path, stat);
     } finally {
 
       log(OperationType.WRITE, Optional.<Integer> absent(), Optional.<Integer> of(data.or(EMPTY_BYTES).length), start, path);
@@ -233,7 +259,36 @@ public abstract class CuratorManager {
     }
   }
 
+  /**
+   * Commits a transaction built on {@link #curator}, recording its writes with the {@link SingularityZkMirror}.
+   */
+  protected Collection<CuratorTransactionResult> commit(CuratorTransactionFinal transaction) throws Exception {
+    final Collection<CuratorTransactionResult> results = transaction.commit();
+
+    for (CuratorTransactionResult result : results) {
+      switch (result.getType()) {
+        case CREATE:
+          zkMirror.written(result.getForPath(), null);
+          break;
+        case SET_DATA:
+          zkMirror.written(result.getForPath(), result.getResultStat());
+          break;
+        case DELETE:
+          zkMirror.deleted(result.getForPath());
+          break;
+        default:
+          break;
+      }
+    }
+
+    return results;
+  }
+
   private <T> Optional<T> getData(String path, Optional<Stat> stat, Transcoder<T> transcoder, Optional<ZkCache<T>> zkCache, Optional<Boolean> shouldCheckExists) {
+    if (!stat.isPresent() && zkMirror.servesData(path)) {
+      return zkMirror.getData(path, transcoder);
+    }
+
     if (!stat.isPresent() && zkCache.isPresent()) {
       Optional<T> cachedValue = zkCache.get().get(path);
       if (cachedValue.isPresent() && (!shouldCheckExists.isPresent() || (shouldCheckExists.get().booleanValue() && checkExists(path).isPresent()))) {
@@ -263,7 +318,7 @@ public abstract class CuratorManager {
       final T object = transcoder.fromBytes(data);
 
       if (zkCache.isPresent()) {
-        zkCache.get().set(path, object);
+        zkCache.get().set(path, object, data.length);
       }
 
       return Optional.of(object);
@@ -52,6 +52,8 @@ public class DeployManager extends CuratorAsyncManager {
 
   private final IdTranscoder<SingularityDeployKey> deployKeyTranscoder;
 
+  private final ZkCache<SingularityDeploy> deployCache;
+
   private static final String DEPLOY_ROOT = "/deploys";
 
   private static final String PENDING_ROOT = DEPLOY_ROOT + "/pending";
@@ -69,11 +71,11 @@ public class DeployManager extends CuratorAsyncManager {
   private static final String DEPLOY_RESULT_KEY = "RESULT_STATE";
 
   @Inject
-  public DeployManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityEventListener singularityEventListener, Transcoder<SingularityDeploy> deployTranscoder,
+  public DeployManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityZkMirror zkMirror, SingularityEventListener singularityEventListener, Transcoder<SingularityDeploy> deployTranscoder,
       Transcoder<SingularityRequestDeployState> requestDeployStateTranscoder, Transcoder<SingularityPendingDeploy> pendingDeployTranscoder, Transcoder<SingularityDeployMarker> deployMarkerTranscoder,
       Transcoder<SingularityDeployStatistics> deployStatisticsTranscoder, Transcoder<SingularityDeployResult> deployStateTranscoder, IdTranscoder<SingularityDeployKey> deployKeyTranscoder,
-      Transcoder<SingularityUpdatePendingDeployRequest> updateRequestTranscoder) {
-    super(curator, configuration, metricRegistry);
+      Transcoder<SingularityUpdatePendingDeployRequest> updateRequestTranscoder, ZkCache<SingularityDeploy> deployCache) {
+    super(curator, configuration, metricRegistry, zkMirror);
 
     this.singularityEventListener = singularityEventListener;
     this.pendingDeployTranscoder = pendingDeployTranscoder;
@@ -84,6 +86,7 @@ public class DeployManager extends CuratorAsyncManager {
     this.deployStateTranscoder = deployStateTranscoder;
     this.deployKeyTranscoder = deployKeyTranscoder;
     this.updateRequestTranscoder = updateRequestTranscoder;
+    this.deployCache = deployCache;
   }
 
   public List<SingularityDeployKey> getDeployIdsFor(String requestId) {
@@ -126,6 +129,42 @@ public class DeployManager extends CuratorAsyncManager {
     return getRequestDeployStatesByRequestIds(requestIds);
   }
 
+  @Timed
+  public Map<String, SingularityPendingDeploy> getPendingDeploysByRequestIds(Collection<String> requestIds) {
+    final List<String> paths = Lists.newArrayListWithCapacity(requestIds.size());
+
+    for (String requestId : requestIds) {
+      paths.add(getPendingDeployPath(requestId));
+    }
+
+    return Maps.uniqueIndex(getAsync("pending_deploys", paths, pendingDeployTranscoder), new Function<SingularityPendingDeploy, String>() {
+
+      @Override
+      public String apply(SingularityPendingDeploy input) {
+        return input.getDeployMarker().getRequestId();
+      }
+
+    });
+  }
+
+  @Timed
+  public Map<SingularityDeployKey, SingularityDeployStatistics> getDeployStatisticsForKeys(Collection<SingularityDeployKey> deployKeys) {
+    final List<String> paths = Lists.newArrayListWithCapacity(deployKeys.size());
+
+    for (SingularityDeployKey deployKey : deployKeys) {
+      paths.add(getDeployStatisticsPath(deployKey.getRequestId(), deployKey.getDeployId()));
+    }
+
+    return Maps.uniqueIndex(getAsync("deploy_statistics", paths, deployStatisticsTranscoder), new Function<SingularityDeployStatistics, SingularityDeployKey>() {
+
+      @Override
+      public SingularityDeployKey apply(SingularityDeployStatistics input) {
+        return new SingularityDeployKey(input.getRequestId(), input.getDeployId());
+      }
+
+    });
+  }
+
   public List<SingularityDeployMarker> getCancelDeploys() {
     return getAsyncChildren(CANCEL_ROOT, deployMarkerTranscoder);
   }
@@ -174,7 +213,7 @@ public class DeployManager extends CuratorAsyncManager {
       paths.add(getDeployDataPath(deployKey.getRequestId(), deployKey.getDeployId()));
     }
 
-    final List<SingularityDeploy> deploys = getAsync("deploys-by-key", paths, deployTranscoder);
+    final List<SingularityDeploy> deploys = getAsync("deploys-by-key", paths, deployTranscoder, deployCache);
 
     final Map<SingularityDeployKey, SingularityDeploy> deployKeyToDeploy = Maps.uniqueIndex(deploys, new Function<SingularityDeploy, SingularityDeployKey>() {
       @Override
@@ -246,6 +285,13 @@ public class DeployManager extends CuratorAsyncManager {
     return getData(deployPath, deployTranscoder);
   }
 
+  /**
+   * Reads a deploy through the deploy cache, so that tasks referring to the same deploy share one copy of it.
+   */
+  public Optional<SingularityDeploy> getCachedDeploy(String requestId, String deployId) {
+    return getData(getDeployDataPath(requestId, deployId), deployTranscoder, deployCache, false);
+  }
+
   public Optional<String> getInUseDeployId(String requestId) {
     Optional<SingularityRequestDeployState> deployState = getRequestDeployState(requestId);
 
@@ -289,6 +335,8 @@ public class DeployManager extends CuratorAsyncManager {
   }
 
   public SingularityDeleteResult deleteDeployHistory(SingularityDeployKey deployKey) {
+    deployCache.delete(getDeployDataPath(deployKey.getRequestId(), deployKey.getDeployId()));
+
     return delete(getDeployParentPath(deployKey.getRequestId(), deployKey.getDeployId()));
   }
 
@@ -26,8 +26,8 @@ public class MetadataManager extends CuratorManager {
   private static final String MAIL_IN_COOLDOWN_MARKER_KEY = "COOLDOWN_ACTIVE";
 
   @Inject
-  public MetadataManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry) {
-    super(curator, configuration, metricRegistry);
+  public MetadataManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityZkMirror zkMirror) {
+    super(curator, configuration, metricRegistry, zkMirror);
   }
 
   private String getMailRecordPathForRequest(String requestId) {
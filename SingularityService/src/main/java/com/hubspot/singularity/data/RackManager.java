@@ -13,12 +13,12 @@ import com.hubspot.singularity.data.transcoders.Transcoder;
 @Singleton
 public class RackManager extends AbstractMachineManager<SingularityRack> {
 
-  private static final String RACK_ROOT = "/racks";
+  static final String RACK_ROOT = "/racks";
 
   @Inject
-  public RackManager(CuratorFramework curator, SingularityConfiguration configuration,  MetricRegistry metricRegistry,Transcoder<SingularityRack> rackTranscoder,
-      Transcoder<SingularityMachineStateHistoryUpdate> stateHistoryTranscoder) {
-    super(curator, configuration, metricRegistry, rackTranscoder, stateHistoryTranscoder);
+  public RackManager(CuratorFramework curator, SingularityConfiguration configuration,  MetricRegistry metricRegistry, SingularityZkMirror zkMirror, Transcoder<SingularityRack> rackTranscoder,
+      Transcoder<SingularityMachineStateHistoryUpdate> stateHistoryTranscoder, SingularityLeaderCache leaderCache) {
+    super(curator, configuration, metricRegistry, zkMirror, rackTranscoder, stateHistoryTranscoder, leaderCache.getRacks());
   }
 
   @Override
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
 import org.apache.curator.utils.ZKPaths;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,11 +78,11 @@ public class RequestManager extends CuratorAsyncManager {
   private final Map<Class<? extends SingularityExpiringParent<? extends SingularityExpiringRequestParent>>, Transcoder<? extends SingularityExpiringParent<? extends SingularityExpiringRequestParent>>> expiringTranscoderMap;
 
   @Inject
-  public RequestManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityEventListener singularityEventListener,
+  public RequestManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityZkMirror zkMirror, SingularityEventListener singularityEventListener,
       Transcoder<SingularityRequestCleanup> requestCleanupTranscoder, Transcoder<SingularityRequestWithState> requestTranscoder, Transcoder<SingularityRequestLbCleanup> requestLbCleanupTranscoder,
       Transcoder<SingularityPendingRequest> pendingRequestTranscoder, Transcoder<SingularityRequestHistory> requestHistoryTranscoder, Transcoder<SingularityExpiringBounce> expiringBounceTranscoder,
       Transcoder<SingularityExpiringScale> expiringScaleTranscoder,  Transcoder<SingularityExpiringPause> expiringPauseTranscoder, Transcoder<SingularityExpiringSkipHealthchecks> expiringSkipHealthchecksTranscoder) {
-    super(curator, configuration, metricRegistry);
+    super(curator, configuration, metricRegistry, zkMirror);
     this.requestTranscoder = requestTranscoder;
     this.requestCleanupTranscoder = requestCleanupTranscoder;
     this.pendingRequestTranscoder = pendingRequestTranscoder;
@@ -153,6 +154,40 @@ public class RequestManager extends CuratorAsyncManager {
     return delete(getPendingPath(pendingRequest));
   }
 
+  /**
+   * Deletes pending requests in multi-op transactions of at most pendingQueueDrainBatchSize requests, falling back to deleting each pending
+   * request of a failed batch on its own.
+   */
+  public void deletePendingRequests(List<SingularityPendingRequest> pendingRequests) {
+    for (List<SingularityPendingRequest> batch : Lists.partition(pendingRequests, Math.max(1, configuration.getPendingQueueDrainBatchSize()))) {
+      try {
+        deletePendingRequestsInTransaction(batch);
+      } catch (Throwable t) {
+        LOG.warn("Failed to delete a batch of {} pending requests in one transaction, deleting them individually", batch.size(), t);
+
+        for (SingularityPendingRequest pendingRequest : batch) {
+          deletePendingRequest(pendingRequest);
+        }
+      }
+    }
+  }
+
+  private void deletePendingRequestsInTransaction(List<SingularityPendingRequest> batch) throws Exception {
+    final long start = System.currentTimeMillis();
+
+    CuratorTransactionFinal transaction = null;
+
+    for (SingularityPendingRequest pendingRequest : batch) {
+      transaction = (transaction == null ? curator.inTransaction() : transaction).delete().forPath(getPendingPath(pendingRequest)).and();
+    }
+
+    try {
+      commit(transaction);
+    } finally {
+      log(OperationType.WRITE, Optional.of(batch.size()), Optional.<Integer> absent(), start, PENDING_PATH_ROOT);
+    }
+  }
+
   public SingularityDeleteResult deleteHistoryParent(String requestId) {
     return delete(getHistoryParentPath(requestId));
   }
@@ -314,6 +349,13 @@ public class RequestManager extends CuratorAsyncManager {
     return getAsyncChildren(NORMAL_PATH_ROOT, requestTranscoder);
   }
 
+  /**
+   * For listings which would rather show the requests that could be read in time than fail.
+   */
+  public ZkBulkReadResult<SingularityRequestWithState> getRequestsAllowingPartial() {
+    return getAsyncChildrenAllowingPartial(NORMAL_PATH_ROOT, requestTranscoder);
+  }
+
   public Optional<SingularityRequestWithState> getRequest(String requestId) {
     return getData(getRequestPath(requestId), requestTranscoder);
   }
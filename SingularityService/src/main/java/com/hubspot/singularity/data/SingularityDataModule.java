@@ -5,6 +5,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
+import com.hubspot.singularity.SingularityDeploy;
 import com.hubspot.singularity.SingularityTask;
 import com.hubspot.singularity.config.SingularityConfiguration;
 import com.hubspot.singularity.helpers.RequestHelper;
@@ -18,6 +19,10 @@ public class SingularityDataModule extends AbstractModule {
     bind(MetadataManager.class).in(Scopes.SINGLETON);
     bind(StateManager.class).in(Scopes.SINGLETON);
     bind(TaskManager.class).in(Scopes.SINGLETON);
+    bind(CompactTaskTranscoder.class).in(Scopes.SINGLETON);
+    bind(SingularityLeaderCache.class).in(Scopes.SINGLETON);
+    bind(SingularityLeaderCacheCoordinator.class).in(Scopes.SINGLETON);
+    bind(SingularityZkMirror.class).in(Scopes.SINGLETON);
     bind(DeployManager.class).in(Scopes.SINGLETON);
     bind(RackManager.class).in(Scopes.SINGLETON);
     bind(RequestManager.class).in(Scopes.SINGLETON);
@@ -33,7 +38,13 @@ public class SingularityDataModule extends AbstractModule {
   @Provides
   @Singleton
   public ZkCache<SingularityTask> taskCache(SingularityConfiguration configuration, MetricRegistry registry) {
-    return new ZkCache<SingularityTask>(configuration.getCacheTasksMaxSize(), configuration.getCacheTasksInitialSize(), configuration.getCacheTasksForMillis(), registry, "tasks");
+    return new ZkCache<SingularityTask>(configuration.getCacheTasksMaxSize(), configuration.getCacheTasksMaxBytes(), configuration.getCacheTasksInitialSize(), configuration.getCacheTasksForMillis(), registry, "tasks");
+  }
+
+  @Provides
+  @Singleton
+  public ZkCache<SingularityDeploy> deployCache(SingularityConfiguration configuration, MetricRegistry registry) {
+    return new ZkCache<SingularityDeploy>(configuration.getCacheDeploysMaxSize(), configuration.getCacheDeploysMaxBytes(), configuration.getCacheDeploysInitialSize(), configuration.getCacheDeploysForMillis(), registry, "deploys");
   }
 
 }
@@ -0,0 +1,275 @@
+package com.hubspot.singularity.data;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.inject.Singleton;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
+import com.hubspot.singularity.SingularityKilledTaskIdRecord;
+import com.hubspot.singularity.SingularityPendingTask;
+import com.hubspot.singularity.SingularityPendingTaskId;
+import com.hubspot.singularity.SingularityRack;
+import com.hubspot.singularity.SingularitySlave;
+import com.hubspot.singularity.SingularityTaskId;
+
+/**
+ * In-memory copy of the active, pending, cleaning and killed task listings, and of the slaves and racks, held only while this instance is
+ * the leader.
+ *
+ * Loaded and kept current by {@link SingularityLeaderCacheCoordinator}, and written through by {@link TaskManager}, {@link SlaveManager}
+ * and {@link RackManager}, which serve reads from here instead of ZooKeeper while the cache is active. Pending tasks are kept ordered by
+ * nextRunAt, so finding the due tasks only touches the tasks which are due.
+ */
+@Singleton
+public class SingularityLeaderCache {
+
+  private final Set<SingularityTaskId> activeTaskIds;
+  private final ConcurrentSkipListMap<SingularityPendingTaskId, SingularityPendingTask> pendingTasks;
+  private final Set<SingularityTaskId> cleanupTaskIds;
+  private final ConcurrentMap<SingularityTaskId, SingularityKilledTaskIdRecord> killedTaskIdRecords;
+  private final SingularityMachineCache<SingularitySlave> slaves;
+  private final SingularityMachineCache<SingularityRack> racks;
+
+  private final Set<SingularityPendingTask> pendingTasksView;
+
+  private volatile boolean active;
+
+  @Inject
+  public SingularityLeaderCache() {
+    this.activeTaskIds = Sets.newConcurrentHashSet();
+    this.pendingTasks = new ConcurrentSkipListMap<>();
+    this.cleanupTaskIds = Sets.newConcurrentHashSet();
+    this.killedTaskIdRecords = Maps.newConcurrentMap();
+    this.slaves = new SingularityMachineCache<>();
+    this.racks = new SingularityMachineCache<>();
+
+    this.pendingTasksView = new AbstractSet<SingularityPendingTask>() {
+
+      @Override
+      public boolean contains(Object o) {
+        return o instanceof SingularityPendingTask && pendingTasks.containsKey(((SingularityPendingTask) o).getPendingTaskId());
+      }
+
+      @Override
+      public Iterator<SingularityPendingTask> iterator() {
+        return Iterators.unmodifiableIterator(pendingTasks.values().iterator());
+      }
+
+      @Override
+      public int size() {
+        return pendingTasks.size();
+      }
+
+    };
+  }
+
+  public boolean active() {
+    return active;
+  }
+
+  /**
+   * Replaces the cached listings and activates the cache.
+   *
+   * @return the number of entries which were added or removed, 0 if the cache was not active before
+   */
+  synchronized int load(Collection<SingularityTaskId> activeTaskIds, Collection<SingularityPendingTask> pendingTasks, Collection<SingularityTaskId> cleanupTaskIds,
+      Collection<SingularityKilledTaskIdRecord> killedTaskIdRecords) {
+    final Map<SingularityPendingTaskId, SingularityPendingTask> pendingTasksById = Maps.newHashMapWithExpectedSize(pendingTasks.size());
+    for (SingularityPendingTask pendingTask : pendingTasks) {
+      pendingTasksById.put(pendingTask.getPendingTaskId(), pendingTask);
+    }
+
+    final Map<SingularityTaskId, SingularityKilledTaskIdRecord> killedTaskIdRecordsById = Maps.newHashMapWithExpectedSize(killedTaskIdRecords.size());
+    for (SingularityKilledTaskIdRecord killedTaskIdRecord : killedTaskIdRecords) {
+      killedTaskIdRecordsById.put(killedTaskIdRecord.getTaskId(), killedTaskIdRecord);
+    }
+
+    final boolean wasActive = active;
+
+    int drift = retainLoaded(this.activeTaskIds, Sets.newHashSet(activeTaskIds));
+    drift += retainLoaded(this.pendingTasks.keySet(), pendingTasksById.keySet());
+    drift += retainLoaded(this.cleanupTaskIds, Sets.newHashSet(cleanupTaskIds));
+    drift += retainLoaded(this.killedTaskIdRecords.keySet(), killedTaskIdRecordsById.keySet());
+
+    this.activeTaskIds.addAll(activeTaskIds);
+    this.pendingTasks.putAll(pendingTasksById);
+    this.cleanupTaskIds.addAll(cleanupTaskIds);
+    this.killedTaskIdRecords.putAll(killedTaskIdRecordsById);
+
+    active = true;
+
+    return wasActive ? drift : 0;
+  }
+
+  /**
+   * Removes the entries of current which aren't in loaded, and returns how many entries differed between the two.
+   */
+  private static <T> int retainLoaded(Set<T> current, Set<T> loaded) {
+    int changed = 0;
+
+    for (T item : loaded) {
+      if (!current.contains(item)) {
+        changed++;
+      }
+    }
+
+    for (T item : current) {
+      if (!loaded.contains(item)) {
+        changed++;
+      }
+    }
+
+    current.retainAll(loaded);
+
+    return changed;
+  }
+
+  synchronized void clear() {
+    active = false;
+
+    activeTaskIds.clear();
+    pendingTasks.clear();
+    cleanupTaskIds.clear();
+    killedTaskIdRecords.clear();
+
+    slaves.clear();
+    racks.clear();
+  }
+
+  public List<SingularityTaskId> getActiveTaskIds() {
+    return Lists.newArrayList(activeTaskIds);
+  }
+
+  /**
+   * @return a read-only, live view of the active task ids
+   */
+  public Set<SingularityTaskId> getActiveTaskIdsView() {
+    return Collections.unmodifiableSet(activeTaskIds);
+  }
+
+  public boolean isActiveTask(SingularityTaskId taskId) {
+    return activeTaskIds.contains(taskId);
+  }
+
+  public int getNumActiveTasks() {
+    return activeTaskIds.size();
+  }
+
+  public void putActiveTaskId(SingularityTaskId taskId) {
+    activeTaskIds.add(taskId);
+  }
+
+  public void deleteActiveTaskId(SingularityTaskId taskId) {
+    activeTaskIds.remove(taskId);
+  }
+
+  public List<SingularityPendingTask> getPendingTasks() {
+    return Lists.newArrayList(pendingTasks.values());
+  }
+
+  /**
+   * @return a read-only, live view of the pending tasks, in nextRunAt order
+   */
+  public Set<SingularityPendingTask> getPendingTasksView() {
+    return pendingTasksView;
+  }
+
+  public List<SingularityPendingTaskId> getPendingTaskIds() {
+    return Lists.newArrayList(pendingTasks.keySet());
+  }
+
+  public List<SingularityPendingTask> getDuePendingTasks(long now) {
+    final List<SingularityPendingTask> dueTasks = Lists.newArrayList();
+
+    for (SingularityPendingTask pendingTask : pendingTasks.values()) {
+      if (pendingTask.getPendingTaskId().getNextRunAt() > now) {
+        break;
+      }
+
+      dueTasks.add(pendingTask);
+    }
+
+    return dueTasks;
+  }
+
+  public Optional<SingularityPendingTask> getPendingTask(SingularityPendingTaskId pendingTaskId) {
+    return Optional.fromNullable(pendingTasks.get(pendingTaskId));
+  }
+
+  public int getNumPendingTasks() {
+    return pendingTasks.size();
+  }
+
+  public void putPendingTask(SingularityPendingTask pendingTask) {
+    pendingTasks.put(pendingTask.getPendingTaskId(), pendingTask);
+  }
+
+  public void deletePendingTask(SingularityPendingTaskId pendingTaskId) {
+    pendingTasks.remove(pendingTaskId);
+  }
+
+  public List<SingularityTaskId> getCleanupTaskIds() {
+    return Lists.newArrayList(cleanupTaskIds);
+  }
+
+  /**
+   * @return a read-only, live view of the cleaning task ids
+   */
+  public Set<SingularityTaskId> getCleanupTaskIdsView() {
+    return Collections.unmodifiableSet(cleanupTaskIds);
+  }
+
+  public boolean isCleanupTask(SingularityTaskId taskId) {
+    return cleanupTaskIds.contains(taskId);
+  }
+
+  public int getNumCleanupTasks() {
+    return cleanupTaskIds.size();
+  }
+
+  public void putCleanupTaskId(SingularityTaskId taskId) {
+    cleanupTaskIds.add(taskId);
+  }
+
+  public void deleteCleanupTaskId(SingularityTaskId taskId) {
+    cleanupTaskIds.remove(taskId);
+  }
+
+  public List<SingularityKilledTaskIdRecord> getKilledTaskIdRecords() {
+    return Lists.newArrayList(killedTaskIdRecords.values());
+  }
+
+  public boolean isKilledTask(SingularityTaskId taskId) {
+    return killedTaskIdRecords.containsKey(taskId);
+  }
+
+  public void putKilledTaskIdRecord(SingularityKilledTaskIdRecord killedTaskIdRecord) {
+    killedTaskIdRecords.put(killedTaskIdRecord.getTaskId(), killedTaskIdRecord);
+  }
+
+  public void deleteKilledTaskIdRecord(SingularityTaskId taskId) {
+    killedTaskIdRecords.remove(taskId);
+  }
+
+  public SingularityMachineCache<SingularitySlave> getSlaves() {
+    return slaves;
+  }
+
+  public SingularityMachineCache<SingularityRack> getRacks() {
+    return racks;
+  }
+
+}
@@ -0,0 +1,324 @@
+package com.hubspot.singularity.data;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Singleton;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher.Event.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
+import com.hubspot.mesos.JavaUtils;
+import com.hubspot.singularity.SingularityManagedScheduledExecutorServiceFactory;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.SingularityZkMirror.ConsistentReads;
+
+/**
+ * Activates the {@link SingularityLeaderCache} when this instance starts leading and keeps it in line with ZooKeeper: a child watch on each
+ * cached path applies changes made by other instances (or missed by {@link TaskManager}), and {@link #reconcileLeaderCache()} periodically
+ * reloads everything to correct any remaining drift.
+ *
+ * Slaves and racks change state in place (e.g. when decommissioned through the API of another instance), so each of them also has a data
+ * watch.
+ *
+ * Everything the leader cache loads is read from ZooKeeper, never from the {@link SingularityZkMirror}.
+ */
+@Singleton
+public class SingularityLeaderCacheCoordinator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SingularityLeaderCacheCoordinator.class);
+
+  private static final long WATCH_RETRY_DELAY_SECONDS = 5;
+
+  private final SingularityConfiguration configuration;
+  private final CuratorFramework curator;
+  private final TaskManager taskManager;
+  private final SlaveManager slaveManager;
+  private final RackManager rackManager;
+  private final SingularityLeaderCache leaderCache;
+  private final SingularityZkMirror zkMirror;
+  private final SingularityManagedScheduledExecutorServiceFactory executorServiceFactory;
+
+  private final Meter driftMeter;
+  private final AtomicInteger watchGeneration;
+  private final Set<String> watchedMachinePaths;
+
+  private ScheduledExecutorService executorService;
+
+  @Inject
+  SingularityLeaderCacheCoordinator(SingularityConfiguration configuration, CuratorFramework curator, TaskManager taskManager, SlaveManager slaveManager,
+      RackManager rackManager, SingularityLeaderCache leaderCache, SingularityZkMirror zkMirror,
+      SingularityManagedScheduledExecutorServiceFactory executorServiceFactory, MetricRegistry registry) {
+    this.configuration = configuration;
+    this.curator = curator;
+    this.taskManager = taskManager;
+    this.slaveManager = slaveManager;
+    this.rackManager = rackManager;
+    this.leaderCache = leaderCache;
+    this.zkMirror = zkMirror;
+    this.executorServiceFactory = executorServiceFactory;
+
+    this.driftMeter = registry.meter("leaderCache.drift");
+    this.watchGeneration = new AtomicInteger();
+    this.watchedMachinePaths = Sets.newConcurrentHashSet();
+  }
+
+  public synchronized void activateLeaderCache() {
+    if (!configuration.isUseLeaderCache()) {
+      return;
+    }
+
+    final long start = System.currentTimeMillis();
+
+    final boolean wasActive = leaderCache.active();
+
+    final ConsistentReads consistentReads = zkMirror.consistentReads();
+
+    try {
+      taskManager.loadLeaderCache();
+      slaveManager.loadLeaderCache();
+      rackManager.loadLeaderCache();
+    } finally {
+      consistentReads.close();
+    }
+
+    if (!wasActive) {
+      if (executorService == null) {
+        executorService = executorServiceFactory.get("leader-cache");
+      }
+
+      final int generation = watchGeneration.incrementAndGet();
+
+      for (String path : taskManager.getLeaderCachedPaths()) {
+        watch(path, generation);
+      }
+
+      watchMachines(slaveManager, generation);
+      watchMachines(rackManager, generation);
+    }
+
+    LOG.info("Loaded leader cache in {}", JavaUtils.duration(start));
+  }
+
+  public void reconcileLeaderCache() {
+    if (!leaderCache.active()) {
+      return;
+    }
+
+    final long start = System.currentTimeMillis();
+    final int drift;
+
+    final ConsistentReads consistentReads = zkMirror.consistentReads();
+
+    try {
+      drift = taskManager.loadLeaderCache() + slaveManager.loadLeaderCache() + rackManager.loadLeaderCache();
+    } finally {
+      consistentReads.close();
+    }
+
+    if (drift > 0) {
+      LOG.warn("Corrected {} leader cache entries which had drifted from ZooKeeper", drift);
+      driftMeter.mark(drift);
+    }
+
+    LOG.debug("Reconciled leader cache in {}", JavaUtils.duration(start));
+  }
+
+  public synchronized void stopLeaderCache() {
+    watchGeneration.incrementAndGet();
+    watchedMachinePaths.clear();
+    leaderCache.clear();
+  }
+
+  private void watch(final String path, final int generation) {
+    if (!leaderCache.active() || generation != watchGeneration.get()) {
+      return;
+    }
+
+    try {
+      final List<String> children = curator.getChildren().usingWatcher(new CuratorWatcher() {
+
+        @Override
+        public void process(WatchedEvent event) {
+          if (event.getType() != EventType.None) {
+            submitWatch(path, generation);
+          }
+        }
+
+      }).forPath(path);
+
+      final ConsistentReads consistentReads = zkMirror.consistentReads();
+
+      try {
+        taskManager.refreshLeaderCache(path, children);
+      } finally {
+        consistentReads.close();
+      }
+    } catch (Throwable t) {
+      LOG.warn("Couldn't watch {}, retrying in {}s", path, WATCH_RETRY_DELAY_SECONDS, t);
+
+      scheduleRetry(path, new Runnable() {
+
+        @Override
+        public void run() {
+          watch(path, generation);
+        }
+
+      });
+    }
+  }
+
+  private void watchMachines(final AbstractMachineManager<?> manager, final int generation) {
+    if (!leaderCache.active() || generation != watchGeneration.get()) {
+      return;
+    }
+
+    try {
+      final List<String> children = curator.getChildren().usingWatcher(new CuratorWatcher() {
+
+        @Override
+        public void process(WatchedEvent event) {
+          if (event.getType() != EventType.None) {
+            submitWatchMachines(manager, generation);
+          }
+        }
+
+      }).forPath(manager.getRoot());
+
+      final ConsistentReads consistentReads = zkMirror.consistentReads();
+
+      try {
+        manager.refreshLeaderCache(children);
+      } finally {
+        consistentReads.close();
+      }
+
+      for (String child : children) {
+        if (watchedMachinePaths.add(manager.getObjectPath(child))) {
+          watchMachine(manager, child, generation);
+        }
+      }
+    } catch (Throwable t) {
+      LOG.warn("Couldn't watch {}, retrying in {}s", manager.getRoot(), WATCH_RETRY_DELAY_SECONDS, t);
+
+      scheduleRetry(manager.getRoot(), new Runnable() {
+
+        @Override
+        public void run() {
+          watchMachines(manager, generation);
+        }
+
+      });
+    }
+  }
+
+  /**
+   * Sets a data watch on a single slave or rack, which is set again each time it fires until the machine is removed. The reads are made in
+   * the background, since there is one for every machine when the cache is activated.
+   */
+  private void watchMachine(final AbstractMachineManager<?> manager, final String objectId, final int generation) {
+    if (!leaderCache.active() || generation != watchGeneration.get()) {
+      return;
+    }
+
+    final String path = manager.getObjectPath(objectId);
+
+    final Runnable retry = new Runnable() {
+
+      @Override
+      public void run() {
+        watchMachine(manager, objectId, generation);
+      }
+
+    };
+
+    try {
+      curator.getData().usingWatcher(new CuratorWatcher() {
+
+        @Override
+        public void process(WatchedEvent event) {
+          if (event.getType() != EventType.None) {
+            watchMachine(manager, objectId, generation);
+          }
+        }
+
+      }).inBackground(new BackgroundCallback() {
+
+        @Override
+        public void processResult(CuratorFramework client, CuratorEvent event) {
+          if (generation != watchGeneration.get()) {
+            return;
+          }
+
+          if (event.getResultCode() == KeeperException.Code.OK.intValue()) {
+            manager.refreshLeaderCachedObject(objectId, event.getData());
+          } else if (event.getResultCode() == KeeperException.Code.NONODE.intValue()) {
+            watchedMachinePaths.remove(path);
+            manager.refreshLeaderCachedObject(objectId, null);
+          } else {
+            LOG.warn("Couldn't watch {} ({}), retrying in {}s", path, KeeperException.Code.get(event.getResultCode()), WATCH_RETRY_DELAY_SECONDS);
+            scheduleRetry(path, retry);
+          }
+        }
+
+      }, executorService).forPath(path);
+    } catch (Throwable t) {
+      LOG.warn("Couldn't watch {}, retrying in {}s", path, WATCH_RETRY_DELAY_SECONDS, t);
+      scheduleRetry(path, retry);
+    }
+  }
+
+  private void scheduleRetry(String path, Runnable retry) {
+    try {
+      executorService.schedule(retry, WATCH_RETRY_DELAY_SECONDS, TimeUnit.SECONDS);
+    } catch (RejectedExecutionException ree) {
+      LOG.debug("Not retrying watch on {}, shutting down", path);
+    }
+  }
+
+  private void submitWatch(final String path, final int generation) {
+    try {
+      executorService.submit(new Runnable() {
+
+        @Override
+        public void run() {
+          watch(path, generation);
+        }
+
+      });
+    } catch (RejectedExecutionException ree) {
+      LOG.debug("Not refreshing {}, shutting down", path);
+    }
+  }
+
+  private void submitWatchMachines(final AbstractMachineManager<?> manager, final int generation) {
+    try {
+      executorService.submit(new Runnable() {
+
+        @Override
+        public void run() {
+          watchMachines(manager, generation);
+        }
+
+      });
+    } catch (RejectedExecutionException ree) {
+      LOG.debug("Not refreshing {}, shutting down", manager.getRoot());
+    }
+  }
+
+}
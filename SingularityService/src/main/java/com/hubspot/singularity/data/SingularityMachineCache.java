@@ -0,0 +1,163 @@
+package com.hubspot.singularity.data;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.hubspot.singularity.MachineState;
+import com.hubspot.singularity.SingularityMachineAbstraction;
+
+/**
+ * In-memory copy of the slaves or racks, held by the {@link SingularityLeaderCache} while this instance is the leader, indexed by state so
+ * that the counts the scheduler checks on every offer, and the machines it looks for at the start of each offer cycle (e.g. those starting
+ * to decommission), are found without a scan.
+ *
+ * Writes are serialized so that the index always agrees with the machines; reads are not.
+ */
+public class SingularityMachineCache<T extends SingularityMachineAbstraction<T>> {
+
+  private final ConcurrentMap<String, T> machines;
+  private final Map<MachineState, Set<String>> idsAtState;
+
+  private volatile boolean active;
+
+  SingularityMachineCache() {
+    this.machines = Maps.newConcurrentMap();
+    this.idsAtState = new EnumMap<>(MachineState.class);
+
+    for (MachineState state : MachineState.values()) {
+      idsAtState.put(state, Sets.<String> newConcurrentHashSet());
+    }
+  }
+
+  public boolean active() {
+    return active;
+  }
+
+  /**
+   * Replaces the cached machines and activates the cache.
+   *
+   * @return the number of machines which were added, removed or at a different state, 0 if the cache was not active before
+   */
+  synchronized int load(Collection<T> loaded) {
+    final Map<String, T> loadedById = Maps.newHashMapWithExpectedSize(loaded.size());
+    for (T machine : loaded) {
+      loadedById.put(machine.getId(), machine);
+    }
+
+    final boolean wasActive = active;
+
+    int drift = 0;
+
+    for (T machine : machines.values()) {
+      final T loadedMachine = loadedById.get(machine.getId());
+
+      if (loadedMachine == null || !loadedMachine.getCurrentState().equals(machine.getCurrentState())) {
+        drift++;
+      }
+    }
+
+    for (String id : loadedById.keySet()) {
+      if (!machines.containsKey(id)) {
+        drift++;
+      }
+    }
+
+    for (String id : Lists.newArrayList(machines.keySet())) {
+      if (!loadedById.containsKey(id)) {
+        remove(id);
+      }
+    }
+
+    for (T machine : loadedById.values()) {
+      put(machine);
+    }
+
+    active = true;
+
+    return wasActive ? drift : 0;
+  }
+
+  synchronized void clear() {
+    active = false;
+
+    machines.clear();
+    for (Set<String> ids : idsAtState.values()) {
+      ids.clear();
+    }
+  }
+
+  public Optional<T> get(String id) {
+    return Optional.fromNullable(machines.get(id));
+  }
+
+  public List<T> getAll() {
+    return Lists.newArrayList(machines.values());
+  }
+
+  public List<T> getAtState(MachineState state) {
+    final Set<String> ids = idsAtState.get(state);
+
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    final List<T> atState = Lists.newArrayListWithCapacity(ids.size());
+
+    for (String id : ids) {
+      final T machine = machines.get(id);
+
+      // the machine may have changed state since the ids were read
+      if (machine != null && machine.getCurrentState().getState() == state) {
+        atState.add(machine);
+      }
+    }
+
+    return atState;
+  }
+
+  public int getNumAtState(MachineState state) {
+    return idsAtState.get(state).size();
+  }
+
+  public synchronized void put(T machine) {
+    final T previous = machines.put(machine.getId(), machine);
+
+    if (previous != null) {
+      idsAtState.get(previous.getCurrentState().getState()).remove(previous.getId());
+    }
+
+    idsAtState.get(machine.getCurrentState().getState()).add(machine.getId());
+  }
+
+  /**
+   * Applies a copy of a machine read from ZooKeeper, unless the cached copy has a more recent state (written through while the read was in
+   * flight).
+   */
+  synchronized void putIfNotOlder(T machine) {
+    final T current = machines.get(machine.getId());
+
+    if (current != null && current.getCurrentState().getTimestamp() > machine.getCurrentState().getTimestamp()) {
+      return;
+    }
+
+    put(machine);
+  }
+
+  public synchronized void remove(String id) {
+    final T previous = machines.remove(id);
+
+    if (previous != null) {
+      idsAtState.get(previous.getCurrentState().getState()).remove(id);
+    }
+  }
+
+}
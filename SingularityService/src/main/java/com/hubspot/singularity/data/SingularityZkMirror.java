@@ -0,0 +1,456 @@
+package com.hubspot.singularity.data;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.annotation.Nullable;
+import javax.inject.Singleton;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.transcoders.Transcoder;
+import com.hubspot.singularity.mesos.SingularitySchedulerLock;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Read-through copy of the ZooKeeper subtrees listed in zkMirrorPaths, each kept current by a Curator {@link TreeCache}, so that the reads
+ * {@link CuratorManager} makes of them (mostly API traffic, e.g. listing /requests/all) are served from memory. Data is held as bytes and
+ * only decoded when read; the decoded object is kept until the node changes.
+ *
+ * Reads go to ZooKeeper instead while a subtree is loading or disconnected, and for paths this instance wrote until the write shows up in
+ * the mirror (or zkMirrorMaxWriteLagMillis passes), so an instance always reads its own writes. Writes by other instances are read once
+ * their watch events arrive, which zk.mirror.eventLag tracks. Scheduler work - anything holding the {@link SingularitySchedulerLock}, and
+ * the leader-only pollers - always reads ZooKeeper, as does any other caller inside {@link #consistentReads()}.
+ */
+@Singleton
+public class SingularityZkMirror implements Managed {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SingularityZkMirror.class);
+
+  private final CuratorFramework curator;
+  private final SingularityConfiguration configuration;
+  private final SingularitySchedulerLock lock;
+
+  private final ConcurrentMap<String, MirroredTree> trees;
+  private final ConcurrentSkipListMap<String, PendingWrite> pendingWrites;
+  private final ThreadLocal<Integer> consistentReadDepth;
+
+  private final Meter hitMeter;
+  private final Meter missMeter;
+  private final Meter decodeMeter;
+  private final Histogram eventLagHistogram;
+
+  @Inject
+  public SingularityZkMirror(CuratorFramework curator, SingularityConfiguration configuration, SingularitySchedulerLock lock, MetricRegistry registry) {
+    this.curator = curator;
+    this.configuration = configuration;
+    this.lock = lock;
+
+    this.trees = Maps.newConcurrentMap();
+    this.pendingWrites = new ConcurrentSkipListMap<>();
+    this.consistentReadDepth = new ThreadLocal<Integer>() {
+
+      @Override
+      protected Integer initialValue() {
+        return 0;
+      }
+    };
+
+    this.hitMeter = registry.meter("zk.mirror.hits");
+    this.missMeter = registry.meter("zk.mirror.misses");
+    this.decodeMeter = registry.meter("zk.mirror.decodes");
+    this.eventLagHistogram = registry.histogram("zk.mirror.eventLag");
+
+    registry.register("zk.mirror.staleMillis", new Gauge<Long>() {
+
+      @Override
+      public Long getValue() {
+        final long now = System.currentTimeMillis();
+        long staleMillis = 0;
+
+        for (MirroredTree tree : trees.values()) {
+          staleMillis = Math.max(staleMillis, tree.getUnavailableMillis(now));
+        }
+
+        return staleMillis;
+      }
+    });
+
+    registry.register("zk.mirror.pendingWrites", new Gauge<Integer>() {
+
+      @Override
+      public Integer getValue() {
+        return pendingWrites.size();
+      }
+    });
+  }
+
+  /**
+   * Starts mirroring any configured path which is not mirrored yet.
+   */
+  @Override
+  public synchronized void start() throws Exception {
+    for (String configuredPath : configuration.getZkMirrorPaths()) {
+      final String root = configuredPath.replaceAll("/+$", "");
+
+      if (!root.startsWith(ZKPaths.PATH_SEPARATOR)) {
+        LOG.warn("Not mirroring {}, only absolute paths below the root can be mirrored", configuredPath);
+        continue;
+      }
+
+      if (trees.containsKey(root)) {
+        continue;
+      }
+
+      final MirroredTree tree = new MirroredTree(root);
+
+      trees.put(root, tree);
+      tree.treeCache.start();
+
+      LOG.info("Mirroring {}", root);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    for (MirroredTree tree : trees.values()) {
+      tree.treeCache.close();
+    }
+
+    trees.clear();
+    pendingWrites.clear();
+  }
+
+  /**
+   * Reads from ZooKeeper, rather than the mirror, until the returned {@link ConsistentReads} is closed.
+   *
+   * <pre>
+   * final ConsistentReads consistentReads = zkMirror.consistentReads();
+   *
+   * try {
+   *   ...
+   * } finally {
+   *   consistentReads.close();
+   * }
+   * </pre>
+   */
+  public ConsistentReads consistentReads() {
+    consistentReadDepth.set(consistentReadDepth.get() + 1);
+
+    return new ConsistentReads();
+  }
+
+  public class ConsistentReads implements AutoCloseable {
+
+    private boolean closed;
+
+    private ConsistentReads() {}
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        consistentReadDepth.set(consistentReadDepth.get() - 1);
+      }
+    }
+
+  }
+
+  /**
+   * @return whether {@link #getData(String, Transcoder)} and {@link #getStat(String)} can serve path right now
+   */
+  boolean servesData(String path) {
+    return serves(path, false);
+  }
+
+  /**
+   * @return whether {@link #getChildren(String)} can serve path right now
+   */
+  boolean servesChildren(String path) {
+    return serves(path, true);
+  }
+
+  private boolean serves(String path, boolean children) {
+    if (trees.isEmpty()) {
+      return false;
+    }
+
+    final MirroredTree tree = getTree(path);
+
+    if (tree == null) {
+      return false;
+    }
+
+    // scheduler work, under the global lock or a request lock (which shares it), reads ZooKeeper directly
+    if (consistentReadDepth.get() > 0 || lock.isHeldByCurrentThread() || !tree.isAvailable() || hasPendingWrite(tree, path, children)) {
+      missMeter.mark();
+      return false;
+    }
+
+    hitMeter.mark();
+    return true;
+  }
+
+  List<String> getChildren(String path) {
+    final Map<String, ChildData> children = getTree(path).treeCache.getCurrentChildren(path);
+
+    if (children == null) {
+      return Collections.emptyList();
+    }
+
+    return Lists.newArrayList(children.keySet());
+  }
+
+  Optional<Stat> getStat(String path) {
+    final ChildData data = getTree(path).treeCache.getCurrentData(path);
+
+    return data == null ? Optional.<Stat> absent() : Optional.of(data.getStat());
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> Optional<T> getData(String path, Transcoder<T> transcoder) {
+    final MirroredTree tree = getTree(path);
+    final ChildData data = tree.treeCache.getCurrentData(path);
+
+    if (data == null || data.getData() == null || data.getData().length == 0) {
+      return Optional.absent();
+    }
+
+    final DecodedData decoded = tree.decoded.get(path);
+
+    if (decoded != null && decoded.transcoder == transcoder && decoded.mzxid == data.getStat().getMzxid()) {
+      return Optional.of((T) decoded.object);
+    }
+
+    final T object = transcoder.fromBytes(data.getData());
+
+    decodeMeter.mark();
+    tree.decoded.put(path, new DecodedData(data.getStat().getMzxid(), transcoder, object));
+
+    return Optional.of(object);
+  }
+
+  /**
+   * Records that this instance created or updated path, which is then read from ZooKeeper until the mirror has the write.
+   *
+   * @param stat the node's stat after the write, if known
+   */
+  void written(String path, @Nullable Stat stat) {
+    if (trees.isEmpty() || getTree(path) == null) {
+      return;
+    }
+
+    pendingWrites.put(path, new PendingWrite(false, stat == null ? 0 : stat.getMzxid()));
+  }
+
+  /**
+   * Records that this instance deleted path (and anything under it), which is then read from ZooKeeper until the mirror has the delete.
+   */
+  void deleted(String path) {
+    if (trees.isEmpty()) {
+      return;
+    }
+
+    if (getTree(path) != null) {
+      pendingWrites.put(path, new PendingWrite(true, 0));
+      return;
+    }
+
+    for (String root : trees.keySet()) {
+      if (root.startsWith(path + ZKPaths.PATH_SEPARATOR)) {
+        pendingWrites.put(root, new PendingWrite(true, 0));
+      }
+    }
+  }
+
+  @Nullable
+  private MirroredTree getTree(String path) {
+    for (MirroredTree tree : trees.values()) {
+      if (tree.contains(path)) {
+        return tree;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * A read of path (or its children) is affected by pending writes to it and to the paths above it in the mirrored tree, which may have
+   * been deleted, and a listing of its children also by pending writes anywhere under it.
+   */
+  private boolean hasPendingWrite(MirroredTree tree, String path, boolean children) {
+    if (pendingWrites.isEmpty()) {
+      return false;
+    }
+
+    final long now = System.currentTimeMillis();
+
+    for (String pathOrParent = path; tree.contains(pathOrParent); pathOrParent = ZKPaths.getPathAndNode(pathOrParent).getPath()) {
+      if (isPending(tree, pathOrParent, pendingWrites.get(pathOrParent), now)) {
+        return true;
+      }
+    }
+
+    if (children) {
+      // '0' sorts immediately after '/'
+      for (Map.Entry<String, PendingWrite> entry : pendingWrites.subMap(path + ZKPaths.PATH_SEPARATOR, path + "0").entrySet()) {
+        if (isPending(tree, entry.getKey(), entry.getValue(), now)) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  private boolean isPending(MirroredTree tree, String path, @Nullable PendingWrite pendingWrite, long now) {
+    if (pendingWrite == null) {
+      return false;
+    }
+
+    if (pendingWrite.isVisible(tree.treeCache.getCurrentData(path))) {
+      pendingWrites.remove(path, pendingWrite);
+      return false;
+    }
+
+    if (now - pendingWrite.timestamp > configuration.getZkMirrorMaxWriteLagMillis()) {
+      LOG.warn("Write to {} did not show in the mirror after {}ms, reading it from the mirror again", path, now - pendingWrite.timestamp);
+      pendingWrites.remove(path, pendingWrite);
+      return false;
+    }
+
+    return true;
+  }
+
+  private static class PendingWrite {
+
+    private final boolean deleted;
+    private final long mzxid;
+    private final long timestamp;
+
+    PendingWrite(boolean deleted, long mzxid) {
+      this.deleted = deleted;
+      this.mzxid = mzxid;
+      this.timestamp = System.currentTimeMillis();
+    }
+
+    boolean isVisible(@Nullable ChildData data) {
+      if (deleted) {
+        return data == null;
+      }
+
+      return data != null && data.getStat().getMzxid() >= mzxid;
+    }
+
+  }
+
+  private static class DecodedData {
+
+    private final long mzxid;
+    private final Transcoder<?> transcoder;
+    private final Object object;
+
+    DecodedData(long mzxid, Transcoder<?> transcoder, Object object) {
+      this.mzxid = mzxid;
+      this.transcoder = transcoder;
+      this.object = object;
+    }
+
+  }
+
+  private class MirroredTree implements TreeCacheListener {
+
+    private final String root;
+    private final TreeCache treeCache;
+    private final ConcurrentMap<String, DecodedData> decoded;
+
+    private volatile boolean initialized;
+    private volatile long unavailableSince;
+    private volatile long availableAt;
+
+    MirroredTree(String root) {
+      this.root = root;
+      this.treeCache = TreeCache.newBuilder(curator, root).setCacheData(true).build();
+      this.decoded = Maps.newConcurrentMap();
+
+      this.unavailableSince = System.currentTimeMillis();
+      this.availableAt = Long.MAX_VALUE;
+
+      treeCache.getListenable().addListener(this);
+    }
+
+    boolean contains(String path) {
+      return path.equals(root) || path.startsWith(root + ZKPaths.PATH_SEPARATOR);
+    }
+
+    boolean isAvailable() {
+      return System.currentTimeMillis() >= availableAt;
+    }
+
+    long getUnavailableMillis(long now) {
+      return now >= availableAt ? 0 : now - unavailableSince;
+    }
+
+    @Override
+    public void childEvent(CuratorFramework client, TreeCacheEvent event) {
+      final long now = System.currentTimeMillis();
+
+      switch (event.getType()) {
+        case INITIALIZED:
+          LOG.info("Loaded {} into the mirror in {}ms", root, now - unavailableSince);
+          initialized = true;
+          availableAt = now;
+          break;
+        case CONNECTION_SUSPENDED:
+        case CONNECTION_LOST:
+          if (availableAt <= now) {
+            unavailableSince = now;
+          }
+          availableAt = Long.MAX_VALUE;
+          break;
+        case CONNECTION_RECONNECTED:
+          // the tree cache refreshes every node after a reconnect, give it as long as any other ZooKeeper call before reading from it again
+          if (initialized) {
+            availableAt = now + configuration.getZookeeperAsyncTimeout();
+          }
+          break;
+        case NODE_ADDED:
+        case NODE_UPDATED:
+          // nodes loaded at startup or after a reconnect may not have changed for a long time
+          if (initialized && isAvailable()) {
+            eventLagHistogram.update(Math.max(0, now - event.getData().getStat().getMtime()));
+          }
+          decoded.remove(event.getData().getPath());
+          break;
+        case NODE_REMOVED:
+          decoded.remove(event.getData().getPath());
+          break;
+        default:
+          break;
+      }
+    }
+
+  }
+
+}
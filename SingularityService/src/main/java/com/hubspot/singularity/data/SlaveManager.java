@@ -13,12 +13,12 @@ import com.hubspot.singularity.data.transcoders.Transcoder;
 @Singleton
 public class SlaveManager extends AbstractMachineManager<SingularitySlave> {
 
-  private static final String SLAVE_ROOT = "/slaves";
+  static final String SLAVE_ROOT = "/slaves";
 
   @Inject
-  public SlaveManager(CuratorFramework curator, SingularityConfiguration configuration,  MetricRegistry metricRegistry, Transcoder<SingularitySlave> slaveTranscoder,
-      Transcoder<SingularityMachineStateHistoryUpdate> stateHistoryTranscoder) {
-    super(curator, configuration, metricRegistry, slaveTranscoder, stateHistoryTranscoder);
+  public SlaveManager(CuratorFramework curator, SingularityConfiguration configuration,  MetricRegistry metricRegistry, SingularityZkMirror zkMirror, Transcoder<SingularitySlave> slaveTranscoder,
+      Transcoder<SingularityMachineStateHistoryUpdate> stateHistoryTranscoder, SingularityLeaderCache leaderCache) {
+    super(curator, configuration, metricRegistry, zkMirror, slaveTranscoder, stateHistoryTranscoder, leaderCache.getSlaves());
   }
 
   @Override
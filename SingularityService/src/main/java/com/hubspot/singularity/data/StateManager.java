@@ -54,10 +54,10 @@ public class StateManager extends CuratorManager {
   private final SingularityAuthDatastore authDatastore;
 
   @Inject
-  public StateManager(CuratorFramework curatorFramework, SingularityConfiguration configuration, MetricRegistry metricRegistry, RequestManager requestManager, TaskManager taskManager,
+  public StateManager(CuratorFramework curatorFramework, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityZkMirror zkMirror, RequestManager requestManager, TaskManager taskManager,
       DeployManager deployManager, SlaveManager slaveManager, RackManager rackManager, Transcoder<SingularityState> stateTranscoder, Transcoder<SingularityHostState> hostStateTranscoder,
       SingularityConfiguration singularityConfiguration, SingularityAuthDatastore authDatastore) {
-    super(curatorFramework, configuration, metricRegistry);
+    super(curatorFramework, configuration, metricRegistry, zkMirror);
 
     this.requestManager = requestManager;
     this.taskManager = taskManager;
@@ -75,15 +75,7 @@ public class StateManager extends CuratorManager {
     final byte[] data = hostStateTranscoder.toBytes(hostState);
 
     if (curator.getState() == CuratorFrameworkState.STARTED) {
-      try {
-        if (exists(path)) {
-          curator.setData().forPath(path, data);
-        } else {
-          curator.create().creatingParentsIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(path, data);
-        }
-      } catch (Throwable t) {
-        throw Throwables.propagate(t);
-      }
+      save(path, Optional.of(data), CreateMode.EPHEMERAL);
     }
   }
 
@@ -7,6 +7,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
@@ -25,14 +26,17 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.hubspot.mesos.JavaUtils;
 import com.hubspot.singularity.ExtendedTaskState;
+import com.hubspot.singularity.InvalidSingularityTaskIdException;
 import com.hubspot.singularity.LoadBalancerRequestType;
 import com.hubspot.singularity.SingularityCreateResult;
 import com.hubspot.singularity.SingularityDeleteResult;
@@ -58,6 +62,7 @@ import com.hubspot.singularity.SingularityTaskShellCommandUpdate;
 import com.hubspot.singularity.SingularityTaskStatusHolder;
 import com.hubspot.singularity.config.SingularityConfiguration;
 import com.hubspot.singularity.data.transcoders.IdTranscoder;
+import com.hubspot.singularity.data.transcoders.SingularityTranscoderException;
 import com.hubspot.singularity.data.transcoders.StringTranscoder;
 import com.hubspot.singularity.data.transcoders.Transcoder;
 import com.hubspot.singularity.event.SingularityEventListener;
@@ -69,12 +74,12 @@ public class TaskManager extends CuratorAsyncManager {
 
   private static final String TASKS_ROOT = "/tasks";
 
-  private static final String ACTIVE_PATH_ROOT = TASKS_ROOT + "/active";
+  static final String ACTIVE_PATH_ROOT = TASKS_ROOT + "/active";
   private static final String LAST_ACTIVE_TASK_STATUSES_PATH_ROOT = TASKS_ROOT + "/statuses";
-  private static final String PENDING_PATH_ROOT = TASKS_ROOT + "/scheduled";
-  private static final String CLEANUP_PATH_ROOT = TASKS_ROOT + "/cleanup";
+  static final String PENDING_PATH_ROOT = TASKS_ROOT + "/scheduled";
+  static final String CLEANUP_PATH_ROOT = TASKS_ROOT + "/cleanup";
   private static final String LB_CLEANUP_PATH_ROOT = TASKS_ROOT + "/lbcleanup";
-  private static final String DRIVER_KILLED_PATH_ROOT = TASKS_ROOT + "/killed";
+  static final String DRIVER_KILLED_PATH_ROOT = TASKS_ROOT + "/killed";
   private static final String FINISHED_TASK_MAIL_QUEUE = TASKS_ROOT + "/mailqueue";
   private static final String SHELL_REQUESTS_QUEUE_PATH_ROOT = TASKS_ROOT + "/shellqueue";
 
@@ -111,19 +116,20 @@ public class TaskManager extends CuratorAsyncManager {
   private final IdTranscoder<SingularityTaskId> taskIdTranscoder;
 
   private final ZkCache<SingularityTask> taskCache;
+  private final SingularityLeaderCache leaderCache;
 
   private final SingularityEventListener singularityEventListener;
   private final String serverId;
 
   @Inject
-  public TaskManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityEventListener singularityEventListener,
+  public TaskManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityZkMirror zkMirror, SingularityEventListener singularityEventListener,
       IdTranscoder<SingularityPendingTaskId> pendingTaskIdTranscoder, IdTranscoder<SingularityTaskId> taskIdTranscoder, Transcoder<SingularityLoadBalancerUpdate> taskLoadBalancerHistoryUpdateTranscoder,
-      Transcoder<SingularityTaskStatusHolder> taskStatusTranscoder, Transcoder<SingularityTaskHealthcheckResult> healthcheckResultTranscoder, Transcoder<SingularityTask> taskTranscoder,
+      Transcoder<SingularityTaskStatusHolder> taskStatusTranscoder, Transcoder<SingularityTaskHealthcheckResult> healthcheckResultTranscoder, CompactTaskTranscoder taskTranscoder,
       Transcoder<SingularityTaskCleanup> taskCleanupTranscoder, Transcoder<SingularityTaskHistoryUpdate> taskHistoryUpdateTranscoder, Transcoder<SingularityPendingTask> pendingTaskTranscoder,
       Transcoder<SingularityKilledTaskIdRecord> killedTaskIdRecordTranscoder, Transcoder<SingularityTaskShellCommandRequest> taskShellCommandRequestTranscoder,
       Transcoder<SingularityTaskShellCommandUpdate> taskShellCommandUpdateTranscoder,  Transcoder<SingularityTaskMetadata> taskMetadataTranscoder,
-      ZkCache<SingularityTask> taskCache, @Named(SingularityMainModule.SERVER_ID_PROPERTY) String serverId) {
-    super(curator, configuration, metricRegistry);
+      ZkCache<SingularityTask> taskCache, SingularityLeaderCache leaderCache, @Named(SingularityMainModule.SERVER_ID_PROPERTY) String serverId) {
+    super(curator, configuration, metricRegistry, zkMirror);
 
     this.healthcheckResultTranscoder = healthcheckResultTranscoder;
     this.taskTranscoder = taskTranscoder;
@@ -138,6 +144,7 @@ public class TaskManager extends CuratorAsyncManager {
     this.taskLoadBalancerUpdateTranscoder = taskLoadBalancerHistoryUpdateTranscoder;
     this.singularityEventListener = singularityEventListener;
     this.taskCache = taskCache;
+    this.leaderCache = leaderCache;
     this.taskShellCommandUpdateTranscoder = taskShellCommandUpdateTranscoder;
     this.taskMetadataTranscoder = taskMetadataTranscoder;
 
@@ -247,6 +254,10 @@ public class TaskManager extends CuratorAsyncManager {
   }
 
   public int getNumCleanupTasks() {
+    if (leaderCache.active()) {
+      return leaderCache.getNumCleanupTasks();
+    }
+
     return getNumChildren(CLEANUP_PATH_ROOT);
   }
 
@@ -255,10 +266,18 @@ public class TaskManager extends CuratorAsyncManager {
   }
 
   public int getNumActiveTasks() {
+    if (leaderCache.active()) {
+      return leaderCache.getNumActiveTasks();
+    }
+
     return getNumChildren(ACTIVE_PATH_ROOT);
   }
 
   public int getNumScheduledTasks() {
+    if (leaderCache.active()) {
+      return leaderCache.getNumPendingTasks();
+    }
+
     return getNumChildren(PENDING_PATH_ROOT);
   }
 
@@ -291,7 +310,13 @@ public class TaskManager extends CuratorAsyncManager {
   public SingularityCreateResult savePendingTask(SingularityPendingTask task) {
     final String pendingPath = getPendingPath(task.getPendingTaskId());
 
-    return save(pendingPath, task, pendingTaskTranscoder);
+    final SingularityCreateResult result = save(pendingPath, task, pendingTaskTranscoder);
+
+    if (leaderCache.active()) {
+      leaderCache.putPendingTask(task);
+    }
+
+    return result;
   }
 
   public List<SingularityTaskId> getAllTaskIds() {
@@ -310,13 +335,43 @@ public class TaskManager extends CuratorAsyncManager {
   }
 
   public List<SingularityTaskId> getActiveTaskIds() {
+    if (leaderCache.active()) {
+      return leaderCache.getActiveTaskIds();
+    }
+
     return getTaskIds(ACTIVE_PATH_ROOT);
   }
 
+  /**
+   * @return the active task ids as a read-only set, which is a live view of the leader cache while it is active
+   */
+  public Set<SingularityTaskId> getActiveTaskIdsView() {
+    if (leaderCache.active()) {
+      return leaderCache.getActiveTaskIdsView();
+    }
+
+    return ImmutableSet.copyOf(getTaskIds(ACTIVE_PATH_ROOT));
+  }
+
   public List<SingularityTaskId> getCleanupTaskIds() {
+    if (leaderCache.active()) {
+      return leaderCache.getCleanupTaskIds();
+    }
+
     return getTaskIds(CLEANUP_PATH_ROOT);
   }
 
+  /**
+   * @return the cleaning task ids as a read-only set, which is a live view of the leader cache while it is active
+   */
+  public Set<SingularityTaskId> getCleanupTaskIdsView() {
+    if (leaderCache.active()) {
+      return leaderCache.getCleanupTaskIdsView();
+    }
+
+    return ImmutableSet.copyOf(getTaskIds(CLEANUP_PATH_ROOT));
+  }
+
   public List<SingularityTaskCleanup> getCleanupTasks() {
     return getAsyncChildren(CLEANUP_PATH_ROOT, taskCleanupTranscoder);
   }
@@ -325,8 +380,8 @@ public class TaskManager extends CuratorAsyncManager {
     return getData(getCleanupPath(taskId), taskCleanupTranscoder);
   }
 
-  public List<SingularityTask> getActiveTasks() {
-    List<String> children = Lists.transform(getChildrenAsIds(ACTIVE_PATH_ROOT, taskIdTranscoder), new Function<SingularityTaskId, String>() {
+  private List<String> getActiveTaskPaths() {
+    return Lists.transform(getChildrenAsIds(ACTIVE_PATH_ROOT, taskIdTranscoder), new Function<SingularityTaskId, String>() {
 
       @Override
       public String apply(SingularityTaskId taskId) {
@@ -334,8 +389,17 @@ public class TaskManager extends CuratorAsyncManager {
       }
 
     });
+  }
 
-    return getAsync("active_tasks", children, taskTranscoder, taskCache);
+  public List<SingularityTask> getActiveTasks() {
+    return getAsync("active_tasks", getActiveTaskPaths(), taskTranscoder, taskCache);
+  }
+
+  /**
+   * For listings which would rather show the active tasks that could be read in time than fail.
+   */
+  public ZkBulkReadResult<SingularityTask> getActiveTasksAllowingPartial() {
+    return getAsyncAllowingPartial("active_tasks", getActiveTaskPaths(), taskTranscoder, taskCache);
   }
 
   public List<SingularityTaskStatusHolder> getLastActiveTaskStatuses() {
@@ -423,6 +487,14 @@ public class TaskManager extends CuratorAsyncManager {
   }
 
   public boolean isActiveTask(String taskId) {
+    if (leaderCache.active()) {
+      final Optional<SingularityTaskId> maybeTaskId = getTaskIdForLeaderCache(taskId);
+
+      if (maybeTaskId.isPresent()) {
+        return leaderCache.isActiveTask(maybeTaskId.get());
+      }
+    }
+
     return exists(getActivePath(taskId));
   }
 
@@ -576,6 +648,10 @@ public class TaskManager extends CuratorAsyncManager {
   }
 
   public Optional<SingularityPendingTask> getPendingTask(SingularityPendingTaskId pendingTaskId) {
+    if (leaderCache.active()) {
+      return leaderCache.getPendingTask(pendingTaskId);
+    }
+
     return getData(getPendingPath(pendingTaskId), pendingTaskTranscoder);
   }
 
@@ -595,13 +671,94 @@ public class TaskManager extends CuratorAsyncManager {
   }
 
   public List<SingularityPendingTaskId> getPendingTaskIds() {
+    if (leaderCache.active()) {
+      return leaderCache.getPendingTaskIds();
+    }
+
     return getChildrenAsIds(PENDING_PATH_ROOT, pendingTaskIdTranscoder);
   }
 
   public List<SingularityPendingTask> getPendingTasks() {
+    if (leaderCache.active()) {
+      return leaderCache.getPendingTasks();
+    }
+
     return getAsyncChildren(PENDING_PATH_ROOT, pendingTaskTranscoder);
   }
 
+  /**
+   * @return the pending tasks as a read-only set, which is a live view of the leader cache while it is active
+   */
+  public Set<SingularityPendingTask> getPendingTasksView() {
+    if (leaderCache.active()) {
+      return leaderCache.getPendingTasksView();
+    }
+
+    return ImmutableSet.copyOf(getAsyncChildren(PENDING_PATH_ROOT, pendingTaskTranscoder));
+  }
+
+  /**
+   * Saves pending tasks in multi-op transactions of at most pendingQueueDrainBatchSize tasks, falling back to saving each task of a failed
+   * batch on its own.
+   */
+  public void savePendingTasks(List<SingularityPendingTask> tasks) {
+    for (List<SingularityPendingTask> batch : Lists.partition(tasks, Math.max(1, configuration.getPendingQueueDrainBatchSize()))) {
+      try {
+        savePendingTasksInTransaction(batch);
+      } catch (Throwable t) {
+        LOG.warn("Failed to save a batch of {} pending tasks in one transaction, saving them individually", batch.size(), t);
+
+        for (SingularityPendingTask task : batch) {
+          savePendingTask(task);
+        }
+      }
+    }
+  }
+
+  private void savePendingTasksInTransaction(List<SingularityPendingTask> batch) throws Exception {
+    final long start = System.currentTimeMillis();
+
+    CuratorTransactionFinal transaction = null;
+    int bytes = 0;
+
+    for (SingularityPendingTask task : batch) {
+      final byte[] data = pendingTaskTranscoder.toBytes(task);
+
+      transaction = (transaction == null ? curator.inTransaction() : transaction).create().forPath(getPendingPath(task.getPendingTaskId()), data).and();
+
+      bytes += data.length;
+    }
+
+    try {
+      commit(transaction);
+    } finally {
+      log(OperationType.WRITE, Optional.of(batch.size()), Optional.of(bytes), start, PENDING_PATH_ROOT);
+    }
+
+    if (leaderCache.active()) {
+      for (SingularityPendingTask task : batch) {
+        leaderCache.putPendingTask(task);
+      }
+    }
+  }
+
+  public List<SingularityPendingTask> getDuePendingTasks(long now) {
+    if (leaderCache.active()) {
+      return leaderCache.getDuePendingTasks(now);
+    }
+
+    final List<SingularityPendingTask> pendingTasks = getPendingTasks();
+    final List<SingularityPendingTask> dueTasks = Lists.newArrayListWithCapacity(pendingTasks.size());
+
+    for (SingularityPendingTask pendingTask : pendingTasks) {
+      if (pendingTask.getPendingTaskId().getNextRunAt() <= now) {
+        dueTasks.add(pendingTask);
+      }
+    }
+
+    return dueTasks;
+  }
+
   public void createTaskAndDeletePendingTask(SingularityTask task) {
     try {
       createTaskAndDeletePendingTaskPrivate(task);
@@ -610,21 +767,132 @@ public class TaskManager extends CuratorAsyncManager {
     }
   }
 
-  public Map<SingularityTaskId, SingularityTask> getTasks(Iterable<SingularityTaskId> taskIds) {
-    final List<String> paths = Lists.newArrayList();
+  /**
+   * Saves launched tasks in multi-op transactions of at most taskLaunchTransactionBatchSize tasks and taskLaunchTransactionMaxBytes of
+   * data, falling back to saving each task of a failed batch on its own.
+   *
+   * @return the ids of tasks which could not be saved and should not be launched
+   */
+  public Set<SingularityTaskId> createTasksAndDeletePendingTasks(List<SingularityTask> tasks) {
+    final Set<SingularityTaskId> failedTaskIds = Sets.newHashSet();
+    final long now = System.currentTimeMillis();
 
-    for (SingularityTaskId taskId : taskIds) {
-      paths.add(getTaskPath(taskId));
+    for (List<LaunchedTaskData> batch : getLaunchTransactionBatches(tasks, now)) {
+      try {
+        createTasksAndDeletePendingTasksInTransaction(batch);
+      } catch (Throwable t) {
+        LOG.warn("Failed to save a batch of {} launched tasks in one transaction, saving them individually", batch.size(), t);
+
+        for (LaunchedTaskData launchedTask : batch) {
+          try {
+            createTaskAndDeletePendingTaskPrivate(launchedTask.task);
+          } catch (Throwable taskT) {
+            LOG.error("Failed to save launched task {}", launchedTask.task.getTaskId(), taskT);
+            failedTaskIds.add(launchedTask.task.getTaskId());
+          }
+        }
+      }
     }
 
-    return Maps.uniqueIndex(getAsync("tasks_by_ids", paths, taskTranscoder, taskCache), SingularityTaskIdHolder.getTaskIdFunction());
+    return failedTaskIds;
   }
 
-  private void createTaskAndDeletePendingTaskPrivate(SingularityTask task) throws Exception {
-    delete(getPendingPath(task.getTaskRequest().getPendingTask().getPendingTaskId()));
+  /**
+   * A launched task and the data its launch transaction writes.
+   */
+  private static class LaunchedTaskData {
 
-    final long now = System.currentTimeMillis();
+    private final SingularityTask task;
+    private final SingularityTaskHistoryUpdate historyUpdate;
+    private final byte[] taskData;
+    private final byte[] historyUpdateData;
+    private final byte[] taskStatusData;
+
+    LaunchedTaskData(SingularityTask task, SingularityTaskHistoryUpdate historyUpdate, byte[] taskData, byte[] historyUpdateData, byte[] taskStatusData) {
+      this.task = task;
+      this.historyUpdate = historyUpdate;
+      this.taskData = taskData;
+      this.historyUpdateData = historyUpdateData;
+      this.taskStatusData = taskStatusData;
+    }
+
+    int getBytes() {
+      return taskData.length + historyUpdateData.length + taskStatusData.length;
+    }
+
+  }
+
+  private List<List<LaunchedTaskData>> getLaunchTransactionBatches(List<SingularityTask> tasks, long now) {
+    final List<List<LaunchedTaskData>> batches = Lists.newArrayList();
+
+    List<LaunchedTaskData> currentBatch = Lists.newArrayList();
+    long currentBatchBytes = 0;
+
+    for (SingularityTask task : tasks) {
+      final SingularityTaskHistoryUpdate historyUpdate = getLaunchedHistoryUpdate(task, now);
+      final LaunchedTaskData launchedTask = new LaunchedTaskData(task, historyUpdate, taskTranscoder.toBytes(task), taskHistoryUpdateTranscoder.toBytes(historyUpdate),
+          taskStatusTranscoder.toBytes(new SingularityTaskStatusHolder(task.getTaskId(), Optional.<TaskStatus>absent(), now, serverId, Optional.of(task.getOffer().getSlaveId().getValue()))));
+
+      if (!currentBatch.isEmpty() && (currentBatch.size() >= configuration.getTaskLaunchTransactionBatchSize() || currentBatchBytes + launchedTask.getBytes() > configuration.getTaskLaunchTransactionMaxBytes())) {
+        batches.add(currentBatch);
+        currentBatch = Lists.newArrayList();
+        currentBatchBytes = 0;
+      }
+
+      currentBatch.add(launchedTask);
+      currentBatchBytes += launchedTask.getBytes();
+    }
+
+    if (!currentBatch.isEmpty()) {
+      batches.add(currentBatch);
+    }
 
+    return batches;
+  }
+
+  private void createTasksAndDeletePendingTasksInTransaction(List<LaunchedTaskData> batch) throws Exception {
+    final long start = System.currentTimeMillis();
+
+    final Set<String> requestIds = Sets.newHashSet();
+
+    for (LaunchedTaskData launchedTask : batch) {
+      if (requestIds.add(launchedTask.task.getTaskId().getRequestId())) {
+        create(getRequestPath(launchedTask.task.getTaskId().getRequestId()));
+      }
+    }
+
+    CuratorTransactionFinal transaction = null;
+    int bytes = 0;
+
+    for (LaunchedTaskData launchedTask : batch) {
+      final SingularityTask task = launchedTask.task;
+
+      transaction = (transaction == null ? curator.inTransaction() : transaction)
+          .delete().forPath(getPendingPath(task.getTaskRequest().getPendingTask().getPendingTaskId())).and()
+          .create().forPath(getHistoryPath(task.getTaskId())).and()
+          .create().forPath(getUpdatesPath(task.getTaskId())).and()
+          .create().forPath(getUpdatePath(task.getTaskId(), ExtendedTaskState.TASK_LAUNCHED), launchedTask.historyUpdateData).and()
+          .create().forPath(getLastActiveTaskStatusPath(task.getTaskId()), launchedTask.taskStatusData).and()
+          .create().forPath(getTaskPath(task.getTaskId()), launchedTask.taskData).and()
+          .create().forPath(getActivePath(task.getTaskId().getId())).and();
+
+      bytes += launchedTask.getBytes();
+    }
+
+    try {
+      commit(transaction);
+    } finally {
+      log(OperationType.WRITE, Optional.of(batch.size()), Optional.of(bytes), start, TASKS_ROOT);
+    }
+
+    for (LaunchedTaskData launchedTask : batch) {
+      taskCache.set(getTaskPath(launchedTask.task.getTaskId()), launchedTask.task, launchedTask.taskData.length);
+      updateLeaderCacheForLaunchedTask(launchedTask.task);
+      singularityEventListener.taskHistoryUpdateEvent(launchedTask.historyUpdate);
+    }
+  }
+
+  private SingularityTaskHistoryUpdate getLaunchedHistoryUpdate(SingularityTask task, long now) {
     String msg = String.format("Task launched because of %s", task.getTaskRequest().getPendingTask().getPendingTaskId().getPendingType().name());
 
     if (task.getTaskRequest().getPendingTask().getUser().isPresent()) {
@@ -635,17 +903,44 @@ public class TaskManager extends CuratorAsyncManager {
       msg = String.format("%s (%s)", msg, task.getTaskRequest().getPendingTask().getMessage().get());
     }
 
-    saveTaskHistoryUpdate(new SingularityTaskHistoryUpdate(task.getTaskId(), now, ExtendedTaskState.TASK_LAUNCHED, Optional.of(msg), Optional.<String>absent()));
+    return new SingularityTaskHistoryUpdate(task.getTaskId(), now, ExtendedTaskState.TASK_LAUNCHED, Optional.of(msg), Optional.<String>absent());
+  }
+
+  public Map<SingularityTaskId, SingularityTask> getTasks(Iterable<SingularityTaskId> taskIds) {
+    final List<String> paths = Lists.newArrayList();
+
+    for (SingularityTaskId taskId : taskIds) {
+      paths.add(getTaskPath(taskId));
+    }
+
+    return Maps.uniqueIndex(getAsync("tasks_by_ids", paths, taskTranscoder, taskCache), SingularityTaskIdHolder.getTaskIdFunction());
+  }
+
+  private void createTaskAndDeletePendingTaskPrivate(SingularityTask task) throws Exception {
+    delete(getPendingPath(task.getTaskRequest().getPendingTask().getPendingTaskId()));
+
+    if (leaderCache.active()) {
+      leaderCache.deletePendingTask(task.getTaskRequest().getPendingTask().getPendingTaskId());
+    }
+
+    final long now = System.currentTimeMillis();
+
+    saveTaskHistoryUpdate(getLaunchedHistoryUpdate(task, now));
     saveLastActiveTaskStatus(new SingularityTaskStatusHolder(task.getTaskId(), Optional.<TaskStatus>absent(), now, serverId, Optional.of(task.getOffer().getSlaveId().getValue())));
 
     try {
       final String path = getTaskPath(task.getTaskId());
+      final byte[] data = taskTranscoder.toBytes(task);
+
+      CuratorTransactionFinal transaction = curator.inTransaction().create().forPath(path, data).and();
 
-      CuratorTransactionFinal transaction = curator.inTransaction().create().forPath(path, taskTranscoder.toBytes(task)).and();
+      commit(transaction.create().forPath(getActivePath(task.getTaskId().getId())).and());
 
-      transaction.create().forPath(getActivePath(task.getTaskId().getId())).and().commit();
+      taskCache.set(path, task, data.length);
 
-      taskCache.set(path, task);
+      if (leaderCache.active()) {
+        leaderCache.putActiveTaskId(task.getTaskId());
+      }
     } catch (KeeperException.NodeExistsException nee) {
       LOG.error("Task or active path already existed for {}", task.getTaskId());
     }
@@ -672,14 +967,32 @@ public class TaskManager extends CuratorAsyncManager {
   }
 
   public SingularityCreateResult saveKilledRecord(SingularityKilledTaskIdRecord killedTaskIdRecord) {
-    return save(getKilledPath(killedTaskIdRecord.getTaskId()), killedTaskIdRecord, killedTaskIdRecordTranscoder);
+    final SingularityCreateResult result = save(getKilledPath(killedTaskIdRecord.getTaskId()), killedTaskIdRecord, killedTaskIdRecordTranscoder);
+
+    if (leaderCache.active()) {
+      leaderCache.putKilledTaskIdRecord(killedTaskIdRecord);
+    }
+
+    return result;
   }
 
   public List<SingularityKilledTaskIdRecord> getKilledTaskIdRecords() {
+    if (leaderCache.active()) {
+      return leaderCache.getKilledTaskIdRecords();
+    }
+
     return getAsyncChildren(DRIVER_KILLED_PATH_ROOT, killedTaskIdRecordTranscoder);
   }
 
   public SingularityDeleteResult deleteKilledRecord(SingularityTaskId taskId) {
+    if (leaderCache.active()) {
+      if (!leaderCache.isKilledTask(taskId)) {
+        return SingularityDeleteResult.DIDNT_EXIST;
+      }
+
+      leaderCache.deleteKilledTaskIdRecord(taskId);
+    }
+
     return delete(getKilledPath(taskId));
   }
 
@@ -747,7 +1060,13 @@ public class TaskManager extends CuratorAsyncManager {
   public SingularityCreateResult saveTaskCleanup(SingularityTaskCleanup cleanup) {
     saveTaskHistoryUpdate(cleanup);
 
-    return save(getCleanupPath(cleanup.getTaskId().getId()), cleanup, taskCleanupTranscoder);
+    final SingularityCreateResult result = save(getCleanupPath(cleanup.getTaskId().getId()), cleanup, taskCleanupTranscoder);
+
+    if (leaderCache.active()) {
+      leaderCache.putCleanupTaskId(cleanup.getTaskId());
+    }
+
+    return result;
   }
 
   private void saveTaskHistoryUpdate(SingularityTaskCleanup cleanup) {
@@ -773,19 +1092,43 @@ public class TaskManager extends CuratorAsyncManager {
       saveTaskHistoryUpdate(cleanup);
     }
 
+    if (leaderCache.active()) {
+      leaderCache.putCleanupTaskId(cleanup.getTaskId());
+    }
+
     return result;
   }
 
   public void deleteActiveTask(String taskId) {
     delete(getActivePath(taskId));
+
+    if (leaderCache.active()) {
+      final Optional<SingularityTaskId> maybeTaskId = getTaskIdForLeaderCache(taskId);
+
+      if (maybeTaskId.isPresent()) {
+        leaderCache.deleteActiveTaskId(maybeTaskId.get());
+      }
+    }
   }
 
   public void deletePendingTask(SingularityPendingTaskId pendingTaskId) {
     delete(getPendingPath(pendingTaskId));
+
+    if (leaderCache.active()) {
+      leaderCache.deletePendingTask(pendingTaskId);
+    }
   }
 
   public void deleteCleanupTask(String taskId) {
     delete(getCleanupPath(taskId));
+
+    if (leaderCache.active()) {
+      final Optional<SingularityTaskId> maybeTaskId = getTaskIdForLeaderCache(taskId);
+
+      if (maybeTaskId.isPresent()) {
+        leaderCache.deleteCleanupTaskId(maybeTaskId.get());
+      }
+    }
   }
 
   public SingularityDeleteResult deleteTaskHistory(SingularityTaskId taskId) {
@@ -794,4 +1137,106 @@ public class TaskManager extends CuratorAsyncManager {
     return delete(getHistoryPath(taskId));
   }
 
+  private void updateLeaderCacheForLaunchedTask(SingularityTask task) {
+    if (leaderCache.active()) {
+      leaderCache.deletePendingTask(task.getTaskRequest().getPendingTask().getPendingTaskId());
+      leaderCache.putActiveTaskId(task.getTaskId());
+    }
+  }
+
+  private Optional<SingularityTaskId> getTaskIdForLeaderCache(String taskId) {
+    try {
+      return Optional.of(taskIdTranscoder.fromString(taskId));
+    } catch (InvalidSingularityTaskIdException | SingularityTranscoderException e) {
+      return Optional.absent();
+    }
+  }
+
+  /**
+   * Reads the active, pending, cleaning and killed task listings from ZooKeeper into the leader cache, activating it.
+   *
+   * @return the number of entries which had drifted from ZooKeeper if the cache was already active
+   */
+  int loadLeaderCache() {
+    for (String path : getLeaderCachedPaths()) {
+      create(path);
+    }
+
+    return leaderCache.load(getTaskIds(ACTIVE_PATH_ROOT), getAsyncChildren(PENDING_PATH_ROOT, pendingTaskTranscoder), getTaskIds(CLEANUP_PATH_ROOT),
+        getAsyncChildren(DRIVER_KILLED_PATH_ROOT, killedTaskIdRecordTranscoder));
+  }
+
+  List<String> getLeaderCachedPaths() {
+    return ImmutableList.of(ACTIVE_PATH_ROOT, PENDING_PATH_ROOT, CLEANUP_PATH_ROOT, DRIVER_KILLED_PATH_ROOT);
+  }
+
+  /**
+   * Applies the children of one of the leader cached paths, as reported by a watch, to the leader cache. Only nodes where the cache and
+   * the listing disagree are read again, so that writes made through this manager while the listing was in flight aren't undone.
+   */
+  void refreshLeaderCache(String path, List<String> children) {
+    if (!leaderCache.active()) {
+      return;
+    }
+
+    final Set<String> childSet = Sets.newHashSet(children);
+
+    switch (path) {
+      case ACTIVE_PATH_ROOT:
+        for (SingularityTaskId taskId : leaderCache.getActiveTaskIds()) {
+          if (!childSet.remove(taskId.getId()) && !exists(getActivePath(taskId.getId()))) {
+            leaderCache.deleteActiveTaskId(taskId);
+          }
+        }
+        for (String child : childSet) {
+          final Optional<SingularityTaskId> maybeTaskId = getTaskIdForLeaderCache(child);
+          if (maybeTaskId.isPresent() && exists(getActivePath(child))) {
+            leaderCache.putActiveTaskId(maybeTaskId.get());
+          }
+        }
+        break;
+      case CLEANUP_PATH_ROOT:
+        for (SingularityTaskId taskId : leaderCache.getCleanupTaskIds()) {
+          if (!childSet.remove(taskId.getId()) && !exists(getCleanupPath(taskId.getId()))) {
+            leaderCache.deleteCleanupTaskId(taskId);
+          }
+        }
+        for (String child : childSet) {
+          final Optional<SingularityTaskId> maybeTaskId = getTaskIdForLeaderCache(child);
+          if (maybeTaskId.isPresent() && exists(getCleanupPath(child))) {
+            leaderCache.putCleanupTaskId(maybeTaskId.get());
+          }
+        }
+        break;
+      case PENDING_PATH_ROOT:
+        for (SingularityPendingTaskId pendingTaskId : leaderCache.getPendingTaskIds()) {
+          if (!childSet.remove(pendingTaskId.getId()) && !exists(getPendingPath(pendingTaskId))) {
+            leaderCache.deletePendingTask(pendingTaskId);
+          }
+        }
+        for (String child : childSet) {
+          final Optional<SingularityPendingTask> maybePendingTask = getData(ZKPaths.makePath(PENDING_PATH_ROOT, child), pendingTaskTranscoder);
+          if (maybePendingTask.isPresent()) {
+            leaderCache.putPendingTask(maybePendingTask.get());
+          }
+        }
+        break;
+      case DRIVER_KILLED_PATH_ROOT:
+        for (SingularityKilledTaskIdRecord killedTaskIdRecord : leaderCache.getKilledTaskIdRecords()) {
+          if (!childSet.remove(killedTaskIdRecord.getTaskId().getId()) && !exists(getKilledPath(killedTaskIdRecord.getTaskId()))) {
+            leaderCache.deleteKilledTaskIdRecord(killedTaskIdRecord.getTaskId());
+          }
+        }
+        for (String child : childSet) {
+          final Optional<SingularityKilledTaskIdRecord> maybeKilledTaskIdRecord = getData(ZKPaths.makePath(DRIVER_KILLED_PATH_ROOT, child), killedTaskIdRecordTranscoder);
+          if (maybeKilledTaskIdRecord.isPresent()) {
+            leaderCache.putKilledTaskIdRecord(maybeKilledTaskIdRecord.get());
+          }
+        }
+        break;
+      default:
+        LOG.warn("{} is not cached by the leader cache", path);
+    }
+  }
+
 }
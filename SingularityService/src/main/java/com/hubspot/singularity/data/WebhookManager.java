@@ -39,9 +39,9 @@ public class WebhookManager extends CuratorAsyncManager implements SingularityEv
   private final Transcoder<SingularityDeployUpdate> deployWebhookTranscoder;
 
   @Inject
-  public WebhookManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, Transcoder<SingularityWebhook> webhookTranscoder,
+  public WebhookManager(CuratorFramework curator, SingularityConfiguration configuration, MetricRegistry metricRegistry, SingularityZkMirror zkMirror, Transcoder<SingularityWebhook> webhookTranscoder,
       Transcoder<SingularityRequestHistory> requestHistoryTranscoder, Transcoder<SingularityTaskHistoryUpdate> taskHistoryUpdateTranscoder, Transcoder<SingularityDeployUpdate> deployWebhookTranscoder) {
-    super(curator, configuration, metricRegistry);
+    super(curator, configuration, metricRegistry, zkMirror);
 
     this.webhookTranscoder = webhookTranscoder;
     this.taskHistoryUpdateTranscoder = taskHistoryUpdateTranscoder;
@@ -0,0 +1,36 @@
+package com.hubspot.singularity.data;
+
+import java.util.List;
+
+/**
+ * The objects a bulk read got back, and how many it gave up waiting for. Only returned by the reads which accept partial results; the
+ * others fail instead.
+ */
+public class ZkBulkReadResult<T> {
+
+  private final List<T> objects;
+  private final int numMissing;
+
+  public ZkBulkReadResult(List<T> objects, int numMissing) {
+    this.objects = objects;
+    this.numMissing = numMissing;
+  }
+
+  public List<T> getObjects() {
+    return objects;
+  }
+
+  public int getNumMissing() {
+    return numMissing;
+  }
+
+  public boolean isComplete() {
+    return numMissing == 0;
+  }
+
+  @Override
+  public String toString() {
+    return "ZkBulkReadResult [objects=" + objects.size() + ", numMissing=" + numMissing + "]";
+  }
+
+}
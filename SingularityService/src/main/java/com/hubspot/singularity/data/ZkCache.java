@@ -1,58 +1,120 @@
 package com.hubspot.singularity.data;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
 import com.google.common.base.Optional;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
 
+/**
+ * Caches objects read from (or written to) ZooKeeper by path. With maxBytes > 0 the cache is bounded by the total serialized size of the
+ * objects it holds, which varies far more between entries (e.g. tasks) than their number does; otherwise it holds at most maxSize objects.
+ */
 public class ZkCache<T> {
 
-  private final Cache<String, T> cache;
+  private final Cache<String, CachedObject<T>> cache;
   private final Meter hitMeter;
   private final Meter missMeter;
+  private final Meter evictionMeter;
+  private final AtomicLong bytes;
 
-  public ZkCache(int maxSize, int initialSize, long millisToExpireAfterAccess, MetricRegistry registry, String name) {
-    cache = CacheBuilder.newBuilder()
-        .maximumSize(maxSize)
+  public ZkCache(int maxSize, long maxBytes, int initialSize, long millisToExpireAfterAccess, MetricRegistry registry, String name) {
+    this.hitMeter = registry.meter(String.format("zk.caches.%s.hits", name));
+    this.missMeter = registry.meter(String.format("zk.caches.%s.miss", name));
+    this.evictionMeter = registry.meter(String.format("zk.caches.%s.evictions", name));
+    this.bytes = new AtomicLong();
+
+    CacheBuilder<String, CachedObject<T>> builder = CacheBuilder.newBuilder()
         .concurrencyLevel(2)
         .initialCapacity(initialSize)
         .expireAfterAccess(millisToExpireAfterAccess, TimeUnit.MILLISECONDS)
-        .build();
+        .removalListener(new RemovalListener<String, CachedObject<T>>() {
 
-    this.hitMeter = registry.meter(String.format("zk.caches.%s.hits", name));
-    this.missMeter = registry.meter(String.format("zk.caches.%s.miss", name));
+          @Override
+          public void onRemoval(RemovalNotification<String, CachedObject<T>> notification) {
+            bytes.addAndGet(-notification.getValue().bytes);
+
+            if (notification.wasEvicted()) {
+              evictionMeter.mark();
+            }
+          }
+        });
+
+    if (maxBytes > 0) {
+      builder = builder.maximumWeight(maxBytes).weigher(new Weigher<String, CachedObject<T>>() {
+
+        @Override
+        public int weigh(String path, CachedObject<T> cachedObject) {
+          return cachedObject.bytes;
+        }
+      });
+    } else {
+      builder = builder.maximumSize(maxSize);
+    }
+
+    cache = builder.build();
 
     registry.register(String.format("zk.caches.%s.size", name), new Gauge<Long>() {
       @Override
       public Long getValue() {
           return cache.size();
       }});
+
+    registry.register(String.format("zk.caches.%s.bytes", name), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return bytes.get();
+      }});
+
+    registry.register(String.format("zk.caches.%s.hitRatio", name), new RatioGauge() {
+      @Override
+      protected Ratio getRatio() {
+        return Ratio.of(hitMeter.getOneMinuteRate(), hitMeter.getOneMinuteRate() + missMeter.getOneMinuteRate());
+      }});
+  }
+
+  private static class CachedObject<T> {
+
+    private final T object;
+    private final int bytes;
+
+    CachedObject(T object, int bytes) {
+      this.object = object;
+      this.bytes = bytes;
+    }
+
   }
 
   public Optional<T> get(String path) {
-    T fromCache = cache.getIfPresent(path);
+    CachedObject<T> fromCache = cache.getIfPresent(path);
 
     if (fromCache == null) {
       missMeter.mark();
-    } else {
-      hitMeter.mark();
+      return Optional.absent();
     }
 
-    return Optional.fromNullable(fromCache);
+    hitMeter.mark();
+    return Optional.of(fromCache.object);
   }
 
   public void delete(String path) {
     cache.invalidate(path);
   }
 
-  public void set(String path, T object) {
-    cache.put(path, object);
+  /**
+   * @param bytes the serialized size of object, which it counts against maxBytes
+   */
+  public void set(String path, T object, int bytes) {
+    this.bytes.addAndGet(bytes);
+    cache.put(path, new CachedObject<>(object, bytes));
   }
 
 }
-
-
@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import com.codahale.metrics.annotation.Timed;
 import com.google.common.base.Optional;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.hubspot.singularity.DeployState;
 import com.hubspot.singularity.ExtendedTaskState;
 import com.hubspot.singularity.OrderDirection;
@@ -18,6 +19,7 @@ import com.hubspot.singularity.SingularityRequestHistory;
 import com.hubspot.singularity.SingularityTaskHistory;
 import com.hubspot.singularity.SingularityTaskIdHistory;
 import com.hubspot.singularity.data.history.SingularityMappers.SingularityRequestIdCount;
+import com.hubspot.singularity.data.transcoders.SingularityTranscoderModule;
 import com.hubspot.singularity.data.transcoders.Transcoder;
 
 public class JDBIHistoryManager implements HistoryManager {
@@ -30,8 +32,9 @@ public class JDBIHistoryManager implements HistoryManager {
   private final Transcoder<SingularityRequest> singularityRequestTranscoder;
 
   @Inject
-  public JDBIHistoryManager(HistoryJDBI history, Transcoder<SingularityTaskHistory> taskHistoryTranscoder, Transcoder<SingularityDeployHistory> deployHistoryTranscoder,
-      Transcoder<SingularityRequest> singularityRequestTranscoder) {
+  public JDBIHistoryManager(HistoryJDBI history, @Named(SingularityTranscoderModule.HISTORY) Transcoder<SingularityTaskHistory> taskHistoryTranscoder,
+      @Named(SingularityTranscoderModule.HISTORY) Transcoder<SingularityDeployHistory> deployHistoryTranscoder,
+      @Named(SingularityTranscoderModule.HISTORY) Transcoder<SingularityRequest> singularityRequestTranscoder) {
     this.taskHistoryTranscoder = taskHistoryTranscoder;
     this.deployHistoryTranscoder = deployHistoryTranscoder;
     this.singularityRequestTranscoder = singularityRequestTranscoder;
@@ -3,6 +3,7 @@ package com.hubspot.singularity.data.history;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
@@ -11,6 +12,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.collect.TreeMultimap;
 import com.google.inject.Inject;
 import com.hubspot.mesos.JavaUtils;
@@ -18,8 +21,10 @@ import com.hubspot.singularity.SingularityDeleteResult;
 import com.hubspot.singularity.SingularityDeployHistory;
 import com.hubspot.singularity.SingularityDeployKey;
 import com.hubspot.singularity.SingularityRequestDeployState;
+import com.hubspot.singularity.SingularityTaskId;
 import com.hubspot.singularity.config.SingularityConfiguration;
 import com.hubspot.singularity.data.DeployManager;
+import com.hubspot.singularity.data.TaskManager;
 
 @Singleton
 public class SingularityDeployHistoryPersister extends SingularityHistoryPersister<SingularityDeployHistory> {
@@ -28,13 +33,15 @@ public class SingularityDeployHistoryPersister extends SingularityHistoryPersist
 
   private final DeployManager deployManager;
   private final HistoryManager historyManager;
+  private final TaskManager taskManager;
 
   @Inject
-  public SingularityDeployHistoryPersister(SingularityConfiguration configuration, DeployManager deployManager, HistoryManager historyManager) {
+  public SingularityDeployHistoryPersister(SingularityConfiguration configuration, DeployManager deployManager, HistoryManager historyManager, TaskManager taskManager) {
     super(configuration);
 
     this.deployManager = deployManager;
     this.historyManager = historyManager;
+    this.taskManager = taskManager;
   }
 
   @Override
@@ -47,6 +54,11 @@ public class SingularityDeployHistoryPersister extends SingularityHistoryPersist
     final Map<String, SingularityRequestDeployState> byRequestId = deployManager.getAllRequestDeployStatesByRequestId();
     final TreeMultimap<String, SingularityDeployHistory> deployHistoryByRequestId = TreeMultimap.create();
 
+    // compactly stored tasks refer to their deploy rather than embedding it, so without a database (which they fall back to) a deploy stays
+    // in ZooKeeper as long as any of its tasks do
+    final boolean keepDeploysWithStoredTasks = configuration.isStoreTasksCompactly() && !persistsHistoryInsteadOfPurging();
+    final Map<String, Set<String>> deployIdsWithStoredTasksByRequestId = Maps.newHashMap();
+
     int numTotal = 0;
     int numTransferred = 0;
 
@@ -57,6 +69,10 @@ public class SingularityDeployHistoryPersister extends SingularityHistoryPersist
         continue;
       }
 
+      if (keepDeploysWithStoredTasks && getDeployIdsWithStoredTasks(deployKey.getRequestId(), deployIdsWithStoredTasksByRequestId).contains(deployKey.getDeployId())) {
+        continue;
+      }
+
       Optional<SingularityDeployHistory> deployHistory = deployManager.getDeployHistory(deployKey.getRequestId(), deployKey.getDeployId(), true);
 
       if (deployHistory.isPresent()) {
@@ -90,6 +106,22 @@ public class SingularityDeployHistoryPersister extends SingularityHistoryPersist
     return configuration.getMaxStaleDeploysPerRequestInZkWhenNoDatabase();
   }
 
+  private Set<String> getDeployIdsWithStoredTasks(String requestId, Map<String, Set<String>> deployIdsWithStoredTasksByRequestId) {
+    Set<String> deployIds = deployIdsWithStoredTasksByRequestId.get(requestId);
+
+    if (deployIds == null) {
+      deployIds = Sets.newHashSet();
+
+      for (SingularityTaskId taskId : taskManager.getTaskIdsForRequest(requestId)) {
+        deployIds.add(taskId.getDeployId());
+      }
+
+      deployIdsWithStoredTasksByRequestId.put(requestId, deployIds);
+    }
+
+    return deployIds;
+  }
+
   private boolean shouldTransferDeploy(SingularityRequestDeployState deployState, SingularityDeployKey deployKey) {
     if (deployState == null) {
       LOG.warn("Missing request deploy state for deployKey {}", deployKey);
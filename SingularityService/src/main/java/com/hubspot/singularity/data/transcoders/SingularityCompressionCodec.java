@@ -0,0 +1,96 @@
+package com.hubspot.singularity.data.transcoders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.iq80.snappy.CorruptionException;
+import org.iq80.snappy.Snappy;
+
+import com.google.common.base.Optional;
+import com.google.common.io.ByteStreams;
+import com.hubspot.singularity.config.SingularityConfiguration;
+
+/**
+ * Compressions which can follow a format header, identified there by their marker. SNAPPY is fast, DEFLATE compresses large objects (e.g.
+ * deploys) further at a higher cost.
+ */
+public enum SingularityCompressionCodec {
+  SNAPPY((byte) 1) {
+
+    @Override
+    public byte[] compress(byte[] data) {
+      return Snappy.compress(data);
+    }
+
+    @Override
+    public byte[] uncompress(byte[] data, int offset, int length) throws SingularityTranscoderException {
+      try {
+        return Snappy.uncompress(data, offset, length);
+      } catch (CorruptionException ce) {
+        throw new SingularityTranscoderException(ce);
+      }
+    }
+  },
+
+  DEFLATE((byte) 2) {
+
+    @Override
+    public byte[] compress(byte[] data) throws SingularityTranscoderException {
+      final ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2);
+
+      try (DeflaterOutputStream out = new DeflaterOutputStream(compressed)) {
+        out.write(data);
+      } catch (IOException e) {
+        throw new SingularityTranscoderException(e);
+      }
+
+      return compressed.toByteArray();
+    }
+
+    @Override
+    public byte[] uncompress(byte[] data, int offset, int length) throws SingularityTranscoderException {
+      try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(data, offset, length))) {
+        return ByteStreams.toByteArray(in);
+      } catch (IOException e) {
+        throw new SingularityTranscoderException(e);
+      }
+    }
+  };
+
+  private final byte marker;
+
+  SingularityCompressionCodec(byte marker) {
+    this.marker = marker;
+  }
+
+  public byte getMarker() {
+    return marker;
+  }
+
+  public abstract byte[] compress(byte[] data) throws SingularityTranscoderException;
+
+  public abstract byte[] uncompress(byte[] data, int offset, int length) throws SingularityTranscoderException;
+
+  /**
+   * The codec configured for clazz in compressionCodecs, by simple class name, or compressionCodec otherwise.
+   */
+  public static SingularityCompressionCodec forType(SingularityConfiguration configuration, Class<?> clazz) {
+    final SingularityCompressionCodec codec = configuration.getCompressionCodecs().get(clazz.getSimpleName());
+
+    return codec != null ? codec : configuration.getCompressionCodec();
+  }
+
+  public static Optional<SingularityCompressionCodec> fromMarker(byte marker) {
+    for (SingularityCompressionCodec codec : values()) {
+      if (codec.marker == marker) {
+        return Optional.of(codec);
+      }
+    }
+
+    return Optional.absent();
+  }
+
+}
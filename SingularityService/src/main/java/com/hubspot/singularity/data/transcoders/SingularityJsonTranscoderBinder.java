@@ -3,6 +3,7 @@ package com.hubspot.singularity.data.transcoders;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.reflect.TypeParameter;
 import com.google.common.reflect.TypeToken;
@@ -11,6 +12,7 @@ import com.google.inject.Inject;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scopes;
+import com.google.inject.name.Names;
 import com.hubspot.singularity.SingularityId;
 import com.hubspot.singularity.config.SingularityConfiguration;
 
@@ -31,14 +33,32 @@ public final class SingularityJsonTranscoderBinder {
     TypeToken<Transcoder<T>> typeToken = new TypeToken<Transcoder<T>>() {}.where(new TypeParameter<T>() {}, clazz);
     @SuppressWarnings("unchecked")
     Key<Transcoder<T>> key = (Key<Transcoder<T>>) Key.get(typeToken.getType());
-    binder.bind(key).toProvider(new JsonTranscoderProvider<T>(clazz)).in(Scopes.SINGLETON);
+    binder.bind(key).toProvider(new JsonTranscoderProvider<T>(clazz, true)).in(Scopes.SINGLETON);
   }
 
   public <T> void asCompressedJson(Class<T> clazz) {
     TypeToken<Transcoder<T>> typeToken = new TypeToken<Transcoder<T>>() {}.where(new TypeParameter<T>() {}, clazz);
     @SuppressWarnings("unchecked")
     Key<Transcoder<T>> key = (Key<Transcoder<T>>) Key.get(typeToken.getType());
-    binder.bind(key).toProvider(new CompressingJsonTranscoderProvider<T>(clazz)).in(Scopes.SINGLETON);
+    binder.bind(key).toProvider(new CompressingJsonTranscoderProvider<T>(clazz, true)).in(Scopes.SINGLETON);
+  }
+
+  /**
+   * Binds a transcoder @Named SingularityTranscoderModule.HISTORY, which never writes a format header, for blobs stored in the database.
+   */
+  public <T> void asHistoryJson(Class<T> clazz) {
+    binder.bind(getHistoryKey(clazz)).toProvider(new JsonTranscoderProvider<T>(clazz, false)).in(Scopes.SINGLETON);
+  }
+
+  public <T> void asCompressedHistoryJson(Class<T> clazz) {
+    binder.bind(getHistoryKey(clazz)).toProvider(new CompressingJsonTranscoderProvider<T>(clazz, false)).in(Scopes.SINGLETON);
+  }
+
+  private <T> Key<Transcoder<T>> getHistoryKey(Class<T> clazz) {
+    TypeToken<Transcoder<T>> typeToken = new TypeToken<Transcoder<T>>() {}.where(new TypeParameter<T>() {}, clazz);
+    @SuppressWarnings("unchecked")
+    Key<Transcoder<T>> key = (Key<Transcoder<T>>) Key.get(typeToken.getType(), Names.named(SingularityTranscoderModule.HISTORY));
+    return key;
   }
 
   public <T extends SingularityId> void asSingularityId(Class<T> clazz) {
@@ -48,48 +68,61 @@ public final class SingularityJsonTranscoderBinder {
     binder.bind(key).toInstance(new IdTranscoder<T>(clazz));
   }
 
-  static class JsonTranscoderProvider<T> implements Provider<JsonTranscoder<T>> {
+  static class JsonTranscoderProvider<T> implements Provider<VersionedJsonTranscoder<T>> {
     private final Class<T> clazz;
+    private final boolean formatHeader;
     private ObjectMapper objectMapper;
+    private SingularityConfiguration singularityConfiguration;
+    private MetricRegistry metricRegistry;
 
-    JsonTranscoderProvider(Class<T> clazz) {
+    JsonTranscoderProvider(Class<T> clazz, boolean formatHeader) {
       this.clazz = clazz;
+      this.formatHeader = formatHeader;
     }
 
     @Inject
-    void inject(ObjectMapper objectMapper) {
+    void inject(ObjectMapper objectMapper, SingularityConfiguration singularityConfiguration, MetricRegistry metricRegistry) {
       this.objectMapper = checkNotNull(objectMapper, "objectMapper is null");
+      this.singularityConfiguration = checkNotNull(singularityConfiguration, "singularityConfiguration is null");
+      this.metricRegistry = checkNotNull(metricRegistry, "metricRegistry is null");
     }
 
     @Override
-    public JsonTranscoder<T> get() {
+    public VersionedJsonTranscoder<T> get() {
       checkState(objectMapper != null, "objectMapper was never injected!");
+      checkState(singularityConfiguration != null, "singularityConfiguration was never injected!");
+      checkState(metricRegistry != null, "metricRegistry was never injected!");
 
-      return new JsonTranscoder<T>(objectMapper, clazz);
+      return new VersionedJsonTranscoder<T>(singularityConfiguration, objectMapper, metricRegistry, clazz, new JsonTranscoder<T>(objectMapper, clazz), false, formatHeader);
     }
   }
 
-  static class CompressingJsonTranscoderProvider<T> implements Provider<CompressingJsonTranscoder<T>> {
+  static class CompressingJsonTranscoderProvider<T> implements Provider<VersionedJsonTranscoder<T>> {
     private final Class<T> clazz;
+    private final boolean formatHeader;
     private ObjectMapper objectMapper;
     private SingularityConfiguration singularityConfiguration;
+    private MetricRegistry metricRegistry;
 
-    CompressingJsonTranscoderProvider(Class<T> clazz) {
+    CompressingJsonTranscoderProvider(Class<T> clazz, boolean formatHeader) {
       this.clazz = clazz;
+      this.formatHeader = formatHeader;
     }
 
     @Inject
-    void inject(ObjectMapper objectMapper, SingularityConfiguration singularityConfiguration) {
+    void inject(ObjectMapper objectMapper, SingularityConfiguration singularityConfiguration, MetricRegistry metricRegistry) {
       this.objectMapper = checkNotNull(objectMapper, "objectMapper is null");
       this.singularityConfiguration = checkNotNull(singularityConfiguration, "singularityConfiguration is null");
+      this.metricRegistry = checkNotNull(metricRegistry, "metricRegistry is null");
     }
 
     @Override
-    public CompressingJsonTranscoder<T> get() {
+    public VersionedJsonTranscoder<T> get() {
       checkState(objectMapper != null, "objectMapper was never injected!");
       checkState(singularityConfiguration != null, "singularityConfiguration was never injected!");
+      checkState(metricRegistry != null, "metricRegistry was never injected!");
 
-      return new CompressingJsonTranscoder<T>(singularityConfiguration, objectMapper, clazz);
+      return new VersionedJsonTranscoder<T>(singularityConfiguration, objectMapper, metricRegistry, clazz, new CompressingJsonTranscoder<T>(singularityConfiguration, objectMapper, clazz), true, formatHeader);
     }
   }
 
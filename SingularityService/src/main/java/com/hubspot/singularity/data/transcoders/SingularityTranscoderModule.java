@@ -47,6 +47,8 @@ import com.hubspot.singularity.expiring.SingularityExpiringSkipHealthchecks;
 
 public class SingularityTranscoderModule implements Module {
 
+  public static final String HISTORY = "singularity.history.transcoder";
+
   @Override
   public void configure(final Binder binder) {
     bindTranscoder(binder).asSingularityId(SingularityDeployKey.class);
@@ -91,5 +93,9 @@ public class SingularityTranscoderModule implements Module {
     bindTranscoder(binder).asCompressedJson(SingularityTaskStatusHolder.class);
     bindTranscoder(binder).asCompressedJson(SingularityTask.class);
     bindTranscoder(binder).asCompressedJson(SingularityTaskMetadata.class);
+
+    bindTranscoder(binder).asHistoryJson(SingularityRequest.class);
+    bindTranscoder(binder).asCompressedHistoryJson(SingularityDeployHistory.class);
+    bindTranscoder(binder).asCompressedHistoryJson(SingularityTaskHistory.class);
   }
 }
@@ -0,0 +1,159 @@
+package com.hubspot.singularity.data.transcoders;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Optional;
+import com.hubspot.singularity.config.SingularityConfiguration;
+
+/**
+ * Writes objects after a header naming how they are encoded, so that encodings can be mixed and changed node by node: a 0 byte (which
+ * neither json nor a Snappy block can start with), the header version, the payload format and its compression (0 for none, otherwise a
+ * SingularityCompressionCodec marker).
+ *
+ * Objects are written this way with storeDataWithFormatHeader. If compressed is set and compressLargeDataObjects is enabled, objects of at
+ * least compressionThresholdBytes are compressed with the codec configured for their type in compressionCodecs (or compressionCodec), and
+ * any setting other than the legacy one (every object with SNAPPY) writes the header regardless.
+ * Data without a header is read by the legacy transcoder, so existing nodes are migrated as they are next written; nodes which are only
+ * ever created (e.g. deploys) keep the encoding they were created with. Transcoders without formatHeader (those for database history)
+ * read either but always write the legacy encoding.
+ */
+public class VersionedJsonTranscoder<T> implements Transcoder<T> {
+
+  private static final byte[] EMPTY_BYTES = new byte[0];
+
+  static final byte MAGIC = 0;
+  static final byte HEADER_VERSION = 2;
+
+  static final byte FORMAT_JSON = 1;
+
+  static final byte COMPRESSION_NONE = 0;
+
+  static final int HEADER_LENGTH = 4;
+
+  private final SingularityConfiguration configuration;
+  private final ObjectMapper objectMapper;
+  private final Class<T> clazz;
+  private final Transcoder<T> legacyTranscoder;
+  private final boolean compressed;
+  private final boolean formatHeader;
+
+  private final Histogram compressionRatio;
+  private final Timer compressTimer;
+  private final Timer uncompressTimer;
+
+  VersionedJsonTranscoder(final SingularityConfiguration configuration, final ObjectMapper objectMapper, final MetricRegistry metricRegistry, final Class<T> clazz, final Transcoder<T> legacyTranscoder,
+      boolean compressed, boolean formatHeader) {
+    this.configuration = checkNotNull(configuration, "configuration is null");
+    this.objectMapper = checkNotNull(objectMapper, "objectMapper is null");
+    this.clazz = checkNotNull(clazz, "clazz is null");
+    this.legacyTranscoder = checkNotNull(legacyTranscoder, "legacyTranscoder is null");
+    this.compressed = compressed;
+    this.formatHeader = formatHeader;
+
+    checkNotNull(metricRegistry, "metricRegistry is null");
+    this.compressionRatio = metricRegistry.histogram(String.format("transcoders.%s.compressionRatio", clazz.getSimpleName()));
+    this.compressTimer = metricRegistry.timer(String.format("transcoders.%s.compress", clazz.getSimpleName()));
+    this.uncompressTimer = metricRegistry.timer(String.format("transcoders.%s.uncompress", clazz.getSimpleName()));
+  }
+
+  public static boolean hasFormatHeader(@Nullable byte[] data) {
+    return data != null && data.length > 1 && data[0] == MAGIC && data[1] == HEADER_VERSION;
+  }
+
+  @Override
+  public T fromBytes(@Nullable byte[] data) throws SingularityTranscoderException {
+    if (!hasFormatHeader(data)) {
+      return legacyTranscoder.fromBytes(data);
+    }
+
+    if (data.length < HEADER_LENGTH || data[2] != FORMAT_JSON) {
+      throw new SingularityTranscoderException("Unsupported %s encoding (%s bytes, format %s)", clazz.getSimpleName(), data.length, data.length > 2 ? data[2] : "missing");
+    }
+
+    try {
+      if (data[3] == COMPRESSION_NONE) {
+        return objectMapper.readValue(data, HEADER_LENGTH, data.length - HEADER_LENGTH, clazz);
+      }
+
+      final Optional<SingularityCompressionCodec> codec = SingularityCompressionCodec.fromMarker(data[3]);
+
+      if (!codec.isPresent()) {
+        throw new SingularityTranscoderException("Unsupported %s compression %s", clazz.getSimpleName(), data[3]);
+      }
+
+      final byte[] json;
+
+      try (Timer.Context context = uncompressTimer.time()) {
+        json = codec.get().uncompress(data, HEADER_LENGTH, data.length - HEADER_LENGTH);
+      }
+
+      return objectMapper.readValue(json, clazz);
+    } catch (IOException e) {
+      throw new SingularityTranscoderException(e);
+    }
+  }
+
+  @Override
+  public byte[] toBytes(@Nullable T object) throws SingularityTranscoderException {
+    final boolean compress = compressed && configuration.isCompressLargeDataObjects();
+    final SingularityCompressionCodec codec = SingularityCompressionCodec.forType(configuration, clazz);
+
+    if (!formatHeader || !(configuration.isStoreDataWithFormatHeader() || (compress && needsFormatHeader(codec)))) {
+      return legacyTranscoder.toBytes(object);
+    }
+
+    if (object == null) {
+      return EMPTY_BYTES;
+    }
+
+    final byte[] json;
+
+    try {
+      json = objectMapper.writeValueAsBytes(object);
+    } catch (IOException e) {
+      throw new SingularityTranscoderException(e);
+    }
+
+    byte compression = COMPRESSION_NONE;
+    byte[] payload = json;
+
+    if (compress && json.length >= configuration.getCompressionThresholdBytes()) {
+      final byte[] compressedJson;
+
+      try (Timer.Context context = compressTimer.time()) {
+        compressedJson = codec.compress(json);
+      }
+
+      if (compressedJson.length < json.length) {
+        compressionRatio.update(compressedJson.length * 100 / json.length);
+        compression = codec.getMarker();
+        payload = compressedJson;
+      }
+    }
+
+    final byte[] data = new byte[HEADER_LENGTH + payload.length];
+    data[0] = MAGIC;
+    data[1] = HEADER_VERSION;
+    data[2] = FORMAT_JSON;
+    data[3] = compression;
+    System.arraycopy(payload, 0, data, HEADER_LENGTH, payload.length);
+
+    return data;
+  }
+
+  /**
+   * The legacy encoding compresses everything with Snappy, so any other threshold or codec can only be written with a header.
+   */
+  private boolean needsFormatHeader(SingularityCompressionCodec codec) {
+    return codec != SingularityCompressionCodec.SNAPPY || configuration.getCompressionThresholdBytes() > 0;
+  }
+
+}
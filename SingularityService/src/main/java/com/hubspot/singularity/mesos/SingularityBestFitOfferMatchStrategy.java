@@ -0,0 +1,45 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.Iterator;
+import java.util.List;
+
+import javax.inject.Singleton;
+
+import com.google.inject.Inject;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
+
+/**
+ * Visits due tasks in priority order and places each one on the matching offer with the highest {@link SingularityOfferScorer} score.
+ * Ties go to the offer that appears first, so results are deterministic for a given offer list.
+ */
+@Singleton
+public class SingularityBestFitOfferMatchStrategy implements SingularityOfferMatchStrategy {
+
+  private final SingularityOfferMatcher offerMatcher;
+  private final SingularityOfferEvaluator offerEvaluator;
+
+  @Inject
+  SingularityBestFitOfferMatchStrategy(SingularityOfferMatcher offerMatcher, SingularityOfferEvaluator offerEvaluator) {
+    this.offerMatcher = offerMatcher;
+    this.offerEvaluator = offerEvaluator;
+  }
+
+  @Override
+  public void matchOffers(List<SingularityTaskRequest> taskRequests, List<SingularityOfferHolder> offerHolders, SingularitySchedulerStateCache stateCache) {
+    offerEvaluator.prepareStateCache(taskRequests, offerHolders, stateCache);
+
+    final Iterator<SingularityTaskRequest> iterator = taskRequests.iterator();
+
+    while (iterator.hasNext()) {
+      final SingularityTaskRequest taskRequest = iterator.next();
+      final int bestOffer = offerEvaluator.findBestOffer(taskRequest, offerHolders, stateCache);
+
+      if (bestOffer >= 0) {
+        offerMatcher.launchTask(taskRequest, offerHolders.get(bestOffer), stateCache);
+        iterator.remove();
+      }
+    }
+  }
+
+}
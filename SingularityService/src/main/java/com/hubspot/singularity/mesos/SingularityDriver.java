@@ -34,7 +34,6 @@ public class SingularityDriver {
 
   private static final Logger LOG = LoggerFactory.getLogger(SingularityDriver.class);
 
-  private final Protos.FrameworkInfo frameworkInfo;
   private final SingularityMesosSchedulerDelegator scheduler;
   private final SchedulerDriver driver;
 
@@ -61,7 +60,7 @@ public class SingularityDriver {
       }
     }
 
-    this.frameworkInfo = frameworkInfoBuilder.build();
+    final Protos.FrameworkInfo frameworkInfo = frameworkInfoBuilder.build();
 
     this.scheduler = scheduler;
 
@@ -76,6 +75,14 @@ public class SingularityDriver {
     }
   }
 
+  /**
+   * For drivers which don't talk to a Mesos master, e.g. the simulator's.
+   */
+  protected SingularityDriver(final SingularityMesosSchedulerDelegator scheduler, final SchedulerDriver driver) {
+    this.scheduler = scheduler;
+    this.driver = driver;
+  }
+
   @VisibleForTesting
   public Scheduler getScheduler() {
     return scheduler;
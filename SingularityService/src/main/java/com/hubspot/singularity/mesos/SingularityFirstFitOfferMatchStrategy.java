@@ -0,0 +1,56 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Singleton;
+
+import com.google.inject.Inject;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
+
+/**
+ * Visits offers in random order and places the highest priority due task that fits on each one, repeating until a full pass places nothing.
+ */
+@Singleton
+public class SingularityFirstFitOfferMatchStrategy implements SingularityOfferMatchStrategy {
+
+  private final SingularityOfferMatcher offerMatcher;
+  private final SingularityOfferEvaluator offerEvaluator;
+
+  @Inject
+  SingularityFirstFitOfferMatchStrategy(SingularityOfferMatcher offerMatcher, SingularityOfferEvaluator offerEvaluator) {
+    this.offerMatcher = offerMatcher;
+    this.offerEvaluator = offerEvaluator;
+  }
+
+  @Override
+  public void matchOffers(List<SingularityTaskRequest> taskRequests, List<SingularityOfferHolder> offerHolders, SingularitySchedulerStateCache stateCache) {
+    offerEvaluator.prepareStateCache(taskRequests, offerHolders, stateCache);
+
+    boolean addedTaskInLastLoop = true;
+
+    while (!taskRequests.isEmpty() && addedTaskInLastLoop) {
+      addedTaskInLastLoop = false;
+      Collections.shuffle(offerHolders);
+
+      for (SingularityOfferHolder offerHolder : offerHolders) {
+        if (offerMatcher.isOfferFull(offerHolder)) {
+          continue;
+        }
+
+        final int matchingTask = offerEvaluator.findFirstMatchingTask(taskRequests, offerHolder, stateCache);
+
+        if (matchingTask >= 0) {
+          offerMatcher.launchTask(taskRequests.remove(matchingTask), offerHolder, stateCache);
+          addedTaskInLastLoop = true;
+        }
+
+        if (taskRequests.isEmpty()) {
+          break;
+        }
+      }
+    }
+  }
+
+}
@@ -1,18 +1,14 @@
 package com.hubspot.singularity.mesos;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-
 import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
+import com.hubspot.singularity.config.SingularityConfiguration;
 
 public class SingularityMesosModule extends AbstractModule {
 
-  public static final String SCHEDULER_LOCK_NAME = "scheduler-lock";
-
   @Override
   public void configure() {
     bind(SingularityDriver.class).in(Scopes.SINGLETON);
@@ -26,12 +22,20 @@ public class SingularityMesosModule extends AbstractModule {
     bind(SingularitySlaveAndRackHelper.class).in(Scopes.SINGLETON);
     bind(SingularityStartup.class).in(Scopes.SINGLETON);
     bind(SchedulerDriverSupplier.class).in(Scopes.SINGLETON);
+    bind(SingularityOfferMatcher.class).in(Scopes.SINGLETON);
+    bind(SingularityOfferScorer.class).in(Scopes.SINGLETON);
+    bind(SingularityOfferEvaluator.class).in(Scopes.SINGLETON);
+    bind(SingularityOfferBuffer.class).in(Scopes.SINGLETON);
+    bind(SingularityOfferCycleMetrics.class).in(Scopes.SINGLETON);
+    bind(SingularitySchedulerLock.class).in(Scopes.SINGLETON);
+    bind(SingularityStatusUpdateQueue.class).in(Scopes.SINGLETON);
+    bind(SingularityFirstFitOfferMatchStrategy.class).in(Scopes.SINGLETON);
+    bind(SingularityBestFitOfferMatchStrategy.class).in(Scopes.SINGLETON);
   }
 
   @Provides
-  @Named(SCHEDULER_LOCK_NAME)
   @Singleton
-  public Lock getSchedulerLock() {
-    return new ReentrantLock();
+  public SingularityOfferMatchStrategy getOfferMatchStrategy(SingularityConfiguration configuration, Injector injector) {
+    return injector.getInstance(configuration.getOfferMatchStrategy().getOfferMatchStrategyClass());
   }
 }
@@ -1,8 +1,5 @@
 package com.hubspot.singularity.mesos;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -15,6 +12,7 @@ import org.apache.mesos.SchedulerDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Timer;
 import com.codahale.metrics.annotation.Timed;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
@@ -25,7 +23,6 @@ import com.google.inject.Provider;
 import com.google.inject.name.Named;
 import com.hubspot.mesos.JavaUtils;
 import com.hubspot.mesos.MesosUtils;
-import com.hubspot.mesos.Resources;
 import com.hubspot.singularity.ExtendedTaskState;
 import com.hubspot.singularity.InvalidSingularityTaskIdException;
 import com.hubspot.singularity.SingularityCreateResult;
@@ -37,15 +34,12 @@ import com.hubspot.singularity.SingularityTaskHistoryUpdate;
 import com.hubspot.singularity.SingularityTaskId;
 import com.hubspot.singularity.SingularityTaskRequest;
 import com.hubspot.singularity.SingularityTaskStatusHolder;
-import com.hubspot.singularity.SlaveMatchState;
-import com.hubspot.singularity.config.CustomExecutorConfiguration;
-import com.hubspot.singularity.config.MesosConfiguration;
-import com.hubspot.singularity.config.SingularityConfiguration;
 import com.hubspot.singularity.data.DeployManager;
 import com.hubspot.singularity.data.RequestManager;
 import com.hubspot.singularity.data.TaskManager;
 import com.hubspot.singularity.data.transcoders.IdTranscoder;
 import com.hubspot.singularity.data.transcoders.SingularityTranscoderException;
+import com.hubspot.singularity.mesos.SingularityOfferCycleMetrics.Phase;
 import com.hubspot.singularity.scheduler.SingularityHealthchecker;
 import com.hubspot.singularity.scheduler.SingularityNewTaskChecker;
 import com.hubspot.singularity.scheduler.SingularityScheduler;
@@ -58,21 +52,20 @@ public class SingularityMesosScheduler implements Scheduler {
 
   private static final Logger LOG = LoggerFactory.getLogger(SingularityMesosScheduler.class);
 
-  private final Resources defaultResources;
-  private final Resources defaultCustomExecutorResources;
   private final TaskManager taskManager;
   private final RequestManager requestManager;
   private final DeployManager deployManager;
   private final SingularityScheduler scheduler;
-  private final SingularityConfiguration configuration;
-  private final SingularityMesosTaskBuilder mesosTaskBuilder;
   private final SingularityMesosFrameworkMessageHandler messageHandler;
   private final SingularityHealthchecker healthchecker;
   private final SingularityNewTaskChecker newTaskChecker;
   private final SingularitySlaveAndRackManager slaveAndRackManager;
   private final SingularitySchedulerPriority schedulerPriority;
   private final SingularityLogSupport logSupport;
-  private final SingularityTaskSizeOptimizer taskSizeOptimizer;
+  private final SingularityOfferMatchStrategy offerMatchStrategy;
+  private final SingularityOfferMatcher offerMatcher;
+  private final SingularityOfferBuffer offerBuffer;
+  private final SingularityOfferCycleMetrics offerCycleMetrics;
 
   private final SingularityExceptionNotifier exceptionNotifier;
 
@@ -83,12 +76,12 @@ public class SingularityMesosScheduler implements Scheduler {
   private final IdTranscoder<SingularityTaskId> taskIdTranscoder;
 
   @Inject
-  SingularityMesosScheduler(MesosConfiguration mesosConfiguration, SingularityConfiguration configuration, TaskManager taskManager, SingularityScheduler scheduler, SingularitySlaveAndRackManager slaveAndRackManager,
-      SingularitySchedulerPriority schedulerPriority, SingularityNewTaskChecker newTaskChecker, SingularityMesosTaskBuilder mesosTaskBuilder, SingularityLogSupport logSupport, RequestManager requestManager,
-      Provider<SingularitySchedulerStateCache> stateCacheProvider, SingularityHealthchecker healthchecker, DeployManager deployManager, SingularityExceptionNotifier exceptionNotifier,SingularityMesosFrameworkMessageHandler messageHandler,
-      @Named(SingularityMainModule.SERVER_ID_PROPERTY) String serverId, SchedulerDriverSupplier schedulerDriverSupplier, SingularityTaskSizeOptimizer taskSizeOptimizer, final IdTranscoder<SingularityTaskId> taskIdTranscoder, CustomExecutorConfiguration customExecutorConfiguration) {
-    this.defaultResources = new Resources(mesosConfiguration.getDefaultCpus(), mesosConfiguration.getDefaultMemory(), 0);
-    this.defaultCustomExecutorResources = new Resources(customExecutorConfiguration.getNumCpus(), customExecutorConfiguration.getMemoryMb(), 0);
+  SingularityMesosScheduler(TaskManager taskManager, SingularityScheduler scheduler, SingularitySlaveAndRackManager slaveAndRackManager, SingularitySchedulerPriority schedulerPriority,
+      SingularityNewTaskChecker newTaskChecker, SingularityLogSupport logSupport, RequestManager requestManager, Provider<SingularitySchedulerStateCache> stateCacheProvider,
+      SingularityHealthchecker healthchecker, DeployManager deployManager, SingularityExceptionNotifier exceptionNotifier, SingularityMesosFrameworkMessageHandler messageHandler,
+      @Named(SingularityMainModule.SERVER_ID_PROPERTY) String serverId, SchedulerDriverSupplier schedulerDriverSupplier, final IdTranscoder<SingularityTaskId> taskIdTranscoder,
+      SingularityOfferMatchStrategy offerMatchStrategy, SingularityOfferMatcher offerMatcher, SingularityOfferBuffer offerBuffer,
+      SingularityOfferCycleMetrics offerCycleMetrics) {
     this.taskManager = taskManager;
     this.deployManager = deployManager;
     this.schedulerPriority = schedulerPriority;
@@ -96,8 +89,6 @@ public class SingularityMesosScheduler implements Scheduler {
     this.slaveAndRackManager = slaveAndRackManager;
     this.scheduler = scheduler;
     this.messageHandler = messageHandler;
-    this.taskSizeOptimizer = taskSizeOptimizer;
-    this.mesosTaskBuilder = mesosTaskBuilder;
     this.logSupport = logSupport;
     this.stateCacheProvider = stateCacheProvider;
     this.healthchecker = healthchecker;
@@ -106,19 +97,24 @@ public class SingularityMesosScheduler implements Scheduler {
     this.taskIdTranscoder = taskIdTranscoder;
     this.exceptionNotifier = exceptionNotifier;
     this.requestManager = requestManager;
-    this.configuration = configuration;
+    this.offerMatchStrategy = offerMatchStrategy;
+    this.offerMatcher = offerMatcher;
+    this.offerBuffer = offerBuffer;
+    this.offerCycleMetrics = offerCycleMetrics;
   }
 
   @Override
   public void registered(SchedulerDriver driver, Protos.FrameworkID frameworkId, Protos.MasterInfo masterInfo) {
     LOG.info("Registered driver {}, with frameworkId {} and master {}", driver, frameworkId, masterInfo);
     schedulerDriverSupplier.setSchedulerDriver(driver);
+    offerBuffer.clear();
   }
 
   @Override
   public void reregistered(SchedulerDriver driver, Protos.MasterInfo masterInfo) {
     LOG.info("Reregistered driver {}, with master {}", driver, masterInfo);
     schedulerDriverSupplier.setSchedulerDriver(driver);
+    offerBuffer.clear();
   }
 
   @Override
@@ -135,10 +131,21 @@ public class SingularityMesosScheduler implements Scheduler {
 
     final SingularitySchedulerStateCache stateCache = stateCacheProvider.get();
 
-    scheduler.checkForDecomissions(stateCache);
-    scheduler.drainPendingQueue(stateCache);
+    offerCycleMetrics.startCycle();
 
-    final Set<Protos.OfferID> acceptedOffers = Sets.newHashSetWithExpectedSize(offers.size());
+    try (Timer.Context context = offerCycleMetrics.time(Phase.CHECK_FOR_DECOMISSIONS)) {
+      scheduler.checkForDecomissions(stateCache);
+    }
+
+    try (Timer.Context context = offerCycleMetrics.time(Phase.DRAIN_PENDING_QUEUE)) {
+      scheduler.drainPendingQueue(stateCache);
+    }
+
+    offerBuffer.declineExpiredOffers(driver);
+
+    final List<Protos.Offer> allOffers = offerBuffer.checkoutOffers(offers);
+
+    final Set<Protos.OfferID> acceptedOffers = Sets.newHashSetWithExpectedSize(allOffers.size());
 
     for (Protos.Offer offer : offers) {
       slaveAndRackManager.checkOffer(offer);
@@ -147,8 +154,12 @@ public class SingularityMesosScheduler implements Scheduler {
     int numDueTasks = 0;
 
     try {
-      final List<SingularityTaskRequest> taskRequests = scheduler.getDueTasks();
-      schedulerPriority.sortTaskRequestsInPriorityOrder(taskRequests);
+      final List<SingularityTaskRequest> taskRequests;
+
+      try (Timer.Context context = offerCycleMetrics.time(Phase.GET_DUE_TASKS)) {
+        taskRequests = scheduler.getDueTasks();
+        schedulerPriority.sortTaskRequestsInPriorityOrder(taskRequests);
+      }
 
       for (SingularityTaskRequest taskRequest : taskRequests) {
         LOG.trace("Task {} is due", taskRequest.getPendingTask().getPendingTaskId());
@@ -156,114 +167,57 @@ public class SingularityMesosScheduler implements Scheduler {
 
       numDueTasks = taskRequests.size();
 
-      final List<SingularityOfferHolder> offerHolders = Lists.newArrayListWithCapacity(offers.size());
+      final List<SingularityOfferHolder> offerHolders = Lists.newArrayListWithCapacity(allOffers.size());
 
-      for (Protos.Offer offer : offers) {
+      for (Protos.Offer offer : allOffers) {
         offerHolders.add(new SingularityOfferHolder(offer, numDueTasks));
       }
 
-      boolean addedTaskInLastLoop = true;
+      try (Timer.Context context = offerCycleMetrics.time(Phase.MATCH_OFFERS)) {
+        offerMatchStrategy.matchOffers(taskRequests, offerHolders, stateCache);
+      }
 
-      while (!taskRequests.isEmpty() && addedTaskInLastLoop) {
-        addedTaskInLastLoop = false;
-        Collections.shuffle(offerHolders);
+      try (Timer.Context context = offerCycleMetrics.time(Phase.SAVE_ACCEPTED_TASKS)) {
+        offerMatcher.saveAcceptedTasks(offerHolders, stateCache);
+      }
 
+      try (Timer.Context context = offerCycleMetrics.time(Phase.LAUNCH_TASKS)) {
         for (SingularityOfferHolder offerHolder : offerHolders) {
-          if (configuration.getMaxTasksPerOffer() > 0 && offerHolder.getAcceptedTasks().size() >= configuration.getMaxTasksPerOffer()) {
-            LOG.trace("Offer {} is full ({}) - skipping", offerHolder.getOffer(), offerHolder.getAcceptedTasks().size());
-            continue;
-          }
+          if (!offerHolder.getAcceptedTasks().isEmpty()) {
+            offerHolder.launchTasks(driver);
+            offerBuffer.offerUsed(offerHolder.getOffer());
 
-          Optional<SingularityTask> accepted = match(taskRequests, stateCache, offerHolder);
-          if (accepted.isPresent()) {
-            offerHolder.addMatchedTask(accepted.get());
-            addedTaskInLastLoop = true;
-            taskRequests.remove(accepted.get().getTaskRequest());
+            acceptedOffers.add(offerHolder.getOffer().getId());
+          } else {
+            offerBuffer.returnUnusedOffer(driver, offerHolder.getOffer());
           }
-
-          if (taskRequests.isEmpty()) {
-            break;
-          }
-        }
-      }
-
-      for (SingularityOfferHolder offerHolder : offerHolders) {
-        if (!offerHolder.getAcceptedTasks().isEmpty()) {
-          offerHolder.launchTasks(driver);
-
-          acceptedOffers.add(offerHolder.getOffer().getId());
-        } else {
-          driver.declineOffer(offerHolder.getOffer().getId());
         }
       }
     } catch (Throwable t) {
       LOG.error("Received fatal error while accepting offers - will decline all available offers", t);
 
-      for (Protos.Offer offer : offers) {
+      for (Protos.Offer offer : allOffers) {
         if (acceptedOffers.contains(offer.getId())) {
           continue;
         }
 
-        driver.declineOffer(offer.getId());
+        offerBuffer.declineOffer(driver, offer.getId());
       }
 
       throw t;
+    } finally {
+      offerCycleMetrics.finishCycle();
     }
 
-    LOG.info("Finished handling {} offer(s) ({}), {} accepted, {} declined, {} outstanding tasks", offers.size(), JavaUtils.duration(start), acceptedOffers.size(),
-        offers.size() - acceptedOffers.size(), numDueTasks - acceptedOffers.size());
-  }
-
-  private Optional<SingularityTask> match(Collection<SingularityTaskRequest> taskRequests, SingularitySchedulerStateCache stateCache, SingularityOfferHolder offerHolder) {
-
-    for (SingularityTaskRequest taskRequest : taskRequests) {
-      final Resources taskResources = taskRequest.getDeploy().getResources().or(defaultResources);
-
-      // only factor in executor resources if we're running a custom executor
-      final Resources executorResources = taskRequest.getDeploy().getCustomExecutorCmd().isPresent() ? taskRequest.getDeploy().getCustomExecutorResources().or(defaultCustomExecutorResources) : Resources.EMPTY_RESOURCES;
-
-      final Resources totalResources = Resources.add(taskResources, executorResources);
-
-      final List<Long> requestedPorts = new ArrayList<>();
-
-      if (taskRequest.getDeploy().getContainerInfo().isPresent() && taskRequest.getDeploy().getContainerInfo().get().getDocker().isPresent()) {
-        requestedPorts.addAll(taskRequest.getDeploy().getContainerInfo().get().getDocker().get().getLiteralHostPorts());
-      }
-
-      LOG.trace("Attempting to match task {} resources {} ({} for task + {} for executor) with remaining offer resources {}", taskRequest.getPendingTask().getPendingTaskId(), totalResources, taskResources, executorResources, offerHolder.getCurrentResources());
-
-      final boolean matchesResources = MesosUtils.doesOfferMatchResources(totalResources, offerHolder.getCurrentResources(), requestedPorts);
-      final SlaveMatchState slaveMatchState = slaveAndRackManager.doesOfferMatch(offerHolder.getOffer(), taskRequest, stateCache);
-
-      if (matchesResources && slaveMatchState.isMatchAllowed()) {
-        final SingularityTask task = mesosTaskBuilder.buildTask(offerHolder.getOffer(), offerHolder.getCurrentResources(), taskRequest, taskResources, executorResources);
-
-        final SingularityTask zkTask = taskSizeOptimizer.getSizeOptimizedTask(task);
-
-        LOG.trace("Accepted and built task {}", zkTask);
-
-        LOG.info("Launching task {} slot on slave {} ({})", task.getTaskId(), offerHolder.getOffer().getSlaveId().getValue(), offerHolder.getOffer().getHostname());
-
-        taskManager.createTaskAndDeletePendingTask(zkTask);
-
-        schedulerPriority.notifyTaskLaunched(task.getTaskId());
-
-        stateCache.getActiveTaskIds().add(task.getTaskId());
-        stateCache.getScheduledTasks().remove(taskRequest.getPendingTask());
-
-        return Optional.of(task);
-      } else {
-        LOG.trace("Ignoring offer {} on {} for task {}; matched resources: {}, slave match state: {}", offerHolder.getOffer().getId(), offerHolder.getOffer().getHostname(), taskRequest
-            .getPendingTask().getPendingTaskId(), matchesResources, slaveMatchState);
-      }
-    }
-
-    return Optional.absent();
+    LOG.info("Finished handling {} offer(s) ({} new) ({}), {} accepted, {} declined or held, {} outstanding tasks", allOffers.size(), offers.size(), JavaUtils.duration(start),
+        acceptedOffers.size(), allOffers.size() - acceptedOffers.size(), numDueTasks - acceptedOffers.size());
   }
 
   @Override
   public void offerRescinded(SchedulerDriver driver, Protos.OfferID offerId) {
     LOG.info("Offer {} rescinded", offerId);
+
+    offerBuffer.rescindOffer(offerId);
   }
 
   /**
@@ -408,6 +362,7 @@ public class SingularityMesosScheduler implements Scheduler {
   @Override
   public void disconnected(SchedulerDriver driver) {
     schedulerDriverSupplier.setSchedulerDriver(null);
+    offerBuffer.clear();
     LOG.warn("Scheduler/Driver disconnected");
   }
 
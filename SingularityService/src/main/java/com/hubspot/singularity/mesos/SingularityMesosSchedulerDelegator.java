@@ -24,7 +24,6 @@ import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
-import com.google.inject.name.Named;
 import com.hubspot.mesos.JavaUtils;
 import com.hubspot.singularity.SingularityAbort;
 import com.hubspot.singularity.SingularityAbort.AbortReason;
@@ -43,7 +42,8 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
 
   private final Lock stateLock;
 
-  private final Lock lock;
+  private final SingularitySchedulerLock lock;
+  private final SingularityStatusUpdateQueue statusUpdateQueue;
 
   private enum SchedulerState {
     STARTUP, RUNNING, STOPPED;
@@ -57,8 +57,8 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
   private final AtomicReference<MasterInfo> masterInfoHolder = new AtomicReference<>();
 
   @Inject
-  SingularityMesosSchedulerDelegator(@Named(SingularityMesosModule.SCHEDULER_LOCK_NAME) final Lock lock, SingularityExceptionNotifier exceptionNotifier, SingularityMesosScheduler scheduler,
-      SingularityStartup startup, SingularityAbort abort) {
+  SingularityMesosSchedulerDelegator(SingularitySchedulerLock lock, SingularityStatusUpdateQueue statusUpdateQueue, SingularityExceptionNotifier exceptionNotifier,
+      SingularityMesosScheduler scheduler, SingularityStartup startup, SingularityAbort abort) {
     this.exceptionNotifier = exceptionNotifier;
 
     this.scheduler = scheduler;
@@ -68,6 +68,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
     this.queuedUpdates = Lists.newArrayList();
 
     this.lock = lock;
+    this.statusUpdateQueue = statusUpdateQueue;
 
     this.stateLock = new ReentrantLock();
     this.state = SchedulerState.STARTUP;
@@ -121,7 +122,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
 
   @Override
   public void registered(SchedulerDriver driver, FrameworkID frameworkId, MasterInfo masterInfo) {
-    lock.lock();
+    lock.lock("registered");
 
     try {
       scheduler.registered(driver, frameworkId, masterInfo);
@@ -136,7 +137,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
 
   @Override
   public void reregistered(SchedulerDriver driver, MasterInfo masterInfo) {
-    lock.lock();
+    lock.lock("reregistered");
 
     try {
       scheduler.reregistered(driver, masterInfo);
@@ -169,7 +170,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
 
     final long start = System.currentTimeMillis();
 
-    lock.lock();
+    lock.lock("resourceOffers");
 
     try {
       scheduler.resourceOffers(driver, offers);
@@ -189,7 +190,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
       return;
     }
 
-    lock.lock();
+    lock.lock("offerRescinded");
 
     try {
       scheduler.offerRescinded(driver, offerId);
@@ -202,8 +203,6 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
 
   @Override
   public void statusUpdate(SchedulerDriver driver, TaskStatus status) {
-    final long start = System.currentTimeMillis();
-
     stateLock.lock();
 
     try {
@@ -218,17 +217,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
       stateLock.unlock();
     }
 
-    lock.lock();
-
-    try {
-      scheduler.statusUpdate(driver, status);
-    } catch (Throwable t) {
-      handleUncaughtSchedulerException(t);
-    } finally {
-      lock.unlock();
-
-      LOG.debug("Handled status update for {} in {}", status.getTaskId().getValue(), JavaUtils.duration(start));
-    }
+    statusUpdateQueue.enqueue(driver, status);
   }
 
   @Override
@@ -238,7 +227,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
       return;
     }
 
-    lock.lock();
+    lock.lock("frameworkMessage");
 
     try {
       scheduler.frameworkMessage(driver, executorId, slaveId, data);
@@ -256,7 +245,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
       return;
     }
 
-    lock.lock();
+    lock.lock("disconnected");
 
     try {
       scheduler.disconnected(driver);
@@ -274,7 +263,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
       return;
     }
 
-    lock.lock();
+    lock.lock("slaveLost");
 
     try {
       scheduler.slaveLost(driver, slaveId);
@@ -292,7 +281,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
       return;
     }
 
-    lock.lock();
+    lock.lock("executorLost");
 
     try {
       scheduler.executorLost(driver, executorId, slaveId, status);
@@ -310,7 +299,7 @@ public class SingularityMesosSchedulerDelegator implements Scheduler {
       return;
     }
 
-    lock.lock();
+    lock.lock("error");
 
     try {
       scheduler.error(driver, message);
@@ -41,6 +41,7 @@ import com.hubspot.deploy.ExecutorData;
 import com.hubspot.deploy.ExecutorDataBuilder;
 import com.hubspot.mesos.JavaUtils;
 import com.hubspot.mesos.MesosUtils;
+import com.hubspot.mesos.PortRanges;
 import com.hubspot.mesos.Resources;
 import com.hubspot.mesos.SingularityContainerInfo;
 import com.hubspot.mesos.SingularityDockerInfo;
@@ -71,7 +72,7 @@ class SingularityMesosTaskBuilder {
     this.configuration = configuration;
   }
 
-  public SingularityTask buildTask(Protos.Offer offer, List<Resource> availableResources, SingularityTaskRequest taskRequest, Resources desiredTaskResources, Resources desiredExecutorResources) {
+  public SingularityTask buildTask(Protos.Offer offer, PortRanges availablePorts, SingularityTaskRequest taskRequest, Resources desiredTaskResources, Resources desiredExecutorResources) {
     final String sanitizedRackId = JavaUtils.getReplaceHyphensWithUnderscores(slaveAndRackHelper.getRackIdOrDefault(offer));
     final String sanitizedHost = JavaUtils.getReplaceHyphensWithUnderscores(slaveAndRackHelper.getMaybeTruncatedHost(offer));
 
@@ -90,7 +91,7 @@ class SingularityMesosTaskBuilder {
       if (hasLiteralPortMapping(containerInfo)) {
         requestedPorts.addAll(containerInfo.get().getDocker().get().getLiteralHostPorts());
       }
-      portsResource = Optional.of(MesosUtils.getPortsResource(desiredTaskResources.getNumPorts(), availableResources, requestedPorts));
+      portsResource = Optional.of(MesosUtils.getPortsResource(desiredTaskResources.getNumPorts(), availablePorts, requestedPorts));
       ports = Optional.of(MesosUtils.getPorts(portsResource.get(), desiredTaskResources.getNumPorts()));
     }
 
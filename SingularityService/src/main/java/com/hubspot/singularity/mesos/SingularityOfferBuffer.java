@@ -0,0 +1,195 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Singleton;
+
+import org.apache.mesos.Protos.Filters;
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.OfferID;
+import org.apache.mesos.SchedulerDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.hubspot.singularity.config.SingularityConfiguration;
+
+/**
+ * Holds offers which were not used by an offer cycle for up to offerHoldMillis, so that they can be matched again together with the next
+ * batch of offers (or by {@link com.hubspot.singularity.scheduler.SingularityHeldOfferPoller}) instead of being declined straight away.
+ *
+ * Offers are declined with a refuse_seconds filter of offerDeclineRefuseSeconds (if set) once they expire. Only accessed under the global scheduler lock,
+ * apart from the offers.held gauge, which reads a count kept alongside the held offers.
+ */
+@Singleton
+public class SingularityOfferBuffer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SingularityOfferBuffer.class);
+
+  private final SingularityConfiguration configuration;
+
+  private final Map<OfferID, HeldOffer> heldOffers;
+  private final Map<OfferID, HeldOffer> checkedOutOffers;
+  private final AtomicInteger numHeldOffers;
+
+  private final Histogram holdTimeHistogram;
+  private final Meter reusedMeter;
+  private final Meter declinedMeter;
+  private final Meter rescindedMeter;
+
+  @Inject
+  SingularityOfferBuffer(SingularityConfiguration configuration, MetricRegistry registry) {
+    this.configuration = configuration;
+
+    this.heldOffers = Maps.newLinkedHashMap();
+    this.checkedOutOffers = Maps.newHashMap();
+    this.numHeldOffers = new AtomicInteger();
+
+    this.holdTimeHistogram = registry.histogram("offers.held.millis");
+    this.reusedMeter = registry.meter("offers.reused");
+    this.declinedMeter = registry.meter("offers.declined");
+    this.rescindedMeter = registry.meter("offers.rescinded");
+
+    registry.register("offers.held", new Gauge<Integer>() {
+
+      @Override
+      public Integer getValue() {
+        return numHeldOffers.get();
+      }
+
+    });
+  }
+
+  public boolean hasHeldOffers() {
+    return !heldOffers.isEmpty();
+  }
+
+  /**
+   * @return the held offers (oldest first) followed by the newly received ones, all of which must then be passed to either
+   * {@link #offerUsed(Offer)} or {@link #returnUnusedOffer(SchedulerDriver, Offer)}
+   */
+  public List<Offer> checkoutOffers(List<Offer> newOffers) {
+    final long now = System.currentTimeMillis();
+    final List<Offer> offers = Lists.newArrayListWithCapacity(heldOffers.size() + newOffers.size());
+
+    for (HeldOffer heldOffer : heldOffers.values()) {
+      offers.add(heldOffer.offer);
+      checkedOutOffers.put(heldOffer.offer.getId(), heldOffer);
+    }
+
+    heldOffers.clear();
+    numHeldOffers.set(0);
+
+    for (Offer offer : newOffers) {
+      offers.add(offer);
+      checkedOutOffers.put(offer.getId(), new HeldOffer(offer, now, false));
+    }
+
+    return offers;
+  }
+
+  public void offerUsed(Offer offer) {
+    final HeldOffer heldOffer = checkedOutOffers.remove(offer.getId());
+
+    if (heldOffer == null) {
+      return;
+    }
+
+    holdTimeHistogram.update(System.currentTimeMillis() - heldOffer.receivedAt);
+
+    if (heldOffer.held) {
+      reusedMeter.mark();
+    }
+  }
+
+  public void returnUnusedOffer(SchedulerDriver driver, Offer offer) {
+    final HeldOffer heldOffer = checkedOutOffers.remove(offer.getId());
+    final long now = System.currentTimeMillis();
+
+    if (heldOffer != null && now - heldOffer.receivedAt < configuration.getOfferHoldMillis()) {
+      heldOffers.put(offer.getId(), new HeldOffer(offer, heldOffer.receivedAt, true));
+      numHeldOffers.set(heldOffers.size());
+      return;
+    }
+
+    if (heldOffer != null) {
+      holdTimeHistogram.update(now - heldOffer.receivedAt);
+    }
+
+    declineOffer(driver, offer.getId());
+  }
+
+  public void declineOffer(SchedulerDriver driver, OfferID offerId) {
+    checkedOutOffers.remove(offerId);
+    declinedMeter.mark();
+
+    if (configuration.getOfferDeclineRefuseSeconds() > 0) {
+      driver.declineOffer(offerId, Filters.newBuilder().setRefuseSeconds(configuration.getOfferDeclineRefuseSeconds()).build());
+    } else {
+      driver.declineOffer(offerId);
+    }
+  }
+
+  public void declineExpiredOffers(SchedulerDriver driver) {
+    final long now = System.currentTimeMillis();
+    final Iterator<HeldOffer> iterator = heldOffers.values().iterator();
+
+    while (iterator.hasNext()) {
+      final HeldOffer heldOffer = iterator.next();
+
+      if (now - heldOffer.receivedAt >= configuration.getOfferHoldMillis()) {
+        iterator.remove();
+        numHeldOffers.set(heldOffers.size());
+        holdTimeHistogram.update(now - heldOffer.receivedAt);
+        declineOffer(driver, heldOffer.offer.getId());
+      }
+    }
+  }
+
+  public void rescindOffer(OfferID offerId) {
+    final HeldOffer heldOffer = heldOffers.remove(offerId);
+    numHeldOffers.set(heldOffers.size());
+
+    if (heldOffer != null) {
+      LOG.debug("Removed rescinded offer {} from {} after {}ms", offerId.getValue(), heldOffer.offer.getHostname(), System.currentTimeMillis() - heldOffer.receivedAt);
+      rescindedMeter.mark();
+    }
+  }
+
+  /**
+   * Forgets all held offers without declining them, for when the driver disconnects and Mesos invalidates every outstanding offer.
+   */
+  public void clear() {
+    if (!heldOffers.isEmpty()) {
+      LOG.info("Dropping {} held offer(s)", heldOffers.size());
+    }
+
+    heldOffers.clear();
+    numHeldOffers.set(0);
+    checkedOutOffers.clear();
+  }
+
+  private static class HeldOffer {
+
+    private final Offer offer;
+    private final long receivedAt;
+    private final boolean held;
+
+    HeldOffer(Offer offer, long receivedAt, boolean held) {
+      this.offer = offer;
+      this.receivedAt = receivedAt;
+      this.held = held;
+    }
+
+  }
+
+}
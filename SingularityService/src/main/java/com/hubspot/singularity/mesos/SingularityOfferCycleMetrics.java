@@ -0,0 +1,356 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.inject.Singleton;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
+import com.hubspot.singularity.SingularityPendingTaskId;
+import com.hubspot.singularity.SingularityTaskOfferRejections;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.SlaveMatchState;
+
+/**
+ * Instrumentation for offer cycles: a timer per phase of resourceOffers, the number of (task, offer) evaluations per cycle, and counters
+ * of why offers were rejected.
+ *
+ * Evaluations are tallied in plain maps owned by the evaluating thread and merged once when the cycle finishes, so recording one costs no
+ * shared writes. Rejections are then counted overall in offers.rejections.[state], and the rejections of the last cycle are kept per
+ * pending task, per request and per slave. The totals per request and per slave are also published as offers.rejections.request.[id] and
+ * offers.rejections.slave.[id] gauges, which are removed once a cycle no longer rejects anything for them.
+ */
+@Singleton
+public class SingularityOfferCycleMetrics {
+
+  private static final String REQUEST_GAUGE_PREFIX = "offers.rejections.request.";
+  private static final String SLAVE_GAUGE_PREFIX = "offers.rejections.slave.";
+
+  private static final SlaveMatchState[] SLAVE_MATCH_STATES = SlaveMatchState.values();
+
+  public enum Phase {
+    CHECK_FOR_DECOMISSIONS("checkForDecomissions"), DRAIN_PENDING_QUEUE("drainPendingQueue"), GET_DUE_TASKS("getDueTasks"), MATCH_OFFERS("matchOffers"),
+    SAVE_ACCEPTED_TASKS("saveAcceptedTasks"), LAUNCH_TASKS("launchTasks");
+
+    private final String metricName;
+
+    private Phase(String metricName) {
+      this.metricName = metricName;
+    }
+
+  }
+
+  private final MetricRegistry registry;
+
+  private final Map<Phase, Timer> phaseTimers;
+  private final Map<SlaveMatchState, Counter> rejectionCounters;
+  private final Histogram evaluationsHistogram;
+
+  private final ThreadLocal<CycleTally> tallies;
+  private final Queue<CycleTally> cycleTallies;
+
+  private final Set<String> requestGauges;
+  private final Set<String> slaveGauges;
+
+  private volatile long cycleNumber;
+  private volatile long cycleStartedAt;
+
+  private volatile LastCycle lastCycle;
+
+  @Inject
+  public SingularityOfferCycleMetrics(MetricRegistry registry) {
+    this.registry = registry;
+    this.phaseTimers = new EnumMap<>(Phase.class);
+
+    for (Phase phase : Phase.values()) {
+      phaseTimers.put(phase, registry.timer("offers.phase." + phase.metricName));
+    }
+
+    this.rejectionCounters = new EnumMap<>(SlaveMatchState.class);
+
+    for (SlaveMatchState slaveMatchState : SLAVE_MATCH_STATES) {
+      if (!slaveMatchState.isMatchAllowed()) {
+        rejectionCounters.put(slaveMatchState, registry.counter("offers.rejections." + slaveMatchState.name()));
+      }
+    }
+
+    this.evaluationsHistogram = registry.histogram("offers.cycle.evaluations");
+
+    this.tallies = new ThreadLocal<>();
+    this.cycleTallies = new ConcurrentLinkedQueue<>();
+
+    this.requestGauges = Sets.newHashSet();
+    this.slaveGauges = Sets.newHashSet();
+
+    this.lastCycle = new LastCycle(ImmutableMap.<SingularityPendingTaskId, SingularityTaskOfferRejections> of(), ImmutableMap.<String, Map<SlaveMatchState, Long>> of(),
+        ImmutableMap.<String, Map<SlaveMatchState, Long>> of());
+  }
+
+  public Timer.Context time(Phase phase) {
+    return phaseTimers.get(phase).time();
+  }
+
+  public void startCycle() {
+    cycleTallies.clear();
+    cycleNumber++;
+    cycleStartedAt = System.currentTimeMillis();
+  }
+
+  /**
+   * Merges what every thread recorded during the cycle and publishes it. Must be called after all evaluations of the cycle have completed.
+   */
+  public void finishCycle() {
+    final CycleTally merged = new CycleTally(cycleNumber);
+
+    for (CycleTally tally : cycleTallies) {
+      merged.mergeFrom(tally);
+    }
+
+    cycleTallies.clear();
+    cycleNumber++; // tallies left in thread locals now belong to a finished cycle and are replaced on next use
+
+    evaluationsHistogram.update(merged.evaluations);
+
+    for (SlaveMatchState slaveMatchState : SLAVE_MATCH_STATES) {
+      final long rejections = merged.rejections[slaveMatchState.ordinal()];
+
+      if (rejections > 0) {
+        rejectionCounters.get(slaveMatchState).inc(rejections);
+      }
+    }
+
+    final ImmutableMap.Builder<SingularityPendingTaskId, SingularityTaskOfferRejections> taskRejections = ImmutableMap.builder();
+
+    for (Map.Entry<SingularityPendingTaskId, TaskTally> entry : merged.byTask.entrySet()) {
+      final TaskTally taskTally = entry.getValue();
+
+      taskRejections.put(entry.getKey(), new SingularityTaskOfferRejections(entry.getKey(), cycleStartedAt, taskTally.offersEvaluated, toMap(taskTally.rejections),
+          ImmutableMap.copyOf(taskTally.byHost)));
+    }
+
+    lastCycle = new LastCycle(taskRejections.build(), toMaps(merged.byRequest), toMaps(merged.bySlave));
+
+    updateGauges(requestGauges, REQUEST_GAUGE_PREFIX, merged.byRequest.keySet(), true);
+    updateGauges(slaveGauges, SLAVE_GAUGE_PREFIX, merged.bySlave.keySet(), false);
+  }
+
+  /**
+   * Records one evaluation of an offer for a task, with the reason it was rejected if matchState doesn't allow the match.
+   */
+  public void recordEvaluation(SingularityTaskRequest taskRequest, SingularityOfferHolder offerHolder, SlaveMatchState matchState) {
+    getTally().record(taskRequest.getPendingTask().getPendingTaskId(), offerHolder, matchState);
+  }
+
+  public Optional<SingularityTaskOfferRejections> getLastRejections(SingularityPendingTaskId pendingTaskId) {
+    return Optional.fromNullable(lastCycle.byTask.get(pendingTaskId));
+  }
+
+  public Map<SlaveMatchState, Long> getRejectionsForRequest(String requestId) {
+    return getRejections(lastCycle.byRequest, requestId);
+  }
+
+  public Map<SlaveMatchState, Long> getRejectionsForSlave(String slaveId) {
+    return getRejections(lastCycle.bySlave, slaveId);
+  }
+
+  private static Map<SlaveMatchState, Long> getRejections(Map<String, Map<SlaveMatchState, Long>> rejections, String key) {
+    final Map<SlaveMatchState, Long> counts = rejections.get(key);
+
+    if (counts == null) {
+      return ImmutableMap.of();
+    }
+
+    return counts;
+  }
+
+  private CycleTally getTally() {
+    CycleTally tally = tallies.get();
+
+    if (tally == null || tally.cycleNumber != cycleNumber) {
+      tally = new CycleTally(cycleNumber);
+      tallies.set(tally);
+      cycleTallies.add(tally);
+    }
+
+    return tally;
+  }
+
+  private void updateGauges(Set<String> registered, String prefix, Set<String> current, final boolean byRequest) {
+    for (final String key : current) {
+      if (registered.add(key)) {
+        registry.remove(prefix + key);
+        registry.register(prefix + key, new Gauge<Long>() {
+
+          @Override
+          public Long getValue() {
+            return getTotal(byRequest ? lastCycle.byRequest.get(key) : lastCycle.bySlave.get(key));
+          }
+
+        });
+      }
+    }
+
+    for (String key : Sets.newHashSet(Sets.difference(registered, current))) {
+      registry.remove(prefix + key);
+      registered.remove(key);
+    }
+  }
+
+  private static long getTotal(Map<SlaveMatchState, Long> counts) {
+    long total = 0;
+
+    if (counts != null) {
+      for (long count : counts.values()) {
+        total += count;
+      }
+    }
+
+    return total;
+  }
+
+  private static Map<String, Map<SlaveMatchState, Long>> toMaps(Map<String, long[]> counts) {
+    final ImmutableMap.Builder<String, Map<SlaveMatchState, Long>> maps = ImmutableMap.builder();
+
+    for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+      maps.put(entry.getKey(), toMap(entry.getValue()));
+    }
+
+    return maps.build();
+  }
+
+  private static Map<SlaveMatchState, Long> toMap(long[] counts) {
+    final ImmutableMap.Builder<SlaveMatchState, Long> map = ImmutableMap.builder();
+
+    for (SlaveMatchState slaveMatchState : SLAVE_MATCH_STATES) {
+      if (counts[slaveMatchState.ordinal()] > 0) {
+        map.put(slaveMatchState, counts[slaveMatchState.ordinal()]);
+      }
+    }
+
+    return map.build();
+  }
+
+  private static long[] getCounts(Map<String, long[]> counts, String key) {
+    long[] existing = counts.get(key);
+
+    if (existing == null) {
+      existing = new long[SLAVE_MATCH_STATES.length];
+      counts.put(key, existing);
+    }
+
+    return existing;
+  }
+
+  private static void add(long[] to, long[] from) {
+    for (int i = 0; i < to.length; i++) {
+      to[i] += from[i];
+    }
+  }
+
+  /**
+   * What one thread recorded during one cycle. Only that thread writes to it, and only the thread finishing the cycle reads it.
+   */
+  private static class CycleTally {
+
+    private final long cycleNumber;
+
+    private long evaluations;
+    private final long[] rejections = new long[SLAVE_MATCH_STATES.length];
+    private final Map<SingularityPendingTaskId, TaskTally> byTask = Maps.newHashMap();
+    private final Map<String, long[]> byRequest = Maps.newHashMap();
+    private final Map<String, long[]> bySlave = Maps.newHashMap();
+
+    CycleTally(long cycleNumber) {
+      this.cycleNumber = cycleNumber;
+    }
+
+    void record(SingularityPendingTaskId pendingTaskId, SingularityOfferHolder offerHolder, SlaveMatchState matchState) {
+      evaluations++;
+
+      final TaskTally taskTally = getTaskTally(pendingTaskId);
+
+      taskTally.offersEvaluated++;
+
+      if (matchState.isMatchAllowed()) {
+        return;
+      }
+
+      final int reason = matchState.ordinal();
+
+      rejections[reason]++;
+      taskTally.rejections[reason]++;
+      taskTally.byHost.put(offerHolder.getOffer().getHostname(), matchState);
+
+      getCounts(byRequest, pendingTaskId.getRequestId())[reason]++;
+      getCounts(bySlave, offerHolder.getOffer().getSlaveId().getValue())[reason]++;
+    }
+
+    void mergeFrom(CycleTally other) {
+      evaluations += other.evaluations;
+      add(rejections, other.rejections);
+
+      for (Map.Entry<SingularityPendingTaskId, TaskTally> entry : other.byTask.entrySet()) {
+        final TaskTally taskTally = getTaskTally(entry.getKey());
+
+        taskTally.offersEvaluated += entry.getValue().offersEvaluated;
+        add(taskTally.rejections, entry.getValue().rejections);
+        taskTally.byHost.putAll(entry.getValue().byHost);
+      }
+
+      for (Map.Entry<String, long[]> entry : other.byRequest.entrySet()) {
+        add(getCounts(byRequest, entry.getKey()), entry.getValue());
+      }
+
+      for (Map.Entry<String, long[]> entry : other.bySlave.entrySet()) {
+        add(getCounts(bySlave, entry.getKey()), entry.getValue());
+      }
+    }
+
+    private TaskTally getTaskTally(SingularityPendingTaskId pendingTaskId) {
+      TaskTally taskTally = byTask.get(pendingTaskId);
+
+      if (taskTally == null) {
+        taskTally = new TaskTally();
+        byTask.put(pendingTaskId, taskTally);
+      }
+
+      return taskTally;
+    }
+
+  }
+
+  private static class TaskTally {
+
+    private int offersEvaluated;
+    private final long[] rejections = new long[SLAVE_MATCH_STATES.length];
+    private final Map<String, SlaveMatchState> byHost = Maps.newHashMap();
+
+  }
+
+  private static class LastCycle {
+
+    private final Map<SingularityPendingTaskId, SingularityTaskOfferRejections> byTask;
+    private final Map<String, Map<SlaveMatchState, Long>> byRequest;
+    private final Map<String, Map<SlaveMatchState, Long>> bySlave;
+
+    LastCycle(Map<SingularityPendingTaskId, SingularityTaskOfferRejections> byTask, Map<String, Map<SlaveMatchState, Long>> byRequest, Map<String, Map<SlaveMatchState, Long>> bySlave) {
+      this.byTask = byTask;
+      this.byRequest = byRequest;
+      this.bySlave = bySlave;
+    }
+
+  }
+
+}
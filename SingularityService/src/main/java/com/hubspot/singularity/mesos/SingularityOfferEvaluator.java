@@ -0,0 +1,230 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Inject;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Runs the read-only half of offer matching (resource and slave placement checks, offer scoring) for a list of candidates, either serially
+ * or split across a fork-join pool when parallelOfferMatching is enabled. Candidates are split into contiguous chunks and chunk results are
+ * reduced in candidate order, so both modes return the same answer. Launching the chosen match is always left to the calling thread.
+ */
+@Singleton
+public class SingularityOfferEvaluator implements Managed {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SingularityOfferEvaluator.class);
+
+  private static final int NO_MATCH = -1;
+
+  private final SingularityConfiguration configuration;
+  private final SingularityOfferMatcher offerMatcher;
+  private final SingularityOfferScorer offerScorer;
+  private final SingularitySlaveAndRackHelper slaveAndRackHelper;
+
+  private Optional<ForkJoinPool> pool;
+
+  @Inject
+  SingularityOfferEvaluator(SingularityConfiguration configuration, SingularityOfferMatcher offerMatcher, SingularityOfferScorer offerScorer, SingularitySlaveAndRackHelper slaveAndRackHelper) {
+    this.configuration = configuration;
+    this.offerMatcher = offerMatcher;
+    this.offerScorer = offerScorer;
+    this.slaveAndRackHelper = slaveAndRackHelper;
+    this.pool = Optional.absent();
+  }
+
+  @Override
+  public void start() {
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (pool.isPresent()) {
+      MoreExecutors.shutdownAndAwaitTermination(pool.get(), 1, TimeUnit.SECONDS);
+      pool = Optional.absent();
+    }
+  }
+
+  /**
+   * Loads everything the match checks read lazily from the state cache, so that concurrent evaluation only ever reads it (apart from
+   * slaves and racks, which the state cache can load concurrently, e.g. for a rack named by a slave attribute).
+   */
+  public void prepareStateCache(List<SingularityTaskRequest> taskRequests, List<SingularityOfferHolder> offerHolders, SingularitySchedulerStateCache stateCache) {
+    if (!configuration.isParallelOfferMatching()) {
+      return;
+    }
+
+    for (SingularityOfferHolder offerHolder : offerHolders) {
+      stateCache.getSlave(offerHolder.getOffer().getSlaveId().getValue());
+      stateCache.getRack(slaveAndRackHelper.getRackIdOrDefault(offerHolder.getOffer()));
+    }
+
+    for (SingularityTaskRequest taskRequest : taskRequests) {
+      stateCache.getPlacementIndex(taskRequest.getRequest().getId());
+    }
+
+    stateCache.getActiveTaskIds();
+    stateCache.getCleaningTasks();
+    stateCache.getNumActiveRacks();
+    stateCache.getNumActiveSlaves();
+  }
+
+  /**
+   * @return the index of the first task in taskRequests which matches the offer, or -1
+   */
+  public int findFirstMatchingTask(final List<SingularityTaskRequest> taskRequests, final SingularityOfferHolder offerHolder, final SingularitySchedulerStateCache stateCache) {
+    final List<Callable<Integer>> chunks = Lists.newArrayListWithCapacity(getNumChunks(taskRequests.size()));
+
+    for (final int[] bounds : getChunkBounds(taskRequests.size())) {
+      chunks.add(new Callable<Integer>() {
+
+        @Override
+        public Integer call() {
+          for (int i = bounds[0]; i < bounds[1]; i++) {
+            if (offerMatcher.doesOfferMatch(taskRequests.get(i), offerHolder, stateCache)) {
+              return i;
+            }
+          }
+
+          return NO_MATCH;
+        }
+
+      });
+    }
+
+    for (Integer chunkResult : invokeAll(chunks)) {
+      if (chunkResult != NO_MATCH) {
+        return chunkResult;
+      }
+    }
+
+    return NO_MATCH;
+  }
+
+  /**
+   * @return the index of the matching offer with the highest score (the earliest one on ties), or -1 if none of the offers match
+   */
+  public int findBestOffer(final SingularityTaskRequest taskRequest, final List<SingularityOfferHolder> offerHolders, final SingularitySchedulerStateCache stateCache) {
+    final List<Callable<ScoredOffer>> chunks = Lists.newArrayListWithCapacity(getNumChunks(offerHolders.size()));
+
+    for (final int[] bounds : getChunkBounds(offerHolders.size())) {
+      chunks.add(new Callable<ScoredOffer>() {
+
+        @Override
+        public ScoredOffer call() {
+          ScoredOffer best = ScoredOffer.NONE;
+
+          for (int i = bounds[0]; i < bounds[1]; i++) {
+            final SingularityOfferHolder offerHolder = offerHolders.get(i);
+
+            if (offerMatcher.isOfferFull(offerHolder) || !offerMatcher.doesOfferMatch(taskRequest, offerHolder, stateCache)) {
+              continue;
+            }
+
+            final double score = offerScorer.score(taskRequest, offerHolder, stateCache);
+
+            LOG.trace("Offer {} on {} scored {} for task {}", offerHolder.getOffer().getId().getValue(), offerHolder.getOffer().getHostname(), score, taskRequest.getPendingTask().getPendingTaskId());
+
+            if (score > best.score) {
+              best = new ScoredOffer(i, score);
+            }
+          }
+
+          return best;
+        }
+
+      });
+    }
+
+    ScoredOffer best = ScoredOffer.NONE;
+
+    for (ScoredOffer chunkResult : invokeAll(chunks)) {
+      if (chunkResult.score > best.score) {
+        best = chunkResult;
+      }
+    }
+
+    return best.index;
+  }
+
+  private int getNumChunks(int numCandidates) {
+    if (!configuration.isParallelOfferMatching()) {
+      return 1;
+    }
+
+    return Math.max(1, Math.min(configuration.getOfferMatchParallelism(), numCandidates));
+  }
+
+  private List<int[]> getChunkBounds(int numCandidates) {
+    final int numChunks = getNumChunks(numCandidates);
+    final List<int[]> bounds = Lists.newArrayListWithCapacity(numChunks);
+
+    for (int chunk = 0; chunk < numChunks; chunk++) {
+      bounds.add(new int[] { (int) ((long) numCandidates * chunk / numChunks), (int) ((long) numCandidates * (chunk + 1) / numChunks) });
+    }
+
+    return bounds;
+  }
+
+  private <T> List<T> invokeAll(List<Callable<T>> chunks) {
+    final List<T> results = Lists.newArrayListWithCapacity(chunks.size());
+
+    try {
+      if (chunks.size() == 1) {
+        results.add(chunks.get(0).call());
+        return results;
+      }
+
+      for (Future<T> future : getPool().invokeAll(chunks)) {
+        results.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (Exception e) {
+      throw Throwables.propagate(e);
+    }
+
+    return results;
+  }
+
+  private synchronized ForkJoinPool getPool() {
+    if (!pool.isPresent()) {
+      pool = Optional.of(new ForkJoinPool(Math.max(1, configuration.getOfferMatchParallelism())));
+    }
+
+    return pool.get();
+  }
+
+  private static class ScoredOffer {
+
+    private static final ScoredOffer NONE = new ScoredOffer(NO_MATCH, Double.NEGATIVE_INFINITY);
+
+    private final int index;
+    private final double score;
+
+    ScoredOffer(int index, double score) {
+      this.index = index;
+      this.score = score;
+    }
+
+  }
+
+}
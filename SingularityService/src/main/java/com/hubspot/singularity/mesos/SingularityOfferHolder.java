@@ -1,6 +1,8 @@
 package com.hubspot.singularity.mesos;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.mesos.Protos;
 import org.apache.mesos.Protos.Resource;
@@ -13,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.hubspot.mesos.MesosUtils;
+import com.hubspot.mesos.PortRanges;
 import com.hubspot.singularity.SingularityTask;
 import com.hubspot.singularity.SingularityTaskId;
 
@@ -22,12 +25,14 @@ public class SingularityOfferHolder {
 
   private final Protos.Offer offer;
   private final List<SingularityTask> acceptedTasks;
+  private final PortRanges availablePorts;
   private List<Resource> currentResources;
 
   public SingularityOfferHolder(Protos.Offer offer, int taskSizeHint) {
     this.offer = offer;
     this.acceptedTasks = Lists.newArrayListWithCapacity(taskSizeHint);
     this.currentResources = offer.getResourcesList();
+    this.availablePorts = PortRanges.fromResources(currentResources);
   }
 
   public void addMatchedTask(SingularityTask task) {
@@ -36,12 +41,28 @@ public class SingularityOfferHolder {
     // subtract task resources from offer
     currentResources = MesosUtils.subtractResources(currentResources, task.getMesosTask().getResourcesList());
 
+    for (Resource resource : task.getMesosTask().getResourcesList()) {
+      if (resource.getName().equals(MesosUtils.PORTS) && resource.hasRanges()) {
+        availablePorts.removeAll(resource.getRanges());
+      }
+    }
+
     // subtract executor resources from offer, if any are defined
     if (task.getMesosTask().hasExecutor() && task.getMesosTask().getExecutor().getResourcesCount() > 0) {
       currentResources = MesosUtils.subtractResources(currentResources, task.getMesosTask().getExecutor().getResourcesList());
     }
   }
 
+  public void removeAcceptedTasks(Set<SingularityTaskId> taskIds) {
+    final Iterator<SingularityTask> iterator = acceptedTasks.iterator();
+
+    while (iterator.hasNext()) {
+      if (taskIds.contains(iterator.next().getTaskId())) {
+        iterator.remove();
+      }
+    }
+  }
+
   public void launchTasks(SchedulerDriver driver) {
     final List<TaskInfo> toLaunch = Lists.newArrayListWithCapacity(acceptedTasks.size());
     final List<SingularityTaskId> taskIds = Lists.newArrayListWithCapacity(acceptedTasks.size());
@@ -65,6 +86,10 @@ public class SingularityOfferHolder {
     return currentResources;
   }
 
+  public PortRanges getAvailablePorts() {
+    return availablePorts;
+  }
+
   public Protos.Offer getOffer() {
     return offer;
   }
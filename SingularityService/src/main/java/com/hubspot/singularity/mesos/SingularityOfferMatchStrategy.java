@@ -0,0 +1,16 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.List;
+
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
+
+/**
+ * Decides which due tasks are launched on which offers during a single resourceOffers call.
+ * Implementations launch tasks through the {@link SingularityOfferMatcher} and remove every launched task from taskRequests.
+ */
+public interface SingularityOfferMatchStrategy {
+
+  void matchOffers(List<SingularityTaskRequest> taskRequests, List<SingularityOfferHolder> offerHolders, SingularitySchedulerStateCache stateCache);
+
+}
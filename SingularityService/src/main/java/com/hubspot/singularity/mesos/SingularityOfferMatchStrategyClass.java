@@ -0,0 +1,16 @@
+package com.hubspot.singularity.mesos;
+
+public enum SingularityOfferMatchStrategyClass {
+  FIRST_FIT(SingularityFirstFitOfferMatchStrategy.class),
+  BEST_FIT(SingularityBestFitOfferMatchStrategy.class);
+
+  private final Class<? extends SingularityOfferMatchStrategy> offerMatchStrategyClass;
+
+  SingularityOfferMatchStrategyClass(Class<? extends SingularityOfferMatchStrategy> offerMatchStrategyClass) {
+    this.offerMatchStrategyClass = offerMatchStrategyClass;
+  }
+
+  public Class<? extends SingularityOfferMatchStrategy> getOfferMatchStrategyClass() {
+    return offerMatchStrategyClass;
+  }
+}
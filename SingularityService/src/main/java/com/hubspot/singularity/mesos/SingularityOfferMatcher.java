@@ -0,0 +1,159 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.hubspot.mesos.MesosUtils;
+import com.hubspot.mesos.Resources;
+import com.hubspot.singularity.SingularityTask;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.SlaveMatchState;
+import com.hubspot.singularity.config.CustomExecutorConfiguration;
+import com.hubspot.singularity.config.MesosConfiguration;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.TaskManager;
+import com.hubspot.singularity.scheduler.SingularitySchedulerPriority;
+import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
+
+@Singleton
+public class SingularityOfferMatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SingularityOfferMatcher.class);
+
+  private final Resources defaultResources;
+  private final Resources defaultCustomExecutorResources;
+  private final SingularityConfiguration configuration;
+  private final TaskManager taskManager;
+  private final SingularityMesosTaskBuilder mesosTaskBuilder;
+  private final SingularitySlaveAndRackManager slaveAndRackManager;
+  private final SingularitySchedulerPriority schedulerPriority;
+  private final SingularityTaskSizeOptimizer taskSizeOptimizer;
+  private final SingularityOfferCycleMetrics offerCycleMetrics;
+
+  @Inject
+  SingularityOfferMatcher(MesosConfiguration mesosConfiguration, CustomExecutorConfiguration customExecutorConfiguration, SingularityConfiguration configuration, TaskManager taskManager,
+      SingularityMesosTaskBuilder mesosTaskBuilder, SingularitySlaveAndRackManager slaveAndRackManager, SingularitySchedulerPriority schedulerPriority, SingularityTaskSizeOptimizer taskSizeOptimizer,
+      SingularityOfferCycleMetrics offerCycleMetrics) {
+    this.defaultResources = new Resources(mesosConfiguration.getDefaultCpus(), mesosConfiguration.getDefaultMemory(), 0);
+    this.defaultCustomExecutorResources = new Resources(customExecutorConfiguration.getNumCpus(), customExecutorConfiguration.getMemoryMb(), 0);
+    this.configuration = configuration;
+    this.taskManager = taskManager;
+    this.mesosTaskBuilder = mesosTaskBuilder;
+    this.slaveAndRackManager = slaveAndRackManager;
+    this.schedulerPriority = schedulerPriority;
+    this.taskSizeOptimizer = taskSizeOptimizer;
+    this.offerCycleMetrics = offerCycleMetrics;
+  }
+
+  public Resources getTaskResources(SingularityTaskRequest taskRequest) {
+    return taskRequest.getDeploy().getResources().or(defaultResources);
+  }
+
+  public Resources getExecutorResources(SingularityTaskRequest taskRequest) {
+    // only factor in executor resources if we're running a custom executor
+    return taskRequest.getDeploy().getCustomExecutorCmd().isPresent() ? taskRequest.getDeploy().getCustomExecutorResources().or(defaultCustomExecutorResources) : Resources.EMPTY_RESOURCES;
+  }
+
+  public Resources getTotalResources(SingularityTaskRequest taskRequest) {
+    return Resources.add(getTaskResources(taskRequest), getExecutorResources(taskRequest));
+  }
+
+  public boolean isOfferFull(SingularityOfferHolder offerHolder) {
+    if (configuration.getMaxTasksPerOffer() > 0 && offerHolder.getAcceptedTasks().size() >= configuration.getMaxTasksPerOffer()) {
+      LOG.trace("Offer {} is full ({}) - skipping", offerHolder.getOffer(), offerHolder.getAcceptedTasks().size());
+      return true;
+    }
+
+    return false;
+  }
+
+  public boolean doesOfferMatch(SingularityTaskRequest taskRequest, SingularityOfferHolder offerHolder, SingularitySchedulerStateCache stateCache) {
+    final Resources totalResources = getTotalResources(taskRequest);
+
+    final List<Long> requestedPorts = new ArrayList<>();
+
+    if (taskRequest.getDeploy().getContainerInfo().isPresent() && taskRequest.getDeploy().getContainerInfo().get().getDocker().isPresent()) {
+      requestedPorts.addAll(taskRequest.getDeploy().getContainerInfo().get().getDocker().get().getLiteralHostPorts());
+    }
+
+    LOG.trace("Attempting to match task {} resources {} with remaining offer resources {}", taskRequest.getPendingTask().getPendingTaskId(), totalResources, offerHolder.getCurrentResources());
+
+    final boolean matchesResources = MesosUtils.doesOfferMatchResources(totalResources, offerHolder.getCurrentResources(), offerHolder.getAvailablePorts(), requestedPorts);
+    final SlaveMatchState slaveMatchState = slaveAndRackManager.doesOfferMatch(offerHolder.getOffer(), taskRequest, stateCache);
+
+    if (matchesResources && slaveMatchState.isMatchAllowed()) {
+      offerCycleMetrics.recordEvaluation(taskRequest, offerHolder, slaveMatchState);
+      return true;
+    }
+
+    offerCycleMetrics.recordEvaluation(taskRequest, offerHolder, slaveMatchState.isMatchAllowed() ? SlaveMatchState.RESOURCES_DO_NOT_MATCH : slaveMatchState);
+
+    LOG.trace("Ignoring offer {} on {} for task {}; matched resources: {}, slave match state: {}", offerHolder.getOffer().getId(), offerHolder.getOffer().getHostname(), taskRequest
+        .getPendingTask().getPendingTaskId(), matchesResources, slaveMatchState);
+
+    return false;
+  }
+
+  public SingularityTask launchTask(SingularityTaskRequest taskRequest, SingularityOfferHolder offerHolder, SingularitySchedulerStateCache stateCache) {
+    final SingularityTask task = mesosTaskBuilder.buildTask(offerHolder.getOffer(), offerHolder.getAvailablePorts(), taskRequest, getTaskResources(taskRequest), getExecutorResources(taskRequest));
+
+    LOG.trace("Accepted and built task {}", task);
+
+    LOG.info("Launching task {} slot on slave {} ({})", task.getTaskId(), offerHolder.getOffer().getSlaveId().getValue(), offerHolder.getOffer().getHostname());
+
+    schedulerPriority.notifyTaskLaunched(task.getTaskId());
+
+    stateCache.addActiveTaskId(task.getTaskId());
+    stateCache.getScheduledTasks().remove(taskRequest.getPendingTask());
+
+    offerHolder.addMatchedTask(task);
+
+    return task;
+  }
+
+  /**
+   * Saves every task accepted during this offer cycle to ZooKeeper in batched transactions. Tasks which could not be saved are removed from
+   * their offers and from the state cache so that they are not sent to Mesos.
+   */
+  public void saveAcceptedTasks(List<SingularityOfferHolder> offerHolders, SingularitySchedulerStateCache stateCache) {
+    final List<SingularityTask> zkTasks = new ArrayList<>();
+
+    for (SingularityOfferHolder offerHolder : offerHolders) {
+      for (SingularityTask task : offerHolder.getAcceptedTasks()) {
+        zkTasks.add(taskSizeOptimizer.getSizeOptimizedTask(task));
+      }
+    }
+
+    if (zkTasks.isEmpty()) {
+      return;
+    }
+
+    final Set<SingularityTaskId> failedTaskIds = taskManager.createTasksAndDeletePendingTasks(zkTasks);
+
+    if (failedTaskIds.isEmpty()) {
+      return;
+    }
+
+    LOG.error("Failed to save {} of {} accepted tasks ({}), they will not be launched", failedTaskIds.size(), zkTasks.size(), failedTaskIds);
+
+    for (SingularityOfferHolder offerHolder : offerHolders) {
+      offerHolder.removeAcceptedTasks(failedTaskIds);
+    }
+
+    for (SingularityTask zkTask : zkTasks) {
+      if (failedTaskIds.contains(zkTask.getTaskId())) {
+        stateCache.removeActiveTaskId(zkTask.getTaskId());
+        stateCache.getScheduledTasks().add(zkTask.getTaskRequest().getPendingTask());
+      }
+    }
+  }
+
+}
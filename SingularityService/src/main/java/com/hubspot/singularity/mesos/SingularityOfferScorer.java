@@ -0,0 +1,65 @@
+package com.hubspot.singularity.mesos;
+
+import javax.inject.Singleton;
+
+import com.google.inject.Inject;
+import com.hubspot.mesos.JavaUtils;
+import com.hubspot.mesos.MesosUtils;
+import com.hubspot.mesos.Resources;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.scheduler.SingularityRequestPlacementIndex;
+import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
+
+/**
+ * Ranks a (task, offer) pair that is already known to match. Higher scores are better.
+ *
+ * The packing component is 1 minus the average fraction of the offer's cpu and memory that would be left unused after placing the task,
+ * so the tightest fit scores closest to 1. The spread component subtracts a penalty proportional to the share of the request's instances
+ * already running on the offer's host.
+ */
+@Singleton
+public class SingularityOfferScorer {
+
+  private final SingularityConfiguration configuration;
+  private final SingularityOfferMatcher offerMatcher;
+
+  @Inject
+  SingularityOfferScorer(SingularityConfiguration configuration, SingularityOfferMatcher offerMatcher) {
+    this.configuration = configuration;
+    this.offerMatcher = offerMatcher;
+  }
+
+  public double score(SingularityTaskRequest taskRequest, SingularityOfferHolder offerHolder, SingularitySchedulerStateCache stateCache) {
+    return getPackingScore(taskRequest, offerHolder) - configuration.getOfferScoringSpreadWeight() * getSpreadPenalty(taskRequest, offerHolder, stateCache);
+  }
+
+  private double getPackingScore(SingularityTaskRequest taskRequest, SingularityOfferHolder offerHolder) {
+    final Resources totalResources = offerMatcher.getTotalResources(taskRequest);
+
+    final double cpusLeftOver = getLeftOverFraction(MesosUtils.getNumCpus(offerHolder.getCurrentResources()), totalResources.getCpus(), MesosUtils.getNumCpus(offerHolder.getOffer()));
+    final double memoryLeftOver = getLeftOverFraction(MesosUtils.getMemory(offerHolder.getCurrentResources()), totalResources.getMemoryMb(), MesosUtils.getMemory(offerHolder.getOffer()));
+
+    return 1 - ((cpusLeftOver + memoryLeftOver) / 2);
+  }
+
+  private double getLeftOverFraction(double available, double requested, double offered) {
+    if (offered <= 0) {
+      return 0;
+    }
+
+    return Math.max(available - requested, 0) / offered;
+  }
+
+  private double getSpreadPenalty(SingularityTaskRequest taskRequest, SingularityOfferHolder offerHolder, SingularitySchedulerStateCache stateCache) {
+    final String deployId = taskRequest.getDeploy().getId();
+    final String sanitizedHost = JavaUtils.getReplaceHyphensWithUnderscores(offerHolder.getOffer().getHostname());
+    final SingularityRequestPlacementIndex placementIndex = stateCache.getPlacementIndex(taskRequest.getRequest().getId());
+
+    final int numOnHost = placementIndex.getNumOnHost(deployId, sanitizedHost) + placementIndex.getNumCleaningOnHost(deployId, sanitizedHost)
+        + placementIndex.getNumOtherDeploysOnHost(deployId, sanitizedHost);
+
+    return numOnHost / (double) Math.max(taskRequest.getRequest().getInstancesSafe(), 1);
+  }
+
+}
@@ -0,0 +1,147 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.inject.Singleton;
+
+import org.apache.mesos.Protos.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Striped;
+import com.google.inject.Inject;
+import com.hubspot.singularity.ExtendedTaskState;
+import com.hubspot.singularity.InvalidSingularityTaskIdException;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.config.SingularityConfiguration;
+
+/**
+ * Guards scheduler state shared by Mesos callbacks and scheduler pollers.
+ *
+ * Work that only touches the state of a single request (updates to running tasks, and the deploy, cooldown and expiring action checks of
+ * each request) takes {@link #lockRequest(String, String)}, which shares the global lock and holds one of schedulerLockStripes request
+ * locks, so work on different requests can run concurrently. Work spanning many requests (offers, the cleaner, the scheduler poller,
+ * finished tasks, etc.) takes {@link #lock(String)}, which excludes everything else.
+ *
+ * The time each caller waits for its lock is recorded in a scheduler.lock.wait.[name] histogram.
+ */
+@Singleton
+public class SingularitySchedulerLock {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SingularitySchedulerLock.class);
+
+  private final ReentrantReadWriteLock globalLock;
+  private final Striped<Lock> requestLocks;
+  private final MetricRegistry registry;
+
+  @Inject
+  SingularitySchedulerLock(SingularityConfiguration configuration, MetricRegistry registry) {
+    this.globalLock = new ReentrantReadWriteLock();
+    this.requestLocks = Striped.lock(Math.max(1, configuration.getSchedulerLockStripes()));
+    this.registry = registry;
+  }
+
+  /**
+   * Blocks until no other caller holds any scheduler lock.
+   */
+  public void lock(String name) {
+    final long start = System.currentTimeMillis();
+
+    globalLock.writeLock().lock();
+
+    recordWait(name, start);
+  }
+
+  public void unlock() {
+    globalLock.writeLock().unlock();
+  }
+
+  /**
+   * Blocks until no global lock holder and no other caller on the same stripe as requestId is running. The global lock is held in shared
+   * mode for as long as the request lock is, which {@link #isHeldByCurrentThread()} depends on.
+   */
+  public void lockRequest(String requestId, String name) {
+    final long start = System.currentTimeMillis();
+
+    globalLock.readLock().lock();
+
+    try {
+      requestLocks.get(requestId).lock();
+    } catch (RuntimeException e) {
+      globalLock.readLock().unlock();
+      throw e;
+    }
+
+    recordWait(name, start);
+  }
+
+  public void unlockRequest(String requestId) {
+    try {
+      requestLocks.get(requestId).unlock();
+    } finally {
+      globalLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Takes the lock a status update needs: the request lock for updates to running tasks, which only touch the task's own healthcheck
+   * and new task check, or the global lock for finished tasks (which reschedule the request and update slave, rack and priority state)
+   * and for task ids which can't be parsed.
+   *
+   * @return the request id to pass to {@link #unlockStatusUpdate(Optional)}, absent if the global lock was taken
+   */
+  public Optional<String> lockStatusUpdate(TaskStatus status, String name) {
+    final Optional<String> requestId = getRequestIdForRequestLock(status);
+
+    if (requestId.isPresent()) {
+      lockRequest(requestId.get(), name);
+    } else {
+      lock(name);
+    }
+
+    return requestId;
+  }
+
+  public void unlockStatusUpdate(Optional<String> requestId) {
+    if (requestId.isPresent()) {
+      unlockRequest(requestId.get());
+    } else {
+      unlock();
+    }
+  }
+
+  private Optional<String> getRequestIdForRequestLock(TaskStatus status) {
+    if (ExtendedTaskState.fromTaskState(status.getState()).isDone()) {
+      return Optional.absent();
+    }
+
+    try {
+      return Optional.of(SingularityTaskId.valueOf(status.getTaskId().getValue()).getRequestId());
+    } catch (InvalidSingularityTaskIdException e) {
+      return Optional.absent(); // the scheduler reports invalid task ids, this only decides which lock to take
+    }
+  }
+
+  /**
+   * Only the global lock is checked: holding a request lock implies holding the global lock in shared mode, as
+   * {@link #lockRequest(String, String)} takes it before the request's stripe. SingularityZkMirror relies on this to keep scheduler work
+   * (under either lock) reading ZooKeeper directly, so a request lock which didn't share the global lock would have to be checked here.
+   *
+   * @return whether the calling thread holds the global lock or a request lock
+   */
+  public boolean isHeldByCurrentThread() {
+    return globalLock.isWriteLockedByCurrentThread() || globalLock.getReadHoldCount() > 0;
+  }
+
+  private void recordWait(String name, long start) {
+    final long waited = System.currentTimeMillis() - start;
+
+    registry.histogram(String.format("scheduler.lock.wait.%s", name)).update(waited);
+
+    LOG.trace("{} waited {}ms for the scheduler lock", name, waited);
+  }
+
+}
@@ -1,6 +1,5 @@
 package com.hubspot.singularity.mesos;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +35,7 @@ import com.hubspot.singularity.data.AbstractMachineManager;
 import com.hubspot.singularity.data.RackManager;
 import com.hubspot.singularity.data.SlaveManager;
 import com.hubspot.singularity.data.TaskManager;
+import com.hubspot.singularity.scheduler.SingularityRequestPlacementIndex;
 import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
 import com.hubspot.singularity.sentry.SingularityExceptionNotifier;
 
@@ -99,8 +99,8 @@ class SingularitySlaveAndRackManager {
     Map<String, String> reservedSlaveAttributes = slaveAndRackHelper.reservedSlaveAttributes(offer);
     if (!reservedSlaveAttributes.isEmpty()) {
       if (taskRequest.getRequest().getRequiredSlaveAttributes().isPresent() || taskRequest.getRequest().getAllowedSlaveAttributes().isPresent()) {
-        Map<String, String> mergedAttributes = taskRequest.getRequest().getRequiredSlaveAttributes().or(new HashMap<String, String>());
-        mergedAttributes.putAll(taskRequest.getRequest().getAllowedSlaveAttributes().or(new HashMap<String, String>()));
+        Map<String, String> mergedAttributes = new HashMap<>(taskRequest.getRequest().getRequiredSlaveAttributes().or(Collections.<String, String>emptyMap()));
+        mergedAttributes.putAll(taskRequest.getRequest().getAllowedSlaveAttributes().or(Collections.<String, String>emptyMap()));
         if (!slaveAndRackHelper.hasRequiredAttributes(mergedAttributes, reservedSlaveAttributes)) {
           LOG.trace("Slaves with attributes {} are reserved for matching tasks. Task with attributes {} does not match", reservedSlaveAttributes, taskRequest.getRequest().getRequiredSlaveAttributes().or(Collections.<String, String>emptyMap()));
           return SlaveMatchState.SLAVE_ATTRIBUTES_DO_NOT_MATCH;
@@ -124,32 +124,16 @@ class SingularitySlaveAndRackManager {
     }
 
     final int numDesiredInstances = taskRequest.getRequest().getInstancesSafe();
-    double numOnRack = 0;
-    double numOnSlave = 0;
-    double numCleaningOnSlave = 0;
-    double numOtherDeploysOnSlave = 0;
 
+    final String deployId = taskRequest.getDeploy().getId();
     final String sanitizedHost = JavaUtils.getReplaceHyphensWithUnderscores(host);
     final String sanitizedRackId = JavaUtils.getReplaceHyphensWithUnderscores(rackId);
-    Collection<SingularityTaskId> cleaningTasks = stateCache.getCleaningTasks();
-
-    for (SingularityTaskId taskId : SingularityTaskId.matchingAndNotIn(stateCache.getActiveTaskIds(), taskRequest.getRequest().getId(), Collections.<SingularityTaskId>emptyList())) {
-      // TODO consider using executorIds
-      if (taskId.getSanitizedHost().equals(sanitizedHost)) {
-        if (taskRequest.getDeploy().getId().equals(taskId.getDeployId())) {
-          if (cleaningTasks.contains(taskId)) {
-            numCleaningOnSlave++;
-          } else {
-            numOnSlave++;
-          }
-        } else {
-          numOtherDeploysOnSlave++;
-        }
-      }
-      if (taskId.getSanitizedRackId().equals(sanitizedRackId) && !cleaningTasks.contains(taskId) && taskRequest.getDeploy().getId().equals(taskId.getDeployId())) {
-        numOnRack++;
-      }
-    }
+    final SingularityRequestPlacementIndex placementIndex = stateCache.getPlacementIndex(taskRequest.getRequest().getId());
+
+    final double numOnRack = placementIndex.getNumOnRack(deployId, sanitizedRackId);
+    final double numOnSlave = placementIndex.getNumOnHost(deployId, sanitizedHost);
+    final double numCleaningOnSlave = placementIndex.getNumCleaningOnHost(deployId, sanitizedHost);
+    final double numOtherDeploysOnSlave = placementIndex.getNumOtherDeploysOnHost(deployId, sanitizedHost);
 
     if (taskRequest.getRequest().isRackSensitive()) {
       final double numPerRack = numDesiredInstances / (double) stateCache.getNumActiveRacks();
@@ -34,10 +34,12 @@ import com.hubspot.singularity.SingularityTaskId;
 import com.hubspot.singularity.SingularityTaskIdHolder;
 import com.hubspot.singularity.data.DeployManager;
 import com.hubspot.singularity.data.RequestManager;
+import com.hubspot.singularity.data.SingularityLeaderCacheCoordinator;
 import com.hubspot.singularity.data.TaskManager;
 import com.hubspot.singularity.data.zkmigrations.ZkDataMigrationRunner;
 import com.hubspot.singularity.scheduler.SingularityHealthchecker;
 import com.hubspot.singularity.scheduler.SingularityNewTaskChecker;
+import com.hubspot.singularity.scheduler.SingularitySchedulerPriority;
 import com.hubspot.singularity.scheduler.SingularityTaskReconciliation;
 
 @Singleton
@@ -54,13 +56,18 @@ class SingularityStartup {
   private final SingularityNewTaskChecker newTaskChecker;
   private final SingularityTaskReconciliation taskReconciliation;
   private final ZkDataMigrationRunner zkDataMigrationRunner;
+  private final SingularityLeaderCacheCoordinator leaderCacheCoordinator;
+  private final SingularitySchedulerPriority schedulerPriority;
 
   @Inject
   SingularityStartup(MesosClient mesosClient, SingularityHealthchecker healthchecker, SingularityNewTaskChecker newTaskChecker,
       SingularitySlaveAndRackManager slaveAndRackManager, TaskManager taskManager, RequestManager requestManager, DeployManager deployManager, SingularityTaskReconciliation taskReconciliation,
-      ZkDataMigrationRunner zkDataMigrationRunner) {
+      ZkDataMigrationRunner zkDataMigrationRunner, SingularityLeaderCacheCoordinator leaderCacheCoordinator,
+      SingularitySchedulerPriority schedulerPriority) {
     this.mesosClient = mesosClient;
     this.zkDataMigrationRunner = zkDataMigrationRunner;
+    this.leaderCacheCoordinator = leaderCacheCoordinator;
+    this.schedulerPriority = schedulerPriority;
     this.slaveAndRackManager = slaveAndRackManager;
     this.deployManager = deployManager;
     this.requestManager = requestManager;
@@ -79,6 +86,10 @@ class SingularityStartup {
 
     zkDataMigrationRunner.checkMigrations();
 
+    leaderCacheCoordinator.activateLeaderCache();
+
+    schedulerPriority.loadMostRecentTaskStarts();
+
     MesosMasterStateObject state = mesosClient.getMasterState(uri);
 
     slaveAndRackManager.loadSlavesAndRacksFromMaster(state);
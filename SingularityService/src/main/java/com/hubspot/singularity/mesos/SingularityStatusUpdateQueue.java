@@ -0,0 +1,240 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import org.apache.mesos.Protos.TaskState;
+import org.apache.mesos.Protos.TaskStatus;
+import org.apache.mesos.SchedulerDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.hubspot.mesos.JavaUtils;
+import com.hubspot.singularity.SingularityAbort;
+import com.hubspot.singularity.SingularityAbort.AbortReason;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.sentry.SingularityExceptionNotifier;
+
+import io.dropwizard.lifecycle.Managed;
+
+/**
+ * Hands Mesos status updates to {@link SingularityMesosScheduler#statusUpdate(SchedulerDriver, TaskStatus)} under the lock picked by
+ * {@link SingularitySchedulerLock#lockStatusUpdate(TaskStatus, String)}: updates to running tasks for different requests are processed
+ * concurrently, updates which finish a task still exclude all other scheduler work.
+ *
+ * With statusUpdateThreads > 0, updates are queued and processed by that many workers instead of on the driver callback thread. Each task
+ * id always maps to the same worker, so the updates for a task are processed in the order they arrived. An update with the same state as
+ * one still queued for the task is dropped. Once statusUpdateQueueCapacity updates are queued, the driver thread blocks until a worker
+ * catches up.
+ *
+ * Each update is still written to ZooKeeper on its own; the only writes saved are those of dropped duplicate updates.
+ */
+@Singleton
+public class SingularityStatusUpdateQueue implements Managed {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SingularityStatusUpdateQueue.class);
+
+  private final SingularityConfiguration configuration;
+  private final SingularityMesosScheduler scheduler;
+  private final SingularitySchedulerLock lock;
+  private final SingularityExceptionNotifier exceptionNotifier;
+  private final SingularityAbort abort;
+
+  private final ConcurrentMap<String, TaskState> queuedStates;
+
+  private final Histogram lagHistogram;
+  private final Meter coalescedMeter;
+  private final Meter backpressureMeter;
+
+  private volatile List<Worker> workers;
+
+  @Inject
+  SingularityStatusUpdateQueue(SingularityConfiguration configuration, SingularityMesosScheduler scheduler, SingularitySchedulerLock lock, SingularityExceptionNotifier exceptionNotifier,
+      SingularityAbort abort, MetricRegistry registry) {
+    this.configuration = configuration;
+    this.scheduler = scheduler;
+    this.lock = lock;
+    this.exceptionNotifier = exceptionNotifier;
+    this.abort = abort;
+
+    this.queuedStates = Maps.newConcurrentMap();
+    this.workers = ImmutableList.of();
+
+    this.lagHistogram = registry.histogram("statusUpdates.lag.millis");
+    this.coalescedMeter = registry.meter("statusUpdates.coalesced");
+    this.backpressureMeter = registry.meter("statusUpdates.backpressure");
+
+    registry.register("statusUpdates.queued", new Gauge<Integer>() {
+
+      @Override
+      public Integer getValue() {
+        return getQueueSize();
+      }
+
+    });
+  }
+
+  @Override
+  public synchronized void start() {
+    final int numWorkers = configuration.getStatusUpdateThreads();
+
+    if (numWorkers < 1 || !workers.isEmpty()) {
+      return;
+    }
+
+    final int capacity = Math.max(1, configuration.getStatusUpdateQueueCapacity() / numWorkers);
+    final ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("SingularityStatusUpdateQueue-%d").setDaemon(true).build();
+    final ImmutableList.Builder<Worker> workersBldr = ImmutableList.builder();
+
+    for (int i = 0; i < numWorkers; i++) {
+      final Worker worker = new Worker(capacity);
+      worker.thread = threadFactory.newThread(worker);
+      worker.thread.start();
+      workersBldr.add(worker);
+    }
+
+    workers = workersBldr.build();
+
+    LOG.info("Started {} status update worker(s) with a queue capacity of {} each", numWorkers, capacity);
+  }
+
+  @Override
+  public synchronized void stop() {
+    for (Worker worker : workers) {
+      worker.thread.interrupt();
+    }
+
+    if (getQueueSize() > 0) {
+      LOG.warn("Dropping {} queued status update(s), they will be recovered by task reconciliation", getQueueSize());
+    }
+
+    workers = ImmutableList.of();
+    queuedStates.clear();
+  }
+
+  public int getQueueSize() {
+    int queued = 0;
+
+    for (Worker worker : workers) {
+      queued += worker.queue.size();
+    }
+
+    return queued;
+  }
+
+  public void enqueue(SchedulerDriver driver, TaskStatus status) {
+    final List<Worker> currentWorkers = workers;
+
+    if (currentWorkers.isEmpty()) {
+      process(driver, status);
+      return;
+    }
+
+    final String taskId = status.getTaskId().getValue();
+    final TaskState previouslyQueuedState = queuedStates.put(taskId, status.getState());
+
+    if (previouslyQueuedState == status.getState()) {
+      LOG.trace("Dropping {} update for {}, one is already queued", status.getState(), taskId);
+      coalescedMeter.mark();
+      return;
+    }
+
+    final Worker worker = currentWorkers.get((taskId.hashCode() & Integer.MAX_VALUE) % currentWorkers.size());
+    final QueuedStatusUpdate update = new QueuedStatusUpdate(driver, status, System.currentTimeMillis());
+
+    if (worker.queue.offer(update)) {
+      return;
+    }
+
+    backpressureMeter.mark();
+
+    final long start = System.currentTimeMillis();
+
+    try {
+      worker.queue.put(update);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      queuedStates.remove(taskId, status.getState());
+      LOG.warn("Interrupted while queueing status update for {}", taskId);
+      return;
+    }
+
+    LOG.debug("Waited {} to queue status update for {}", JavaUtils.duration(start), taskId);
+  }
+
+  private void process(SchedulerDriver driver, TaskStatus status) {
+    final long start = System.currentTimeMillis();
+    final Optional<String> requestId = lock.lockStatusUpdate(status, "statusUpdate");
+
+    try {
+      scheduler.statusUpdate(driver, status);
+    } catch (Throwable t) {
+      LOG.error("Scheduler threw an uncaught exception - exiting", t);
+      exceptionNotifier.notify(t);
+      abort.abort(AbortReason.UNRECOVERABLE_ERROR, Optional.of(t));
+    } finally {
+      lock.unlockStatusUpdate(requestId);
+
+      LOG.debug("Handled status update for {} in {}", status.getTaskId().getValue(), JavaUtils.duration(start));
+    }
+  }
+
+  private class Worker implements Runnable {
+
+    private final BlockingQueue<QueuedStatusUpdate> queue;
+    private Thread thread;
+
+    Worker(int capacity) {
+      this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void run() {
+      while (!Thread.currentThread().isInterrupted()) {
+        final QueuedStatusUpdate update;
+
+        try {
+          update = queue.take();
+        } catch (InterruptedException e) {
+          return;
+        }
+
+        queuedStates.remove(update.status.getTaskId().getValue(), update.status.getState());
+        lagHistogram.update(System.currentTimeMillis() - update.queuedAt);
+
+        process(update.driver, update.status);
+      }
+    }
+
+  }
+
+  private static class QueuedStatusUpdate {
+
+    private final SchedulerDriver driver;
+    private final TaskStatus status;
+    private final long queuedAt;
+
+    QueuedStatusUpdate(SchedulerDriver driver, TaskStatus status, long queuedAt) {
+      this.driver = driver;
+      this.status = status;
+      this.queuedAt = queuedAt;
+    }
+
+  }
+
+}
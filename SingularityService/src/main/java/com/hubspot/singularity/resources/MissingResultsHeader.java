@@ -0,0 +1,36 @@
+package com.hubspot.singularity.resources;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.hubspot.singularity.data.ZkBulkReadResult;
+
+/**
+ * Listings served from bulk reads which accept partial results say how many objects are missing from them in this header.
+ */
+public final class MissingResultsHeader {
+
+  public static final String NAME = "X-Singularity-Missing-Results";
+
+  private static final Logger LOG = LoggerFactory.getLogger(MissingResultsHeader.class);
+
+  private MissingResultsHeader() {}
+
+  public static <T> List<T> getObjects(ZkBulkReadResult<T> result, Optional<HttpServletResponse> response, String listing) {
+    if (!result.isComplete()) {
+      LOG.warn("Serving {} without {} objects which couldn't be read in time", listing, result.getNumMissing());
+
+      if (response.isPresent()) {
+        response.get().setHeader(NAME, Integer.toString(result.getNumMissing()));
+      }
+    }
+
+    return result.getObjects();
+  }
+
+}
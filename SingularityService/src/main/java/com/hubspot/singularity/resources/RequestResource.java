@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -24,6 +25,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.hubspot.jackson.jaxrs.PropertyFiltering;
 import com.hubspot.mesos.JavaUtils;
 import com.hubspot.singularity.MachineState;
@@ -32,6 +34,7 @@ import com.hubspot.singularity.RequestState;
 import com.hubspot.singularity.SingularityAuthorizationScope;
 import com.hubspot.singularity.SingularityCreateResult;
 import com.hubspot.singularity.SingularityDeleteResult;
+import com.hubspot.singularity.SingularityMainModule;
 import com.hubspot.singularity.SingularityPendingRequest;
 import com.hubspot.singularity.SingularityPendingRequest.PendingType;
 import com.hubspot.singularity.SingularityPendingRequestParent;
@@ -87,10 +90,12 @@ public class RequestResource extends AbstractRequestResource {
   private final SlaveManager slaveManager;
   private final RequestHelper requestHelper;
   private final SingularityConfiguration configuration;
+  private final Optional<HttpServletResponse> response;
 
   @Inject
   public RequestResource(SingularityValidator validator, DeployManager deployManager, TaskManager taskManager, RequestManager requestManager, SingularityMailer mailer,
-      SingularityAuthorizationHelper authorizationHelper, Optional<SingularityUser> user, SlaveManager slaveManager, SingularityConfiguration configuration, RequestHelper requestHelper) {
+      SingularityAuthorizationHelper authorizationHelper, Optional<SingularityUser> user, SlaveManager slaveManager, SingularityConfiguration configuration, RequestHelper requestHelper,
+      @Named(SingularityMainModule.CURRENT_HTTP_RESPONSE) Optional<HttpServletResponse> response) {
     super(requestManager, deployManager, user, validator, authorizationHelper);
 
     this.mailer = mailer;
@@ -98,6 +103,7 @@ public class RequestResource extends AbstractRequestResource {
     this.requestHelper = requestHelper;
     this.slaveManager = slaveManager;
     this.configuration = configuration;
+    this.response = response;
   }
 
   private void submitRequest(SingularityRequest request, Optional<SingularityRequestWithState> oldRequestWithState, Optional<RequestHistoryType> historyType,
@@ -466,7 +472,9 @@ public class RequestResource extends AbstractRequestResource {
   @PropertyFiltering
   @ApiOperation(value="Retrieve the list of all requests", response=SingularityRequestParent.class, responseContainer="List")
   public List<SingularityRequestParent> getRequests() {
-    return getRequestsWithDeployState(requestManager.getRequests(), SingularityAuthorizationScope.READ);
+    final List<SingularityRequestWithState> requests = MissingResultsHeader.getObjects(requestManager.getRequestsAllowingPartial(), response, "requests");
+
+    return getRequestsWithDeployState(requests, SingularityAuthorizationScope.READ);
   }
 
   @GET
@@ -1,6 +1,7 @@
 package com.hubspot.singularity.resources;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -19,9 +20,11 @@ import com.hubspot.singularity.SingularityMachineStateHistoryUpdate;
 import com.hubspot.singularity.SingularityService;
 import com.hubspot.singularity.SingularitySlave;
 import com.hubspot.singularity.SingularityUser;
+import com.hubspot.singularity.SlaveMatchState;
 import com.hubspot.singularity.api.SingularityMachineChangeRequest;
 import com.hubspot.singularity.auth.SingularityAuthorizationHelper;
 import com.hubspot.singularity.data.SlaveManager;
+import com.hubspot.singularity.mesos.SingularityOfferCycleMetrics;
 import com.wordnik.swagger.annotations.Api;
 import com.wordnik.swagger.annotations.ApiOperation;
 import com.wordnik.swagger.annotations.ApiParam;
@@ -32,9 +35,12 @@ import com.wordnik.swagger.annotations.ApiParam;
 public class SlaveResource extends AbstractMachineResource<SingularitySlave> {
   public static final String PATH = SingularityService.API_BASE_PATH + "/slaves";
 
+  private final SingularityOfferCycleMetrics offerCycleMetrics;
+
   @Inject
-  public SlaveResource(SlaveManager slaveManager, SingularityAuthorizationHelper authorizationHelper, Optional<SingularityUser> user) {
+  public SlaveResource(SlaveManager slaveManager, SingularityAuthorizationHelper authorizationHelper, Optional<SingularityUser> user, SingularityOfferCycleMetrics offerCycleMetrics) {
     super(slaveManager, authorizationHelper, user);
+    this.offerCycleMetrics = offerCycleMetrics;
   }
 
   @Override
@@ -56,6 +62,15 @@ public class SlaveResource extends AbstractMachineResource<SingularitySlave> {
     return manager.getHistory(slaveId);
   }
 
+  @GET
+  @Path("/slave/{slaveId}/rejections")
+  @ApiOperation("Retrieve how many times offers from a given slave were rejected for a task during the last offer cycle, by reason")
+  public Map<SlaveMatchState, Long> getSlaveOfferRejections(@ApiParam("Slave ID") @PathParam("slaveId") String slaveId) {
+    authorizationHelper.checkAdminAuthorization(user);
+
+    return offerCycleMetrics.getRejectionsForSlave(slaveId);
+  }
+
   @DELETE
   @Path("/slave/{slaveId}")
   @ApiOperation("Remove a known slave, erasing history. This operation will cancel decomissioning of the slave")
@@ -6,8 +6,10 @@ import static com.hubspot.singularity.WebExceptions.notFound;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -27,6 +29,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.hubspot.jackson.jaxrs.PropertyFiltering;
 import com.hubspot.mesos.JavaUtils;
 import com.hubspot.mesos.client.MesosClient;
@@ -36,6 +39,7 @@ import com.hubspot.singularity.InvalidSingularityTaskIdException;
 import com.hubspot.singularity.SingularityAuthorizationScope;
 import com.hubspot.singularity.SingularityCreateResult;
 import com.hubspot.singularity.SingularityKilledTaskIdRecord;
+import com.hubspot.singularity.SingularityMainModule;
 import com.hubspot.singularity.SingularityPendingRequest;
 import com.hubspot.singularity.SingularityPendingRequest.PendingType;
 import com.hubspot.singularity.SingularityPendingTask;
@@ -47,10 +51,12 @@ import com.hubspot.singularity.SingularityTask;
 import com.hubspot.singularity.SingularityTaskCleanup;
 import com.hubspot.singularity.SingularityTaskId;
 import com.hubspot.singularity.SingularityTaskMetadata;
+import com.hubspot.singularity.SingularityTaskOfferRejections;
 import com.hubspot.singularity.SingularityTaskRequest;
 import com.hubspot.singularity.SingularityTaskShellCommandRequest;
 import com.hubspot.singularity.SingularityTransformHelpers;
 import com.hubspot.singularity.SingularityUser;
+import com.hubspot.singularity.SlaveMatchState;
 import com.hubspot.singularity.TaskCleanupType;
 import com.hubspot.singularity.WebExceptions;
 import com.hubspot.singularity.api.SingularityKillTaskRequest;
@@ -64,6 +70,7 @@ import com.hubspot.singularity.data.RequestManager;
 import com.hubspot.singularity.data.SlaveManager;
 import com.hubspot.singularity.data.TaskManager;
 import com.hubspot.singularity.data.TaskRequestManager;
+import com.hubspot.singularity.mesos.SingularityOfferCycleMetrics;
 import com.wordnik.swagger.annotations.Api;
 import com.wordnik.swagger.annotations.ApiOperation;
 import com.wordnik.swagger.annotations.ApiResponse;
@@ -84,10 +91,13 @@ public class TaskResource {
   private final Optional<SingularityUser> user;
   private final SingularityTaskMetadataConfiguration taskMetadataConfiguration;
   private final UIConfiguration uiConfiguration;
+  private final SingularityOfferCycleMetrics offerCycleMetrics;
+  private final Optional<HttpServletResponse> response;
 
   @Inject
   public TaskResource(TaskRequestManager taskRequestManager, TaskManager taskManager, SlaveManager slaveManager, MesosClient mesosClient, SingularityTaskMetadataConfiguration taskMetadataConfiguration,
-      SingularityAuthorizationHelper authorizationHelper, Optional<SingularityUser> user, UIConfiguration uiConfiguration, RequestManager requestManager) {
+      SingularityAuthorizationHelper authorizationHelper, Optional<SingularityUser> user, UIConfiguration uiConfiguration, RequestManager requestManager,
+      SingularityOfferCycleMetrics offerCycleMetrics, @Named(SingularityMainModule.CURRENT_HTTP_RESPONSE) Optional<HttpServletResponse> response) {
     this.taskManager = taskManager;
     this.taskRequestManager = taskRequestManager;
     this.taskMetadataConfiguration = taskMetadataConfiguration;
@@ -97,6 +107,8 @@ public class TaskResource {
     this.authorizationHelper = authorizationHelper;
     this.user = user;
     this.uiConfiguration = uiConfiguration;
+    this.offerCycleMetrics = offerCycleMetrics;
+    this.response = response;
   }
 
   @GET
@@ -149,6 +161,19 @@ public class TaskResource {
     return taskRequestList.get(0);
   }
 
+  @GET
+  @Path("/scheduled/task/{pendingTaskId}/rejections")
+  @ApiOperation("Retrieve why offers were rejected for a pending task during the last offer cycle in which it was evaluated.")
+  public SingularityTaskOfferRejections getPendingTaskOfferRejections(@PathParam("pendingTaskId") String pendingTaskIdStr) {
+    authorizationHelper.checkAdminAuthorization(user);
+
+    Optional<SingularityTaskOfferRejections> rejections = offerCycleMetrics.getLastRejections(getPendingTaskIdFromStr(pendingTaskIdStr));
+
+    checkNotFound(rejections.isPresent(), "%s wasn't evaluated against any offers in the last offer cycle", pendingTaskIdStr);
+
+    return rejections.get();
+  }
+
   @GET
   @PropertyFiltering
   @Path("/scheduled/request/{requestId}")
@@ -161,6 +186,15 @@ public class TaskResource {
     return taskRequestManager.getTaskRequests(tasks);
   }
 
+  @GET
+  @Path("/scheduled/request/{requestId}/rejections")
+  @ApiOperation("Retrieve how many times offers were rejected for the tasks of a specific request during the last offer cycle, by reason.")
+  public Map<SlaveMatchState, Long> getRequestOfferRejections(@PathParam("requestId") String requestId) {
+    authorizationHelper.checkAdminAuthorization(user);
+
+    return offerCycleMetrics.getRejectionsForRequest(requestId);
+  }
+
   @GET
   @Path("/active/slave/{slaveId}")
   @ApiOperation("Retrieve list of active tasks on a specific slave.")
@@ -177,7 +211,9 @@ public class TaskResource {
   @Path("/active")
   @ApiOperation("Retrieve the list of active tasks.")
   public Iterable<SingularityTask> getActiveTasks() {
-    return authorizationHelper.filterByAuthorizedRequests(user, taskManager.getActiveTasks(), SingularityTransformHelpers.TASK_TO_REQUEST_ID, SingularityAuthorizationScope.READ);
+    final List<SingularityTask> activeTasks = MissingResultsHeader.getObjects(taskManager.getActiveTasksAllowingPartial(), response, "active tasks");
+
+    return authorizationHelper.filterByAuthorizedRequests(user, activeTasks, SingularityTransformHelpers.TASK_TO_REQUEST_ID, SingularityAuthorizationScope.READ);
   }
 
   @GET
@@ -17,6 +17,7 @@ import com.hubspot.singularity.SingularityRequestDeployState;
 import com.hubspot.singularity.SingularityRequestWithState;
 import com.hubspot.singularity.data.DeployManager;
 import com.hubspot.singularity.data.RequestManager;
+import com.hubspot.singularity.mesos.SingularitySchedulerLock;
 
 @Singleton
 public class SingularityCooldownChecker {
@@ -27,10 +28,12 @@ public class SingularityCooldownChecker {
   private final DeployManager deployManager;
 
   private final SingularityCooldown cooldown;
+  private final SingularitySchedulerLock lock;
 
   @Inject
-  public SingularityCooldownChecker(RequestManager requestManager, DeployManager deployManager, SingularityCooldown cooldown) {
+  public SingularityCooldownChecker(RequestManager requestManager, DeployManager deployManager, SingularityCooldown cooldown, SingularitySchedulerLock lock) {
     this.requestManager = requestManager;
+    this.lock = lock;
     this.deployManager = deployManager;
     this.cooldown = cooldown;
   }
@@ -57,12 +60,20 @@ public class SingularityCooldownChecker {
   }
 
   private boolean checkCooldown(SingularityRequestWithState cooldownRequest) {
-    if (shouldExitCooldown(cooldownRequest)) {
-      requestManager.exitCooldown(cooldownRequest.getRequest(), System.currentTimeMillis(), Optional.<String> absent(), Optional.<String> absent());
-      return true;
-    }
+    final String requestId = cooldownRequest.getRequest().getId();
 
-    return false;
+    lock.lockRequest(requestId, "cooldownChecker");
+
+    try {
+      if (shouldExitCooldown(cooldownRequest)) {
+        requestManager.exitCooldown(cooldownRequest.getRequest(), System.currentTimeMillis(), Optional.<String> absent(), Optional.<String> absent());
+        return true;
+      }
+
+      return false;
+    } finally {
+      lock.unlockRequest(requestId);
+    }
   }
 
   private boolean shouldExitCooldown(SingularityRequestWithState cooldownRequest) {
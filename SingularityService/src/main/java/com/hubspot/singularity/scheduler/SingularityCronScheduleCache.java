@@ -0,0 +1,108 @@
+package com.hubspot.singularity.scheduler;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.concurrent.ExecutionException;
+
+import javax.inject.Singleton;
+
+import org.quartz.CronExpression;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+import com.hubspot.singularity.config.SingularityConfiguration;
+
+/**
+ * Compiled quartz schedules, keyed by schedule string, so a schedule is parsed once rather than on every reschedule.
+ *
+ * Each schedule also remembers the last fire time it computed. Every time between the instant it was computed from and that fire time
+ * has the same next fire time, so the many requests sharing a schedule (e.g. at the top of the hour) only walk the cron fields once per
+ * firing.
+ *
+ * Entries never go stale, since a schedule string always compiles to the same expression. A request whose schedule changes simply looks
+ * up its new string; schedules no longer in use are evicted once more than cacheSchedulesMaxSize are cached.
+ */
+@Singleton
+public class SingularityCronScheduleCache {
+
+  private final LoadingCache<String, CompiledSchedule> schedules;
+  private final Meter computedMeter;
+
+  @Inject
+  public SingularityCronScheduleCache(SingularityConfiguration configuration, MetricRegistry registry) {
+    this.schedules = CacheBuilder.newBuilder()
+        .maximumSize(configuration.getCacheSchedulesMaxSize())
+        .build(new CacheLoader<String, CompiledSchedule>() {
+
+          @Override
+          public CompiledSchedule load(String schedule) throws ParseException {
+            return new CompiledSchedule(new CronExpression(schedule));
+          }
+
+        });
+
+    this.computedMeter = registry.meter("schedules.nextFireTime.computed");
+
+    registry.register("schedules.cached", new Gauge<Long>() {
+
+      @Override
+      public Long getValue() {
+        return schedules.size();
+      }
+
+    });
+  }
+
+  /**
+   * @return the first fire time of schedule strictly after the given time, absent if it never fires again
+   */
+  public Optional<Long> getNextValidTimeAfter(String schedule, long after) throws ParseException {
+    return getCompiledSchedule(schedule).getNextValidTimeAfter(after);
+  }
+
+  private CompiledSchedule getCompiledSchedule(String schedule) throws ParseException {
+    try {
+      return schedules.get(schedule);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), ParseException.class);
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  private class CompiledSchedule {
+
+    private final CronExpression cronExpression;
+
+    private long computedFrom = Long.MAX_VALUE;
+    private Optional<Long> nextFireTime = Optional.absent();
+
+    CompiledSchedule(CronExpression cronExpression) {
+      this.cronExpression = cronExpression;
+    }
+
+    synchronized Optional<Long> getNextValidTimeAfter(long after) {
+      if (after >= computedFrom && (!nextFireTime.isPresent() || after < nextFireTime.get())) {
+        return nextFireTime;
+      }
+
+      final Date nextValidTime = cronExpression.getNextValidTimeAfter(new Date(after));
+
+      computedMeter.mark();
+
+      computedFrom = after;
+      nextFireTime = nextValidTime == null ? Optional.<Long> absent() : Optional.of(nextValidTime.getTime());
+
+      return nextFireTime;
+    }
+
+  }
+
+}
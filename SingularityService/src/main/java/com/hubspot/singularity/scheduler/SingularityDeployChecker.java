@@ -55,6 +55,7 @@ import com.hubspot.singularity.data.RequestManager;
 import com.hubspot.singularity.data.TaskManager;
 import com.hubspot.singularity.expiring.SingularityExpiringPause;
 import com.hubspot.singularity.hooks.LoadBalancerClient;
+import com.hubspot.singularity.mesos.SingularitySchedulerLock;
 import com.hubspot.singularity.scheduler.SingularityDeployHealthHelper.DeployHealth;
 
 @Singleton
@@ -68,10 +69,12 @@ public class SingularityDeployChecker {
   private final RequestManager requestManager;
   private final SingularityConfiguration configuration;
   private final LoadBalancerClient lbClient;
+  private final SingularitySchedulerLock lock;
 
   @Inject
   public SingularityDeployChecker(DeployManager deployManager, SingularityDeployHealthHelper deployHealthHelper, LoadBalancerClient lbClient, RequestManager requestManager, TaskManager taskManager,
-    SingularityConfiguration configuration) {
+    SingularityConfiguration configuration, SingularitySchedulerLock lock) {
+    this.lock = lock;
     this.configuration = configuration;
     this.lbClient = lbClient;
     this.deployHealthHelper = deployHealthHelper;
@@ -95,7 +98,15 @@ public class SingularityDeployChecker {
     for (SingularityPendingDeploy pendingDeploy : pendingDeploys) {
       LOG.debug("Checking a deploy {}", pendingDeploy);
 
-      checkDeploy(pendingDeploy, cancelDeploys, pendingDeployToKey, deployKeyToDeploy, updateRequests);
+      final String requestId = pendingDeploy.getDeployMarker().getRequestId();
+
+      lock.lockRequest(requestId, "deployChecker");
+
+      try {
+        checkDeploy(pendingDeploy, cancelDeploys, pendingDeployToKey, deployKeyToDeploy, updateRequests);
+      } finally {
+        lock.unlockRequest(requestId);
+      }
     }
 
     for (SingularityDeployMarker cancelDeploy : cancelDeploys) {
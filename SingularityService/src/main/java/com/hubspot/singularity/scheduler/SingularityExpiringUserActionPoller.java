@@ -2,7 +2,6 @@ package com.hubspot.singularity.scheduler;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
 
 import javax.inject.Singleton;
 import javax.ws.rs.WebApplicationException;
@@ -14,7 +13,6 @@ import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
-import com.google.inject.name.Named;
 import com.hubspot.mesos.JavaUtils;
 import com.hubspot.singularity.RequestState;
 import com.hubspot.singularity.SingularityPendingRequest;
@@ -33,7 +31,7 @@ import com.hubspot.singularity.expiring.SingularityExpiringPause;
 import com.hubspot.singularity.expiring.SingularityExpiringScale;
 import com.hubspot.singularity.expiring.SingularityExpiringSkipHealthchecks;
 import com.hubspot.singularity.helpers.RequestHelper;
-import com.hubspot.singularity.mesos.SingularityMesosModule;
+import com.hubspot.singularity.mesos.SingularitySchedulerLock;
 import com.hubspot.singularity.smtp.SingularityMailer;
 
 @Singleton
@@ -47,11 +45,14 @@ public class SingularityExpiringUserActionPoller extends SingularityLeaderOnlyPo
   private final RequestHelper requestHelper;
   private final List<SingularityExpiringUserActionHandler<?>> handlers;
   private final SingularityConfiguration configuration;
+  private final SingularitySchedulerLock lock;
 
   @Inject
   SingularityExpiringUserActionPoller(SingularityConfiguration configuration, RequestManager requestManager, TaskManager taskManager,
-      @Named(SingularityMesosModule.SCHEDULER_LOCK_NAME) final Lock lock, RequestHelper requestHelper, SingularityMailer mailer) {
-    super(configuration.getCheckExpiringUserActionEveryMillis(), TimeUnit.MILLISECONDS, lock);
+      SingularitySchedulerLock lock, RequestHelper requestHelper, SingularityMailer mailer) {
+    super(configuration.getCheckExpiringUserActionEveryMillis(), TimeUnit.MILLISECONDS);
+
+    this.lock = lock;
 
     this.requestManager = requestManager;
     this.requestHelper = requestHelper;
@@ -106,16 +107,21 @@ public class SingularityExpiringUserActionPoller extends SingularityLeaderOnlyPo
     protected void checkExpiringObjects() {
       for (T expiringObject : requestManager.getExpiringObjects(clazz)) {
         if (isExpiringDue(expiringObject)) {
+          lock.lockRequest(expiringObject.getRequestId(), "expiringUserAction");
 
-          Optional<SingularityRequestWithState> requestWithState = requestManager.getRequest(expiringObject.getRequestId());
+          try {
+            Optional<SingularityRequestWithState> requestWithState = requestManager.getRequest(expiringObject.getRequestId());
 
-          if (!requestWithState.isPresent()) {
-            LOG.warn("Request {} not present, discarding {}", expiringObject.getRequestId(), expiringObject);
-          } else {
-            handleExpiringObject(expiringObject, requestWithState.get(), getMessage(expiringObject));
-          }
+            if (!requestWithState.isPresent()) {
+              LOG.warn("Request {} not present, discarding {}", expiringObject.getRequestId(), expiringObject);
+            } else {
+              handleExpiringObject(expiringObject, requestWithState.get(), getMessage(expiringObject));
+            }
 
-          requestManager.deleteExpiringObject(clazz, expiringObject.getRequestId());
+            requestManager.deleteExpiringObject(clazz, expiringObject.getRequestId());
+          } finally {
+            lock.unlockRequest(expiringObject.getRequestId());
+          }
         }
       }
     }
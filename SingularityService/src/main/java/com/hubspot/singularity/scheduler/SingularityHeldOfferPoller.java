@@ -0,0 +1,61 @@
+package com.hubspot.singularity.scheduler;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.SchedulerDriver;
+
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.mesos.SchedulerDriverSupplier;
+import com.hubspot.singularity.mesos.SingularityMesosScheduler;
+import com.hubspot.singularity.mesos.SingularityOfferBuffer;
+import com.hubspot.singularity.mesos.SingularitySchedulerLock;
+
+/**
+ * Re-runs offer matching over held offers when no new offers have arrived, so that newly pending tasks can use them and expired ones are declined.
+ */
+@Singleton
+public class SingularityHeldOfferPoller extends SingularityLeaderOnlyPoller {
+
+  private final SingularityConfiguration configuration;
+  private final SingularityMesosScheduler mesosScheduler;
+  private final SingularityOfferBuffer offerBuffer;
+  private final SchedulerDriverSupplier schedulerDriverSupplier;
+
+  @Inject
+  SingularityHeldOfferPoller(SingularityConfiguration configuration, SingularityMesosScheduler mesosScheduler, SingularityOfferBuffer offerBuffer, SchedulerDriverSupplier schedulerDriverSupplier,
+      SingularitySchedulerLock lock) {
+    super(configuration.getOfferHoldMillis(), TimeUnit.MILLISECONDS, lock);
+
+    this.configuration = configuration;
+    this.mesosScheduler = mesosScheduler;
+    this.offerBuffer = offerBuffer;
+    this.schedulerDriverSupplier = schedulerDriverSupplier;
+  }
+
+  @Override
+  protected boolean isEnabled() {
+    return configuration.getOfferHoldMillis() > 0;
+  }
+
+  @Override
+  public void runActionOnPoll() {
+    if (!offerBuffer.hasHeldOffers()) {
+      return;
+    }
+
+    final Optional<SchedulerDriver> driver = schedulerDriverSupplier.get();
+
+    if (!driver.isPresent()) {
+      return;
+    }
+
+    mesosScheduler.resourceOffers(driver.get(), Collections.<Offer>emptyList());
+  }
+
+}
@@ -0,0 +1,35 @@
+package com.hubspot.singularity.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+import com.google.inject.Inject;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.SingularityLeaderCacheCoordinator;
+import com.hubspot.singularity.mesos.SingularitySchedulerLock;
+
+@Singleton
+public class SingularityLeaderCachePoller extends SingularityLeaderOnlyPoller {
+
+  private final SingularityConfiguration configuration;
+  private final SingularityLeaderCacheCoordinator leaderCacheCoordinator;
+
+  @Inject
+  SingularityLeaderCachePoller(SingularityConfiguration configuration, SingularityLeaderCacheCoordinator leaderCacheCoordinator, SingularitySchedulerLock lock) {
+    super(configuration.getReconcileLeaderCacheEverySeconds(), TimeUnit.SECONDS, lock);
+
+    this.configuration = configuration;
+    this.leaderCacheCoordinator = leaderCacheCoordinator;
+  }
+
+  @Override
+  protected boolean isEnabled() {
+    return configuration.isUseLeaderCache();
+  }
+
+  @Override
+  public void runActionOnPoll() {
+    leaderCacheCoordinator.reconcileLeaderCache();
+  }
+}
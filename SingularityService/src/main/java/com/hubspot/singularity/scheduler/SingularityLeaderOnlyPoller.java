@@ -4,7 +4,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
 
 import org.apache.curator.framework.recipes.leader.LeaderLatch;
 import org.slf4j.Logger;
@@ -16,7 +15,10 @@ import com.hubspot.mesos.JavaUtils;
 import com.hubspot.singularity.SingularityAbort;
 import com.hubspot.singularity.SingularityAbort.AbortReason;
 import com.hubspot.singularity.SingularityManagedScheduledExecutorServiceFactory;
+import com.hubspot.singularity.data.SingularityZkMirror;
+import com.hubspot.singularity.data.SingularityZkMirror.ConsistentReads;
 import com.hubspot.singularity.mesos.SingularityMesosSchedulerDelegator;
+import com.hubspot.singularity.mesos.SingularitySchedulerLock;
 import com.hubspot.singularity.sentry.SingularityExceptionNotifier;
 
 import io.dropwizard.lifecycle.Managed;
@@ -27,23 +29,24 @@ public abstract class SingularityLeaderOnlyPoller implements Managed {
 
   private final long pollDelay;
   private final TimeUnit pollTimeUnit;
-  private final Optional<Lock> lockHolder;
+  private final Optional<SingularitySchedulerLock> lockHolder;
 
   private ScheduledExecutorService executorService;
   private LeaderLatch leaderLatch;
   private SingularityExceptionNotifier exceptionNotifier;
   private SingularityAbort abort;
   private SingularityMesosSchedulerDelegator mesosScheduler;
+  private SingularityZkMirror zkMirror;
 
   protected SingularityLeaderOnlyPoller(long pollDelay, TimeUnit pollTimeUnit) {
-    this(pollDelay, pollTimeUnit, Optional.<Lock> absent());
+    this(pollDelay, pollTimeUnit, Optional.<SingularitySchedulerLock> absent());
   }
 
-  protected SingularityLeaderOnlyPoller(long pollDelay, TimeUnit pollTimeUnit, Lock lock) {
+  protected SingularityLeaderOnlyPoller(long pollDelay, TimeUnit pollTimeUnit, SingularitySchedulerLock lock) {
     this(pollDelay, pollTimeUnit, Optional.of(lock));
   }
 
-  private SingularityLeaderOnlyPoller(long pollDelay, TimeUnit pollTimeUnit, Optional<Lock> lockHolder) {
+  private SingularityLeaderOnlyPoller(long pollDelay, TimeUnit pollTimeUnit, Optional<SingularitySchedulerLock> lockHolder) {
     this.pollDelay = pollDelay;
     this.pollTimeUnit = pollTimeUnit;
     this.lockHolder = lockHolder;
@@ -54,12 +57,14 @@ public abstract class SingularityLeaderOnlyPoller implements Managed {
       LeaderLatch leaderLatch,
       SingularityExceptionNotifier exceptionNotifier,
       SingularityAbort abort,
-      SingularityMesosSchedulerDelegator mesosScheduler) {
+      SingularityMesosSchedulerDelegator mesosScheduler,
+      SingularityZkMirror zkMirror) {
     this.executorService = executorServiceFactory.get(getClass().getSimpleName());
     this.leaderLatch = checkNotNull(leaderLatch, "leaderLatch is null");
     this.exceptionNotifier = checkNotNull(exceptionNotifier, "exceptionNotifier is null");
     this.abort = checkNotNull(abort, "abort is null");
     this.mesosScheduler = checkNotNull(mesosScheduler, "mesosScheduler is null");
+    this.zkMirror = checkNotNull(zkMirror, "zkMirror is null");
   }
 
   @Override
@@ -101,9 +106,11 @@ public abstract class SingularityLeaderOnlyPoller implements Managed {
     final long start = System.currentTimeMillis();
 
     if (lockHolder.isPresent()) {
-      lockHolder.get().lock();
+      lockHolder.get().lock(getClass().getSimpleName());
     }
 
+    final ConsistentReads consistentReads = zkMirror.consistentReads();
+
     try {
       runActionOnPoll();
     } catch (Throwable t) {
@@ -113,6 +120,8 @@ public abstract class SingularityLeaderOnlyPoller implements Managed {
         abort.abort(AbortReason.UNRECOVERABLE_ERROR, Optional.of(t));
       }
     } finally {
+      consistentReads.close();
+
       if (lockHolder.isPresent()) {
         lockHolder.get().unlock();
       }
@@ -0,0 +1,139 @@
+package com.hubspot.singularity.scheduler;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Sets;
+
+/**
+ * A set made of a read-only base set plus the elements added to and removed from it through this set, so that the state cache can change
+ * its view of a listing without copying it first. The base may be a live view which changes underneath (e.g. the leader cache, which is
+ * written through as tasks are saved); elements added here are only listed once, even after the base catches up with them.
+ */
+class SingularityOverlaySet<T> extends AbstractSet<T> {
+
+  private final Set<T> base;
+  private final Set<T> added;
+  private final Set<T> removed;
+
+  SingularityOverlaySet(Set<T> base) {
+    this.base = base;
+    this.added = Sets.newHashSet();
+    this.removed = Sets.newHashSet();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return added.contains(o) || (base.contains(o) && !removed.contains(o));
+  }
+
+  @Override
+  public boolean add(T element) {
+    if (contains(element)) {
+      return false;
+    }
+
+    removed.remove(element);
+
+    if (!base.contains(element)) {
+      added.add(element);
+    }
+
+    return true;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean remove(Object o) {
+    if (!contains(o)) {
+      return false;
+    }
+
+    added.remove(o);
+
+    if (base.contains(o)) {
+      removed.add((T) o);
+    }
+
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return Iterators.size(iterator());
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return !iterator().hasNext();
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new OverlayIterator();
+  }
+
+  private class OverlayIterator implements Iterator<T> {
+
+    private final Iterator<T> baseIterator = base.iterator();
+    private final Iterator<T> addedIterator = ImmutableList.copyOf(added).iterator(); // only this cycle's additions, so copying is cheap
+
+    private T next;
+    private boolean hasNext;
+    private T last;
+    private boolean canRemove;
+
+    @Override
+    public boolean hasNext() {
+      while (!hasNext && baseIterator.hasNext()) {
+        final T element = baseIterator.next();
+
+        if (!removed.contains(element) && !added.contains(element)) {
+          next = element;
+          hasNext = true;
+        }
+      }
+
+      while (!hasNext && addedIterator.hasNext()) {
+        final T element = addedIterator.next();
+
+        if (added.contains(element)) {
+          next = element;
+          hasNext = true;
+        }
+      }
+
+      return hasNext;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      hasNext = false;
+      last = next;
+      canRemove = true;
+
+      return last;
+    }
+
+    @Override
+    public void remove() {
+      if (!canRemove) {
+        throw new IllegalStateException();
+      }
+
+      canRemove = false;
+
+      SingularityOverlaySet.this.remove(last);
+    }
+
+  }
+
+}
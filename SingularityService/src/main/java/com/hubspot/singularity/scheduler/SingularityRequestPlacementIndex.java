@@ -0,0 +1,120 @@
+package com.hubspot.singularity.scheduler;
+
+import java.util.Map;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import com.hubspot.singularity.SingularityTaskId;
+
+/**
+ * Per-request counts of active tasks by (sanitized) host and rack, split by deploy and by cleaning state. A task is counted by the cleaning
+ * state it had when it was added, which is remembered so that removing it undoes exactly that, even if it has started cleaning since.
+ * Adding a task which is already indexed, or removing one which isn't, changes nothing.
+ * Maintained by the {@link SingularitySchedulerStateCache} so that placement checks don't have to scan every active task.
+ */
+public class SingularityRequestPlacementIndex {
+
+  private final Multiset<String> allOnHost;
+  private final Map<String, Multiset<String>> deployOnHost;
+  private final Map<String, Multiset<String>> deployCleaningOnHost;
+  private final Map<String, Multiset<String>> deployOnRack;
+  private final Map<SingularityTaskId, Boolean> addedAsCleaning;
+
+  SingularityRequestPlacementIndex() {
+    this.allOnHost = HashMultiset.create();
+    this.deployOnHost = Maps.newHashMap();
+    this.deployCleaningOnHost = Maps.newHashMap();
+    this.deployOnRack = Maps.newHashMap();
+    this.addedAsCleaning = Maps.newHashMap();
+  }
+
+  void add(SingularityTaskId taskId, boolean cleaning) {
+    if (addedAsCleaning.containsKey(taskId)) {
+      return;
+    }
+
+    addedAsCleaning.put(taskId, cleaning);
+    allOnHost.add(taskId.getSanitizedHost());
+
+    if (cleaning) {
+      getOrCreate(deployCleaningOnHost, taskId.getDeployId()).add(taskId.getSanitizedHost());
+    } else {
+      getOrCreate(deployOnHost, taskId.getDeployId()).add(taskId.getSanitizedHost());
+      getOrCreate(deployOnRack, taskId.getDeployId()).add(taskId.getSanitizedRackId());
+    }
+  }
+
+  void remove(SingularityTaskId taskId) {
+    final Boolean cleaning = addedAsCleaning.remove(taskId);
+
+    if (cleaning == null) {
+      return;
+    }
+
+    allOnHost.remove(taskId.getSanitizedHost());
+
+    if (cleaning) {
+      remove(deployCleaningOnHost, taskId.getDeployId(), taskId.getSanitizedHost());
+    } else {
+      remove(deployOnHost, taskId.getDeployId(), taskId.getSanitizedHost());
+      remove(deployOnRack, taskId.getDeployId(), taskId.getSanitizedRackId());
+    }
+  }
+
+  boolean isEmpty() {
+    return addedAsCleaning.isEmpty();
+  }
+
+  public int getNumOnHost(String deployId, String sanitizedHost) {
+    return count(deployOnHost, deployId, sanitizedHost);
+  }
+
+  public int getNumCleaningOnHost(String deployId, String sanitizedHost) {
+    return count(deployCleaningOnHost, deployId, sanitizedHost);
+  }
+
+  public int getNumOtherDeploysOnHost(String deployId, String sanitizedHost) {
+    return allOnHost.count(sanitizedHost) - getNumOnHost(deployId, sanitizedHost) - getNumCleaningOnHost(deployId, sanitizedHost);
+  }
+
+  public int getNumOnRack(String deployId, String sanitizedRackId) {
+    return count(deployOnRack, deployId, sanitizedRackId);
+  }
+
+  private static Multiset<String> getOrCreate(Map<String, Multiset<String>> map, String deployId) {
+    Multiset<String> counts = map.get(deployId);
+
+    if (counts == null) {
+      counts = HashMultiset.create();
+      map.put(deployId, counts);
+    }
+
+    return counts;
+  }
+
+  private static void remove(Map<String, Multiset<String>> map, String deployId, String key) {
+    Multiset<String> counts = map.get(deployId);
+
+    if (counts == null) {
+      return;
+    }
+
+    counts.remove(key);
+
+    if (counts.isEmpty()) {
+      map.remove(deployId);
+    }
+  }
+
+  private static int count(Map<String, Multiset<String>> map, String deployId, String key) {
+    Multiset<String> counts = map.get(deployId);
+
+    if (counts == null) {
+      return 0;
+    }
+
+    return counts.count(key);
+  }
+
+}
@@ -1,7 +1,6 @@
 package com.hubspot.singularity.scheduler;
 
 import java.text.ParseException;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -9,7 +8,6 @@ import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
 
-import org.quartz.CronExpression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,10 +37,11 @@ public class SingularityScheduledJobPoller extends SingularityLeaderOnlyPoller {
   private final SingularityMailer mailer;
   private final SingularityConfiguration configuration;
   private final SingularityExceptionNotifier exceptionNotifier;
+  private final SingularityCronScheduleCache cronScheduleCache;
 
   @Inject
   public SingularityScheduledJobPoller(SingularityExceptionNotifier exceptionNotifier, TaskManager taskManager,
-      SingularityConfiguration configuration, RequestManager requestManager, DeployManager deployManager, SingularityMailer mailer) {
+      SingularityConfiguration configuration, RequestManager requestManager, DeployManager deployManager, SingularityMailer mailer, SingularityCronScheduleCache cronScheduleCache) {
 
     super(configuration.getCheckScheduledJobsEveryMillis(), TimeUnit.MILLISECONDS);
 
@@ -52,6 +51,7 @@ public class SingularityScheduledJobPoller extends SingularityLeaderOnlyPoller {
     this.exceptionNotifier = exceptionNotifier;
     this.requestManager = requestManager;
     this.mailer = mailer;
+    this.cronScheduleCache = cronScheduleCache;
   }
 
   @Override
@@ -110,27 +110,24 @@ public class SingularityScheduledJobPoller extends SingularityLeaderOnlyPoller {
         return deployStatistics.get().getAverageRuntimeMillis();
       }
 
-      final CronExpression cronExpression;
+      final Optional<Long> nextRunAtTime;
 
       try {
-        cronExpression = new CronExpression(request.getRequest().getQuartzScheduleSafe());
+        nextRunAtTime = cronScheduleCache.getNextValidTimeAfter(request.getRequest().getQuartzScheduleSafe(), taskId.getStartedAt());
       } catch (ParseException e) {
         LOG.warn("Unable to parse cron for {} ({})", taskId, request.getRequest().getQuartzScheduleSafe(), e);
         exceptionNotifier.notify(e, ImmutableMap.of("taskId", taskId.toString()));
         return Optional.absent();
       }
 
-      final Date startDate = new Date(taskId.getStartedAt());
-      final Date nextRunAtDate = cronExpression.getNextValidTimeAfter(startDate);
-
-      if (nextRunAtDate == null) {
+      if (!nextRunAtTime.isPresent()) {
         String msg = String.format("No next run date found for %s (%s)", taskId, request.getRequest().getQuartzScheduleSafe());
         LOG.warn(msg);
         exceptionNotifier.notify(msg, ImmutableMap.of("taskId", taskId.toString()));
         return Optional.absent();
       }
 
-      return Optional.of(nextRunAtDate.getTime() - taskId.getStartedAt());
+      return Optional.of(nextRunAtTime.get() - taskId.getStartedAt());
     }
   }
 
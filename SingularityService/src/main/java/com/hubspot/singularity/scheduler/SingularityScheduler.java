@@ -3,31 +3,37 @@ package com.hubspot.singularity.scheduler;
 import java.text.ParseException;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
 
 import org.apache.mesos.Protos;
 import org.apache.mesos.Protos.TaskStatus.Reason;
-import org.quartz.CronExpression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.annotation.Timed;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicates;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multimaps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import com.hubspot.mesos.JavaUtils;
 import com.hubspot.singularity.DeployState;
@@ -36,6 +42,7 @@ import com.hubspot.singularity.MachineState;
 import com.hubspot.singularity.RequestState;
 import com.hubspot.singularity.RequestType;
 import com.hubspot.singularity.SingularityCreateResult;
+import com.hubspot.singularity.SingularityDeployKey;
 import com.hubspot.singularity.SingularityDeployMarker;
 import com.hubspot.singularity.SingularityDeployStatistics;
 import com.hubspot.singularity.SingularityDeployStatisticsBuilder;
@@ -67,8 +74,10 @@ import com.hubspot.singularity.data.TaskManager;
 import com.hubspot.singularity.data.TaskRequestManager;
 import com.hubspot.singularity.smtp.SingularityMailer;
 
+import io.dropwizard.lifecycle.Managed;
+
 @Singleton
-public class SingularityScheduler {
+public class SingularityScheduler implements Managed {
 
   private static final Logger LOG = LoggerFactory.getLogger(SingularityScheduler.class);
 
@@ -84,10 +93,13 @@ public class SingularityScheduler {
   private final RackManager rackManager;
 
   private final SingularityMailer mailer;
+  private final SingularityCronScheduleCache cronScheduleCache;
+
+  private Optional<ForkJoinPool> drainPool;
 
   @Inject
   public SingularityScheduler(TaskRequestManager taskRequestManager, SingularityConfiguration configuration, SingularityCooldown cooldown, DeployManager deployManager,
-    TaskManager taskManager, RequestManager requestManager, SlaveManager slaveManager, RackManager rackManager, SingularityMailer mailer) {
+    TaskManager taskManager, RequestManager requestManager, SlaveManager slaveManager, RackManager rackManager, SingularityMailer mailer, SingularityCronScheduleCache cronScheduleCache) {
     this.taskRequestManager = taskRequestManager;
     this.configuration = configuration;
     this.deployManager = deployManager;
@@ -97,6 +109,8 @@ public class SingularityScheduler {
     this.rackManager = rackManager;
     this.mailer = mailer;
     this.cooldown = cooldown;
+    this.cronScheduleCache = cronScheduleCache;
+    this.drainPool = Optional.absent();
   }
 
   private void cleanupTaskDueToDecomission(final Map<String, Optional<String>> requestIdsToUserToReschedule, final Set<SingularityTaskId> matchingTaskIds, SingularityTask task,
@@ -119,54 +133,68 @@ public class SingularityScheduler {
     return map;
   }
 
+  /**
+   * Cleans up the tasks on slaves and racks which are starting to decommission. While leading, those are read from the leader cache's
+   * state index, so a cycle with no decommission starting does no further work. Otherwise the active tasks are indexed by host and rack once,
+   * rather than scanned for each machine. Decommissions finish as the last task on the machine ends (see
+   * {@link com.hubspot.singularity.mesos.SingularitySlaveAndRackManager#checkStateAfterFinishedTask}).
+   */
   @Timed
   public void checkForDecomissions(SingularitySchedulerStateCache stateCache) {
     final long start = System.currentTimeMillis();
 
+    final List<SingularitySlave> startingDecommissionSlaves = slaveManager.getObjectsFiltered(MachineState.STARTING_DECOMMISSION);
+    final List<SingularityRack> startingDecommissionRacks = rackManager.getObjectsFiltered(MachineState.STARTING_DECOMMISSION);
+
+    if (startingDecommissionSlaves.isEmpty() && startingDecommissionRacks.isEmpty()) {
+      LOG.trace("Decomission check found nothing");
+      return;
+    }
+
     final Map<String, Optional<String>> requestIdsToUserToReschedule = Maps.newHashMap();
     final Set<SingularityTaskId> matchingTaskIds = Sets.newHashSet();
 
     final Collection<SingularityTaskId> activeTaskIds = stateCache.getActiveTaskIds();
 
-    final Map<SingularitySlave, MachineState> slaves = getDefaultMap(slaveManager.getObjectsFiltered(MachineState.STARTING_DECOMMISSION));
+    final Map<SingularitySlave, MachineState> slaves = getDefaultMap(startingDecommissionSlaves);
 
-    for (SingularitySlave slave : slaves.keySet()) {
-      boolean foundTask = false;
+    if (!slaves.isEmpty()) {
+      final ListMultimap<String, SingularityTaskId> activeTaskIdsByHost = Multimaps.index(activeTaskIds, TASK_ID_TO_SANITIZED_HOST);
 
-      for (SingularityTask activeTask : taskManager.getTasksOnSlave(activeTaskIds, slave)) {
-        cleanupTaskDueToDecomission(requestIdsToUserToReschedule, matchingTaskIds, activeTask, slave);
-        foundTask = true;
-      }
+      for (SingularitySlave slave : slaves.keySet()) {
+        boolean foundTask = false;
+
+        for (SingularityTask activeTask : taskManager.getTasksOnSlave(activeTaskIdsByHost.get(JavaUtils.getReplaceHyphensWithUnderscores(slave.getHost())), slave)) {
+          cleanupTaskDueToDecomission(requestIdsToUserToReschedule, matchingTaskIds, activeTask, slave);
+          foundTask = true;
+        }
 
-      if (!foundTask) {
-        slaves.put(slave, MachineState.DECOMMISSIONED);
+        if (!foundTask) {
+          slaves.put(slave, MachineState.DECOMMISSIONED);
+        }
       }
     }
 
-    final Map<SingularityRack, MachineState> racks = getDefaultMap(rackManager.getObjectsFiltered(MachineState.STARTING_DECOMMISSION));
+    final Map<SingularityRack, MachineState> racks = getDefaultMap(startingDecommissionRacks);
 
-    for (SingularityRack rack : racks.keySet()) {
-      final String sanitizedRackId = JavaUtils.getReplaceHyphensWithUnderscores(rack.getId());
+    if (!racks.isEmpty()) {
+      final ListMultimap<String, SingularityTaskId> activeTaskIdsByRack = Multimaps.index(activeTaskIds, TASK_ID_TO_SANITIZED_RACK_ID);
 
-      boolean foundTask = false;
+      for (SingularityRack rack : racks.keySet()) {
+        final List<SingularityTaskId> activeTaskIdsOnRack = activeTaskIdsByRack.get(JavaUtils.getReplaceHyphensWithUnderscores(rack.getId()));
 
-      for (SingularityTaskId activeTaskId : activeTaskIds) {
-        if (sanitizedRackId.equals(activeTaskId.getSanitizedRackId())) {
-          foundTask = true;
-        }
-
-        if (matchingTaskIds.contains(activeTaskId)) {
-          continue;
-        }
+        for (SingularityTaskId activeTaskId : activeTaskIdsOnRack) {
+          if (matchingTaskIds.contains(activeTaskId)) {
+            continue;
+          }
 
-        if (sanitizedRackId.equals(activeTaskId.getSanitizedRackId())) {
           Optional<SingularityTask> maybeTask = taskManager.getTask(activeTaskId);
           cleanupTaskDueToDecomission(requestIdsToUserToReschedule, matchingTaskIds, maybeTask.get(), rack);
         }
-      }
 
-      if (!foundTask) {
-        racks.put(rack, MachineState.DECOMMISSIONED);
+        if (activeTaskIdsOnRack.isEmpty()) {
+          racks.put(rack, MachineState.DECOMMISSIONED);
+        }
       }
     }
 
@@ -189,12 +217,8 @@ public class SingularityScheduler {
     changeState(slaves, slaveManager);
     changeState(racks, rackManager);
 
-    if (slaves.isEmpty() && racks.isEmpty() && requestIdsToUserToReschedule.isEmpty() && matchingTaskIds.isEmpty()) {
-      LOG.trace("Decomission check found nothing");
-    } else {
-      LOG.info("Found {} decomissioning slaves, {} decomissioning racks, rescheduling {} requests and scheduling {} tasks for cleanup in {}", slaves.size(), racks.size(),
-        requestIdsToUserToReschedule.size(), matchingTaskIds.size(), JavaUtils.duration(start));
-    }
+    LOG.info("Found {} decomissioning slaves, {} decomissioning racks, rescheduling {} requests and scheduling {} tasks for cleanup in {}", slaves.size(), racks.size(),
+      requestIdsToUserToReschedule.size(), matchingTaskIds.size(), JavaUtils.duration(start));
   }
 
   private <T extends SingularityMachineAbstraction<T>> void changeState(Map<T, MachineState> map, AbstractMachineManager<T> manager) {
@@ -203,6 +227,12 @@ public class SingularityScheduler {
     }
   }
 
+  /**
+   * Turns the pending requests into pending tasks (or cleanups). The requests, deploy states, pending deploys and deploy statistics for the
+   * whole queue are loaded up front, and the new pending tasks and handled pending requests are written in batches at the end. With
+   * parallelPendingQueueDrain, the pending requests of different requests are handled concurrently; those for one request always run in
+   * queue order.
+   */
   @Timed
   public void drainPendingQueue(final SingularitySchedulerStateCache stateCache) {
     final long start = System.currentTimeMillis();
@@ -216,49 +246,159 @@ public class SingularityScheduler {
 
     LOG.info("Pending queue had {} requests", pendingRequests.size());
 
-    int totalNewScheduledTasks = 0;
-    int heldForScheduledActiveTask = 0;
-    int obsoleteRequests = 0;
+    final ImmutableListMultimap<String, SingularityPendingRequest> pendingRequestsByRequestId = Multimaps.index(pendingRequests, PENDING_REQUEST_TO_REQUEST_ID);
+    final PendingQueueData data = loadPendingQueueData(pendingRequestsByRequestId.keySet(), pendingRequests);
+
+    final DrainResult result = new DrainResult();
+
+    if (!configuration.isParallelPendingQueueDrain() || pendingRequestsByRequestId.keySet().size() < 2) {
+      for (String requestId : pendingRequestsByRequestId.keySet()) {
+        result.add(drainPendingRequests(stateCache, pendingRequestsByRequestId.get(requestId), data));
+      }
+    } else {
+      result.addAll(drainPendingRequestsInParallel(stateCache, pendingRequestsByRequestId, data));
+    }
+
+    taskManager.savePendingTasks(result.newPendingTasks);
+    requestManager.deletePendingRequests(result.handledPendingRequests);
+
+    LOG.info("Scheduled {} new tasks ({} obsolete requests, {} held) in {}", result.totalNewScheduledTasks, result.obsoleteRequests, result.heldForScheduledActiveTask,
+      JavaUtils.duration(start));
+  }
+
+  private PendingQueueData loadPendingQueueData(Set<String> requestIds, List<SingularityPendingRequest> pendingRequests) {
+    final Set<SingularityDeployKey> deployKeys = Sets.newHashSetWithExpectedSize(pendingRequests.size());
 
     for (SingularityPendingRequest pendingRequest : pendingRequests) {
-      Optional<SingularityRequestWithState> maybeRequest = requestManager.getRequest(pendingRequest.getRequestId());
+      deployKeys.add(new SingularityDeployKey(pendingRequest.getRequestId(), pendingRequest.getDeployId()));
+    }
+
+    return new PendingQueueData(Maps.uniqueIndex(requestManager.getRequests(requestIds), SingularityRequestWithState.REQUEST_STATE_TO_REQUEST_ID),
+      deployManager.getRequestDeployStatesByRequestIds(requestIds), deployManager.getPendingDeploysByRequestIds(requestIds), deployManager.getDeployStatisticsForKeys(deployKeys));
+  }
+
+  private List<DrainResult> drainPendingRequestsInParallel(final SingularitySchedulerStateCache stateCache,
+    final ImmutableListMultimap<String, SingularityPendingRequest> pendingRequestsByRequestId, final PendingQueueData data) {
+    // load everything drainPendingRequests reads lazily from the state cache, so that the workers only ever read it
+    stateCache.getActiveTaskIds();
+    stateCache.getCleaningTasks();
+    stateCache.getKilledTasks();
+    stateCache.getScheduledTasks();
+
+    final List<Callable<DrainResult>> callables = Lists.newArrayListWithCapacity(pendingRequestsByRequestId.keySet().size());
+
+    for (final String requestId : pendingRequestsByRequestId.keySet()) {
+      callables.add(new Callable<DrainResult>() {
+
+        @Override
+        public DrainResult call() {
+          return drainPendingRequests(stateCache, pendingRequestsByRequestId.get(requestId), data);
+        }
+
+      });
+    }
+
+    final List<DrainResult> results = Lists.newArrayListWithCapacity(callables.size());
+
+    try {
+      for (Future<DrainResult> future : getDrainPool().invokeAll(callables)) {
+        results.add(future.get());
+      }
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw Throwables.propagate(e);
+    }
+
+    return results;
+  }
+
+  private synchronized ForkJoinPool getDrainPool() {
+    if (!drainPool.isPresent()) {
+      drainPool = Optional.of(new ForkJoinPool(Math.max(1, configuration.getPendingQueueDrainParallelism())));
+    }
+
+    return drainPool.get();
+  }
+
+  @Override
+  public void start() {
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (drainPool.isPresent()) {
+      MoreExecutors.shutdownAndAwaitTermination(drainPool.get(), 1, TimeUnit.SECONDS);
+      drainPool = Optional.absent();
+    }
+  }
+
+  /**
+   * Handles the pending requests for a single request, in order. The first uses the preloaded data; the rest re-read it, since handling an
+   * earlier pending request may have changed it (e.g. by finishing the request or ending its cooldown).
+   */
+  private DrainResult drainPendingRequests(SingularitySchedulerStateCache stateCache, List<SingularityPendingRequest> pendingRequests, PendingQueueData data) {
+    final DrainResult result = new DrainResult();
+
+    boolean usePreloadedData = true;
+
+    for (SingularityPendingRequest pendingRequest : pendingRequests) {
+      final String requestId = pendingRequest.getRequestId();
+
+      final Optional<SingularityRequestWithState> maybeRequest;
+      final Optional<SingularityRequestDeployState> maybeRequestDeployState;
+      final Optional<SingularityPendingDeploy> maybePendingDeploy;
+      final SingularityDeployStatistics deployStatistics;
+
+      if (usePreloadedData) {
+        maybeRequest = Optional.fromNullable(data.requests.get(requestId));
+        maybeRequestDeployState = Optional.fromNullable(data.requestDeployStates.get(requestId));
+        maybePendingDeploy = Optional.fromNullable(data.pendingDeploys.get(requestId));
+
+        final SingularityDeployStatistics maybeDeployStatistics = data.deployStatistics.get(new SingularityDeployKey(requestId, pendingRequest.getDeployId()));
+        deployStatistics = maybeDeployStatistics != null ? maybeDeployStatistics : new SingularityDeployStatisticsBuilder(requestId, pendingRequest.getDeployId()).build();
+
+        usePreloadedData = false;
+      } else {
+        maybeRequest = requestManager.getRequest(requestId);
+        maybeRequestDeployState = deployManager.getRequestDeployState(requestId);
+        maybePendingDeploy = deployManager.getPendingDeploy(requestId);
+        deployStatistics = getDeployStatistics(requestId, pendingRequest.getDeployId());
+      }
 
       if (!isRequestActive(maybeRequest)) {
         LOG.debug("Pending request {} was obsolete (request {})", pendingRequest, SingularityRequestWithState.getRequestState(maybeRequest));
-        obsoleteRequests++;
+        result.obsoleteRequests++;
         continue;
       }
 
-      Optional<SingularityRequestDeployState> maybeRequestDeployState = deployManager.getRequestDeployState(pendingRequest.getRequestId());
-      Optional<SingularityPendingDeploy> maybePendingDeploy = deployManager.getPendingDeploy(maybeRequest.get().getRequest().getId());
       if (!shouldScheduleTasks(maybeRequest.get().getRequest(), pendingRequest, maybePendingDeploy, maybeRequestDeployState)) {
         LOG.debug("Pending request {} was obsolete (request {})", pendingRequest, SingularityRequestWithState.getRequestState(maybeRequest));
-        obsoleteRequests++;
+        result.obsoleteRequests++;
         continue;
       }
 
       final List<SingularityTaskId> matchingTaskIds = getMatchingTaskIds(stateCache, maybeRequest.get().getRequest(), pendingRequest);
 
-      final SingularityDeployStatistics deployStatistics = getDeployStatistics(pendingRequest.getRequestId(), pendingRequest.getDeployId());
-
       final RequestState requestState = checkCooldown(maybeRequest.get(), deployStatistics);
 
-      int numScheduledTasks = scheduleTasks(stateCache, maybeRequest.get().getRequest(), requestState, deployStatistics, pendingRequest, matchingTaskIds, maybePendingDeploy);
+      int numScheduledTasks = scheduleTasks(stateCache, maybeRequest.get().getRequest(), requestState, deployStatistics, pendingRequest, matchingTaskIds, maybePendingDeploy,
+        result.newPendingTasks);
 
       if (numScheduledTasks == 0 && !matchingTaskIds.isEmpty() && maybeRequest.get().getRequest().isScheduled() && pendingRequest.getPendingType() == PendingType.NEW_DEPLOY) {
         LOG.trace("Holding pending request {} because it is scheduled and has an active task", pendingRequest);
-        heldForScheduledActiveTask++;
+        result.heldForScheduledActiveTask++;
         continue;
       }
 
       LOG.debug("Pending request {} resulted in {} new scheduled tasks", pendingRequest, numScheduledTasks);
 
-      totalNewScheduledTasks += numScheduledTasks;
-
-      requestManager.deletePendingRequest(pendingRequest);
+      result.totalNewScheduledTasks += numScheduledTasks;
+      result.handledPendingRequests.add(pendingRequest);
     }
 
-    LOG.info("Scheduled {} new tasks ({} obsolete requests, {} held) in {}", totalNewScheduledTasks, obsoleteRequests, heldForScheduledActiveTask, JavaUtils.duration(start));
+    return result;
   }
 
   private RequestState checkCooldown(SingularityRequestWithState requestWithState, SingularityDeployStatistics deployStatistics) {
@@ -285,17 +425,7 @@ public class SingularityScheduler {
 
   @Timed
   public List<SingularityTaskRequest> getDueTasks() {
-    final List<SingularityPendingTask> tasks = taskManager.getPendingTasks();
-
-    final long now = System.currentTimeMillis();
-
-    final List<SingularityPendingTask> dueTasks = Lists.newArrayListWithCapacity(tasks.size());
-
-    for (SingularityPendingTask task : tasks) {
-      if (task.getPendingTaskId().getNextRunAt() <= now) {
-        dueTasks.add(task);
-      }
-    }
+    final List<SingularityPendingTask> dueTasks = taskManager.getDuePendingTasks(System.currentTimeMillis());
 
     final List<SingularityTaskRequest> dueTaskRequests = taskRequestManager.getTaskRequests(dueTasks);
 
@@ -368,7 +498,8 @@ public class SingularityScheduler {
   }
 
   private int scheduleTasks(SingularitySchedulerStateCache stateCache, SingularityRequest request, RequestState state, SingularityDeployStatistics deployStatistics,
-    SingularityPendingRequest pendingRequest, List<SingularityTaskId> matchingTaskIds, Optional<SingularityPendingDeploy> maybePendingDeploy) {
+    SingularityPendingRequest pendingRequest, List<SingularityTaskId> matchingTaskIds, Optional<SingularityPendingDeploy> maybePendingDeploy,
+    List<SingularityPendingTask> newPendingTasks) {
     if (request.getRequestType() != RequestType.ON_DEMAND) {
       deleteScheduledTasks(stateCache.getScheduledTasks(), pendingRequest);
     }
@@ -385,9 +516,7 @@ public class SingularityScheduler {
       if (!scheduledTasks.isEmpty()) {
         LOG.trace("Scheduling tasks: {}", scheduledTasks);
 
-        for (SingularityPendingTask scheduledTask : scheduledTasks) {
-          taskManager.savePendingTask(scheduledTask);
-        }
+        newPendingTasks.addAll(scheduledTasks);
       } else {
         LOG.info("No new scheduled tasks found for {}, setting state to {}", request.getId(), RequestState.FINISHED);
         requestManager.finish(request, System.currentTimeMillis());
@@ -491,7 +620,13 @@ public class SingularityScheduler {
     SingularityPendingRequest pendingRequest = new SingularityPendingRequest(request.getId(), requestDeployState.get().getActiveDeploy().get().getDeployId(),
       System.currentTimeMillis(), Optional.<String>absent(), pendingType, Optional.<Boolean>absent(), Optional.<String>absent());
 
-    scheduleTasks(stateCache, request, requestState, deployStatistics, pendingRequest, getMatchingTaskIds(stateCache, request, pendingRequest), maybePendingDeploy);
+    final List<SingularityPendingTask> newPendingTasks = Lists.newArrayList();
+
+    scheduleTasks(stateCache, request, requestState, deployStatistics, pendingRequest, getMatchingTaskIds(stateCache, request, pendingRequest), maybePendingDeploy, newPendingTasks);
+
+    for (SingularityPendingTask newPendingTask : newPendingTasks) {
+      taskManager.savePendingTask(newPendingTask);
+    }
 
     return Optional.of(pendingType);
   }
@@ -513,7 +648,7 @@ public class SingularityScheduler {
 
     if (wasActive) {
       taskManager.deleteActiveTask(taskId.getId());
-      stateCache.getActiveTaskIds().remove(taskId);
+      stateCache.removeActiveTaskId(taskId);
     }
 
     if (!task.isPresent() || task.get().getTaskRequest().getRequest().isLoadBalanced()) {
@@ -672,20 +807,17 @@ public class SingularityScheduler {
         LOG.info("Scheduling requested immediate run of {}", request.getId());
       } else {
         try {
-          final CronExpression cronExpression = new CronExpression(request.getQuartzScheduleSafe());
+          final Optional<Long> nextRunAtTime = cronScheduleCache.getNextValidTimeAfter(request.getQuartzScheduleSafe(), now);
 
-          final Date scheduleFrom = new Date(now);
-          final Date nextRunAtDate = cronExpression.getNextValidTimeAfter(scheduleFrom);
-
-          if (nextRunAtDate == null) {
+          if (!nextRunAtTime.isPresent()) {
             return Optional.absent();
           }
 
-          LOG.trace("Calculating nextRunAtDate for {} (schedule: {}): {} (from: {})", request.getId(), request.getSchedule(), nextRunAtDate, scheduleFrom);
+          LOG.trace("Calculating nextRunAtDate for {} (schedule: {}): {} (from: {})", request.getId(), request.getSchedule(), nextRunAtTime.get(), now);
 
-          nextRunAt = Math.max(nextRunAtDate.getTime(), now); // don't create a schedule that is overdue as this is used to indicate that singularity is not fulfilling requests.
+          nextRunAt = Math.max(nextRunAtTime.get(), now); // don't create a schedule that is overdue as this is used to indicate that singularity is not fulfilling requests.
 
-          LOG.trace("Scheduling next run of {} (schedule: {}) at {} (from: {})", request.getId(), request.getSchedule(), nextRunAtDate, scheduleFrom);
+          LOG.trace("Scheduling next run of {} (schedule: {}) at {} (from: {})", request.getId(), request.getSchedule(), nextRunAtTime.get(), now);
         } catch (ParseException pe) {
           throw Throwables.propagate(pe);
         }
@@ -708,4 +840,73 @@ public class SingularityScheduler {
     return Optional.of(nextRunAt);
   }
 
+  private static final Function<SingularityPendingRequest, String> PENDING_REQUEST_TO_REQUEST_ID = new Function<SingularityPendingRequest, String>() {
+
+    @Override
+    public String apply(SingularityPendingRequest input) {
+      return input.getRequestId();
+    }
+
+  };
+
+  private static final Function<SingularityTaskId, String> TASK_ID_TO_SANITIZED_HOST = new Function<SingularityTaskId, String>() {
+
+    @Override
+    public String apply(SingularityTaskId input) {
+      return input.getSanitizedHost();
+    }
+
+  };
+
+  private static final Function<SingularityTaskId, String> TASK_ID_TO_SANITIZED_RACK_ID = new Function<SingularityTaskId, String>() {
+
+    @Override
+    public String apply(SingularityTaskId input) {
+      return input.getSanitizedRackId();
+    }
+
+  };
+
+  private static class PendingQueueData {
+
+    private final Map<String, SingularityRequestWithState> requests;
+    private final Map<String, SingularityRequestDeployState> requestDeployStates;
+    private final Map<String, SingularityPendingDeploy> pendingDeploys;
+    private final Map<SingularityDeployKey, SingularityDeployStatistics> deployStatistics;
+
+    PendingQueueData(Map<String, SingularityRequestWithState> requests, Map<String, SingularityRequestDeployState> requestDeployStates,
+      Map<String, SingularityPendingDeploy> pendingDeploys, Map<SingularityDeployKey, SingularityDeployStatistics> deployStatistics) {
+      this.requests = requests;
+      this.requestDeployStates = requestDeployStates;
+      this.pendingDeploys = pendingDeploys;
+      this.deployStatistics = deployStatistics;
+    }
+
+  }
+
+  private static class DrainResult {
+
+    private final List<SingularityPendingTask> newPendingTasks = Lists.newArrayList();
+    private final List<SingularityPendingRequest> handledPendingRequests = Lists.newArrayList();
+
+    private int totalNewScheduledTasks;
+    private int heldForScheduledActiveTask;
+    private int obsoleteRequests;
+
+    void add(DrainResult other) {
+      newPendingTasks.addAll(other.newPendingTasks);
+      handledPendingRequests.addAll(other.handledPendingRequests);
+      totalNewScheduledTasks += other.totalNewScheduledTasks;
+      heldForScheduledActiveTask += other.heldForScheduledActiveTask;
+      obsoleteRequests += other.obsoleteRequests;
+    }
+
+    void addAll(List<DrainResult> others) {
+      for (DrainResult other : others) {
+        add(other);
+      }
+    }
+
+  }
+
 }
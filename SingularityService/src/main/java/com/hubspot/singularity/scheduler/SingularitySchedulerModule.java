@@ -19,6 +19,8 @@ public class SingularitySchedulerModule extends AbstractModule {
     bind(SingularityCooldownPoller.class).in(Scopes.SINGLETON);
     bind(SingularityDeployPoller.class).in(Scopes.SINGLETON);
     bind(SingularitySchedulerPoller.class).in(Scopes.SINGLETON);
+    bind(SingularityHeldOfferPoller.class).in(Scopes.SINGLETON);
+    bind(SingularityLeaderCachePoller.class).in(Scopes.SINGLETON);
     bind(SingularityScheduledJobPoller.class).in(Scopes.SINGLETON);
     bind(SingularityTaskShellCommandDispatchPoller.class).in(Scopes.SINGLETON);
     bind(SingularityTaskReconciliationPoller.class).in(Scopes.SINGLETON);
@@ -33,6 +35,7 @@ public class SingularitySchedulerModule extends AbstractModule {
     bind(SingularityNewTaskChecker.class).in(Scopes.SINGLETON);
     bind(SingularityTaskReconciliation.class).in(Scopes.SINGLETON);
     bind(SingularitySchedulerPriority.class).in(Scopes.SINGLETON);
+    bind(SingularityCronScheduleCache.class).in(Scopes.SINGLETON);
     bind(SingularityMailPoller.class).in(Scopes.SINGLETON);
 
     bind(SingularitySchedulerStateCache.class);
@@ -1,7 +1,6 @@
 package com.hubspot.singularity.scheduler;
 
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
 
 import javax.inject.Singleton;
 
@@ -10,10 +9,9 @@ import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
 import com.google.inject.Provider;
-import com.google.inject.name.Named;
 import com.hubspot.mesos.JavaUtils;
 import com.hubspot.singularity.config.SingularityConfiguration;
-import com.hubspot.singularity.mesos.SingularityMesosModule;
+import com.hubspot.singularity.mesos.SingularitySchedulerLock;
 
 @Singleton
 public class SingularitySchedulerPoller extends SingularityLeaderOnlyPoller {
@@ -25,7 +23,7 @@ public class SingularitySchedulerPoller extends SingularityLeaderOnlyPoller {
 
   @Inject
   SingularitySchedulerPoller(Provider<SingularitySchedulerStateCache> stateCacheProvider, SingularityScheduler scheduler,
-      SingularityConfiguration configuration, @Named(SingularityMesosModule.SCHEDULER_LOCK_NAME) final Lock lock) {
+      SingularityConfiguration configuration, SingularitySchedulerLock lock) {
     super(configuration.getCheckSchedulerEverySeconds(), TimeUnit.SECONDS, lock);
 
     this.stateCacheProvider = stateCacheProvider;
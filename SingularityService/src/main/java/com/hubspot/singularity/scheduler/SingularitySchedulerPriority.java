@@ -1,12 +1,17 @@
 package com.hubspot.singularity.scheduler;
 
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -16,18 +21,34 @@ import com.hubspot.singularity.SingularityTaskRequest;
 import com.hubspot.singularity.data.RequestManager;
 import com.hubspot.singularity.data.TaskManager;
 
+/**
+ * Orders due tasks so that requests which started a task least recently are offered resources first.
+ *
+ * The last start time of each request is kept in memory, seeded from task history in one pass by {@link #loadMostRecentTaskStarts()}
+ * and advanced by {@link #notifyTaskLaunched(SingularityTaskId)}. Until it has been seeded, a request's history is listed the first
+ * time one of its tasks is due.
+ */
 @Singleton
 public class SingularitySchedulerPriority {
 
+  private static final Logger LOG = LoggerFactory.getLogger(SingularitySchedulerPriority.class);
+
   private final TaskManager taskManager;
-  private final Map<String, Long> mostRecentTaskStartPerRequest;
-  private final Comparator<SingularityTaskRequest> comparator;
+  private final ConcurrentMap<String, Long> mostRecentTaskStartPerRequest;
+
+  private volatile boolean loaded;
 
-  private static final Comparator<SingularityTaskId> TASK_ID_STARTED_AT_COMPARATOR = new Comparator<SingularityTaskId>() {
+  private static final Comparator<RequestPriority> REQUEST_PRIORITY_COMPARATOR = new Comparator<RequestPriority>() {
 
     @Override
-    public int compare(SingularityTaskId o1, SingularityTaskId o2) {
-      return Longs.compare(o2.getStartedAt(), o1.getStartedAt());
+    public int compare(RequestPriority o1, RequestPriority o2) {
+      final int result = Longs.compare(o1.lastStartedAt, o2.lastStartedAt);
+
+      if (result != 0) {
+        return result;
+      }
+
+      return Ints.compare(o1.firstIndex, o2.firstIndex);
     }
 
   };
@@ -35,38 +56,122 @@ public class SingularitySchedulerPriority {
   @Inject
   public SingularitySchedulerPriority(TaskManager taskManager, RequestManager requestManager) {
     this.taskManager = taskManager;
-    this.mostRecentTaskStartPerRequest = Maps.newHashMap();
-    this.comparator = new Comparator<SingularityTaskRequest>() {
+    this.mostRecentTaskStartPerRequest = Maps.newConcurrentMap();
+  }
 
-      @Override
-      public int compare(SingularityTaskRequest o1, SingularityTaskRequest o2) {
-        final Long request1LastStartedAt = mostRecentTaskStartPerRequest.get(o1.getRequest().getId());
-        final Long request2LastStartedAt = mostRecentTaskStartPerRequest.get(o2.getRequest().getId());
+  public void loadMostRecentTaskStarts() {
+    final long start = System.currentTimeMillis();
+    final List<SingularityTaskId> taskIds = taskManager.getAllTaskIds();
 
-        return Longs.compare(request1LastStartedAt, request2LastStartedAt);
-      }
-    };
+    for (SingularityTaskId taskId : taskIds) {
+      updateMostRecentTaskStart(taskId.getRequestId(), taskId.getStartedAt());
+    }
+
+    loaded = true;
+
+    LOG.info("Loaded last task start for {} requests from {} task ids in {}", mostRecentTaskStartPerRequest.size(), taskIds.size(), JavaUtils.duration(start));
   }
 
+  /**
+   * Sorts taskRequests in place. Tasks are grouped by request, and the requests are drawn from a heap keyed by their last start time; the
+   * tasks of a request keep their relative order.
+   */
   public void sortTaskRequestsInPriorityOrder(final List<SingularityTaskRequest> taskRequests) {
+    if (taskRequests.size() < 2) {
+      return;
+    }
+
+    final Map<String, RequestPriority> priorities = Maps.newHashMap();
+
     for (SingularityTaskRequest taskRequest : taskRequests) {
-      if (!mostRecentTaskStartPerRequest.containsKey(taskRequest.getRequest().getId())) {
-        List<SingularityTaskId> taskIds = Lists.newArrayList(taskManager.getTaskIdsForRequest(taskRequest.getRequest().getId()));
-
-        if (!taskIds.isEmpty()) {
-          Collections.sort(taskIds, TASK_ID_STARTED_AT_COMPARATOR);
-          mostRecentTaskStartPerRequest.put(taskRequest.getRequest().getId(), JavaUtils.getFirst(taskIds).get().getStartedAt());
-        } else {
-          mostRecentTaskStartPerRequest.put(taskRequest.getRequest().getId(), 0L);
-        }
+      final String requestId = taskRequest.getRequest().getId();
+      RequestPriority priority = priorities.get(requestId);
+
+      if (priority == null) {
+        priority = new RequestPriority(getMostRecentTaskStart(requestId), priorities.size());
+        priorities.put(requestId, priority);
       }
+
+      priority.taskRequests.add(taskRequest);
+    }
+
+    if (priorities.size() < 2) {
+      return;
     }
 
-    Collections.sort(taskRequests, comparator);
+    final PriorityQueue<RequestPriority> heap = new PriorityQueue<>(priorities.size(), REQUEST_PRIORITY_COMPARATOR);
+    heap.addAll(priorities.values());
+
+    int index = 0;
+
+    while (!heap.isEmpty()) {
+      for (SingularityTaskRequest taskRequest : heap.poll().taskRequests) {
+        taskRequests.set(index++, taskRequest);
+      }
+    }
   }
 
   public void notifyTaskLaunched(SingularityTaskId taskId) {
-    mostRecentTaskStartPerRequest.put(taskId.getRequestId(), taskId.getStartedAt());
+    updateMostRecentTaskStart(taskId.getRequestId(), taskId.getStartedAt());
+  }
+
+  private long getMostRecentTaskStart(String requestId) {
+    final Long knownTaskStart = mostRecentTaskStartPerRequest.get(requestId);
+
+    if (knownTaskStart != null) {
+      return knownTaskStart;
+    }
+
+    if (loaded) {
+      return 0;
+    }
+
+    final List<SingularityTaskId> taskIds = taskManager.getTaskIdsForRequest(requestId);
+
+    long mostRecentTaskStart = 0;
+
+    for (SingularityTaskId taskId : taskIds) {
+      mostRecentTaskStart = Math.max(mostRecentTaskStart, taskId.getStartedAt());
+    }
+
+    return updateMostRecentTaskStart(requestId, mostRecentTaskStart);
+  }
+
+  /**
+   * Raises the request's last start time to startedAt unless a later one is already known, even when a launch races with seeding.
+   *
+   * @return the request's last start time after the update
+   */
+  private long updateMostRecentTaskStart(String requestId, long startedAt) {
+    while (true) {
+      final Long current = mostRecentTaskStartPerRequest.putIfAbsent(requestId, startedAt);
+
+      if (current == null) {
+        return startedAt;
+      }
+
+      if (current >= startedAt) {
+        return current;
+      }
+
+      if (mostRecentTaskStartPerRequest.replace(requestId, current, startedAt)) {
+        return startedAt;
+      }
+    }
+  }
+
+  private static class RequestPriority {
+
+    private final long lastStartedAt;
+    private final int firstIndex;
+    private final List<SingularityTaskRequest> taskRequests;
+
+    RequestPriority(long lastStartedAt, int firstIndex) {
+      this.lastStartedAt = lastStartedAt;
+      this.firstIndex = firstIndex;
+      this.taskRequests = Lists.newArrayListWithCapacity(1);
+    }
+
   }
 
 }
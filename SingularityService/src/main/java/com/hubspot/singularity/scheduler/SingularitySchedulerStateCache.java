@@ -1,8 +1,11 @@
 package com.hubspot.singularity.scheduler;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.Maps;
@@ -18,22 +21,33 @@ import com.hubspot.singularity.data.RackManager;
 import com.hubspot.singularity.data.SlaveManager;
 import com.hubspot.singularity.data.TaskManager;
 
+/**
+ * State read during one scheduler or offer cycle, loaded on first use. Slaves and racks may be loaded concurrently (offers are evaluated
+ * in parallel with parallelOfferMatching); everything else is loaded up front by SingularityOfferEvaluator.prepareStateCache before
+ * evaluation goes parallel, and only changed by the calling thread.
+ *
+ * The active, pending and cleaning listings are not copied: each is a {@link SingularityOverlaySet} over TaskManager's read-only view
+ * (live while the leader cache is active), holding only the changes made during this cycle.
+ */
 public class SingularitySchedulerStateCache {
 
+  private static final SingularityRequestPlacementIndex EMPTY_PLACEMENT_INDEX = new SingularityRequestPlacementIndex();
+
   private final TaskManager taskManager;
 
   private final SlaveManager slaveManager;
   private final RackManager rackManager;
 
-  private final Map<String, Optional<SingularitySlave>> slaveCache;
-  private final Map<String, Optional<SingularityRack>> rackCache;
+  private final ConcurrentMap<String, Optional<SingularitySlave>> slaveCache;
+  private final ConcurrentMap<String, Optional<SingularityRack>> rackCache;
 
-  private Optional<Collection<SingularityTaskId>> activeTaskIds;
-  private Optional<Collection<SingularityPendingTask>> scheduledTasks;
-  private Optional<Collection<SingularityTaskId>> cleaningTasks;
+  private Optional<Set<SingularityTaskId>> activeTaskIds;
+  private Optional<Set<SingularityPendingTask>> scheduledTasks;
+  private Optional<Set<SingularityTaskId>> cleaningTasks;
   private Optional<Collection<SingularityTaskId>> killedTasks;
   private Optional<Integer> numActiveRacks;
   private Optional<Integer> numActiveSlaves;
+  private Optional<Map<String, SingularityRequestPlacementIndex>> placementIndexes;
 
   @Inject
   public SingularitySchedulerStateCache(TaskManager taskManager, SlaveManager slaveManager, RackManager rackManager) {
@@ -47,35 +61,103 @@ public class SingularitySchedulerStateCache {
     killedTasks = Optional.absent();
     numActiveRacks = Optional.absent();
     numActiveSlaves = Optional.absent();
+    placementIndexes = Optional.absent();
 
-    slaveCache = Maps.newHashMap();
-    rackCache = Maps.newHashMap();
+    slaveCache = Maps.newConcurrentMap();
+    rackCache = Maps.newConcurrentMap();
   }
 
   public Collection<SingularityTaskId> getActiveTaskIds() {
+    return Collections.unmodifiableCollection(getMutableActiveTaskIds());
+  }
+
+  private Set<SingularityTaskId> getMutableActiveTaskIds() {
     if (!activeTaskIds.isPresent()) {
-      activeTaskIds = getMutableCollection(taskManager.getActiveTaskIds());
+      activeTaskIds = getOverlay(taskManager.getActiveTaskIdsView());
     }
 
     return activeTaskIds.get();
   }
 
+  /**
+   * Adds the task to this cycle's active tasks and placement indexes. The view of the active tasks may already include it (e.g. once it has
+   * been saved to the leader cache), so the placement index is updated either way and ignores tasks it already counts.
+   */
+  public void addActiveTaskId(SingularityTaskId taskId) {
+    getMutableActiveTaskIds().add(taskId);
+
+    if (placementIndexes.isPresent()) {
+      getOrCreatePlacementIndex(placementIndexes.get(), taskId.getRequestId()).add(taskId, getCleaningTasks().contains(taskId));
+    }
+  }
+
+  public void removeActiveTaskId(SingularityTaskId taskId) {
+    getMutableActiveTaskIds().remove(taskId);
+
+    if (placementIndexes.isPresent()) {
+      SingularityRequestPlacementIndex placementIndex = placementIndexes.get().get(taskId.getRequestId());
+
+      if (placementIndex != null) {
+        placementIndex.remove(taskId);
+
+        if (placementIndex.isEmpty()) {
+          placementIndexes.get().remove(taskId.getRequestId());
+        }
+      }
+    }
+  }
+
+  public SingularityRequestPlacementIndex getPlacementIndex(String requestId) {
+    if (!placementIndexes.isPresent()) {
+      placementIndexes = Optional.of(buildPlacementIndexes());
+    }
+
+    SingularityRequestPlacementIndex placementIndex = placementIndexes.get().get(requestId);
+
+    if (placementIndex == null) {
+      return EMPTY_PLACEMENT_INDEX;
+    }
+
+    return placementIndex;
+  }
+
+  private Map<String, SingularityRequestPlacementIndex> buildPlacementIndexes() {
+    final Collection<SingularityTaskId> cleaning = getCleaningTasks();
+    final Map<String, SingularityRequestPlacementIndex> indexes = Maps.newHashMap();
+
+    for (SingularityTaskId taskId : getMutableActiveTaskIds()) {
+      getOrCreatePlacementIndex(indexes, taskId.getRequestId()).add(taskId, cleaning.contains(taskId));
+    }
+
+    return indexes;
+  }
+
+  private SingularityRequestPlacementIndex getOrCreatePlacementIndex(Map<String, SingularityRequestPlacementIndex> indexes, String requestId) {
+    SingularityRequestPlacementIndex placementIndex = indexes.get(requestId);
+
+    if (placementIndex == null) {
+      placementIndex = new SingularityRequestPlacementIndex();
+      indexes.put(requestId, placementIndex);
+    }
+
+    return placementIndex;
+  }
+
   public Collection<SingularityPendingTask> getScheduledTasks() {
     if (!scheduledTasks.isPresent()) {
-      scheduledTasks = getMutableCollection(taskManager.getPendingTasks());
+      scheduledTasks = getOverlay(taskManager.getPendingTasksView());
     }
 
     return scheduledTasks.get();
   }
 
-  private <T> Optional<Collection<T>> getMutableCollection(List<T> immutableList) {
-    Collection<T> mutableSet = Sets.newHashSet(immutableList);
-    return Optional.of(mutableSet);
+  private <T> Optional<Set<T>> getOverlay(Set<T> readOnlyView) {
+    return Optional.<Set<T>> of(new SingularityOverlaySet<>(readOnlyView));
   }
 
   public Collection<SingularityTaskId> getCleaningTasks() {
     if (!cleaningTasks.isPresent()) {
-      cleaningTasks = getMutableCollection(taskManager.getCleanupTaskIds());
+      cleaningTasks = getOverlay(taskManager.getCleanupTaskIdsView());
     }
 
     return cleaningTasks.get();
@@ -114,19 +196,25 @@ public class SingularitySchedulerStateCache {
   }
 
   public Optional<SingularitySlave> getSlave(String slaveId) {
-    if (!slaveCache.containsKey(slaveId)) {
-      slaveCache.put(slaveId, slaveManager.getObject(slaveId));
+    Optional<SingularitySlave> slave = slaveCache.get(slaveId);
+
+    if (slave == null) {
+      slave = slaveManager.getObject(slaveId);
+      slaveCache.putIfAbsent(slaveId, slave);
     }
 
-    return slaveCache.get(slaveId);
+    return slave;
   }
 
   public Optional<SingularityRack> getRack(String rackId) {
-    if (!rackCache.containsKey(rackId)) {
-      rackCache.put(rackId, rackManager.getObject(rackId));
+    Optional<SingularityRack> rack = rackCache.get(rackId);
+
+    if (rack == null) {
+      rack = rackManager.getObject(rackId);
+      rackCache.putIfAbsent(rackId, rack);
     }
 
-    return rackCache.get(rackId);
+    return rack;
   }
 
 }
@@ -1,8 +1,8 @@
 package com.hubspot.singularity.scheduler;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -17,9 +17,16 @@ import org.apache.mesos.SchedulerDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import com.hubspot.mesos.JavaUtils;
@@ -34,6 +41,11 @@ import com.hubspot.singularity.data.TaskManager;
 import com.hubspot.singularity.mesos.SchedulerDriverSupplier;
 import com.hubspot.singularity.sentry.SingularityExceptionNotifier;
 
+/**
+ * Asks the Mesos master for the status of every active task, then checks on an interval which tasks haven't reported since, re-requesting
+ * their statuses until all have. The tasks left are tracked in memory, so each check only reads the statuses of those; re-requests are
+ * chunked, paced and backed off so that reconciling many tasks after a failover doesn't flood the master or our status update handling.
+ */
 @Singleton
 public class SingularityTaskReconciliation {
 
@@ -47,6 +59,11 @@ public class SingularityTaskReconciliation {
   private final SingularityAbort abort;
   private final SingularityExceptionNotifier exceptionNotifier;
   private final SchedulerDriverSupplier schedulerDriverSupplier;
+  private final Set<SingularityTaskId> remainingTaskIds;
+
+  private final Meter reconciledTasksMeter;
+  private final Meter requestedStatusesMeter;
+  private final Histogram checksHistogram;
 
   @Inject
   public SingularityTaskReconciliation(SingularityManagedScheduledExecutorServiceFactory executorServiceFactory,
@@ -55,7 +72,8 @@ public class SingularityTaskReconciliation {
       SingularityConfiguration configuration,
       @Named(SingularityMainModule.SERVER_ID_PROPERTY) String serverId,
       SingularityAbort abort,
-      SchedulerDriverSupplier schedulerDriverSupplier) {
+      SchedulerDriverSupplier schedulerDriverSupplier,
+      MetricRegistry registry) {
     this.taskManager = taskManager;
     this.serverId = serverId;
 
@@ -66,6 +84,20 @@ public class SingularityTaskReconciliation {
 
     this.isRunningReconciliation = new AtomicBoolean(false);
     this.executorService = executorServiceFactory.get(getClass().getSimpleName());
+    this.remainingTaskIds = Sets.newConcurrentHashSet();
+
+    this.reconciledTasksMeter = registry.meter("reconciliation.reconciledTasks");
+    this.requestedStatusesMeter = registry.meter("reconciliation.requestedStatuses");
+    this.checksHistogram = registry.histogram("reconciliation.checks");
+
+    registry.register("reconciliation.remainingTasks", new Gauge<Integer>() {
+
+      @Override
+      public Integer getValue() {
+        return remainingTaskIds.size();
+      }
+
+    });
   }
 
   enum ReconciliationState {
@@ -99,67 +131,150 @@ public class SingularityTaskReconciliation {
     SchedulerDriver driver = schedulerDriver.get();
     driver.reconcileTasks(Collections.<TaskStatus> emptyList());
 
-    scheduleReconciliationCheck(driver, reconciliationStart, activeTaskIds, 0);
+    remainingTaskIds.addAll(activeTaskIds);
+
+    scheduleReconciliationCheck(driver, new ReconciliationProgress(reconciliationStart, activeTaskIds.size(), configuration.getCheckReconcileWhenRunningEveryMillis()));
 
     return ReconciliationState.STARTED;
   }
 
-  private void scheduleReconciliationCheck(final SchedulerDriver driver, final long reconciliationStart, final Collection<SingularityTaskId> remainingTaskIds, final int numTimes) {
-    LOG.info("Scheduling reconciliation check #{} - {} tasks left - waiting {}", numTimes + 1, remainingTaskIds.size(), JavaUtils.durationFromMillis(configuration.getCheckReconcileWhenRunningEveryMillis()));
+  /**
+   * Tracks a reconciliation cycle between checks. Statuses are re-requested when a check finds tasks which haven't reported since the start
+   * of the cycle, at most once per requestBackoffMillis, which doubles after each re-request.
+   */
+  private static class ReconciliationProgress {
+
+    private final long reconciliationStart;
+    private final int numTasks;
+
+    private int numChecks;
+    private long requestBackoffMillis;
+    private long nextRequestAt;
+
+    ReconciliationProgress(long reconciliationStart, int numTasks, long requestBackoffMillis) {
+      this.reconciliationStart = reconciliationStart;
+      this.numTasks = numTasks;
+      this.requestBackoffMillis = requestBackoffMillis;
+    }
+
+  }
+
+  private void scheduleReconciliationCheck(final SchedulerDriver driver, final ReconciliationProgress progress) {
+    LOG.info("Scheduling reconciliation check #{} - {} tasks left - waiting {}", progress.numChecks + 1, remainingTaskIds.size(),
+        JavaUtils.durationFromMillis(configuration.getCheckReconcileWhenRunningEveryMillis()));
 
     executorService.schedule(new Runnable() {
 
       @Override
       public void run() {
         try {
-          checkReconciliation(driver, reconciliationStart, remainingTaskIds, numTimes + 1);
+          progress.numChecks++;
+          checkReconciliation(driver, progress);
         } catch (Throwable t) {
           LOG.error("While checking for reconciliation tasks", t);
           exceptionNotifier.notify(t);
+          remainingTaskIds.clear();
           abort.abort(AbortReason.UNRECOVERABLE_ERROR, Optional.of(t));
         }
       }
     }, configuration.getCheckReconcileWhenRunningEveryMillis(), TimeUnit.MILLISECONDS);
   }
 
-  private void checkReconciliation(final SchedulerDriver driver, final long reconciliationStart, final Collection<SingularityTaskId> remainingTaskIds, final int numTimes) {
-    final List<SingularityTaskStatusHolder> taskStatusHolders = taskManager.getLastActiveTaskStatusesFor(remainingTaskIds);
-    final List<TaskStatus> taskStatuses = Lists.newArrayListWithCapacity(taskStatusHolders.size());
+  private void checkReconciliation(final SchedulerDriver driver, final ReconciliationProgress progress) {
+    final int remainingBefore = remainingTaskIds.size();
+    final List<TaskStatus> taskStatuses = Lists.newArrayList();
 
-    for (SingularityTaskStatusHolder taskStatusHolder : taskStatusHolders) {
-      if (taskStatusHolder.getServerId().equals(serverId) && taskStatusHolder.getServerTimestamp() > reconciliationStart) {
-        continue;
-      }
+    // only the statuses of tasks which haven't reported yet are read, a chunk at a time
+    for (List<SingularityTaskId> chunk : Iterables.partition(Lists.newArrayList(remainingTaskIds), getChunkSize())) {
+      final Set<SingularityTaskId> notFound = Sets.newHashSet(chunk);
 
-      if (taskStatusHolder.getTaskStatus().isPresent()) {
-        LOG.debug("Re-requesting task status for {}", taskStatusHolder.getTaskId());
-        taskStatuses.add(taskStatusHolder.getTaskStatus().get());
-      } else {
-        TaskStatus.Builder fakeTaskStatusBuilder = TaskStatus.newBuilder()
-            .setTaskId(TaskID.newBuilder().setValue(taskStatusHolder.getTaskId().getId()))
-            .setState(TaskState.TASK_STARTING);
+      for (SingularityTaskStatusHolder taskStatusHolder : taskManager.getLastActiveTaskStatusesFor(chunk)) {
+        notFound.remove(taskStatusHolder.getTaskId());
 
-        if (taskStatusHolder.getSlaveId().isPresent()) {
-          fakeTaskStatusBuilder.setSlaveId(SlaveID.newBuilder().setValue(taskStatusHolder.getSlaveId().get()));
+        if (taskStatusHolder.getServerId().equals(serverId) && taskStatusHolder.getServerTimestamp() > progress.reconciliationStart) {
+          remainingTaskIds.remove(taskStatusHolder.getTaskId());
+          continue;
         }
 
-        LOG.info("Task {} didn't have a TaskStatus yet, submitting fake status", taskStatusHolder.getTaskId());
-        taskStatuses.add(fakeTaskStatusBuilder.build());
+        if (taskStatusHolder.getTaskStatus().isPresent()) {
+          LOG.debug("Re-requesting task status for {}", taskStatusHolder.getTaskId());
+          taskStatuses.add(taskStatusHolder.getTaskStatus().get());
+        } else {
+          TaskStatus.Builder fakeTaskStatusBuilder = TaskStatus.newBuilder()
+              .setTaskId(TaskID.newBuilder().setValue(taskStatusHolder.getTaskId().getId()))
+              .setState(TaskState.TASK_STARTING);
+
+          if (taskStatusHolder.getSlaveId().isPresent()) {
+            fakeTaskStatusBuilder.setSlaveId(SlaveID.newBuilder().setValue(taskStatusHolder.getSlaveId().get()));
+          }
+
+          LOG.info("Task {} didn't have a TaskStatus yet, submitting fake status", taskStatusHolder.getTaskId());
+          taskStatuses.add(fakeTaskStatusBuilder.build());
+        }
       }
+
+      // tasks without a last active status have finished since the cycle started
+      remainingTaskIds.removeAll(notFound);
     }
 
+    reconciledTasksMeter.mark(remainingBefore - remainingTaskIds.size());
+
     if (taskStatuses.isEmpty()) {
-      LOG.info("Task reconciliation ended after {} checks and {}", numTimes, JavaUtils.duration(reconciliationStart));
+      final long duration = System.currentTimeMillis() - progress.reconciliationStart;
+
+      LOG.info("Task reconciliation of {} tasks ended after {} checks and {} ({} tasks/s)", progress.numTasks, progress.numChecks, JavaUtils.durationFromMillis(duration),
+          String.format("%.1f", progress.numTasks * 1000.0 / Math.max(duration, 1)));
+
+      checksHistogram.update(progress.numChecks);
 
       isRunningReconciliation.set(false);
 
       return;
     }
 
-    LOG.info("Requesting reconciliation of {} taskStatuses, task reconciliation has been running for {}", taskStatuses.size(), JavaUtils.duration(reconciliationStart));
+    final long now = System.currentTimeMillis();
+
+    if (now >= progress.nextRequestAt) {
+      LOG.info("Requesting reconciliation of {} taskStatuses, task reconciliation has been running for {}", taskStatuses.size(), JavaUtils.duration(progress.reconciliationStart));
 
-    driver.reconcileTasks(taskStatuses);
+      requestTaskStatuses(driver, taskStatuses);
 
-    scheduleReconciliationCheck(driver, reconciliationStart, remainingTaskIds, numTimes);
+      progress.nextRequestAt = now + progress.requestBackoffMillis;
+      progress.requestBackoffMillis = Math.min(progress.requestBackoffMillis * 2, Math.max(configuration.getMaxReconcileRequestBackoffMillis(),
+          configuration.getCheckReconcileWhenRunningEveryMillis()));
+    } else {
+      LOG.info("{} tasks have not reported their status yet, re-requesting in {}", taskStatuses.size(), JavaUtils.durationFromMillis(progress.nextRequestAt - now));
+    }
+
+    scheduleReconciliationCheck(driver, progress);
   }
+
+  /**
+   * Requests the statuses in chunks of reconcileTasksChunkSize, pausing between them so the master (and then our status update handling)
+   * isn't asked for every task at once.
+   */
+  private void requestTaskStatuses(SchedulerDriver driver, List<TaskStatus> taskStatuses) {
+    boolean first = true;
+
+    for (List<TaskStatus> chunk : Lists.partition(taskStatuses, getChunkSize())) {
+      if (!first && configuration.getReconcileTasksChunkDelayMillis() > 0) {
+        try {
+          Thread.sleep(configuration.getReconcileTasksChunkDelayMillis());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw Throwables.propagate(e);
+        }
+      }
+
+      driver.reconcileTasks(chunk);
+      requestedStatusesMeter.mark(chunk.size());
+
+      first = false;
+    }
+  }
+
+  private int getChunkSize() {
+    return Math.max(configuration.getReconcileTasksChunkSize(), 1);
+  }
+
 }
@@ -0,0 +1,98 @@
+package com.hubspot.singularity.data;
+
+import org.apache.curator.utils.ZKPaths;
+import org.apache.mesos.Protos.TaskState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.hubspot.singularity.SingularityTask;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.data.transcoders.SingularityCompressionCodec;
+import com.hubspot.singularity.data.transcoders.Transcoder;
+import com.hubspot.singularity.scheduler.SingularitySchedulerTestBase;
+
+public class CompactTaskTranscoderTest extends SingularitySchedulerTestBase {
+
+  @Inject
+  private CompactTaskTranscoder compactTaskTranscoder;
+
+  @Inject
+  private Transcoder<SingularityTask> jsonTaskTranscoder;
+
+  public CompactTaskTranscoderTest() {
+    super(false);
+  }
+
+  private byte[] getStoredTask(SingularityTaskId taskId) throws Exception {
+    return cf.getData().forPath(ZKPaths.makePath(ZKPaths.makePath("/tasks/history", taskId.getRequestId()), ZKPaths.makePath(taskId.getId(), "TASK")));
+  }
+
+  private void assertSameTask(SingularityTask expected, SingularityTask actual) {
+    Assert.assertEquals(expected.getTaskId(), actual.getTaskId());
+    Assert.assertEquals(expected.getRackId(), actual.getRackId());
+    Assert.assertEquals(expected.getTaskRequest().getRequest(), actual.getTaskRequest().getRequest());
+    Assert.assertEquals(expected.getTaskRequest().getPendingTask(), actual.getTaskRequest().getPendingTask());
+    Assert.assertEquals(expected.getTaskRequest().getDeploy().getId(), actual.getTaskRequest().getDeploy().getId());
+    Assert.assertEquals(expected.getTaskRequest().getDeploy().getCommand(), actual.getTaskRequest().getDeploy().getCommand());
+    Assert.assertEquals(expected.getOffer(), actual.getOffer());
+    Assert.assertEquals(expected.getMesosTask(), actual.getMesosTask());
+  }
+
+  @Test
+  public void testCompactTasksRoundTrip() throws Exception {
+    configuration.setStoreTasksCompactly(true);
+
+    initRequest();
+    initFirstDeploy();
+
+    SingularityTask task = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+
+    byte[] stored = getStoredTask(task.getTaskId());
+
+    Assert.assertEquals(0, stored[0]);
+    Assert.assertTrue(stored.length < jsonTaskTranscoder.toBytes(task).length);
+
+    assertSameTask(task, compactTaskTranscoder.fromBytes(stored));
+  }
+
+  @Test
+  public void testJsonTasksAreStillRead() throws Exception {
+    initRequest();
+    initFirstDeploy();
+
+    SingularityTask task = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+
+    configuration.setStoreTasksCompactly(true);
+
+    byte[] stored = getStoredTask(task.getTaskId());
+
+    Assert.assertNotEquals(0, stored[0]);
+    assertSameTask(task, compactTaskTranscoder.fromBytes(stored));
+  }
+
+  @Test
+  public void testCompactTasksUseCodecForTasks() throws Exception {
+    configuration.setStoreTasksCompactly(true);
+    configuration.setCompressionCodecs(ImmutableMap.of(SingularityTask.class.getSimpleName(), SingularityCompressionCodec.DEFLATE));
+
+    initRequest();
+    initFirstDeploy();
+
+    SingularityTask task = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+
+    byte[] stored = getStoredTask(task.getTaskId());
+
+    Assert.assertEquals(SingularityCompressionCodec.DEFLATE.getMarker(), stored[2]);
+    assertSameTask(task, compactTaskTranscoder.fromBytes(stored));
+
+    configuration.setCompressionThresholdBytes(Integer.MAX_VALUE);
+
+    byte[] uncompressed = compactTaskTranscoder.toBytes(task);
+
+    Assert.assertEquals(0, uncompressed[2]);
+    assertSameTask(task, compactTaskTranscoder.fromBytes(uncompressed));
+  }
+
+}
@@ -0,0 +1,80 @@
+package com.hubspot.singularity.data;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.hubspot.singularity.RequestType;
+import com.hubspot.singularity.SingularityRequest;
+import com.hubspot.singularity.SingularityRequestBuilder;
+import com.hubspot.singularity.SingularityRequestHistory.RequestHistoryType;
+import com.hubspot.singularity.SingularityRequestWithState;
+import com.hubspot.singularity.scheduler.SingularitySchedulerTestBase;
+
+public class CuratorAsyncManagerTest extends SingularitySchedulerTestBase {
+
+  @Inject
+  private MetricRegistry metricRegistry;
+
+  public CuratorAsyncManagerTest() {
+    super(false);
+  }
+
+  @Test
+  public void testReadsMorePathsThanMaxInFlight() {
+    configuration.setZookeeperAsyncMaxInFlight(2);
+
+    final List<String> requestIds = Lists.newArrayList();
+
+    for (int i = 0; i < 25; i++) {
+      final SingularityRequest request = new SingularityRequestBuilder("request" + i, RequestType.WORKER).build();
+
+      requestManager.activate(request, RequestHistoryType.CREATED, System.currentTimeMillis(), Optional.<String> absent(), Optional.<String> absent());
+      requestIds.add(request.getId());
+    }
+
+    final List<String> readRequestIds = Lists.newArrayList();
+
+    for (SingularityRequestWithState requestWithState : requestManager.getRequests(requestIds)) {
+      readRequestIds.add(requestWithState.getRequest().getId());
+    }
+
+    Assert.assertEquals(requestIds, readRequestIds);
+    Assert.assertEquals(0, metricRegistry.meter("zk.async.timeouts").getCount());
+    Assert.assertTrue(metricRegistry.getHistograms().get("zk.async.requests.all").getCount() > 0);
+  }
+
+  @Test
+  public void testDeadlineReturnsPartialResultsToCallersWhoAcceptThem() {
+    final int numRequests = 100;
+
+    for (int i = 0; i < numRequests; i++) {
+      final SingularityRequest request = new SingularityRequestBuilder("request" + i, RequestType.WORKER).build();
+
+      requestManager.activate(request, RequestHistoryType.CREATED, System.currentTimeMillis(), Optional.<String> absent(), Optional.<String> absent());
+    }
+
+    // one call at a time can't read 100 requests in a millisecond, however quickly each response arrives
+    configuration.setZookeeperAsyncMaxInFlight(1);
+    configuration.setZookeeperAsyncDeadline(1);
+
+    final ZkBulkReadResult<SingularityRequestWithState> result = requestManager.getRequestsAllowingPartial();
+
+    Assert.assertFalse(result.isComplete());
+    Assert.assertTrue(result.getObjects().size() + result.getNumMissing() >= numRequests);
+    Assert.assertEquals(1, metricRegistry.meter("zk.async.timeouts").getCount());
+
+    try {
+      requestManager.getRequests();
+      Assert.fail("Expected the read to time out");
+    } catch (IllegalStateException ise) {
+      Assert.assertTrue(ise.getMessage().startsWith("Timed out"));
+    }
+  }
+
+}
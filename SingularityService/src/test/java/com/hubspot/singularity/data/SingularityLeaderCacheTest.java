@@ -0,0 +1,226 @@
+package com.hubspot.singularity.data;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.curator.utils.ZKPaths;
+import org.apache.mesos.Protos.TaskState;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+import com.hubspot.singularity.MachineState;
+import com.hubspot.singularity.SingularityMachineStateHistoryUpdate;
+import com.hubspot.singularity.SingularityPendingTask;
+import com.hubspot.singularity.SingularitySlave;
+import com.hubspot.singularity.SingularityTask;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.data.AbstractMachineManager.StateChangeResult;
+import com.hubspot.singularity.data.transcoders.Transcoder;
+import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
+import com.hubspot.singularity.scheduler.SingularitySchedulerTestBase;
+
+public class SingularityLeaderCacheTest extends SingularitySchedulerTestBase {
+
+  @Inject
+  private SingularityLeaderCache leaderCache;
+
+  @Inject
+  private SingularityLeaderCacheCoordinator leaderCacheCoordinator;
+
+  @Inject
+  private Transcoder<SingularitySlave> slaveTranscoder;
+
+  public SingularityLeaderCacheTest() {
+    super(false);
+  }
+
+  @Before
+  public void activateLeaderCache() {
+    leaderCacheCoordinator.activateLeaderCache();
+  }
+
+  @Test
+  public void testTaskWritesAreCached() {
+    initRequest();
+    initFirstDeploy();
+
+    Assert.assertTrue(leaderCache.active());
+
+    SingularityTask task = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+
+    Assert.assertTrue(leaderCache.isActiveTask(task.getTaskId()));
+    Assert.assertTrue(taskManager.isActiveTask(task.getTaskId().getId()));
+
+    taskManager.deleteActiveTask(task.getTaskId().getId());
+
+    Assert.assertFalse(leaderCache.isActiveTask(task.getTaskId()));
+    Assert.assertEquals(0, taskManager.getNumActiveTasks());
+  }
+
+  @Test
+  public void testStateCacheKeepsItsChangesOverTheLeaderCache() {
+    initRequest();
+    initFirstDeploy();
+
+    SingularityTask task = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+    SingularityTaskId launchedTaskId = new SingularityTaskId(requestId, firstDeployId, 2, 2, "host2", "rack1");
+
+    SingularitySchedulerStateCache stateCache = stateCacheProvider.get();
+
+    Assert.assertTrue(stateCache.getActiveTaskIds().contains(task.getTaskId()));
+
+    stateCache.removeActiveTaskId(task.getTaskId());
+    stateCache.addActiveTaskId(launchedTaskId);
+
+    Assert.assertFalse(stateCache.getActiveTaskIds().contains(task.getTaskId()));
+    Assert.assertTrue(leaderCache.isActiveTask(task.getTaskId()));
+    Assert.assertTrue(stateCache.getActiveTaskIds().contains(launchedTaskId));
+    Assert.assertFalse(leaderCache.isActiveTask(launchedTaskId));
+
+    // once the launched task is saved, the state cache still lists it once
+
+    leaderCache.putActiveTaskId(launchedTaskId);
+
+    Assert.assertEquals(1, stateCache.getActiveTaskIds().size());
+    Assert.assertEquals(1, stateCache.getPlacementIndex(requestId).getNumOnHost(firstDeployId, launchedTaskId.getSanitizedHost()));
+  }
+
+  @Test
+  public void testWatchAppliesChangesMadeOutsideTaskManager() throws Exception {
+    initRequest();
+    initFirstDeploy();
+
+    SingularityTask task = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+
+    cf.delete().forPath(ZKPaths.makePath(TaskManager.ACTIVE_PATH_ROOT, task.getTaskId().getId()));
+
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+
+    while (leaderCache.isActiveTask(task.getTaskId()) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+
+    Assert.assertTrue(taskManager.getActiveTaskIds().isEmpty());
+  }
+
+  @Test
+  public void testReconcileCorrectsDrift() {
+    initRequest();
+    initFirstDeploy();
+
+    SingularityTask task = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+    SingularityTaskId missingTaskId = new SingularityTaskId(requestId, firstDeployId, System.currentTimeMillis(), 2, "host", "rack");
+
+    leaderCache.putActiveTaskId(missingTaskId);
+    leaderCache.deleteActiveTaskId(task.getTaskId());
+
+    leaderCacheCoordinator.reconcileLeaderCache();
+
+    Assert.assertEquals(1, taskManager.getNumActiveTasks());
+    Assert.assertTrue(taskManager.isActiveTask(task.getTaskId().getId()));
+    Assert.assertFalse(taskManager.isActiveTask(missingTaskId.getId()));
+  }
+
+  @Test
+  public void testDuePendingTasksAreReadInRunOrder() {
+    initRequest();
+    initFirstDeploy();
+
+    final long now = System.currentTimeMillis();
+
+    taskManager.savePendingTask(buildPendingTask(request, firstDeploy, now + TimeUnit.HOURS.toMillis(1), 1));
+    taskManager.savePendingTask(buildPendingTask(request, firstDeploy, now - 10, 2));
+    taskManager.savePendingTask(buildPendingTask(request, firstDeploy, now - 20, 3));
+
+    List<SingularityPendingTask> dueTasks = taskManager.getDuePendingTasks(now);
+
+    Assert.assertEquals(2, dueTasks.size());
+    Assert.assertEquals(3, dueTasks.get(0).getPendingTaskId().getInstanceNo());
+    Assert.assertEquals(2, dueTasks.get(1).getPendingTaskId().getInstanceNo());
+    Assert.assertEquals(3, taskManager.getPendingTasks().size());
+  }
+
+  @Test
+  public void testStoppedCacheReadsFromZooKeeper() {
+    initRequest();
+    initFirstDeploy();
+
+    SingularityTask task = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+
+    leaderCacheCoordinator.stopLeaderCache();
+
+    Assert.assertFalse(leaderCache.active());
+    Assert.assertEquals(0, leaderCache.getNumActiveTasks());
+    Assert.assertTrue(taskManager.isActiveTask(task.getTaskId().getId()));
+  }
+
+  @Test
+  public void testMachineStatesAreCached() {
+    resourceOffers(3);
+
+    Assert.assertTrue(leaderCache.getSlaves().active());
+    Assert.assertEquals(3, leaderCache.getSlaves().getNumAtState(MachineState.ACTIVE));
+    Assert.assertEquals(1, leaderCache.getRacks().getNumAtState(MachineState.ACTIVE));
+
+    Assert.assertEquals(StateChangeResult.SUCCESS, slaveManager.changeState("slave1", MachineState.STARTING_DECOMMISSION, Optional.<String> absent(), Optional.of("user1")));
+
+    Assert.assertEquals(2, slaveManager.getNumObjectsAtState(MachineState.ACTIVE));
+    Assert.assertEquals(1, slaveManager.getNumObjectsAtState(MachineState.STARTING_DECOMMISSION));
+    Assert.assertEquals("slave1", slaveManager.getObjectsFiltered(MachineState.STARTING_DECOMMISSION).get(0).getId());
+
+    slaveManager.deleteObject("slave1");
+
+    Assert.assertEquals(0, slaveManager.getNumObjectsAtState(MachineState.STARTING_DECOMMISSION));
+    Assert.assertFalse(slaveManager.getObject("slave1").isPresent());
+    Assert.assertEquals(2, slaveManager.getObjects().size());
+  }
+
+  @Test
+  public void testWatchAppliesMachineStateChangesMadeByOtherInstances() throws Exception {
+    resourceOffers(2);
+
+    final SingularitySlave slave = slaveManager.getObject("slave1").get();
+    final SingularityMachineStateHistoryUpdate decommission = new SingularityMachineStateHistoryUpdate("slave1", MachineState.STARTING_DECOMMISSION,
+        System.currentTimeMillis(), Optional.of("user1"), Optional.<String> absent());
+
+    cf.setData().forPath(ZKPaths.makePath(SlaveManager.SLAVE_ROOT, "slave1"), slaveTranscoder.toBytes(slave.changeState(decommission)));
+    cf.delete().deletingChildrenIfNeeded().forPath(ZKPaths.makePath(SlaveManager.SLAVE_ROOT, "slave2"));
+
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+
+    while ((slaveManager.getNumObjectsAtState(MachineState.STARTING_DECOMMISSION) == 0 || slaveManager.getObject("slave2").isPresent())
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+
+    Assert.assertEquals(MachineState.STARTING_DECOMMISSION, slaveManager.getObject("slave1").get().getCurrentState().getState());
+    Assert.assertFalse(slaveManager.getObject("slave2").isPresent());
+    Assert.assertEquals(0, slaveManager.getNumObjectsAtState(MachineState.ACTIVE));
+  }
+
+  @Test
+  public void testWatchIgnoresMachineNodesWithoutData() {
+    resourceOffers(2);
+
+    slaveManager.refreshLeaderCachedObject("slave3", new byte[0]);
+
+    Assert.assertEquals(2, slaveManager.getNumObjectsAtState(MachineState.ACTIVE));
+    Assert.assertFalse(slaveManager.getObject("slave3").isPresent());
+  }
+
+  @Test
+  public void testReconcileCorrectsMachineDrift() {
+    resourceOffers(2);
+
+    leaderCache.getSlaves().remove("slave1");
+
+    leaderCacheCoordinator.reconcileLeaderCache();
+
+    Assert.assertEquals(2, slaveManager.getNumObjectsAtState(MachineState.ACTIVE));
+    Assert.assertTrue(slaveManager.getObject("slave1").isPresent());
+  }
+
+}
@@ -0,0 +1,114 @@
+package com.hubspot.singularity.data;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.hubspot.singularity.RequestState;
+import com.hubspot.singularity.RequestType;
+import com.hubspot.singularity.SingularityRequest;
+import com.hubspot.singularity.SingularityRequestBuilder;
+import com.hubspot.singularity.SingularityRequestHistory.RequestHistoryType;
+import com.hubspot.singularity.SingularityRequestWithState;
+import com.hubspot.singularity.data.SingularityZkMirror.ConsistentReads;
+import com.hubspot.singularity.data.transcoders.Transcoder;
+import com.hubspot.singularity.scheduler.SingularitySchedulerTestBase;
+
+public class SingularityZkMirrorTest extends SingularitySchedulerTestBase {
+
+  private static final String MIRRORED_PATH = "/requests/all";
+
+  @Inject
+  private SingularityZkMirror zkMirror;
+
+  @Inject
+  private Transcoder<SingularityRequestWithState> requestTranscoder;
+
+  public SingularityZkMirrorTest() {
+    super(false);
+  }
+
+  @Before
+  public void startMirror() throws Exception {
+    if (cf.checkExists().forPath(MIRRORED_PATH) == null) {
+      cf.create().creatingParentsIfNeeded().forPath(MIRRORED_PATH);
+    }
+
+    configuration.setZkMirrorPaths(ImmutableList.of(MIRRORED_PATH));
+    zkMirror.start();
+
+    awaitMirrored(MIRRORED_PATH);
+  }
+
+  private void awaitMirrored(String path) {
+    final long start = System.currentTimeMillis();
+
+    while (!zkMirror.servesChildren(path)) {
+      Assert.assertTrue("Timed out waiting for the mirror", System.currentTimeMillis() - start < 10000);
+      sleep(10);
+    }
+  }
+
+  private SingularityRequest newRequest(String id) {
+    return new SingularityRequestBuilder(id, RequestType.WORKER).build();
+  }
+
+  private void saveFromAnotherInstance(SingularityRequest request) throws Exception {
+    cf.create().forPath(MIRRORED_PATH + "/" + request.getId(), requestTranscoder.toBytes(new SingularityRequestWithState(request, RequestState.ACTIVE, System.currentTimeMillis())));
+  }
+
+  @Test
+  public void testReadsOwnWrites() {
+    final SingularityRequest request = newRequest("own-write");
+
+    requestManager.activate(request, RequestHistoryType.CREATED, System.currentTimeMillis(), Optional.<String> absent(), Optional.<String> absent());
+
+    Assert.assertEquals(request, requestManager.getRequest(request.getId()).get().getRequest());
+    Assert.assertEquals(ImmutableList.of(request.getId()), requestManager.getAllRequestIds());
+
+    requestManager.deleteRequest(request, Optional.<String> absent(), Optional.<String> absent(), Optional.<String> absent());
+
+    Assert.assertFalse(requestManager.getRequest(request.getId()).isPresent());
+    Assert.assertTrue(requestManager.getAllRequestIds().isEmpty());
+  }
+
+  @Test
+  public void testServesOtherInstancesWritesOnceMirrored() throws Exception {
+    final SingularityRequest request = newRequest("other-write");
+
+    saveFromAnotherInstance(request);
+
+    final long start = System.currentTimeMillis();
+
+    while (!requestManager.getRequest(request.getId()).isPresent()) {
+      Assert.assertTrue("Timed out waiting for the mirror", System.currentTimeMillis() - start < 10000);
+      sleep(10);
+    }
+
+    Assert.assertTrue(zkMirror.servesData(MIRRORED_PATH + "/" + request.getId()));
+    Assert.assertEquals(request, requestManager.getRequests().get(0).getRequest());
+  }
+
+  @Test
+  public void testConsistentReadsBypassMirror() throws Exception {
+    final SingularityRequest request = newRequest("consistent");
+
+    final ConsistentReads consistentReads = zkMirror.consistentReads();
+
+    try {
+      Assert.assertFalse(zkMirror.servesData(MIRRORED_PATH));
+
+      saveFromAnotherInstance(request);
+
+      Assert.assertEquals(request, requestManager.getRequest(request.getId()).get().getRequest());
+    } finally {
+      consistentReads.close();
+    }
+
+    Assert.assertTrue(zkMirror.servesChildren(MIRRORED_PATH));
+  }
+
+}
@@ -0,0 +1,47 @@
+package com.hubspot.singularity.data;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+public class ZkCacheTest {
+
+  private static long getBytes(MetricRegistry registry) {
+    return (Long) registry.getGauges().get("zk.caches.test.bytes").getValue();
+  }
+
+  @Test
+  public void testBoundedBySerializedSize() {
+    final MetricRegistry registry = new MetricRegistry();
+    final ZkCache<String> cache = new ZkCache<>(1000, 500, 10, 60000, registry, "test");
+
+    for (int i = 0; i < 10; i++) {
+      cache.set("/path/" + i, "object" + i, 100);
+    }
+
+    Assert.assertTrue(getBytes(registry) <= 500);
+    Assert.assertTrue(registry.meter("zk.caches.test.evictions").getCount() >= 5);
+    Assert.assertTrue(cache.get("/path/9").isPresent());
+  }
+
+  @Test
+  public void testTracksResidentBytes() {
+    final MetricRegistry registry = new MetricRegistry();
+    final ZkCache<String> cache = new ZkCache<>(1000, 0, 10, 60000, registry, "test");
+
+    cache.set("/path/1", "object", 100);
+    cache.set("/path/2", "object", 50);
+    cache.set("/path/1", "replaced", 20);
+
+    Assert.assertEquals(70, getBytes(registry));
+    Assert.assertEquals("replaced", cache.get("/path/1").get());
+
+    cache.delete("/path/2");
+
+    Assert.assertEquals(20, getBytes(registry));
+    Assert.assertFalse(cache.get("/path/2").isPresent());
+    Assert.assertEquals(0, registry.meter("zk.caches.test.evictions").getCount());
+  }
+
+}
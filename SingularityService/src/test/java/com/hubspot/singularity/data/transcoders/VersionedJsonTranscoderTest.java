@@ -0,0 +1,150 @@
+package com.hubspot.singularity.data.transcoders;
+
+import org.apache.mesos.Protos.TaskState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.hubspot.singularity.SingularityDeploy;
+import com.hubspot.singularity.SingularityRequest;
+import com.hubspot.singularity.SingularityTask;
+import com.hubspot.singularity.scheduler.SingularitySchedulerTestBase;
+
+public class VersionedJsonTranscoderTest extends SingularitySchedulerTestBase {
+
+  @Inject
+  private Transcoder<SingularityDeploy> deployTranscoder;
+
+  @Inject
+  private Transcoder<SingularityRequest> requestTranscoder;
+
+  @Inject
+  @Named(SingularityTranscoderModule.HISTORY)
+  private Transcoder<SingularityRequest> requestHistoryTranscoder;
+
+  public VersionedJsonTranscoderTest() {
+    super(false);
+  }
+
+  private void assertSameDeploy(SingularityDeploy expected, SingularityDeploy actual) {
+    Assert.assertEquals(expected.getId(), actual.getId());
+    Assert.assertEquals(expected.getRequestId(), actual.getRequestId());
+    Assert.assertEquals(expected.getCommand(), actual.getCommand());
+  }
+
+  @Test
+  public void testReadsDataWithAndWithoutHeader() throws Exception {
+    initRequest();
+    initFirstDeploy();
+
+    final byte[] legacy = deployTranscoder.toBytes(firstDeploy);
+
+    configuration.setStoreDataWithFormatHeader(true);
+    configuration.setCompressionThresholdBytes(0);
+
+    final byte[] headered = deployTranscoder.toBytes(firstDeploy);
+
+    Assert.assertFalse(VersionedJsonTranscoder.hasFormatHeader(legacy));
+    Assert.assertTrue(VersionedJsonTranscoder.hasFormatHeader(headered));
+    Assert.assertEquals(SingularityCompressionCodec.SNAPPY.getMarker(), headered[3]);
+
+    assertSameDeploy(firstDeploy, deployTranscoder.fromBytes(legacy));
+    assertSameDeploy(firstDeploy, deployTranscoder.fromBytes(headered));
+
+    final byte[] headeredRequest = requestTranscoder.toBytes(request);
+
+    Assert.assertEquals(VersionedJsonTranscoder.COMPRESSION_NONE, headeredRequest[3]);
+    Assert.assertEquals(request, requestTranscoder.fromBytes(headeredRequest));
+
+    SingularityTask task = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+
+    Assert.assertEquals(task.getTaskId(), taskManager.getTask(task.getTaskId()).get().getTaskId());
+  }
+
+  @Test
+  public void testCompressionIsReadFromHeader() throws Exception {
+    initRequest();
+    initFirstDeploy();
+
+    configuration.setStoreDataWithFormatHeader(true);
+    configuration.setCompressionThresholdBytes(0);
+
+    final byte[] compressed = deployTranscoder.toBytes(firstDeploy);
+
+    configuration.setCompressLargeDataObjects(false);
+
+    final byte[] uncompressed = deployTranscoder.toBytes(firstDeploy);
+
+    Assert.assertEquals(VersionedJsonTranscoder.COMPRESSION_NONE, uncompressed[3]);
+
+    assertSameDeploy(firstDeploy, deployTranscoder.fromBytes(compressed));
+    assertSameDeploy(firstDeploy, deployTranscoder.fromBytes(uncompressed));
+  }
+
+  @Test
+  public void testCompressesAboveThresholdWithCodecForType() throws Exception {
+    initRequest();
+    initFirstDeploy();
+
+    configuration.setStoreDataWithFormatHeader(true);
+    configuration.setCompressionThresholdBytes(Integer.MAX_VALUE);
+
+    final byte[] belowThreshold = deployTranscoder.toBytes(firstDeploy);
+
+    Assert.assertEquals(VersionedJsonTranscoder.COMPRESSION_NONE, belowThreshold[3]);
+
+    configuration.setCompressionThresholdBytes(0);
+    configuration.setCompressionCodecs(ImmutableMap.of(SingularityDeploy.class.getSimpleName(), SingularityCompressionCodec.DEFLATE));
+
+    final byte[] deflated = deployTranscoder.toBytes(firstDeploy);
+
+    Assert.assertEquals(SingularityCompressionCodec.DEFLATE.getMarker(), deflated[3]);
+    Assert.assertTrue(deflated.length < belowThreshold.length);
+
+    assertSameDeploy(firstDeploy, deployTranscoder.fromBytes(belowThreshold));
+    assertSameDeploy(firstDeploy, deployTranscoder.fromBytes(deflated));
+  }
+
+  @Test
+  public void testHistoryIsStoredWithoutHeader() throws Exception {
+    initRequest();
+
+    configuration.setStoreDataWithFormatHeader(true);
+
+    final byte[] headered = requestTranscoder.toBytes(request);
+    final byte[] history = requestHistoryTranscoder.toBytes(request);
+
+    Assert.assertTrue(VersionedJsonTranscoder.hasFormatHeader(headered));
+    Assert.assertFalse(VersionedJsonTranscoder.hasFormatHeader(history));
+
+    Assert.assertEquals(request, requestHistoryTranscoder.fromBytes(history));
+    Assert.assertEquals(request, requestHistoryTranscoder.fromBytes(headered));
+  }
+
+  @Test
+  public void testCompressionSettingsApplyWithoutFormatHeaderFlag() throws Exception {
+    initRequest();
+    initFirstDeploy();
+
+    Assert.assertFalse(VersionedJsonTranscoder.hasFormatHeader(deployTranscoder.toBytes(firstDeploy)));
+
+    configuration.setCompressionCodecs(ImmutableMap.of(SingularityDeploy.class.getSimpleName(), SingularityCompressionCodec.DEFLATE));
+
+    final byte[] deflated = deployTranscoder.toBytes(firstDeploy);
+
+    Assert.assertEquals(SingularityCompressionCodec.DEFLATE.getMarker(), deflated[3]);
+    assertSameDeploy(firstDeploy, deployTranscoder.fromBytes(deflated));
+
+    configuration.setCompressionThresholdBytes(Integer.MAX_VALUE);
+
+    final byte[] belowThreshold = deployTranscoder.toBytes(firstDeploy);
+
+    Assert.assertEquals(VersionedJsonTranscoder.COMPRESSION_NONE, belowThreshold[3]);
+    assertSameDeploy(firstDeploy, deployTranscoder.fromBytes(belowThreshold));
+
+    Assert.assertFalse(VersionedJsonTranscoder.hasFormatHeader(requestTranscoder.toBytes(request)));
+  }
+
+}
@@ -0,0 +1,106 @@
+package com.hubspot.singularity.mesos;
+
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.mesos.Protos.Filters;
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.TaskInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.inject.Inject;
+import com.hubspot.singularity.scheduler.SingularitySchedulerTestBase;
+
+public class SingularityOfferBufferTest extends SingularitySchedulerTestBase {
+
+  public SingularityOfferBufferTest() {
+    super(false);
+  }
+
+  @Inject
+  private SingularityOfferBuffer offerBuffer;
+
+  @Test
+  public void testUnusedOfferIsHeldAndReused() {
+    configuration.setOfferHoldMillis(60000);
+
+    Offer offer = createOffer(20, 20000, "slave1", "host1");
+
+    sms.resourceOffers(driver, Arrays.asList(offer));
+
+    verify(driver, never()).declineOffer(offer.getId());
+    Assert.assertTrue(offerBuffer.hasHeldOffers());
+
+    initRequest();
+    initFirstDeploy();
+
+    saveAndSchedule(request.toBuilder());
+
+    sms.resourceOffers(driver, Collections.<Offer>emptyList());
+
+    verify(driver).launchTasks(eq(Arrays.asList(offer.getId())), anyCollectionOf(TaskInfo.class));
+    Assert.assertFalse(offerBuffer.hasHeldOffers());
+    Assert.assertEquals(1, taskManager.getActiveTaskIds().size());
+  }
+
+  @Test
+  public void testRescindedOfferIsNotReused() {
+    configuration.setOfferHoldMillis(60000);
+
+    Offer offer = createOffer(20, 20000, "slave1", "host1");
+
+    sms.resourceOffers(driver, Arrays.asList(offer));
+    sms.offerRescinded(driver, offer.getId());
+
+    Assert.assertFalse(offerBuffer.hasHeldOffers());
+
+    initRequest();
+    initFirstDeploy();
+
+    saveAndSchedule(request.toBuilder());
+
+    sms.resourceOffers(driver, Collections.<Offer>emptyList());
+
+    verify(driver, never()).launchTasks(eq(Arrays.asList(offer.getId())), anyCollectionOf(TaskInfo.class));
+    Assert.assertTrue(taskManager.getActiveTaskIds().isEmpty());
+  }
+
+  @Test
+  public void testExpiredOfferIsDeclinedWithFilter() {
+    configuration.setOfferHoldMillis(1);
+    configuration.setOfferDeclineRefuseSeconds(30);
+
+    Offer offer = createOffer(20, 20000, "slave1", "host1");
+
+    sms.resourceOffers(driver, Arrays.asList(offer));
+
+    try {
+      Thread.sleep(5);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+
+    sms.resourceOffers(driver, Collections.<Offer>emptyList());
+
+    verify(driver).declineOffer(offer.getId(), Filters.newBuilder().setRefuseSeconds(30).build());
+    verify(driver, never()).declineOffer(offer.getId());
+    Assert.assertFalse(offerBuffer.hasHeldOffers());
+  }
+
+  @Test
+  public void testUnusedOfferIsDeclinedImmediatelyWithoutHoldWindow() {
+    Offer offer = createOffer(20, 20000, "slave1", "host1");
+
+    sms.resourceOffers(driver, Arrays.asList(offer));
+
+    verify(driver).declineOffer(offer.getId());
+    Assert.assertFalse(offerBuffer.hasHeldOffers());
+  }
+
+}
@@ -0,0 +1,215 @@
+package com.hubspot.singularity.mesos;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.mesos.Protos.Offer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.google.inject.Inject;
+import com.hubspot.singularity.ExtendedTaskState;
+import com.hubspot.singularity.SingularityPendingTaskId;
+import com.hubspot.singularity.SingularityTask;
+import com.hubspot.singularity.SingularityTaskOfferRejections;
+import com.hubspot.singularity.SingularityTaskRequest;
+import com.hubspot.singularity.SlaveMatchState;
+import com.hubspot.singularity.SlavePlacement;
+import com.hubspot.singularity.scheduler.SingularitySchedulerStateCache;
+import com.hubspot.singularity.scheduler.SingularitySchedulerTestBase;
+
+public class SingularityOfferMatchStrategyTest extends SingularitySchedulerTestBase {
+
+  public SingularityOfferMatchStrategyTest() {
+    super(false);
+  }
+
+  @Inject
+  private SingularityBestFitOfferMatchStrategy bestFitStrategy;
+
+  @Inject
+  private SingularityFirstFitOfferMatchStrategy firstFitStrategy;
+
+  @Inject
+  private SingularitySlaveAndRackManager slaveAndRackManager;
+
+  @Inject
+  private SingularityOfferMatcher offerMatcher;
+
+  @Inject
+  private MetricRegistry registry;
+
+  private SingularityOfferHolder createOfferHolder(double cpus, double memory, String slave, String host) {
+    Offer offer = createOffer(cpus, memory, slave, host);
+    slaveAndRackManager.checkOffer(offer);
+    return new SingularityOfferHolder(offer, 3);
+  }
+
+  @Test
+  public void testBestFitPacksSmallestMatchingOffer() {
+    initRequest();
+    initFirstDeploy();
+
+    saveAndSchedule(request.toBuilder().setInstances(Optional.of(2)));
+
+    SingularityOfferHolder largeOffer = createOfferHolder(20, 20000, "slave1", "host1");
+    SingularityOfferHolder smallOffer = createOfferHolder(2, 256, "slave2", "host2");
+
+    List<SingularityTaskRequest> taskRequests = scheduler.getDueTasks();
+
+    SingularitySchedulerStateCache stateCache = stateCacheProvider.get();
+
+    bestFitStrategy.matchOffers(taskRequests, Arrays.asList(largeOffer, smallOffer), stateCache);
+
+    Assert.assertTrue(taskRequests.isEmpty());
+    Assert.assertEquals(0, largeOffer.getAcceptedTasks().size());
+    Assert.assertEquals(2, smallOffer.getAcceptedTasks().size());
+    Assert.assertEquals(2, stateCache.getActiveTaskIds().size());
+  }
+
+  @Test
+  public void testBestFitRespectsSlavePlacement() {
+    initRequest();
+    initFirstDeploy();
+
+    saveAndSchedule(request.toBuilder().setInstances(Optional.of(2)).setSlavePlacement(Optional.of(SlavePlacement.SEPARATE)));
+
+    SingularityOfferHolder largeOffer = createOfferHolder(20, 20000, "slave1", "host1");
+    SingularityOfferHolder smallOffer = createOfferHolder(2, 256, "slave2", "host2");
+
+    List<SingularityTaskRequest> taskRequests = scheduler.getDueTasks();
+
+    bestFitStrategy.matchOffers(taskRequests, Arrays.asList(largeOffer, smallOffer), stateCacheProvider.get());
+
+    Assert.assertTrue(taskRequests.isEmpty());
+    Assert.assertEquals(1, largeOffer.getAcceptedTasks().size());
+    Assert.assertEquals(1, smallOffer.getAcceptedTasks().size());
+  }
+
+  @Test
+  public void testParallelBestFitIsDeterministic() {
+    configuration.setParallelOfferMatching(true);
+    configuration.setOfferMatchParallelism(2);
+
+    try {
+      initRequest();
+      initFirstDeploy();
+
+      saveAndSchedule(request.toBuilder().setInstances(Optional.of(3)));
+
+      SingularityOfferHolder largeOffer = createOfferHolder(20, 20000, "slave1", "host1");
+      SingularityOfferHolder firstSmallOffer = createOfferHolder(2, 256, "slave2", "host2");
+      SingularityOfferHolder secondSmallOffer = createOfferHolder(2, 256, "slave3", "host3");
+      SingularityOfferHolder mediumOffer = createOfferHolder(4, 1024, "slave4", "host4");
+
+      List<SingularityTaskRequest> taskRequests = scheduler.getDueTasks();
+
+      bestFitStrategy.matchOffers(taskRequests, Arrays.asList(largeOffer, firstSmallOffer, secondSmallOffer, mediumOffer), stateCacheProvider.get());
+
+      Assert.assertTrue(taskRequests.isEmpty());
+      Assert.assertEquals(0, largeOffer.getAcceptedTasks().size());
+      Assert.assertEquals(2, firstSmallOffer.getAcceptedTasks().size());
+      Assert.assertEquals(1, secondSmallOffer.getAcceptedTasks().size());
+      Assert.assertEquals(0, mediumOffer.getAcceptedTasks().size());
+    } finally {
+      configuration.setParallelOfferMatching(false);
+    }
+  }
+
+  @Test
+  public void testFirstFitLaunchesEveryTaskThatFits() {
+    initRequest();
+    initFirstDeploy();
+
+    saveAndSchedule(request.toBuilder().setInstances(Optional.of(3)));
+
+    SingularityOfferHolder offer = createOfferHolder(2, 20000, "slave1", "host1");
+
+    List<SingularityTaskRequest> taskRequests = scheduler.getDueTasks();
+    SingularitySchedulerStateCache stateCache = stateCacheProvider.get();
+
+    firstFitStrategy.matchOffers(taskRequests, Arrays.asList(offer), stateCache);
+
+    Assert.assertEquals(1, taskRequests.size());
+    Assert.assertEquals(2, offer.getAcceptedTasks().size());
+    Assert.assertEquals(2, stateCache.getActiveTaskIds().size());
+  }
+
+  @Test
+  public void testAcceptedTasksAreSavedInBatches() {
+    configuration.setTaskLaunchTransactionBatchSize(2);
+
+    initRequest();
+    initFirstDeploy();
+
+    saveAndSchedule(request.toBuilder().setInstances(Optional.of(5)));
+
+    SingularityOfferHolder offer = createOfferHolder(20, 20000, "slave1", "host1");
+
+    List<SingularityTaskRequest> taskRequests = scheduler.getDueTasks();
+    SingularitySchedulerStateCache stateCache = stateCacheProvider.get();
+
+    firstFitStrategy.matchOffers(taskRequests, Arrays.asList(offer), stateCache);
+
+    Assert.assertEquals(5, offer.getAcceptedTasks().size());
+    Assert.assertTrue(taskManager.getActiveTaskIds().isEmpty());
+
+    // a missing pending task fails its batch, whose tasks are then saved individually
+    taskManager.deletePendingTask(offer.getAcceptedTasks().get(0).getTaskRequest().getPendingTask().getPendingTaskId());
+
+    offerMatcher.saveAcceptedTasks(Arrays.asList(offer), stateCache);
+
+    Assert.assertEquals(5, offer.getAcceptedTasks().size());
+    Assert.assertEquals(5, taskManager.getActiveTaskIds().size());
+    Assert.assertTrue(taskManager.getPendingTasks().isEmpty());
+
+    for (SingularityTask task : offer.getAcceptedTasks()) {
+      Assert.assertEquals(ExtendedTaskState.TASK_LAUNCHED, taskManager.getTaskHistoryUpdates(task.getTaskId()).get(0).getTaskState());
+      Assert.assertTrue(taskManager.getLastActiveTaskStatus(task.getTaskId()).isPresent());
+      Assert.assertTrue(taskManager.getTask(task.getTaskId()).isPresent());
+    }
+  }
+
+  @Test
+  public void testOfferRejectionsAreRecorded() {
+    initRequest();
+    initFirstDeploy();
+
+    saveAndSchedule(request.toBuilder().setInstances(Optional.of(1)));
+
+    sms.resourceOffers(driver, Arrays.asList(createOffer(0.1, 1, "slave1", "host1")));
+
+    List<SingularityPendingTaskId> pendingTaskIds = taskManager.getPendingTaskIds();
+
+    Assert.assertEquals(1, pendingTaskIds.size());
+
+    SingularityTaskOfferRejections rejections = taskResource.getPendingTaskOfferRejections(pendingTaskIds.get(0).getId());
+
+    Assert.assertEquals(1, rejections.getOffersEvaluated());
+    Assert.assertEquals(Long.valueOf(1), rejections.getRejectionsByReason().get(SlaveMatchState.RESOURCES_DO_NOT_MATCH));
+    Assert.assertEquals(SlaveMatchState.RESOURCES_DO_NOT_MATCH, rejections.getRejectionsByHost().get("host1"));
+
+    Assert.assertEquals(Long.valueOf(1), taskResource.getRequestOfferRejections(requestId).get(SlaveMatchState.RESOURCES_DO_NOT_MATCH));
+    Assert.assertEquals(Long.valueOf(1), slaveResource.getSlaveOfferRejections("slave1").get(SlaveMatchState.RESOURCES_DO_NOT_MATCH));
+
+    Assert.assertEquals(1, registry.counter("offers.rejections.RESOURCES_DO_NOT_MATCH").getCount());
+    Assert.assertEquals(1, registry.timer("offers.phase.matchOffers").getCount());
+    Assert.assertEquals(1, registry.histogram("offers.cycle.evaluations").getCount());
+    Assert.assertEquals(1L, registry.getGauges().get("offers.rejections.request." + requestId).getValue());
+    Assert.assertEquals(1L, registry.getGauges().get("offers.rejections.slave.slave1").getValue());
+
+    // only the last cycle is kept: once the task launches nothing is rejected for the request or slave any more
+
+    sms.resourceOffers(driver, Arrays.asList(createOffer(20, 20000, "slave1", "host1")));
+
+    Assert.assertTrue(taskManager.getPendingTaskIds().isEmpty());
+    Assert.assertTrue(taskResource.getRequestOfferRejections(requestId).isEmpty());
+    Assert.assertTrue(slaveResource.getSlaveOfferRejections("slave1").isEmpty());
+    Assert.assertFalse(registry.getGauges().containsKey("offers.rejections.request." + requestId));
+    Assert.assertFalse(registry.getGauges().containsKey("offers.rejections.slave.slave1"));
+    Assert.assertEquals(1, registry.counter("offers.rejections.RESOURCES_DO_NOT_MATCH").getCount());
+  }
+
+}
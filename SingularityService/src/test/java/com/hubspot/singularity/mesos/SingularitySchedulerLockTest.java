@@ -0,0 +1,156 @@
+package com.hubspot.singularity.mesos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskState;
+import org.apache.mesos.Protos.TaskStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.hubspot.singularity.config.SingularityConfiguration;
+
+public class SingularitySchedulerLockTest {
+
+  private MetricRegistry registry;
+  private SingularitySchedulerLock lock;
+
+  @Before
+  public void setup() {
+    registry = new MetricRegistry();
+    lock = new SingularitySchedulerLock(new SingularityConfiguration(), registry);
+  }
+
+  @Test
+  public void testDifferentRequestsDoNotBlockEachOther() throws Exception {
+    lock.lockRequest("request1", "test");
+
+    try {
+      assertTrue(acquiresRequestLock("request2", 5));
+    } finally {
+      lock.unlockRequest("request1");
+    }
+  }
+
+  @Test
+  public void testSameRequestIsExclusive() throws Exception {
+    lock.lockRequest("request1", "test");
+
+    try {
+      assertFalse(acquiresRequestLock("request1", 1));
+    } finally {
+      lock.unlockRequest("request1");
+    }
+  }
+
+  @Test
+  public void testGlobalLockExcludesRequestLocks() throws Exception {
+    lock.lock("test");
+
+    try {
+      assertFalse(acquiresRequestLock("request1", 1));
+    } finally {
+      lock.unlock();
+    }
+
+    assertTrue(acquiresRequestLock("request1", 5));
+  }
+
+  @Test
+  public void testRequestLockCountsAsHeld() {
+    assertFalse(lock.isHeldByCurrentThread());
+
+    lock.lockRequest("request1", "test");
+
+    try {
+      assertTrue(lock.isHeldByCurrentThread());
+    } finally {
+      lock.unlockRequest("request1");
+    }
+
+    lock.lock("test");
+
+    try {
+      assertTrue(lock.isHeldByCurrentThread());
+    } finally {
+      lock.unlock();
+    }
+
+    assertFalse(lock.isHeldByCurrentThread());
+  }
+
+  @Test
+  public void testOnlyUpdatesToRunningTasksTakeTheRequestLock() {
+    final String taskId = "request1-deploy1-1-1-host1-rack1";
+
+    final Optional<String> running = lock.lockStatusUpdate(status(taskId, TaskState.TASK_RUNNING), "test");
+    assertEquals(Optional.of("request1"), running);
+    assertFalse(isGloballyLocked());
+    lock.unlockStatusUpdate(running);
+
+    final Optional<String> finished = lock.lockStatusUpdate(status(taskId, TaskState.TASK_FINISHED), "test");
+    assertFalse(finished.isPresent());
+    assertTrue(isGloballyLocked());
+    lock.unlockStatusUpdate(finished);
+
+    final Optional<String> invalid = lock.lockStatusUpdate(status("invalid", TaskState.TASK_RUNNING), "test");
+    assertFalse(invalid.isPresent());
+    lock.unlockStatusUpdate(invalid);
+
+    assertFalse(lock.isHeldByCurrentThread());
+  }
+
+  @Test
+  public void testLockWaitIsRecordedPerCaller() {
+    lock.lock("poller");
+    lock.unlock();
+
+    lock.lockRequest("request1", "statusUpdate");
+    lock.unlockRequest("request1");
+    lock.lockRequest("request2", "statusUpdate");
+    lock.unlockRequest("request2");
+
+    assertEquals(1, registry.histogram("scheduler.lock.wait.poller").getCount());
+    assertEquals(2, registry.histogram("scheduler.lock.wait.statusUpdate").getCount());
+  }
+
+  private TaskStatus status(String taskId, TaskState state) {
+    return TaskStatus.newBuilder().setTaskId(TaskID.newBuilder().setValue(taskId)).setState(state).build();
+  }
+
+  private boolean isGloballyLocked() {
+    try {
+      return !acquiresRequestLock("other", 1);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private boolean acquiresRequestLock(final String requestId, long timeoutSeconds) throws InterruptedException {
+    final CountDownLatch acquired = new CountDownLatch(1);
+
+    final Thread thread = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        lock.lockRequest(requestId, "test");
+        acquired.countDown();
+        lock.unlockRequest(requestId);
+      }
+
+    });
+
+    thread.setDaemon(true);
+    thread.start();
+
+    return acquired.await(timeoutSeconds, TimeUnit.SECONDS);
+  }
+
+}
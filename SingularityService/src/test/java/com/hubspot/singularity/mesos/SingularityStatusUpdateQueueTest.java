@@ -0,0 +1,190 @@
+package com.hubspot.singularity.mesos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskState;
+import org.apache.mesos.Protos.TaskStatus;
+import org.apache.mesos.SchedulerDriver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hubspot.singularity.SingularityAbort;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.sentry.SingularityExceptionNotifier;
+
+public class SingularityStatusUpdateQueueTest {
+
+  private SingularityConfiguration configuration;
+  private MetricRegistry registry;
+  private SingularityMesosScheduler scheduler;
+  private SchedulerDriver driver;
+  private SingularityStatusUpdateQueue queue;
+
+  @Before
+  public void setup() {
+    configuration = new SingularityConfiguration();
+    registry = new MetricRegistry();
+    scheduler = mock(SingularityMesosScheduler.class);
+    driver = mock(SchedulerDriver.class);
+  }
+
+  @After
+  public void teardown() {
+    queue.stop();
+  }
+
+  private void startQueue(int threads, int capacity) {
+    configuration.setStatusUpdateThreads(threads);
+    configuration.setStatusUpdateQueueCapacity(capacity);
+
+    queue = new SingularityStatusUpdateQueue(configuration, scheduler, new SingularitySchedulerLock(configuration, registry), mock(SingularityExceptionNotifier.class),
+        mock(SingularityAbort.class), registry);
+    queue.start();
+  }
+
+  private TaskStatus status(String requestId, TaskState state) {
+    final String taskId = new SingularityTaskId(requestId, "deploy", 1, 1, "host", "rack").getId();
+
+    return TaskStatus.newBuilder()
+        .setTaskId(TaskID.newBuilder().setValue(taskId))
+        .setState(state)
+        .build();
+  }
+
+  private CountDownLatch blockFirstUpdate() {
+    final CountDownLatch release = new CountDownLatch(1);
+
+    doAnswer(new Answer<Void>() {
+
+      private boolean blocked;
+
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        if (!blocked) {
+          blocked = true;
+          release.await(10, TimeUnit.SECONDS);
+        }
+        return null;
+      }
+
+    }).when(scheduler).statusUpdate(any(SchedulerDriver.class), any(TaskStatus.class));
+
+    return release;
+  }
+
+  @Test
+  public void testUpdatesAreProcessedInlineWithoutThreads() {
+    startQueue(0, 10);
+
+    final TaskStatus running = status("request1", TaskState.TASK_RUNNING);
+
+    queue.enqueue(driver, running);
+
+    verify(scheduler).statusUpdate(driver, running);
+  }
+
+  @Test
+  public void testUpdatesForATaskAreProcessedInOrder() {
+    startQueue(4, 100);
+
+    final TaskStatus staging = status("request1", TaskState.TASK_STAGING);
+    final TaskStatus running = status("request1", TaskState.TASK_RUNNING);
+    final TaskStatus finished = status("request1", TaskState.TASK_FINISHED);
+    final TaskStatus otherRunning = status("request2", TaskState.TASK_RUNNING);
+
+    queue.enqueue(driver, staging);
+    queue.enqueue(driver, otherRunning);
+    queue.enqueue(driver, running);
+    queue.enqueue(driver, finished);
+
+    verify(scheduler, timeout(5000).times(4)).statusUpdate(any(SchedulerDriver.class), any(TaskStatus.class));
+
+    final InOrder inOrder = inOrder(scheduler);
+    inOrder.verify(scheduler).statusUpdate(driver, staging);
+    inOrder.verify(scheduler).statusUpdate(driver, running);
+    inOrder.verify(scheduler).statusUpdate(driver, finished);
+  }
+
+  @Test
+  public void testDuplicateQueuedStatesAreCoalesced() {
+    startQueue(1, 100);
+
+    final CountDownLatch release = blockFirstUpdate();
+
+    final TaskStatus blocking = status("request1", TaskState.TASK_RUNNING);
+    final TaskStatus running = status("request2", TaskState.TASK_RUNNING);
+    final TaskStatus finished = status("request2", TaskState.TASK_FINISHED);
+
+    queue.enqueue(driver, blocking);
+    verify(scheduler, timeout(5000)).statusUpdate(driver, blocking);
+
+    queue.enqueue(driver, running);
+    queue.enqueue(driver, running);
+    queue.enqueue(driver, finished);
+    queue.enqueue(driver, finished);
+
+    assertEquals(2, queue.getQueueSize());
+    assertEquals(2, registry.meter("statusUpdates.coalesced").getCount());
+
+    release.countDown();
+
+    verify(scheduler, timeout(5000)).statusUpdate(driver, finished);
+    verify(scheduler, times(1)).statusUpdate(driver, running);
+  }
+
+  @Test
+  public void testFullQueueBlocksTheCaller() throws Exception {
+    startQueue(1, 1);
+
+    final CountDownLatch release = blockFirstUpdate();
+
+    final TaskStatus blocking = status("request1", TaskState.TASK_RUNNING);
+    final TaskStatus queued = status("request2", TaskState.TASK_RUNNING);
+    final TaskStatus overflow = status("request3", TaskState.TASK_RUNNING);
+
+    queue.enqueue(driver, blocking);
+    verify(scheduler, timeout(5000)).statusUpdate(driver, blocking);
+
+    queue.enqueue(driver, queued);
+
+    final CountDownLatch overflowQueued = new CountDownLatch(1);
+
+    new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        queue.enqueue(driver, overflow);
+        overflowQueued.countDown();
+      }
+
+    }).start();
+
+    assertFalse(overflowQueued.await(200, TimeUnit.MILLISECONDS));
+    assertEquals(1, registry.meter("statusUpdates.backpressure").getCount());
+
+    release.countDown();
+
+    assertTrue(overflowQueued.await(5, TimeUnit.SECONDS));
+    verify(scheduler, timeout(5000)).statusUpdate(driver, overflow);
+  }
+
+}
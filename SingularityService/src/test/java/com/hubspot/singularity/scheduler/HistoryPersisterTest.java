@@ -193,6 +193,46 @@ public class HistoryPersisterTest extends SingularitySchedulerTestBase {
     Assert.assertTrue(deployManager.getDeployHistory(requestTwoDeployTwo.getRequestId(), requestTwoDeployTwo.getId(), true).isPresent());
   }
 
+  @Test
+  public void testDeploysWithStoredTasksAreKept() {
+    configuration.setStoreTasksCompactly(true);
+
+    SingularityRequest requestOne = buildRequest("request1");
+
+    SingularityDeploy deployOne = initAndFinishDeploy(requestOne, "d1");
+    launchTask(requestOne, deployOne, 1, TaskState.TASK_RUNNING);
+    SingularityDeploy deployTwo = initAndFinishDeploy(requestOne, "d2");
+    SingularityDeploy deployThree = initAndFinishDeploy(requestOne, "d3");
+    initAndFinishDeploy(requestOne, "d4");
+
+    configuration.setMaxStaleDeploysPerRequestInZkWhenNoDatabase(Optional.of(1));
+
+    deployHistoryPersister.runActionOnPoll();
+
+    Assert.assertTrue(deployManager.getDeployHistory(deployOne.getRequestId(), deployOne.getId(), true).isPresent());
+    Assert.assertFalse(deployManager.getDeployHistory(deployTwo.getRequestId(), deployTwo.getId(), true).isPresent());
+    Assert.assertTrue(deployManager.getDeployHistory(deployThree.getRequestId(), deployThree.getId(), true).isPresent());
+  }
+
+  @Test
+  public void testDeploysWithStoredTasksArePurgedWhenTasksEmbedTheirDeploy() {
+    SingularityRequest requestOne = buildRequest("request1");
+
+    SingularityDeploy deployOne = initAndFinishDeploy(requestOne, "d1");
+    launchTask(requestOne, deployOne, 1, TaskState.TASK_RUNNING);
+    SingularityDeploy deployTwo = initAndFinishDeploy(requestOne, "d2");
+    SingularityDeploy deployThree = initAndFinishDeploy(requestOne, "d3");
+    initAndFinishDeploy(requestOne, "d4");
+
+    configuration.setMaxStaleDeploysPerRequestInZkWhenNoDatabase(Optional.of(1));
+
+    deployHistoryPersister.runActionOnPoll();
+
+    Assert.assertFalse(deployManager.getDeployHistory(deployOne.getRequestId(), deployOne.getId(), true).isPresent());
+    Assert.assertFalse(deployManager.getDeployHistory(deployTwo.getRequestId(), deployTwo.getId(), true).isPresent());
+    Assert.assertTrue(deployManager.getDeployHistory(deployThree.getRequestId(), deployThree.getId(), true).isPresent());
+  }
+
   @Test
   public void testPurgingDoesntApplyIfDatabasePresent() {
     initRequest();
@@ -19,6 +19,8 @@ import org.junit.Test;
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import com.hubspot.mesos.MesosUtils;
+import com.hubspot.mesos.PortRanges;
+import com.hubspot.mesos.Resources;
 import com.hubspot.singularity.ExtendedTaskState;
 import com.hubspot.singularity.SingularityTaskHistoryUpdate;
 import com.hubspot.singularity.SingularityTaskId;
@@ -120,6 +122,47 @@ public class MesosUtilsTest {
     Assert.assertEquals(0, MesosUtils.getPorts(resource, numPorts).length);
   }
 
+  @Test
+  public void testSelectedPortsAvoidLiteralHostPorts() {
+    List<Long> requestedPorts = Arrays.asList(24L, 26L);
+
+    for (int i = 0; i < 50; i++) {
+      Resource resource = MesosUtils.getPortsResource(3, buildOffer("23:27").getResourcesList(), requestedPorts);
+      long[] ports = MesosUtils.getPorts(resource, 3);
+
+      Assert.assertArrayEquals(new long[] {23L, 25L, 27L}, ports);
+      Assert.assertEquals(5, MesosUtils.getNumPorts(Collections.singletonList(resource)));
+    }
+  }
+
+  @Test
+  public void testPortRangesAllocation() {
+    PortRanges portRanges = PortRanges.fromResources(Collections.singletonList(buildPortRanges("100:200", "201:210", "300:300")));
+
+    Assert.assertEquals(2, portRanges.getNumRanges());
+    Assert.assertEquals(112, portRanges.getNumPorts());
+    Assert.assertTrue(portRanges.containsAll(Arrays.asList(100L, 205L, 300L)));
+    Assert.assertFalse(portRanges.contains(211L));
+
+    portRanges.remove(150, 160);
+    portRanges.removeAll(buildPortRanges("300:300", "205:205").getRanges());
+
+    Assert.assertEquals(buildPortRanges("100:149", "161:204", "206:210").getRanges(), portRanges.toResource().getRanges());
+    Assert.assertEquals(99, portRanges.getNumPorts());
+    Assert.assertFalse(portRanges.contains(155L));
+    Assert.assertFalse(portRanges.contains(300L));
+  }
+
+  @Test
+  public void testOfferMatchCountsLiteralHostPorts() {
+    List<Resource> offerResources = createResources(1, 128, "23:26");
+    List<Long> requestedPorts = Arrays.asList(23L, 24L);
+
+    Assert.assertTrue(MesosUtils.doesOfferMatchResources(new Resources(1, 128, 2), offerResources, requestedPorts));
+    Assert.assertFalse(MesosUtils.doesOfferMatchResources(new Resources(1, 128, 3), offerResources, requestedPorts));
+    Assert.assertFalse(MesosUtils.doesOfferMatchResources(new Resources(1, 128, 0), offerResources, Arrays.asList(27L)));
+  }
+
   public static Resource buildPortRanges(String... ranges) {
     Resource.Builder resources = Resource.newBuilder()
         .setType(Type.RANGES)
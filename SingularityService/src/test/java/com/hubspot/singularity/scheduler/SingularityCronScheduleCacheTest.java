@@ -0,0 +1,66 @@
+package com.hubspot.singularity.scheduler;
+
+import java.text.ParseException;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.CronExpression;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Optional;
+import com.hubspot.singularity.config.SingularityConfiguration;
+
+public class SingularityCronScheduleCacheTest {
+
+  private static final String EVERY_HOUR = "0 0 * * * ?";
+
+  private MetricRegistry registry;
+  private SingularityCronScheduleCache cronScheduleCache;
+
+  @Before
+  public void setup() {
+    registry = new MetricRegistry();
+    cronScheduleCache = new SingularityCronScheduleCache(new SingularityConfiguration(), registry);
+  }
+
+  private long expected(String schedule, long after) throws ParseException {
+    return new CronExpression(schedule).getNextValidTimeAfter(new Date(after)).getTime();
+  }
+
+  @Test
+  public void testMatchesCronExpression() throws ParseException {
+    final long now = System.currentTimeMillis();
+
+    for (long after : new long[] {now, now + 1, now + 3599999, now + 3600000, now - 86400000}) {
+      Assert.assertEquals(expected(EVERY_HOUR, after), cronScheduleCache.getNextValidTimeAfter(EVERY_HOUR, after).get().longValue());
+      Assert.assertEquals(expected("0 */5 * * * ?", after), cronScheduleCache.getNextValidTimeAfter("0 */5 * * * ?", after).get().longValue());
+    }
+  }
+
+  @Test
+  public void testNextFireTimeIsReusedUntilItPasses() throws ParseException {
+    final long nextHour = expected(EVERY_HOUR, System.currentTimeMillis());
+
+    cronScheduleCache.getNextValidTimeAfter(EVERY_HOUR, nextHour - 10000);
+    cronScheduleCache.getNextValidTimeAfter(EVERY_HOUR, nextHour - 5000);
+    cronScheduleCache.getNextValidTimeAfter(EVERY_HOUR, nextHour - 1);
+
+    Assert.assertEquals(1, registry.meter("schedules.nextFireTime.computed").getCount());
+
+    Assert.assertEquals(nextHour + 3600000, cronScheduleCache.getNextValidTimeAfter(EVERY_HOUR, nextHour).get().longValue());
+    Assert.assertEquals(2, registry.meter("schedules.nextFireTime.computed").getCount());
+  }
+
+  @Test
+  public void testScheduleWhichNeverFiresAgain() throws ParseException {
+    Assert.assertEquals(Optional.<Long> absent(), cronScheduleCache.getNextValidTimeAfter("0 0 0 1 1 ? 2000", System.currentTimeMillis()));
+  }
+
+  @Test(expected = ParseException.class)
+  public void testInvalidScheduleThrows() throws ParseException {
+    cronScheduleCache.getNextValidTimeAfter("not a schedule", System.currentTimeMillis());
+  }
+
+}
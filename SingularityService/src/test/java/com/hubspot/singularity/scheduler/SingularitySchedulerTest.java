@@ -1,6 +1,7 @@
 package com.hubspot.singularity.scheduler;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -15,11 +16,13 @@ import org.apache.mesos.Protos.TaskState;
 import org.apache.mesos.Protos.TaskStatus;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.hubspot.baragon.models.BaragonRequestState;
 import com.hubspot.mesos.Resources;
@@ -39,6 +42,7 @@ import com.hubspot.singularity.RequestState;
 import com.hubspot.singularity.RequestType;
 import com.hubspot.singularity.SingularityDeploy;
 import com.hubspot.singularity.SingularityDeployBuilder;
+import com.hubspot.singularity.SingularityDeployMarker;
 import com.hubspot.singularity.SingularityDeployProgress;
 import com.hubspot.singularity.SingularityDeployStatistics;
 import com.hubspot.singularity.SingularityKilledTaskIdRecord;
@@ -50,6 +54,7 @@ import com.hubspot.singularity.SingularityPendingTask;
 import com.hubspot.singularity.SingularityPendingTaskId;
 import com.hubspot.singularity.SingularityRequest;
 import com.hubspot.singularity.SingularityRequestBuilder;
+import com.hubspot.singularity.SingularityRequestDeployState;
 import com.hubspot.singularity.SingularityRequestCleanup;
 import com.hubspot.singularity.SingularityRequestHistory.RequestHistoryType;
 import com.hubspot.singularity.SingularityRequestLbCleanup;
@@ -1353,6 +1358,40 @@ public class SingularitySchedulerTest extends SingularitySchedulerTestBase {
     Assert.assertTrue(taskManager.getActiveTaskIds().size() == 3);
   }
 
+  @Test
+  public void testPlacementIndexTracksActiveTasks() {
+    initRequest();
+    initFirstDeploy();
+
+    SingularityTask firstTask = launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING);
+    SingularityTask secondTask = launchTask(request, firstDeploy, 2, TaskState.TASK_RUNNING, true);
+
+    SingularitySchedulerStateCache stateCache = stateCacheProvider.get();
+    SingularityRequestPlacementIndex placementIndex = stateCache.getPlacementIndex(requestId);
+
+    Assert.assertEquals(1, placementIndex.getNumOnHost(firstDeployId, firstTask.getTaskId().getSanitizedHost()));
+    Assert.assertEquals(1, placementIndex.getNumOnHost(firstDeployId, secondTask.getTaskId().getSanitizedHost()));
+    Assert.assertEquals(2, placementIndex.getNumOnRack(firstDeployId, "rack1"));
+    Assert.assertEquals(1, placementIndex.getNumOtherDeploysOnHost(secondDeployId, firstTask.getTaskId().getSanitizedHost()));
+
+    stateCache.removeActiveTaskId(firstTask.getTaskId());
+
+    Assert.assertEquals(0, stateCache.getPlacementIndex(requestId).getNumOnHost(firstDeployId, firstTask.getTaskId().getSanitizedHost()));
+    Assert.assertEquals(1, stateCache.getPlacementIndex(requestId).getNumOnRack(firstDeployId, "rack1"));
+
+    stateCache.addActiveTaskId(firstTask.getTaskId());
+
+    Assert.assertEquals(1, stateCache.getPlacementIndex(requestId).getNumOnHost(firstDeployId, firstTask.getTaskId().getSanitizedHost()));
+    Assert.assertEquals(0, stateCache.getPlacementIndex("other-request").getNumOnRack(firstDeployId, "rack1"));
+
+    stateCache.getCleaningTasks().add(secondTask.getTaskId());
+    stateCache.removeActiveTaskId(secondTask.getTaskId());
+
+    Assert.assertEquals(0, stateCache.getPlacementIndex(requestId).getNumOnHost(firstDeployId, secondTask.getTaskId().getSanitizedHost()));
+    Assert.assertEquals(0, stateCache.getPlacementIndex(requestId).getNumCleaningOnHost(firstDeployId, secondTask.getTaskId().getSanitizedHost()));
+    Assert.assertEquals(1, stateCache.getPlacementIndex(requestId).getNumOnRack(firstDeployId, "rack1"));
+  }
+
   @Test
   public void testReservedSlaveAttribute() {
     Map<String, List<String>> reservedAttributes = new HashMap<>();
@@ -1616,6 +1655,56 @@ public class SingularitySchedulerTest extends SingularitySchedulerTestBase {
     Assert.assertTrue(!taskReconciliation.isReconciliationRunning());
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testReconciliationRequestsStatusesInChunks() {
+    configuration.setCheckReconcileWhenRunningEveryMillis(5);
+    configuration.setReconcileTasksChunkSize(2);
+    configuration.setReconcileTasksChunkDelayMillis(0);
+
+    initRequest();
+    initFirstDeploy();
+
+    List<SingularityTask> tasks = Arrays.asList(launchTask(request, firstDeploy, 1, TaskState.TASK_RUNNING), launchTask(request, firstDeploy, 2, TaskState.TASK_RUNNING),
+        launchTask(request, firstDeploy, 3, TaskState.TASK_RUNNING));
+
+    for (SingularityTask task : tasks) {
+      saveLastActiveTaskStatus(task, Optional.of(buildTaskStatus(task)), -1000);
+    }
+
+    Assert.assertTrue(taskReconciliation.startReconciliation() == ReconciliationState.STARTED);
+
+    sleep(100);
+
+    Assert.assertTrue(taskReconciliation.isReconciliationRunning());
+
+    for (SingularityTask task : tasks) {
+      saveLastActiveTaskStatus(task, Optional.of(buildTaskStatus(task)), +1000);
+    }
+
+    for (int i = 0; i < 100 && taskReconciliation.isReconciliationRunning(); i++) {
+      sleep(50);
+    }
+
+    Assert.assertTrue(!taskReconciliation.isReconciliationRunning());
+
+    ArgumentCaptor<Collection<TaskStatus>> requested = ArgumentCaptor.forClass((Class) Collection.class);
+    Mockito.verify(driver, Mockito.atLeast(3)).reconcileTasks(requested.capture());
+
+    List<Integer> requestSizes = Lists.newArrayList();
+
+    for (Collection<TaskStatus> statuses : requested.getAllValues()) {
+      if (!statuses.isEmpty()) {
+        requestSizes.add(statuses.size());
+      }
+    }
+
+    // the first re-request is a chunk of 2 and a chunk of 1, and backing off leaves far fewer re-requests than the ~20 checks made
+    Assert.assertEquals(Arrays.asList(2, 1), requestSizes.subList(0, 2));
+    Assert.assertTrue(Collections.max(requestSizes) <= 2);
+    Assert.assertTrue(requestSizes.size() < 20);
+  }
+
 
   @Test
   public void testSchedulerPriority() {
@@ -1652,6 +1741,97 @@ public class SingularitySchedulerTest extends SingularitySchedulerTestBase {
     Assert.assertTrue(requests.get(2).getRequest().getId().equals(request3.getId()));
   }
 
+  @Test
+  public void testSchedulerPriorityLoadedFromHistory() {
+    SingularityRequest request1 = buildRequest("request1");
+    SingularityRequest request2 = buildRequest("request2");
+
+    SingularityDeploy deploy1 = initAndFinishDeploy(request1, "r1d1");
+    SingularityDeploy deploy2 = initAndFinishDeploy(request2, "r2d2");
+
+    launchTask(request1, deploy1, 20, 1, TaskState.TASK_RUNNING);
+    launchTask(request2, deploy2, 1, 1, TaskState.TASK_RUNNING);
+    launchTask(request2, deploy2, 10, 2, TaskState.TASK_RUNNING);
+
+    schedulerPriority.loadMostRecentTaskStarts();
+
+    // r2 last launch at 10, r1 last launch at 20; tasks of a request stay together and in order
+
+    List<SingularityTaskRequest> requests = Arrays.asList(buildTaskRequest(request1, deploy1, 100), buildTaskRequest(request2, deploy2, 101), buildTaskRequest(request1, deploy1, 102),
+        buildTaskRequest(request2, deploy2, 103));
+    schedulerPriority.sortTaskRequestsInPriorityOrder(requests);
+
+    Assert.assertEquals(request2.getId(), requests.get(0).getRequest().getId());
+    Assert.assertEquals(101, requests.get(0).getPendingTask().getPendingTaskId().getNextRunAt());
+    Assert.assertEquals(103, requests.get(1).getPendingTask().getPendingTaskId().getNextRunAt());
+    Assert.assertEquals(request1.getId(), requests.get(2).getRequest().getId());
+    Assert.assertEquals(100, requests.get(2).getPendingTask().getPendingTaskId().getNextRunAt());
+    Assert.assertEquals(102, requests.get(3).getPendingTask().getPendingTaskId().getNextRunAt());
+  }
+
+  @Test
+  public void testSchedulerPriorityKeepsLaterStartWhenSeeded() {
+    SingularityRequest request1 = buildRequest("request1");
+    SingularityRequest request2 = buildRequest("request2");
+
+    SingularityDeploy deploy1 = initAndFinishDeploy(request1, "r1d1");
+    SingularityDeploy deploy2 = initAndFinishDeploy(request2, "r2d2");
+
+    launchTask(request1, deploy1, 20, 1, TaskState.TASK_RUNNING);
+    launchTask(request2, deploy2, 10, 1, TaskState.TASK_RUNNING);
+
+    // a launch noticed before seeding must not be overwritten by the older start in history
+
+    schedulerPriority.notifyTaskLaunched(new SingularityTaskId(request2.getId(), deploy2.getId(), 30, 2, "host", "rack"));
+    schedulerPriority.loadMostRecentTaskStarts();
+
+    List<SingularityTaskRequest> requests = Arrays.asList(buildTaskRequest(request2, deploy2, 100), buildTaskRequest(request1, deploy1, 101));
+    schedulerPriority.sortTaskRequestsInPriorityOrder(requests);
+
+    Assert.assertEquals(request1.getId(), requests.get(0).getRequest().getId());
+    Assert.assertEquals(request2.getId(), requests.get(1).getRequest().getId());
+  }
+
+  @Test
+  public void testParallelDrainOfPendingQueue() {
+    configuration.setParallelPendingQueueDrain(true);
+    configuration.setPendingQueueDrainParallelism(4);
+    configuration.setPendingQueueDrainBatchSize(3);
+
+    final List<String> requestIds = Arrays.asList("request1", "request2", "request3", "request4", "request5");
+
+    for (String requestId : requestIds) {
+      SingularityRequest request = new SingularityRequestBuilder(requestId, RequestType.WORKER).setInstances(Optional.of(2)).build();
+      saveRequest(request);
+
+      SingularityDeploy deploy = new SingularityDeployBuilder(requestId, "d1").setCommand(Optional.of("sleep 100")).build();
+      SingularityDeployMarker marker = new SingularityDeployMarker(requestId, deploy.getId(), System.currentTimeMillis(), Optional.<String> absent(), Optional.<String> absent());
+
+      deployManager.saveDeploy(request, marker, deploy);
+      deployManager.saveNewRequestDeployState(new SingularityRequestDeployState(requestId, Optional.of(marker), Optional.<SingularityDeployMarker> absent()));
+
+      requestManager.addToPendingQueue(new SingularityPendingRequest(requestId, deploy.getId(), System.currentTimeMillis(), Optional.<String> absent(), PendingType.UPDATED_REQUEST,
+          Optional.<Boolean> absent(), Optional.<String> absent()));
+    }
+
+    scheduler.drainPendingQueue(stateCacheProvider.get());
+
+    Assert.assertTrue(requestManager.getPendingRequests().isEmpty());
+    Assert.assertEquals(requestIds.size() * 2, taskManager.getPendingTaskIds().size());
+
+    for (String requestId : requestIds) {
+      int pendingForRequest = 0;
+
+      for (SingularityPendingTaskId pendingTaskId : taskManager.getPendingTaskIds()) {
+        if (pendingTaskId.getRequestId().equals(requestId)) {
+          pendingForRequest++;
+        }
+      }
+
+      Assert.assertEquals(2, pendingForRequest);
+    }
+  }
+
   @Test
   public void badPauseExpires() {
     initRequest();
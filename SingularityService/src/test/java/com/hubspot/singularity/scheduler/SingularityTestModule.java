@@ -8,6 +8,7 @@ import static org.mockito.Mockito.when;
 import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.curator.test.TestingServer;
 import org.apache.mesos.Protos.MasterInfo;
@@ -167,6 +168,13 @@ public class SingularityTestModule implements Module {
                 throw new OutOfScopeException("testing");
               }
             });
+
+            binder.bind(HttpServletResponse.class).toProvider(new Provider<HttpServletResponse>() {
+              @Override
+              public HttpServletResponse get() {
+                throw new OutOfScopeException("testing");
+              }
+            });
           }
         }));
 
@@ -0,0 +1,34 @@
+package com.hubspot.singularity.simulator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.net.HostAndPort;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.hubspot.singularity.ServerProvider;
+import com.hubspot.singularity.SingularityAbort;
+import com.hubspot.singularity.SingularityMainModule;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.sentry.SingularityExceptionNotifier;
+import com.hubspot.singularity.smtp.SingularitySmtpSender;
+
+/**
+ * Logs aborts instead of exiting, so that a simulation runs to completion and its report shows what went wrong.
+ */
+public class SimulatedAbort extends SingularityAbort {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SimulatedAbort.class);
+
+  @Inject
+  public SimulatedAbort(SingularitySmtpSender smtpSender, ServerProvider serverProvider, SingularityConfiguration configuration, SingularityExceptionNotifier exceptionNotifier, @Named(SingularityMainModule.HTTP_HOST_AND_PORT) HostAndPort hostAndPort) {
+    super(smtpSender, serverProvider, configuration, exceptionNotifier, hostAndPort);
+  }
+
+  @Override
+  public void abort(AbortReason abortReason, Optional<Throwable> throwable) {
+    LOG.error("Simulated scheduler asked to abort due to {}", abortReason, throwable.orNull());
+  }
+
+}
@@ -0,0 +1,291 @@
+package com.hubspot.singularity.simulator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.mesos.Protos.Attribute;
+import org.apache.mesos.Protos.FrameworkID;
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.OfferID;
+import org.apache.mesos.Protos.Resource;
+import org.apache.mesos.Protos.SlaveID;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskInfo;
+import org.apache.mesos.Protos.TaskState;
+import org.apache.mesos.Protos.TaskStatus;
+import org.apache.mesos.Protos.Value.Scalar;
+import org.apache.mesos.Protos.Value.Text;
+import org.apache.mesos.Protos.Value.Type;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hubspot.mesos.MesosUtils;
+
+/**
+ * The Mesos side of a simulation: a fixed set of slaves spread over racks, the resources in use on each, and the tasks running there.
+ *
+ * Each slave has at most one outstanding offer, for all of its free resources, until the scheduler launches on it or declines it. Status
+ * updates for launched and killed tasks are queued and handed to the scheduler on the next cycle, as Mesos would send them asynchronously.
+ */
+public class SimulatedCluster {
+
+  private static final String FRAMEWORK_ID = "singularity-simulator";
+
+  private final SimulationConfiguration configuration;
+  private final String rackIdAttributeKey;
+  private final Random random;
+
+  private final List<SimulatedSlave> slaves;
+  private final Map<String, SimulatedSlave> slavesById;
+  private final Map<String, SimulatedSlave> outstandingOffers;
+  private final Map<String, RunningTask> runningTasks;
+  private final List<TaskStatus> queuedStatusUpdates;
+
+  private long nextOfferId;
+
+  private long offersMade;
+  private long offersDeclined;
+  private long tasksLaunched;
+  private long tasksKilled;
+  private long tasksFinished;
+
+  public SimulatedCluster(SimulationConfiguration configuration, String rackIdAttributeKey) {
+    this.configuration = configuration;
+    this.rackIdAttributeKey = rackIdAttributeKey;
+    this.random = new Random(configuration.getSeed());
+
+    this.slaves = Lists.newArrayListWithCapacity(configuration.getNumSlaves());
+    this.slavesById = Maps.newHashMap();
+
+    for (int i = 0; i < configuration.getNumSlaves(); i++) {
+      final SimulatedSlave slave = new SimulatedSlave("slave" + i, "host" + i, "rack" + (i % Math.max(1, configuration.getNumRacks())));
+      slaves.add(slave);
+      slavesById.put(slave.slaveId, slave);
+    }
+
+    this.outstandingOffers = Maps.newHashMap();
+    this.runningTasks = Maps.newHashMap();
+    this.queuedStatusUpdates = Lists.newArrayList();
+  }
+
+  /**
+   * @return an offer for every slave with free resources and no outstanding offer, in random order and limited to offersPerCycle if set
+   */
+  public synchronized List<Offer> makeOffers() {
+    final List<SimulatedSlave> shuffled = Lists.newArrayList(slaves);
+    Collections.shuffle(shuffled, random);
+
+    final List<Offer> offers = Lists.newArrayList();
+
+    for (SimulatedSlave slave : shuffled) {
+      if (configuration.getOffersPerCycle() > 0 && offers.size() >= configuration.getOffersPerCycle()) {
+        break;
+      }
+
+      if (slave.hasOutstandingOffer || slave.getFreeCpus() <= 0 || slave.getFreeMemoryMb() <= 0) {
+        continue;
+      }
+
+      final String offerId = "offer" + nextOfferId++;
+
+      offers.add(Offer.newBuilder()
+          .setId(OfferID.newBuilder().setValue(offerId))
+          .setFrameworkId(FrameworkID.newBuilder().setValue(FRAMEWORK_ID))
+          .setSlaveId(SlaveID.newBuilder().setValue(slave.slaveId))
+          .setHostname(slave.host)
+          .addAttributes(Attribute.newBuilder().setType(Type.TEXT).setName(rackIdAttributeKey).setText(Text.newBuilder().setValue(slave.rackId)))
+          .addResources(scalar(MesosUtils.CPUS, slave.getFreeCpus()))
+          .addResources(scalar(MesosUtils.MEMORY, slave.getFreeMemoryMb()))
+          .build());
+
+      slave.hasOutstandingOffer = true;
+      outstandingOffers.put(offerId, slave);
+    }
+
+    offersMade += offers.size();
+
+    return offers;
+  }
+
+  public synchronized void launchTasks(Collection<OfferID> offerIds, Collection<TaskInfo> tasks) {
+    for (TaskInfo task : tasks) {
+      final SimulatedSlave slave = slavesById.get(task.getSlaveId().getValue());
+      final RunningTask runningTask = new RunningTask(slave, getScalar(task, MesosUtils.CPUS), getScalar(task, MesosUtils.MEMORY));
+
+      slave.usedCpus += runningTask.cpus;
+      slave.usedMemoryMb += runningTask.memoryMb;
+
+      runningTasks.put(task.getTaskId().getValue(), runningTask);
+      queuedStatusUpdates.add(status(task.getTaskId().getValue(), slave, TaskState.TASK_RUNNING));
+
+      tasksLaunched++;
+    }
+
+    for (OfferID offerId : offerIds) {
+      releaseOffer(offerId);
+    }
+  }
+
+  public synchronized void declineOffer(OfferID offerId) {
+    if (releaseOffer(offerId)) {
+      offersDeclined++;
+    }
+  }
+
+  public synchronized void killTask(TaskID taskId) {
+    final RunningTask runningTask = removeRunningTask(taskId.getValue());
+
+    if (runningTask != null) {
+      queuedStatusUpdates.add(status(taskId.getValue(), runningTask.slave, TaskState.TASK_KILLED));
+      tasksKilled++;
+    }
+  }
+
+  /**
+   * Finishes random running tasks, as if their processes had exited.
+   */
+  public synchronized List<TaskStatus> finishRandomTasks(int numTasks) {
+    final List<String> taskIds = Lists.newArrayList(runningTasks.keySet());
+    Collections.sort(taskIds);
+    Collections.shuffle(taskIds, random);
+
+    final List<TaskStatus> statuses = Lists.newArrayListWithCapacity(numTasks);
+
+    for (String taskId : taskIds.subList(0, Math.min(numTasks, taskIds.size()))) {
+      final RunningTask runningTask = removeRunningTask(taskId);
+      statuses.add(status(taskId, runningTask.slave, TaskState.TASK_FINISHED));
+      tasksFinished++;
+    }
+
+    return statuses;
+  }
+
+  public synchronized List<TaskStatus> drainStatusUpdates() {
+    final List<TaskStatus> statuses = Lists.newArrayList(queuedStatusUpdates);
+    queuedStatusUpdates.clear();
+    return statuses;
+  }
+
+  public synchronized int getNumRunningTasks() {
+    return runningTasks.size();
+  }
+
+  public synchronized long getOffersMade() {
+    return offersMade;
+  }
+
+  public synchronized long getOffersDeclined() {
+    return offersDeclined;
+  }
+
+  public synchronized long getTasksLaunched() {
+    return tasksLaunched;
+  }
+
+  public synchronized long getTasksKilled() {
+    return tasksKilled;
+  }
+
+  public synchronized long getTasksFinished() {
+    return tasksFinished;
+  }
+
+  private boolean releaseOffer(OfferID offerId) {
+    final SimulatedSlave slave = outstandingOffers.remove(offerId.getValue());
+
+    if (slave == null) {
+      return false;
+    }
+
+    slave.hasOutstandingOffer = false;
+    return true;
+  }
+
+  private RunningTask removeRunningTask(String taskId) {
+    final RunningTask runningTask = runningTasks.remove(taskId);
+
+    if (runningTask != null) {
+      runningTask.slave.usedCpus -= runningTask.cpus;
+      runningTask.slave.usedMemoryMb -= runningTask.memoryMb;
+    }
+
+    return runningTask;
+  }
+
+  private static Resource scalar(String name, double value) {
+    return Resource.newBuilder().setType(Type.SCALAR).setName(name).setScalar(Scalar.newBuilder().setValue(value)).build();
+  }
+
+  private static double getScalar(TaskInfo task, String name) {
+    double value = 0;
+
+    for (Resource resource : task.getResourcesList()) {
+      if (resource.getName().equals(name)) {
+        value += resource.getScalar().getValue();
+      }
+    }
+
+    if (task.hasExecutor()) {
+      for (Resource resource : task.getExecutor().getResourcesList()) {
+        if (resource.getName().equals(name)) {
+          value += resource.getScalar().getValue();
+        }
+      }
+    }
+
+    return value;
+  }
+
+  private static TaskStatus status(String taskId, SimulatedSlave slave, TaskState state) {
+    return TaskStatus.newBuilder()
+        .setTaskId(TaskID.newBuilder().setValue(taskId))
+        .setSlaveId(SlaveID.newBuilder().setValue(slave.slaveId))
+        .setState(state)
+        .setTimestamp(System.currentTimeMillis() / 1000.0)
+        .build();
+  }
+
+  private class SimulatedSlave {
+
+    private final String slaveId;
+    private final String host;
+    private final String rackId;
+
+    private double usedCpus;
+    private double usedMemoryMb;
+    private boolean hasOutstandingOffer;
+
+    SimulatedSlave(String slaveId, String host, String rackId) {
+      this.slaveId = slaveId;
+      this.host = host;
+      this.rackId = rackId;
+    }
+
+    double getFreeCpus() {
+      return configuration.getCpusPerSlave() - usedCpus;
+    }
+
+    double getFreeMemoryMb() {
+      return configuration.getMemoryMbPerSlave() - usedMemoryMb;
+    }
+
+  }
+
+  private static class RunningTask {
+
+    private final SimulatedSlave slave;
+    private final double cpus;
+    private final double memoryMb;
+
+    RunningTask(SimulatedSlave slave, double cpus, double memoryMb) {
+      this.slave = slave;
+      this.cpus = cpus;
+      this.memoryMb = memoryMb;
+    }
+
+  }
+
+}
@@ -0,0 +1,23 @@
+package com.hubspot.singularity.simulator;
+
+import com.google.inject.Inject;
+import com.hubspot.mesos.client.MesosClient;
+import com.hubspot.singularity.SingularityTaskId;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.TaskManager;
+import com.hubspot.singularity.mesos.SingularityLogSupport;
+
+/**
+ * Simulated tasks have no sandbox, so there is no directory to look up.
+ */
+public class SimulatedLogSupport extends SingularityLogSupport {
+
+  @Inject
+  public SimulatedLogSupport(SingularityConfiguration configuration, MesosClient mesosClient, TaskManager taskManager) {
+    super(configuration, mesosClient, taskManager);
+  }
+
+  @Override
+  public void checkDirectory(SingularityTaskId taskId) {}
+
+}
@@ -0,0 +1,144 @@
+package com.hubspot.singularity.simulator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.mesos.Protos.ExecutorID;
+import org.apache.mesos.Protos.Filters;
+import org.apache.mesos.Protos.Offer.Operation;
+import org.apache.mesos.Protos.OfferID;
+import org.apache.mesos.Protos.Request;
+import org.apache.mesos.Protos.SlaveID;
+import org.apache.mesos.Protos.Status;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskInfo;
+import org.apache.mesos.Protos.TaskStatus;
+import org.apache.mesos.SchedulerDriver;
+
+/**
+ * A {@link SchedulerDriver} which applies launches, declines and kills to a {@link SimulatedCluster} instead of a Mesos master.
+ */
+public class SimulatedSchedulerDriver implements SchedulerDriver {
+
+  private final SimulatedCluster cluster;
+
+  public SimulatedSchedulerDriver(SimulatedCluster cluster) {
+    this.cluster = cluster;
+  }
+
+  @Override
+  public Status start() {
+    return Status.DRIVER_RUNNING;
+  }
+
+  @Override
+  public Status stop(boolean failover) {
+    return Status.DRIVER_STOPPED;
+  }
+
+  @Override
+  public Status stop() {
+    return Status.DRIVER_STOPPED;
+  }
+
+  @Override
+  public Status abort() {
+    return Status.DRIVER_ABORTED;
+  }
+
+  @Override
+  public Status join() {
+    return Status.DRIVER_STOPPED;
+  }
+
+  @Override
+  public Status run() {
+    return Status.DRIVER_STOPPED;
+  }
+
+  @Override
+  public Status requestResources(Collection<Request> requests) {
+    return Status.DRIVER_RUNNING;
+  }
+
+  @Override
+  public Status launchTasks(Collection<OfferID> offerIds, Collection<TaskInfo> tasks, Filters filters) {
+    cluster.launchTasks(offerIds, tasks);
+    return Status.DRIVER_RUNNING;
+  }
+
+  @Override
+  public Status launchTasks(Collection<OfferID> offerIds, Collection<TaskInfo> tasks) {
+    return launchTasks(offerIds, tasks, Filters.getDefaultInstance());
+  }
+
+  @Override
+  public Status launchTasks(OfferID offerId, Collection<TaskInfo> tasks, Filters filters) {
+    return launchTasks(Collections.singletonList(offerId), tasks, filters);
+  }
+
+  @Override
+  public Status launchTasks(OfferID offerId, Collection<TaskInfo> tasks) {
+    return launchTasks(Collections.singletonList(offerId), tasks, Filters.getDefaultInstance());
+  }
+
+  @Override
+  public Status killTask(TaskID taskId) {
+    cluster.killTask(taskId);
+    return Status.DRIVER_RUNNING;
+  }
+
+  @Override
+  public Status acceptOffers(Collection<OfferID> offerIds, Collection<Operation> operations, Filters filters) {
+    final List<TaskInfo> tasks = new ArrayList<>();
+
+    for (Operation operation : operations) {
+      if (operation.getType() == Operation.Type.LAUNCH) {
+        tasks.addAll(operation.getLaunch().getTaskInfosList());
+      }
+    }
+
+    if (tasks.isEmpty()) {
+      for (OfferID offerId : offerIds) {
+        declineOffer(offerId, filters);
+      }
+      return Status.DRIVER_RUNNING;
+    }
+
+    return launchTasks(offerIds, tasks, filters);
+  }
+
+  @Override
+  public Status declineOffer(OfferID offerId, Filters filters) {
+    cluster.declineOffer(offerId);
+    return Status.DRIVER_RUNNING;
+  }
+
+  @Override
+  public Status declineOffer(OfferID offerId) {
+    return declineOffer(offerId, Filters.getDefaultInstance());
+  }
+
+  @Override
+  public Status reviveOffers() {
+    return Status.DRIVER_RUNNING;
+  }
+
+  @Override
+  public Status acknowledgeStatusUpdate(TaskStatus status) {
+    return Status.DRIVER_RUNNING;
+  }
+
+  @Override
+  public Status sendFrameworkMessage(ExecutorID executorId, SlaveID slaveId, byte[] data) {
+    return Status.DRIVER_RUNNING;
+  }
+
+  @Override
+  public Status reconcileTasks(Collection<TaskStatus> statuses) {
+    return Status.DRIVER_RUNNING;
+  }
+
+}
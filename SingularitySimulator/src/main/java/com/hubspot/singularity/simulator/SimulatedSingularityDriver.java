@@ -0,0 +1,17 @@
+package com.hubspot.singularity.simulator;
+
+import com.google.inject.Inject;
+import com.hubspot.singularity.mesos.SingularityDriver;
+import com.hubspot.singularity.mesos.SingularityMesosSchedulerDelegator;
+
+/**
+ * A {@link SingularityDriver} which starts and kills through the {@link SimulatedSchedulerDriver} instead of a native Mesos driver.
+ */
+public class SimulatedSingularityDriver extends SingularityDriver {
+
+  @Inject
+  public SimulatedSingularityDriver(SingularityMesosSchedulerDelegator scheduler, SimulatedSchedulerDriver driver) {
+    super(scheduler, driver);
+  }
+
+}
@@ -0,0 +1,170 @@
+package com.hubspot.singularity.simulator;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Optional;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SimulationConfiguration {
+
+  private int numSlaves = 100;
+
+  private int numRacks = 5;
+
+  private double cpusPerSlave = 32;
+
+  private double memoryMbPerSlave = 131072;
+
+  private int numRequests = 200;
+
+  private int numActiveTasks = 1000;
+
+  private double cpusPerTask = 1;
+
+  private double memoryMbPerTask = 512;
+
+  private int warmupCycles = 200;
+
+  private int offerCycles = 500;
+
+  private double offerCyclesPerSecond = 0;
+
+  private int offersPerCycle = 0;
+
+  private int finishedTasksPerCycle = 10;
+
+  private long seed = 1;
+
+  private JsonNode singularity;
+
+  private Optional<String> reportFile = Optional.absent();
+
+  public int getNumSlaves() {
+    return numSlaves;
+  }
+
+  public void setNumSlaves(int numSlaves) {
+    this.numSlaves = numSlaves;
+  }
+
+  public int getNumRacks() {
+    return numRacks;
+  }
+
+  public void setNumRacks(int numRacks) {
+    this.numRacks = numRacks;
+  }
+
+  public double getCpusPerSlave() {
+    return cpusPerSlave;
+  }
+
+  public void setCpusPerSlave(double cpusPerSlave) {
+    this.cpusPerSlave = cpusPerSlave;
+  }
+
+  public double getMemoryMbPerSlave() {
+    return memoryMbPerSlave;
+  }
+
+  public void setMemoryMbPerSlave(double memoryMbPerSlave) {
+    this.memoryMbPerSlave = memoryMbPerSlave;
+  }
+
+  public int getNumRequests() {
+    return numRequests;
+  }
+
+  public void setNumRequests(int numRequests) {
+    this.numRequests = numRequests;
+  }
+
+  public int getNumActiveTasks() {
+    return numActiveTasks;
+  }
+
+  public void setNumActiveTasks(int numActiveTasks) {
+    this.numActiveTasks = numActiveTasks;
+  }
+
+  public double getCpusPerTask() {
+    return cpusPerTask;
+  }
+
+  public void setCpusPerTask(double cpusPerTask) {
+    this.cpusPerTask = cpusPerTask;
+  }
+
+  public double getMemoryMbPerTask() {
+    return memoryMbPerTask;
+  }
+
+  public void setMemoryMbPerTask(double memoryMbPerTask) {
+    this.memoryMbPerTask = memoryMbPerTask;
+  }
+
+  public int getWarmupCycles() {
+    return warmupCycles;
+  }
+
+  public void setWarmupCycles(int warmupCycles) {
+    this.warmupCycles = warmupCycles;
+  }
+
+  public int getOfferCycles() {
+    return offerCycles;
+  }
+
+  public void setOfferCycles(int offerCycles) {
+    this.offerCycles = offerCycles;
+  }
+
+  public double getOfferCyclesPerSecond() {
+    return offerCyclesPerSecond;
+  }
+
+  public void setOfferCyclesPerSecond(double offerCyclesPerSecond) {
+    this.offerCyclesPerSecond = offerCyclesPerSecond;
+  }
+
+  public int getOffersPerCycle() {
+    return offersPerCycle;
+  }
+
+  public void setOffersPerCycle(int offersPerCycle) {
+    this.offersPerCycle = offersPerCycle;
+  }
+
+  public int getFinishedTasksPerCycle() {
+    return finishedTasksPerCycle;
+  }
+
+  public void setFinishedTasksPerCycle(int finishedTasksPerCycle) {
+    this.finishedTasksPerCycle = finishedTasksPerCycle;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+  public JsonNode getSingularity() {
+    return singularity;
+  }
+
+  public void setSingularity(JsonNode singularity) {
+    this.singularity = singularity;
+  }
+
+  public Optional<String> getReportFile() {
+    return reportFile;
+  }
+
+  public void setReportFile(Optional<String> reportFile) {
+    this.reportFile = reportFile;
+  }
+
+}
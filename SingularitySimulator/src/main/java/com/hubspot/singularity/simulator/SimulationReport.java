@@ -0,0 +1,133 @@
+package com.hubspot.singularity.simulator;
+
+import java.util.Map;
+
+public class SimulationReport {
+
+  private final int numSlaves;
+  private final int numRacks;
+  private final int numRequests;
+  private final int activeTasksAfterWarmup;
+  private final int warmupCycles;
+  private final int offerCycles;
+  private final long durationMillis;
+  private final Map<String, Double> cycleLatencyMillis;
+  private final Map<String, Map<String, Double>> phaseLatencyMillis;
+  private final long offersMade;
+  private final long offersDeclined;
+  private final long tasksLaunched;
+  private final double tasksLaunchedPerSecond;
+  private final long tasksFinished;
+  private final long tasksKilled;
+  private final long statusUpdates;
+  private final long zkReads;
+  private final long zkWrites;
+  private final long zkBytesRead;
+  private final long zkBytesWritten;
+
+  public SimulationReport(int numSlaves, int numRacks, int numRequests, int activeTasksAfterWarmup, int warmupCycles, int offerCycles, long durationMillis,
+      Map<String, Double> cycleLatencyMillis, Map<String, Map<String, Double>> phaseLatencyMillis, long offersMade, long offersDeclined, long tasksLaunched,
+      double tasksLaunchedPerSecond, long tasksFinished, long tasksKilled, long statusUpdates, long zkReads, long zkWrites, long zkBytesRead, long zkBytesWritten) {
+    this.numSlaves = numSlaves;
+    this.numRacks = numRacks;
+    this.numRequests = numRequests;
+    this.activeTasksAfterWarmup = activeTasksAfterWarmup;
+    this.warmupCycles = warmupCycles;
+    this.offerCycles = offerCycles;
+    this.durationMillis = durationMillis;
+    this.cycleLatencyMillis = cycleLatencyMillis;
+    this.phaseLatencyMillis = phaseLatencyMillis;
+    this.offersMade = offersMade;
+    this.offersDeclined = offersDeclined;
+    this.tasksLaunched = tasksLaunched;
+    this.tasksLaunchedPerSecond = tasksLaunchedPerSecond;
+    this.tasksFinished = tasksFinished;
+    this.tasksKilled = tasksKilled;
+    this.statusUpdates = statusUpdates;
+    this.zkReads = zkReads;
+    this.zkWrites = zkWrites;
+    this.zkBytesRead = zkBytesRead;
+    this.zkBytesWritten = zkBytesWritten;
+  }
+
+  public int getNumSlaves() {
+    return numSlaves;
+  }
+
+  public int getNumRacks() {
+    return numRacks;
+  }
+
+  public int getNumRequests() {
+    return numRequests;
+  }
+
+  public int getActiveTasksAfterWarmup() {
+    return activeTasksAfterWarmup;
+  }
+
+  public int getWarmupCycles() {
+    return warmupCycles;
+  }
+
+  public int getOfferCycles() {
+    return offerCycles;
+  }
+
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+
+  public Map<String, Double> getCycleLatencyMillis() {
+    return cycleLatencyMillis;
+  }
+
+  public Map<String, Map<String, Double>> getPhaseLatencyMillis() {
+    return phaseLatencyMillis;
+  }
+
+  public long getOffersMade() {
+    return offersMade;
+  }
+
+  public long getOffersDeclined() {
+    return offersDeclined;
+  }
+
+  public long getTasksLaunched() {
+    return tasksLaunched;
+  }
+
+  public double getTasksLaunchedPerSecond() {
+    return tasksLaunchedPerSecond;
+  }
+
+  public long getTasksFinished() {
+    return tasksFinished;
+  }
+
+  public long getTasksKilled() {
+    return tasksKilled;
+  }
+
+  public long getStatusUpdates() {
+    return statusUpdates;
+  }
+
+  public long getZkReads() {
+    return zkReads;
+  }
+
+  public long getZkWrites() {
+    return zkWrites;
+  }
+
+  public long getZkBytesRead() {
+    return zkBytesRead;
+  }
+
+  public long getZkBytesWritten() {
+    return zkBytesWritten;
+  }
+
+}
@@ -0,0 +1,279 @@
+package com.hubspot.singularity.simulator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.inject.Inject;
+import com.hubspot.mesos.JavaUtils;
+import com.hubspot.mesos.Resources;
+import com.hubspot.singularity.DeployState;
+import com.hubspot.singularity.RequestType;
+import com.hubspot.singularity.SingularityDeploy;
+import com.hubspot.singularity.SingularityDeployBuilder;
+import com.hubspot.singularity.SingularityDeployMarker;
+import com.hubspot.singularity.SingularityDeployResult;
+import com.hubspot.singularity.SingularityPendingRequest;
+import com.hubspot.singularity.SingularityPendingRequest.PendingType;
+import com.hubspot.singularity.SingularityRequest;
+import com.hubspot.singularity.SingularityRequestBuilder;
+import com.hubspot.singularity.SingularityRequestDeployState;
+import com.hubspot.singularity.SingularityRequestHistory.RequestHistoryType;
+import com.hubspot.singularity.data.DeployManager;
+import com.hubspot.singularity.data.RequestManager;
+import com.hubspot.singularity.data.SingularityLeaderCacheCoordinator;
+import com.hubspot.singularity.data.zkmigrations.ZkDataMigrationRunner;
+import com.hubspot.singularity.mesos.SingularityMesosScheduler;
+import com.hubspot.singularity.mesos.SingularitySchedulerLock;
+import com.hubspot.singularity.mesos.SingularityStatusUpdateQueue;
+import com.hubspot.singularity.scheduler.SingularitySchedulerPriority;
+
+/**
+ * Drives {@link SingularityMesosScheduler} through a synthetic workload: creates the requests, runs warmup cycles until the requested
+ * number of tasks are active, then runs the measured offer cycles (finishing some tasks, delivering status updates and offering the free
+ * resources of the cluster on each) and reports how they performed.
+ */
+public class SingularitySimulation {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SingularitySimulation.class);
+
+  private static final String DEPLOY_ID = "simulated";
+
+  private static final double[] PERCENTILES = { 0.5, 0.75, 0.95, 0.99 };
+
+  private final SimulationConfiguration configuration;
+  private final SimulatedCluster cluster;
+  private final SimulatedSchedulerDriver driver;
+  private final SingularityMesosScheduler scheduler;
+  private final SingularitySchedulerLock lock;
+  private final SingularityStatusUpdateQueue statusUpdateQueue;
+  private final RequestManager requestManager;
+  private final DeployManager deployManager;
+  private final SingularityLeaderCacheCoordinator leaderCacheCoordinator;
+  private final SingularitySchedulerPriority schedulerPriority;
+  private final ZkDataMigrationRunner migrationRunner;
+  private final MetricRegistry registry;
+
+  private long statusUpdates;
+
+  @Inject
+  public SingularitySimulation(SimulationConfiguration configuration, SimulatedCluster cluster, SimulatedSchedulerDriver driver, SingularityMesosScheduler scheduler,
+      SingularitySchedulerLock lock, SingularityStatusUpdateQueue statusUpdateQueue, RequestManager requestManager, DeployManager deployManager,
+      SingularityLeaderCacheCoordinator leaderCacheCoordinator, SingularitySchedulerPriority schedulerPriority, ZkDataMigrationRunner migrationRunner, MetricRegistry registry) {
+    this.configuration = configuration;
+    this.cluster = cluster;
+    this.driver = driver;
+    this.scheduler = scheduler;
+    this.lock = lock;
+    this.statusUpdateQueue = statusUpdateQueue;
+    this.requestManager = requestManager;
+    this.deployManager = deployManager;
+    this.leaderCacheCoordinator = leaderCacheCoordinator;
+    this.schedulerPriority = schedulerPriority;
+    this.migrationRunner = migrationRunner;
+    this.registry = registry;
+  }
+
+  public SimulationReport run() {
+    migrationRunner.checkMigrations();
+    leaderCacheCoordinator.activateLeaderCache();
+    schedulerPriority.loadMostRecentTaskStarts();
+
+    createRequests();
+
+    final long warmupStart = System.currentTimeMillis();
+    int warmupCycles = 0;
+
+    while (warmupCycles < configuration.getWarmupCycles() && cluster.getNumRunningTasks() < configuration.getNumActiveTasks()) {
+      deliverStatusUpdates(cluster.drainStatusUpdates());
+      offer(cluster.makeOffers());
+      warmupCycles++;
+    }
+
+    deliverStatusUpdates(cluster.drainStatusUpdates());
+
+    final int activeTasksAfterWarmup = cluster.getNumRunningTasks();
+
+    LOG.info("Warmed up to {} active tasks in {} cycles ({})", activeTasksAfterWarmup, warmupCycles, JavaUtils.duration(warmupStart));
+
+    if (activeTasksAfterWarmup < configuration.getNumActiveTasks()) {
+      LOG.warn("Only {} of {} tasks are active after warmup, the cluster may be too small for them", activeTasksAfterWarmup, configuration.getNumActiveTasks());
+    }
+
+    final long offersMadeBefore = cluster.getOffersMade();
+    final long offersDeclinedBefore = cluster.getOffersDeclined();
+    final long tasksLaunchedBefore = cluster.getTasksLaunched();
+    final long tasksFinishedBefore = cluster.getTasksFinished();
+    final long tasksKilledBefore = cluster.getTasksKilled();
+    final long statusUpdatesBefore = statusUpdates;
+    final ZkCounts zkCountsBefore = new ZkCounts(registry);
+
+    final Optional<RateLimiter> rateLimiter = configuration.getOfferCyclesPerSecond() > 0 ? Optional.of(RateLimiter.create(configuration.getOfferCyclesPerSecond()))
+        : Optional.<RateLimiter> absent();
+
+    final long[] cycleLatencyNanos = new long[configuration.getOfferCycles()];
+    final long start = System.currentTimeMillis();
+
+    for (int cycle = 0; cycle < configuration.getOfferCycles(); cycle++) {
+      if (rateLimiter.isPresent()) {
+        rateLimiter.get().acquire();
+      }
+
+      deliverStatusUpdates(cluster.drainStatusUpdates());
+      deliverStatusUpdates(cluster.finishRandomTasks(configuration.getFinishedTasksPerCycle()));
+
+      cycleLatencyNanos[cycle] = offer(cluster.makeOffers());
+    }
+
+    final long durationMillis = System.currentTimeMillis() - start;
+    final ZkCounts zkCounts = new ZkCounts(registry);
+    final long tasksLaunched = cluster.getTasksLaunched() - tasksLaunchedBefore;
+
+    LOG.info("Ran {} offer cycles in {}", configuration.getOfferCycles(), JavaUtils.durationFromMillis(durationMillis));
+
+    return new SimulationReport(configuration.getNumSlaves(), configuration.getNumRacks(), configuration.getNumRequests(), activeTasksAfterWarmup, warmupCycles,
+        configuration.getOfferCycles(), durationMillis, getPercentiles(cycleLatencyNanos), getPhaseLatencies(), cluster.getOffersMade() - offersMadeBefore,
+        cluster.getOffersDeclined() - offersDeclinedBefore, tasksLaunched, durationMillis > 0 ? tasksLaunched * 1000.0 / durationMillis : 0,
+        cluster.getTasksFinished() - tasksFinishedBefore, cluster.getTasksKilled() - tasksKilledBefore, statusUpdates - statusUpdatesBefore,
+        zkCounts.reads - zkCountsBefore.reads, zkCounts.writes - zkCountsBefore.writes, zkCounts.bytesRead - zkCountsBefore.bytesRead,
+        zkCounts.bytesWritten - zkCountsBefore.bytesWritten);
+  }
+
+  private void createRequests() {
+    final long now = System.currentTimeMillis();
+    final int numRequests = Math.max(1, configuration.getNumRequests());
+
+    for (int i = 0; i < numRequests; i++) {
+      final int instances = configuration.getNumActiveTasks() / numRequests + (i < configuration.getNumActiveTasks() % numRequests ? 1 : 0);
+
+      if (instances == 0) {
+        continue;
+      }
+
+      final String requestId = "simulated-request-" + i;
+
+      final SingularityRequest request = new SingularityRequestBuilder(requestId, RequestType.WORKER)
+          .setInstances(Optional.of(instances))
+          .build();
+
+      requestManager.activate(request, RequestHistoryType.CREATED, now, Optional.<String> absent(), Optional.<String> absent());
+
+      final SingularityDeploy deploy = new SingularityDeployBuilder(requestId, DEPLOY_ID)
+          .setCommand(Optional.of("sleep infinity"))
+          .setResources(Optional.of(new Resources(configuration.getCpusPerTask(), configuration.getMemoryMbPerTask(), 0)))
+          .build();
+
+      final SingularityDeployMarker marker = new SingularityDeployMarker(requestId, DEPLOY_ID, now, Optional.<String> absent(), Optional.<String> absent());
+
+      deployManager.saveDeploy(request, marker, deploy);
+      deployManager.saveDeployResult(marker, Optional.of(deploy), new SingularityDeployResult(DeployState.SUCCEEDED));
+      deployManager.saveNewRequestDeployState(new SingularityRequestDeployState(requestId, Optional.of(marker), Optional.<SingularityDeployMarker> absent()));
+
+      requestManager.addToPendingQueue(new SingularityPendingRequest(requestId, DEPLOY_ID, now, Optional.<String> absent(), PendingType.UPDATED_REQUEST, Optional.<Boolean> absent(),
+          Optional.<String> absent()));
+    }
+  }
+
+  private void deliverStatusUpdates(List<TaskStatus> statuses) {
+    for (TaskStatus status : statuses) {
+      statusUpdateQueue.enqueue(driver, status);
+      statusUpdates++;
+    }
+  }
+
+  /**
+   * @return how long the offer cycle took, in nanoseconds
+   */
+  private long offer(List<Offer> offers) {
+    final long start = System.nanoTime();
+
+    lock.lock("resourceOffers");
+
+    try {
+      scheduler.resourceOffers(driver, offers);
+    } finally {
+      lock.unlock();
+    }
+
+    return System.nanoTime() - start;
+  }
+
+  private static Map<String, Double> getPercentiles(long[] latencyNanos) {
+    final Map<String, Double> percentiles = Maps.newLinkedHashMap();
+
+    if (latencyNanos.length == 0) {
+      return percentiles;
+    }
+
+    final long[] sorted = Arrays.copyOf(latencyNanos, latencyNanos.length);
+    Arrays.sort(sorted);
+
+    for (double percentile : PERCENTILES) {
+      final int index = Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1);
+      percentiles.put(String.format("p%s", Math.round(percentile * 100)), toMillis(sorted[index]));
+    }
+
+    percentiles.put("max", toMillis(sorted[sorted.length - 1]));
+
+    return percentiles;
+  }
+
+  /**
+   * Phase timers are read from the metric registry, so they cover the warmup cycles as well as the measured ones.
+   */
+  private Map<String, Map<String, Double>> getPhaseLatencies() {
+    final Map<String, Map<String, Double>> phaseLatencies = Maps.newLinkedHashMap();
+
+    for (Map.Entry<String, Timer> entry : registry.getTimers().entrySet()) {
+      if (!entry.getKey().startsWith("offers.phase.")) {
+        continue;
+      }
+
+      final Snapshot snapshot = entry.getValue().getSnapshot();
+
+      phaseLatencies.put(entry.getKey().substring("offers.phase.".length()), ImmutableMap.of("mean", toMillis((long) snapshot.getMean()), "p99",
+          toMillis((long) snapshot.get99thPercentile()), "max", toMillis(snapshot.getMax())));
+    }
+
+    return phaseLatencies;
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static class ZkCounts {
+
+    private final long reads;
+    private final long writes;
+    private final long bytesRead;
+    private final long bytesWritten;
+
+    ZkCounts(MetricRegistry registry) {
+      final SortedMap<String, Timer> timers = registry.getTimers();
+      final SortedMap<String, Meter> meters = registry.getMeters();
+
+      this.reads = timers.containsKey("zk.read") ? timers.get("zk.read").getCount() : 0;
+      this.writes = timers.containsKey("zk.write") ? timers.get("zk.write").getCount() : 0;
+      this.bytesRead = meters.containsKey("zk.bytes.read") ? meters.get("zk.bytes.read").getCount() : 0;
+      this.bytesWritten = meters.containsKey("zk.bytes.write") ? meters.get("zk.bytes.write").getCount() : 0;
+    }
+
+  }
+
+}
@@ -0,0 +1,118 @@
+package com.hubspot.singularity.simulator;
+
+import java.io.File;
+
+import org.apache.curator.test.TestingServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Stage;
+import com.hubspot.jackson.datatype.protobuf.ProtobufModule;
+import com.hubspot.singularity.config.MesosConfiguration;
+import com.hubspot.singularity.config.SMTPConfiguration;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.config.ZooKeeperConfiguration;
+
+import io.dropwizard.jackson.Jackson;
+
+/**
+ * Runs a {@link SingularitySimulation} and prints its {@link SimulationReport} as JSON.
+ *
+ * Usage: java -jar SingularitySimulator-shaded.jar [simulation.yaml]
+ */
+public class SingularitySimulator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SingularitySimulator.class);
+
+  public static void main(String[] args) throws Exception {
+    final ObjectMapper objectMapper = newObjectMapper();
+
+    final SimulationConfiguration simulationConfiguration = args.length > 0
+        ? objectMapper.treeToValue(new ObjectMapper(new YAMLFactory()).readTree(new File(args[0])), SimulationConfiguration.class)
+        : new SimulationConfiguration();
+
+    int exitCode = 0;
+
+    try {
+      final SimulationReport report = simulate(simulationConfiguration, objectMapper);
+
+      final String reportJson = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+
+      System.out.println(reportJson);
+
+      if (simulationConfiguration.getReportFile().isPresent()) {
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(simulationConfiguration.getReportFile().get()), report);
+      }
+    } catch (Throwable t) {
+      LOG.error("Simulation failed", t);
+      exitCode = 1;
+    }
+
+    // curator and the scheduler pools leave non-daemon threads behind
+    System.exit(exitCode);
+  }
+
+  static ObjectMapper newObjectMapper() {
+    return Jackson.newObjectMapper()
+        .setSerializationInclusion(Include.NON_NULL)
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .registerModule(new ProtobufModule());
+  }
+
+  static SimulationReport simulate(SimulationConfiguration simulationConfiguration, ObjectMapper objectMapper) throws Exception {
+    try (TestingServer testingServer = new TestingServer()) {
+      final SingularityConfiguration configuration = getSingularityConfiguration(simulationConfiguration, testingServer, objectMapper);
+      final SingularitySimulatorModule module = new SingularitySimulatorModule(configuration, simulationConfiguration, objectMapper, testingServer);
+      final Injector injector = Guice.createInjector(Stage.PRODUCTION, module.getDropwizardModule(), module);
+
+      module.start();
+
+      try {
+        return injector.getInstance(SingularitySimulation.class).run();
+      } finally {
+        module.stop();
+      }
+    }
+  }
+
+  /**
+   * The same defaults the scheduler tests use, pointed at the in-process ZooKeeper, with any overrides from the singularity section of the
+   * simulation configuration applied on top. Overriding a nested object (mesos, zookeeper, ...) replaces it entirely, except that the
+   * ZooKeeper quorum is always the in-process server.
+   */
+  private static SingularityConfiguration getSingularityConfiguration(SimulationConfiguration simulationConfiguration, TestingServer testingServer,
+      ObjectMapper objectMapper) throws Exception {
+    SingularityConfiguration configuration = new SingularityConfiguration();
+    configuration.setLoadBalancerUri("simulator");
+
+    final MesosConfiguration mesosConfiguration = new MesosConfiguration();
+    mesosConfiguration.setDefaultCpus(1);
+    mesosConfiguration.setDefaultMemory(128);
+    configuration.setMesosConfiguration(mesosConfiguration);
+
+    configuration.setSmtpConfiguration(new SMTPConfiguration());
+    configuration.setConsiderTaskHealthyAfterRunningForSeconds(0);
+
+    if (simulationConfiguration.getSingularity() != null) {
+      configuration = objectMapper.readerForUpdating(configuration).readValue(simulationConfiguration.getSingularity());
+    }
+
+    ZooKeeperConfiguration zooKeeperConfiguration = configuration.getZooKeeperConfiguration();
+
+    if (zooKeeperConfiguration == null) {
+      zooKeeperConfiguration = new ZooKeeperConfiguration();
+    }
+
+    zooKeeperConfiguration.setQuorum(testingServer.getConnectString());
+    configuration.setZooKeeperConfiguration(zooKeeperConfiguration);
+
+    return configuration;
+  }
+
+}
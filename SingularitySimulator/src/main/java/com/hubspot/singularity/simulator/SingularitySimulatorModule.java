@@ -0,0 +1,166 @@
+package com.hubspot.singularity.simulator;
+
+import static com.google.inject.name.Names.named;
+import static com.hubspot.singularity.SingularityMainModule.HTTP_HOST_AND_PORT;
+
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.curator.test.TestingServer;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.net.HostAndPort;
+import com.google.inject.Binder;
+import com.google.inject.Module;
+import com.google.inject.OutOfScopeException;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+import com.google.inject.TypeLiteral;
+import com.google.inject.util.Modules;
+import com.hubspot.dropwizard.guicier.GuiceBundle;
+import com.hubspot.mesos.client.SingularityMesosClientModule;
+import com.hubspot.singularity.SingularityAbort;
+import com.hubspot.singularity.SingularityAuthModule;
+import com.hubspot.singularity.SingularityMainModule;
+import com.hubspot.singularity.config.SentryConfiguration;
+import com.hubspot.singularity.config.SingularityConfiguration;
+import com.hubspot.singularity.data.SingularityDataModule;
+import com.hubspot.singularity.data.history.SingularityHistoryModule;
+import com.hubspot.singularity.data.transcoders.SingularityTranscoderModule;
+import com.hubspot.singularity.data.zkmigrations.SingularityZkMigrationsModule;
+import com.hubspot.singularity.event.SingularityEventModule;
+import com.hubspot.singularity.mesos.SchedulerDriverSupplier;
+import com.hubspot.singularity.mesos.SingularityDriver;
+import com.hubspot.singularity.mesos.SingularityLogSupport;
+import com.hubspot.singularity.mesos.SingularityMesosModule;
+import com.hubspot.singularity.scheduler.SingularitySchedulerModule;
+import com.hubspot.singularity.smtp.NoopMailer;
+import com.hubspot.singularity.smtp.SingularityMailer;
+
+import io.dropwizard.lifecycle.Managed;
+import io.dropwizard.setup.Environment;
+import net.kencochrane.raven.Raven;
+
+/**
+ * Wires the scheduler as the service does, against an in-process ZooKeeper, with the {@link SimulatedSchedulerDriver} in place of Mesos.
+ * Anything which would reach outside the process (the native driver, mail, sandbox log fetching, aborting) is replaced with a stub; sentry
+ * stays off because no sentry configuration is bound.
+ */
+public class SingularitySimulatorModule implements Module {
+
+  private final SingularityConfiguration configuration;
+  private final SimulationConfiguration simulationConfiguration;
+  private final SimulatedCluster cluster;
+  private final SimulatedSchedulerDriver driver;
+  private final ObjectMapper objectMapper;
+  private final TestingServer testingServer;
+  private final GuiceBundle.DropwizardModule dropwizardModule;
+
+  public SingularitySimulatorModule(SingularityConfiguration configuration, SimulationConfiguration simulationConfiguration, ObjectMapper objectMapper, TestingServer testingServer) {
+    this.configuration = configuration;
+    this.simulationConfiguration = simulationConfiguration;
+    this.cluster = new SimulatedCluster(simulationConfiguration, configuration.getMesosConfiguration().getRackIdAttributeKey());
+    this.driver = new SimulatedSchedulerDriver(cluster);
+    this.objectMapper = objectMapper;
+    this.testingServer = testingServer;
+    this.dropwizardModule = new GuiceBundle.DropwizardModule();
+  }
+
+  public GuiceBundle.DropwizardModule getDropwizardModule() {
+    return dropwizardModule;
+  }
+
+  public void start() throws Exception {
+    for (Managed managed : ImmutableSet.copyOf(dropwizardModule.getManaged())) {
+      managed.start();
+    }
+  }
+
+  public void stop() throws Exception {
+    final Set<Managed> managedObjects = ImmutableSet.copyOf(dropwizardModule.getManaged());
+
+    for (Managed managed : Lists.reverse(Lists.newArrayList(managedObjects))) {
+      managed.stop();
+    }
+  }
+
+  @Override
+  public void configure(Binder mainBinder) {
+    mainBinder.install(new GuiceBundle.GuiceEnforcerModule());
+
+    mainBinder.bind(TestingServer.class).toInstance(testingServer);
+    mainBinder.bind(SingularityConfiguration.class).toInstance(configuration);
+    mainBinder.bind(SimulationConfiguration.class).toInstance(simulationConfiguration);
+    mainBinder.bind(SimulatedCluster.class).toInstance(cluster);
+    mainBinder.bind(SimulatedSchedulerDriver.class).toInstance(driver);
+    mainBinder.bind(SingularitySimulation.class).in(Scopes.SINGLETON);
+
+    mainBinder.install(Modules.override(new SingularityMainModule(configuration))
+        .with(new Module() {
+
+          @Override
+          public void configure(Binder binder) {
+            binder.bind(SingularityMailer.class).toInstance(NoopMailer.getInstance());
+            binder.bind(SingularityAbort.class).to(SimulatedAbort.class).in(Scopes.SINGLETON);
+
+            binder.bind(ObjectMapper.class).toInstance(objectMapper);
+            binder.bind(Environment.class).toInstance(new Environment("singularity-simulator", objectMapper, null, new MetricRegistry(), null));
+
+            binder.bind(HostAndPort.class).annotatedWith(named(HTTP_HOST_AND_PORT)).toInstance(HostAndPort.fromString("localhost:7099"));
+
+            binder.bind(new TypeLiteral<Optional<Raven>>() {}).toInstance(Optional.<Raven> absent());
+            binder.bind(new TypeLiteral<Optional<SentryConfiguration>>() {}).toInstance(Optional.<SentryConfiguration> absent());
+
+            binder.bind(HttpServletRequest.class).toProvider(new Provider<HttpServletRequest>() {
+
+              @Override
+              public HttpServletRequest get() {
+                throw new OutOfScopeException("simulator");
+              }
+
+            });
+
+            binder.bind(HttpServletResponse.class).toProvider(new Provider<HttpServletResponse>() {
+
+              @Override
+              public HttpServletResponse get() {
+                throw new OutOfScopeException("simulator");
+              }
+
+            });
+          }
+
+        }));
+
+    mainBinder.install(Modules.override(new SingularityMesosModule())
+        .with(new Module() {
+
+          @Override
+          public void configure(Binder binder) {
+            binder.bind(SingularityLogSupport.class).to(SimulatedLogSupport.class).in(Scopes.SINGLETON);
+            binder.bind(SingularityDriver.class).to(SimulatedSingularityDriver.class).in(Scopes.SINGLETON);
+
+            final SchedulerDriverSupplier driverSupplier = new SchedulerDriverSupplier();
+            driverSupplier.setSchedulerDriver(driver);
+            binder.bind(SchedulerDriverSupplier.class).toInstance(driverSupplier);
+          }
+
+        }));
+
+    mainBinder.install(new SingularityDataModule());
+    mainBinder.install(new SingularitySchedulerModule());
+    mainBinder.install(new SingularityTranscoderModule());
+    mainBinder.install(new SingularityHistoryModule(configuration));
+    mainBinder.install(new SingularityZkMigrationsModule());
+    mainBinder.install(new SingularityMesosClientModule());
+    mainBinder.install(new SingularityEventModule(configuration));
+    mainBinder.install(new SingularityAuthModule(configuration));
+  }
+
+}
@@ -0,0 +1,80 @@
+package com.hubspot.singularity.simulator;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.mesos.Protos.Filters;
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.Offer.Operation;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskInfo;
+import org.apache.mesos.Protos.TaskState;
+import org.apache.mesos.Protos.TaskStatus;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hubspot.mesos.MesosUtils;
+
+public class SimulatedSchedulerDriverTest {
+
+  private SimulatedCluster cluster;
+  private SimulatedSchedulerDriver driver;
+
+  @Before
+  public void setup() {
+    SimulationConfiguration configuration = new SimulationConfiguration();
+    configuration.setNumSlaves(2);
+    configuration.setNumRacks(1);
+
+    cluster = new SimulatedCluster(configuration, "rackid");
+    driver = new SimulatedSchedulerDriver(cluster);
+  }
+
+  @Test
+  public void testAcceptOffersLaunchesTasks() {
+    List<Offer> offers = cluster.makeOffers();
+    Offer offer = offers.get(0);
+
+    Operation launch = Operation.newBuilder()
+        .setType(Operation.Type.LAUNCH)
+        .setLaunch(Operation.Launch.newBuilder().addTaskInfos(task("task1", offer)))
+        .build();
+
+    driver.acceptOffers(Collections.singletonList(offer.getId()), Collections.singletonList(launch), Filters.getDefaultInstance());
+
+    Assert.assertEquals(1, cluster.getTasksLaunched());
+    Assert.assertEquals(1, cluster.getNumRunningTasks());
+    Assert.assertEquals(0, cluster.getOffersDeclined());
+
+    List<TaskStatus> statuses = cluster.drainStatusUpdates();
+    Assert.assertEquals(1, statuses.size());
+    Assert.assertEquals(TaskState.TASK_RUNNING, statuses.get(0).getState());
+
+    // the accepted offer was used up, so its slave is offered again for what it has left
+    List<Offer> nextOffers = cluster.makeOffers();
+    Assert.assertEquals(1, nextOffers.size());
+    Assert.assertEquals(offer.getSlaveId(), nextOffers.get(0).getSlaveId());
+  }
+
+  @Test
+  public void testAcceptOffersWithoutLaunchesDeclines() {
+    Offer offer = cluster.makeOffers().get(0);
+
+    driver.acceptOffers(Collections.singletonList(offer.getId()), Collections.<Operation> emptyList(), Filters.getDefaultInstance());
+
+    Assert.assertEquals(0, cluster.getTasksLaunched());
+    Assert.assertEquals(1, cluster.getOffersDeclined());
+  }
+
+  private TaskInfo task(String taskId, Offer offer) {
+    return TaskInfo.newBuilder()
+        .setName(taskId)
+        .setTaskId(TaskID.newBuilder().setValue(taskId))
+        .setSlaveId(offer.getSlaveId())
+        .addResources(MesosUtils.getCpuResource(1))
+        .addResources(MesosUtils.getMemoryResource(512))
+        .build();
+  }
+
+}
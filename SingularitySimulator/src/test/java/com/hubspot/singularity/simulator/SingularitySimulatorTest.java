@@ -0,0 +1,27 @@
+package com.hubspot.singularity.simulator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SingularitySimulatorTest {
+
+  @Test
+  public void testSmallSimulationRunsAllTasks() throws Exception {
+    SimulationConfiguration configuration = new SimulationConfiguration();
+    configuration.setNumSlaves(4);
+    configuration.setNumRacks(2);
+    configuration.setNumRequests(2);
+    configuration.setNumActiveTasks(6);
+    configuration.setWarmupCycles(20);
+    configuration.setOfferCycles(5);
+    configuration.setFinishedTasksPerCycle(1);
+
+    SimulationReport report = SingularitySimulator.simulate(configuration, SingularitySimulator.newObjectMapper());
+
+    Assert.assertEquals(6, report.getActiveTasksAfterWarmup());
+    Assert.assertEquals(5, report.getOfferCycles());
+    Assert.assertTrue(report.getTasksLaunched() > 0);
+    Assert.assertTrue(report.getZkWrites() > 0);
+  }
+
+}